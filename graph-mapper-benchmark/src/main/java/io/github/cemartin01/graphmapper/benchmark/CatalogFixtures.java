@@ -0,0 +1,179 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark;
+
+import static io.github.cemartin01.graphmapper.benchmark.model.CatalogNodeLabel.*;
+
+import java.util.UUID;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.benchmark.model.dto.*;
+import io.github.cemartin01.graphmapper.benchmark.model.entity.*;
+import io.github.cemartin01.graphmapper.classtree.ClassNode;
+import io.github.cemartin01.graphmapper.exception.GraphMapperInitializationException;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.UnproxyFunction;
+
+/**
+ * Context, mapping graph and source data shared by benchmarks
+ */
+public final class CatalogFixtures {
+
+   private CatalogFixtures() {
+   }
+
+   public static GraphMapperContext context() {
+      return context(object -> object);
+   }
+
+   public static GraphMapperContext context(UnproxyFunction unproxyFunction) {
+      try {
+         GraphMapperContext ctx = new GraphMapperContext(unproxyFunction);
+
+         ctx.defineInterface(Product.class, ProductEntity.class,
+                  ClassNode.of(DishDTO.class, DishEntity.class),
+                  ClassNode.of(DrinkDTO.class, DrinkEntity.class)
+         );
+
+         ctx.addMapper(e -> {
+            CatalogEntity source = (CatalogEntity) e;
+            CatalogDTO target = new CatalogDTO();
+            target.setId(source.getId());
+            target.setName(source.getName());
+            return target;
+         }, CatalogDTO.class);
+         ctx.addMapper(e -> {
+            SectionEntity source = (SectionEntity) e;
+            SectionDTO target = new SectionDTO();
+            target.setId(source.getId());
+            target.setName(source.getName());
+            return target;
+         }, SectionDTO.class);
+         ctx.addMapper(e -> {
+            ItemEntity source = (ItemEntity) e;
+            ItemDTO target = new ItemDTO();
+            target.setId(source.getId());
+            target.setPosition(source.getPosition());
+            return target;
+         }, ItemDTO.class);
+         ctx.addMapper(e -> {
+            DishEntity source = (DishEntity) e;
+            DishDTO target = new DishDTO();
+            target.setId(source.getId());
+            target.setName(source.getName());
+            target.setCalories(source.getCalories());
+            return target;
+         }, DishDTO.class);
+         ctx.addMapper(e -> {
+            DrinkEntity source = (DrinkEntity) e;
+            DrinkDTO target = new DrinkDTO();
+            target.setId(source.getId());
+            target.setName(source.getName());
+            target.setVolume(source.getVolume());
+            return target;
+         }, DrinkDTO.class);
+         ctx.addMapper(e -> {
+            SupplierEntity source = (SupplierEntity) e;
+            SupplierDTO target = new SupplierDTO();
+            target.setId(source.getId());
+            target.setName(source.getName());
+            return target;
+         }, SupplierDTO.class);
+
+         ctx.addMapping(CatalogDTO.class, CatalogEntity.class)
+                  .bind(SUPPLIER)
+                  .bindList(SECTIONS);
+         ctx.addMapping(SectionDTO.class, SectionEntity.class)
+                  .bindList(ITEMS);
+         ctx.addMapping(ItemDTO.class, ItemEntity.class)
+                  .bind(PRODUCT);
+         ctx.addMapping(DishDTO.class, DishEntity.class)
+                  .bind(SUPPLIER);
+         ctx.addMapping(DrinkDTO.class, DrinkEntity.class)
+                  .bind(SUPPLIER);
+
+         return ctx;
+      } catch (GraphMapperInitializationException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   public static MappingGraph<Void> mappingGraph() {
+      return MappingGraph.of(
+               Node.<Void>builder()
+                        .child(Node.of(SUPPLIER))
+                        .child(Node.<Void>builder()
+                                 .label(SECTIONS)
+                                 .child(Node.<Void>builder()
+                                          .label(ITEMS)
+                                          .child(Node.<Void>builder()
+                                                   .label(PRODUCT)
+                                                   .child(Node.of(SUPPLIER))
+                                                   .build())
+                                          .build())
+                                 .build())
+                        .build()
+      );
+   }
+
+   public static CatalogEntity catalog(int sections, int itemsPerSection) {
+      return catalog(sections, itemsPerSection, 0);
+   }
+
+   /**
+    * @param latencyMillis latency of lazy loading getters of the catalog and its items, 0 for plain entities
+    */
+   public static CatalogEntity catalog(int sections, int itemsPerSection, long latencyMillis) {
+      SupplierEntity supplier = new SupplierEntity();
+      supplier.setId(UUID.randomUUID());
+      supplier.setName("supplier");
+
+      CatalogEntity catalog = latencyMillis == 0 ? new CatalogEntity() : new LazyCatalogEntity(latencyMillis);
+      catalog.setId(UUID.randomUUID());
+      catalog.setName("catalog");
+      catalog.setSupplier(supplier);
+      for (int s = 0; s < sections; s++) {
+         SectionEntity section = new SectionEntity();
+         section.setId(UUID.randomUUID());
+         section.setName("section " + s);
+         for (int i = 0; i < itemsPerSection; i++) {
+            ProductEntity product;
+            if (i % 2 == 0) {
+               DishEntity dish = new DishEntity();
+               dish.setCalories(500 + i);
+               product = dish;
+            } else {
+               DrinkEntity drink = new DrinkEntity();
+               drink.setVolume(330);
+               product = drink;
+            }
+            product.setId(UUID.randomUUID());
+            product.setName("product " + i);
+            product.setSupplier(supplier);
+
+            ItemEntity item = latencyMillis == 0 ? new ItemEntity() : new LazyItemEntity(latencyMillis);
+            item.setId(UUID.randomUUID());
+            item.setPosition(i);
+            item.setProduct(product);
+            section.getItems().add(item);
+         }
+         catalog.getSections().add(section);
+      }
+      return catalog;
+   }
+
+}
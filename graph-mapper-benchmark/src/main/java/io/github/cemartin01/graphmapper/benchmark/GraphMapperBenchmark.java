@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.cemartin01.graphmapper.benchmark.model.dto.CatalogDTO;
+import io.github.cemartin01.graphmapper.benchmark.model.entity.CatalogEntity;
+import io.github.cemartin01.graphmapper.mapper.GraphMapper;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperFactory;
+import io.github.cemartin01.graphmapper.mapper.PlanForm;
+
+/**
+ * Compares backends of a graph mapper on a catalog with a class hierarchy of products
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphMapperBenchmark {
+
+   @Param({ "INTERPRETED", "FLAT", "COMPILED" })
+   public String backend;
+
+   @Param({ "10" })
+   public int sections;
+
+   @Param({ "50" })
+   public int itemsPerSection;
+
+   private GraphMapper<CatalogDTO> mapper;
+
+   private CatalogEntity catalog;
+
+   @Setup
+   public void setUp() {
+      GraphMapperFactory.GraphMapperFactoryBuilder builder = GraphMapperFactory.builder()
+               .context(CatalogFixtures.context());
+      if ("FLAT".equals(backend)) {
+         builder.planForm(PlanForm.FLAT);
+      } else if ("COMPILED".equals(backend)) {
+         builder.compileThreshold(0);
+      }
+      mapper = builder.build().getGraphMapper(CatalogFixtures.mappingGraph(), CatalogDTO.class);
+      catalog = CatalogFixtures.catalog(sections, itemsPerSection);
+   }
+
+   @Benchmark
+   public CatalogDTO map() {
+      return mapper.map(catalog);
+   }
+
+}
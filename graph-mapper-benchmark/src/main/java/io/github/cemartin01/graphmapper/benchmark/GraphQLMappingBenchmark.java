@@ -0,0 +1,119 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphql.execution.MergedField;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.OperationDefinition;
+import graphql.parser.Parser;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.graphql.GraphQLMapping;
+import io.github.cemartin01.graphmapper.graphql.GraphQLMappingFactory;
+
+/**
+ * Measures building of GraphQL mapping graphs of wide and deep selection sets. Every labeled field is selected
+ * twice, directly and by a fragment, so the builder merges duplicates at every level. Run with {@code -prof gc}
+ * to compare allocation per build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQLMappingBenchmark {
+
+   @Param({ "WIDE", "DEEP" })
+   public String shape;
+
+   private GraphQLMappingFactory factory;
+
+   private DataFetchingEnvironment env;
+
+   @Setup
+   public void setUp() {
+      int labelCount = "WIDE".equals(shape) ? 40 : 12;
+      List<NodeLabel> labels = new ArrayList<>();
+      for (int i = 0; i < labelCount; i++) {
+         String name = "f" + i;
+         labels.add(() -> name);
+      }
+      factory = new GraphQLMappingFactory(labels, null);
+
+      String query = "WIDE".equals(shape) ? wideQuery(labelCount) : deepQuery(labelCount);
+      Document document = Parser.parse(query);
+      OperationDefinition operation = document.getDefinitionsOfType(OperationDefinition.class).get(0);
+      Field rootField = (Field) operation.getSelectionSet().getSelections().get(0);
+      Map<String, FragmentDefinition> fragments = document.getDefinitionsOfType(FragmentDefinition.class).stream()
+               .collect(Collectors.toMap(FragmentDefinition::getName, fragment -> fragment));
+      env = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+               .mergedField(MergedField.newMergedField(rootField).build())
+               .fragmentsByName(fragments)
+               .build();
+   }
+
+   /**
+    * Root selects labeled fields f0..fn with scalar fields, a fragment selects all of them again with another scalar
+    */
+   private static String wideQuery(int labelCount) {
+      StringBuilder direct = new StringBuilder();
+      StringBuilder fragment = new StringBuilder();
+      for (int i = 0; i < labelCount; i++) {
+         direct.append(" f").append(i).append(" { id name code price }");
+         fragment.append(" f").append(i).append(" { id description }");
+      }
+      return "query { catalog {" + direct + " ...more } } fragment more on Catalog {" + fragment + " }";
+   }
+
+   /**
+    * Labeled fields nested f0 { f1 { ... } }, every level selects its child again by an inline fragment
+    */
+   private static String deepQuery(int labelCount) {
+      String selection = "id name";
+      for (int i = labelCount - 1; i >= 0; i--) {
+         selection = "id name f" + i + " { " + selection + " } ... on Level { code f" + i + " { code } }";
+      }
+      return "query { catalog { " + selection + " } }";
+   }
+
+   @Benchmark
+   public GraphQLMapping getMapping() {
+      return factory.getMapping(env);
+   }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphql.Scalars;
+import graphql.language.Document;
+import graphql.language.FragmentDefinition;
+import graphql.normalized.NormalizedField;
+import graphql.normalized.NormalizedQueryTree;
+import graphql.normalized.NormalizedQueryTreeFactory;
+import graphql.parser.Parser;
+import graphql.schema.Coercing;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import graphql.schema.DataFetchingFieldSelectionSetImpl;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLScalarType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeRuntimeWiring;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.graphql.GraphQLMapping;
+import io.github.cemartin01.graphmapper.graphql.GraphQLMappingFactory;
+
+/**
+ * Compares building of GraphQL mapping graphs of fields of the document with building of normalized selection sets
+ * on the queries of the GraphQL module tests. The selection set is collected again per invocation, the normalized
+ * query tree is shared like it is shared by data fetchers of one execution, unless it's measured too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphQLSelectionSetBenchmark {
+
+   @Param({ "findMeal_simple", "findMeal_inlineFragment", "findMeal_fragmentSpread", "findMeal_criteria",
+            "findMeal_directives" })
+   public String query;
+
+   private GraphQLMappingFactory factory;
+
+   private GraphQLSchema schema;
+
+   private Document document;
+
+   private Map<String, Object> variables;
+
+   private NormalizedField normalizedField;
+
+   private DataFetchingEnvironment documentEnv;
+
+   @Setup
+   public void setUp() throws IOException {
+      List<NodeLabel> labels = Arrays.asList(() -> "meal", () -> "recipe", () -> "variants");
+      factory = new GraphQLMappingFactory(labels, null);
+      schema = loadSchema();
+      document = Parser.parse(load(query + ".graphql"));
+      variables = Collections.singletonMap("withRecipe", true);
+      NormalizedQueryTree tree = normalize();
+      normalizedField = tree.getTopLevelFields().get(0);
+      Map<String, FragmentDefinition> fragments = document.getDefinitionsOfType(FragmentDefinition.class).stream()
+               .collect(Collectors.toMap(FragmentDefinition::getName, fragment -> fragment));
+      documentEnv = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+               .mergedField(tree.getMergedField(normalizedField))
+               .fragmentsByName(fragments)
+               .variables(variables)
+               .build();
+   }
+
+   @Benchmark
+   public GraphQLMapping document() {
+      return factory.getMapping(documentEnv);
+   }
+
+   @Benchmark
+   public GraphQLMapping selectionSet() {
+      return factory.getSelectionSetMapping(selectionSetEnv(normalizedField));
+   }
+
+   @Benchmark
+   public GraphQLMapping selectionSetWithNormalization() {
+      return factory.getSelectionSetMapping(selectionSetEnv(normalize().getTopLevelFields().get(0)));
+   }
+
+   private NormalizedQueryTree normalize() {
+      return NormalizedQueryTreeFactory.createNormalizedQuery(schema, document, null, variables);
+   }
+
+   private DataFetchingEnvironment selectionSetEnv(NormalizedField field) {
+      return DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+               .mergedField(documentEnv.getMergedField())
+               .fieldType(field.getFieldDefinition().getType())
+               .selectionSet(DataFetchingFieldSelectionSetImpl.newCollector(field.getFieldDefinition().getType(),
+                        () -> field))
+               .build();
+   }
+
+   private static GraphQLSchema loadSchema() throws IOException {
+      RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+               .scalar(Scalars.GraphQLByte)
+               .scalar(GraphQLScalarType.newScalar().name("Code").coercing(new IdentityCoercing()).build())
+               .type(TypeRuntimeWiring.newTypeWiring("Meal")
+                        .typeResolver(env -> (GraphQLObjectType) env.getSchema().getType("Lunch")))
+               .build();
+      return new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(load("catering-schema.graphqls")),
+               wiring);
+   }
+
+   private static String load(String name) throws IOException {
+      try (InputStream stream = GraphQLSelectionSetBenchmark.class.getResourceAsStream("/" + name);
+           Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+         StringBuilder content = new StringBuilder();
+         char[] buffer = new char[4096];
+         for (int read = reader.read(buffer); read >= 0; read = reader.read(buffer)) {
+            content.append(buffer, 0, read);
+         }
+         return content.toString();
+      }
+   }
+
+   private static final class IdentityCoercing implements Coercing<Object, Object> {
+
+      @Override
+      public Object serialize(Object value) {
+         return value;
+      }
+
+      @Override
+      public Object parseValue(Object value) {
+         return value;
+      }
+
+      @Override
+      public Object parseLiteral(Object value) {
+         return value;
+      }
+
+   }
+
+}
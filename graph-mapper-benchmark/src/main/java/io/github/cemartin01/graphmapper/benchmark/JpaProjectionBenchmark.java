@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.cemartin01.graphmapper.benchmark.model.dto.CatalogDTO;
+import io.github.cemartin01.graphmapper.benchmark.model.entity.CatalogEntity;
+import io.github.cemartin01.graphmapper.benchmark.model.entity.ItemEntity;
+import io.github.cemartin01.graphmapper.benchmark.model.entity.SectionEntity;
+import io.github.cemartin01.graphmapper.jpa.FetchPlan;
+import io.github.cemartin01.graphmapper.jpa.FetchPlanner;
+import io.github.cemartin01.graphmapper.jpa.ProjectionPlan;
+import io.github.cemartin01.graphmapper.jpa.ProjectionPlanner;
+import io.github.cemartin01.graphmapper.mapper.GraphMapper;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperFactory;
+
+/**
+ * Compares mapping of catalogs loaded from an embedded H2 database as entities by a fetch plan
+ * with mapping of the same catalogs loaded by a projection plan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JpaProjectionBenchmark {
+
+   @Param({ "ENTITIES", "PROJECTION" })
+   public String loading;
+
+   @Param({ "20" })
+   public int catalogs;
+
+   @Param({ "4" })
+   public int sections;
+
+   @Param({ "25" })
+   public int itemsPerSection;
+
+   private EntityManagerFactory emf;
+
+   private GraphMapper<CatalogDTO> mapper;
+
+   private FetchPlan fetchPlan;
+
+   private ProjectionPlan projectionPlan;
+
+   @Setup
+   public void setUp() {
+      emf = Persistence.createEntityManagerFactory("catalog");
+      EntityManager em = emf.createEntityManager();
+      em.getTransaction().begin();
+      for (int i = 0; i < catalogs; i++) {
+         CatalogEntity catalog = CatalogFixtures.catalog(sections, itemsPerSection);
+         em.persist(catalog.getSupplier());
+         for (SectionEntity section: catalog.getSections()) {
+            for (ItemEntity item: section.getItems()) {
+               em.persist(item.getProduct());
+               em.persist(item);
+            }
+            em.persist(section);
+         }
+         em.persist(catalog);
+      }
+      em.getTransaction().commit();
+      em.close();
+
+      GraphMapperContext ctx = CatalogFixtures.context(Hibernate::unproxy);
+      mapper = new GraphMapperFactory(ctx).getGraphMapper(CatalogFixtures.mappingGraph(), CatalogDTO.class);
+      fetchPlan = new FetchPlanner(ctx, emf.getMetamodel()).plan(CatalogFixtures.mappingGraph(), CatalogDTO.class);
+      projectionPlan = new ProjectionPlanner(ctx, emf.getMetamodel()).plan(CatalogFixtures.mappingGraph(), CatalogDTO.class);
+   }
+
+   @TearDown
+   public void tearDown() {
+      emf.close();
+   }
+
+   @Benchmark
+   public List<CatalogDTO> query() {
+      EntityManager em = emf.createEntityManager();
+      try {
+         if ("PROJECTION".equals(loading)) {
+            return projectionPlan.createQuery(em, "c").getResultList(mapper);
+         }
+         return mapper.mapAll(fetchPlan.getResultList(em,
+                  em.createQuery("select c from CatalogEntity c", CatalogEntity.class)));
+      } finally {
+         em.close();
+      }
+   }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.cemartin01.graphmapper.benchmark.model.dto.CatalogDTO;
+import io.github.cemartin01.graphmapper.benchmark.model.entity.CatalogEntity;
+import io.github.cemartin01.graphmapper.mapper.GraphMapper;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperFactory;
+
+/**
+ * Compares latency of sequential mapping and mapping on virtual threads of a catalog whose getters simulate
+ * database round trips. Virtual threads are used only if the benchmark runs on Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+   @Param({ "SEQUENTIAL", "VIRTUAL_THREADS" })
+   public String execution;
+
+   @Param({ "4" })
+   public int sections;
+
+   @Param({ "25" })
+   public int itemsPerSection;
+
+   @Param({ "1" })
+   public long latencyMillis;
+
+   private GraphMapper<CatalogDTO> mapper;
+
+   private CatalogEntity catalog;
+
+   @Setup
+   public void setUp() {
+      GraphMapperContext ctx = CatalogFixtures.context();
+      ctx.declareThreadSafe();
+      mapper = GraphMapperFactory.builder()
+               .context(ctx)
+               .virtualThreads("VIRTUAL_THREADS".equals(execution))
+               .build()
+               .getGraphMapper(CatalogFixtures.mappingGraph(), CatalogDTO.class);
+      catalog = CatalogFixtures.catalog(sections, itemsPerSection, latencyMillis);
+   }
+
+   @Benchmark
+   public CatalogDTO map() {
+      return mapper.map(catalog);
+   }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.benchmark.model;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+public enum CatalogNodeLabel implements NodeLabel {
+
+   SUPPLIER("supplier"),
+   SECTIONS("sections"),
+   ITEMS("items"),
+   PRODUCT("product");
+
+   private final String name;
+
+   CatalogNodeLabel(String name) {
+      this.name = name;
+   }
+
+   @Override
+   public String getName() {
+      return name;
+   }
+
+}
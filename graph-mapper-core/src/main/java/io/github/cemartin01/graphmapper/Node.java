@@ -20,7 +20,11 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Singular;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A node that describes a reference.
@@ -30,6 +34,11 @@ import java.util.List;
  * Every node must be labeled by an implementation of {@link io.github.cemartin01.graphmapper.NodeLabel}.
  * It's typed to determine which class is used to model metadata. In cases when metadata are not needed, it's
  * possible to use Void for null values.
+ *
+ * A node may be restricted by type conditions, i.e. names of types, see
+ * {@link io.github.cemartin01.graphmapper.mapper.GraphMapperContext#defineTypeName}. Such a node is mapped only
+ * for sources of a class that is, or extends, every named class of the hierarchy. Names of types outside
+ * of the hierarchy don't restrict the node.
  */
 @Getter
 public class Node<T> {
@@ -40,19 +49,77 @@ public class Node<T> {
 
    private final T metadata;
 
+   //empty if the node is unconditional
+   private final List<String> typeConditions;
+
    @Builder
-   private Node(NodeLabel label, @Singular("child") List<Node<T>> children, T metadata) {
+   private Node(NodeLabel label, @Singular("child") List<Node<T>> children, T metadata,
+                @Singular("typeCondition") List<String> typeConditions) {
       this.label = label == null ? RootNodeLabel.ROOT : label;
       this.children = ImmutableList.copyOf(children);
       this.metadata = metadata;
+      this.typeConditions = ImmutableList.copyOf(typeConditions);
    }
 
    public static <U> Node<U> of(NodeLabel label, U metadata, List<Node<U>> children) {
-      return new Node<>(label, ImmutableList.copyOf(children), metadata);
+      return new Node<>(label, ImmutableList.copyOf(children), metadata, ImmutableList.of());
+   }
+
+   public static <U> Node<U> of(NodeLabel label, U metadata, List<Node<U>> children, List<String> typeConditions) {
+      return new Node<>(label, ImmutableList.copyOf(children), metadata, ImmutableList.copyOf(typeConditions));
    }
 
    public static Node<Void> of(NodeLabel label) {
-      return new Node<>(label, ImmutableList.of(), null);
+      return new Node<>(label, ImmutableList.of(), null, ImmutableList.of());
+   }
+
+   /**
+    * Merges nodes of the same label, e.g. nodes selected under different type conditions, so a reference
+    * is described once. Children are merged recursively by their labels and type conditions.
+    * The merged node is unconditional and keeps metadata of the first node.
+    * @param nodes nodes of the same label
+    * @return the node if there is only one, the merged node otherwise
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public static Node<?> merge(List<? extends Node<?>> nodes) {
+      if (nodes.size() == 1) {
+         return nodes.get(0);
+      }
+      Map<List<Object>, List<Node<?>>> childGroups = new LinkedHashMap<>();
+      for (Node<?> node: nodes) {
+         for (Node<?> child: node.getChildren()) {
+            childGroups.computeIfAbsent(Arrays.asList(child.getLabel(), child.getTypeConditions()),
+                     key -> new ArrayList<>(2)).add(child);
+         }
+      }
+      List<Node> children = new ArrayList<>(childGroups.size());
+      for (List<Node<?>> group: childGroups.values()) {
+         children.add(merge(group));
+      }
+      Node<?> first = nodes.get(0);
+      return Node.of(first.getLabel(), (Object) first.getMetadata(), (List) children);
+   }
+
+   /**
+    * Obtains children of a node with children of the same label merged, see {@link #merge}. It fits consumers
+    * describing references regardless of classes of sources, e.g. fetch plans, which need references selected
+    * under any type condition.
+    * @param node parent node
+    * @return children of the node, merged children in place of the first child of their label
+    */
+   public static List<? extends Node<?>> mergeChildren(Node<?> node) {
+      Map<NodeLabel, List<Node<?>>> groups = new LinkedHashMap<>();
+      for (Node<?> child: node.getChildren()) {
+         groups.computeIfAbsent(child.getLabel(), label -> new ArrayList<>(2)).add(child);
+      }
+      if (groups.size() == node.getChildren().size()) {
+         return node.getChildren();
+      }
+      List<Node<?>> children = new ArrayList<>(groups.size());
+      for (List<Node<?>> group: groups.values()) {
+         children.add(merge(group));
+      }
+      return children;
    }
 
    /**
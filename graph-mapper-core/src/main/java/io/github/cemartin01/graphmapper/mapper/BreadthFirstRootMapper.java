@@ -0,0 +1,227 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Root Mapper that maps the source graph level by level.
+ *
+ * All sources reachable at one level of the mapping graph are collected before any of their references is obtained,
+ * so a {@link PrefetchFunction} can load the references of the whole level at once. Targets are created when their
+ * sources are reached and populated when the next level is mapped, so the result is the same as the result
+ * of the depth-first interpreter.
+ */
+class BreadthFirstRootMapper implements RootMapper {
+
+   private final GraphMapperContext ctx;
+
+   private final PrefetchFunction prefetchFunction;
+
+   //null for a class hierarchy
+   private final Block rootBlock;
+
+   //null for a homogeneous root
+   private final ClassMappingDispatcher rootDispatcher;
+
+   //Blocks of class mappings of class hierarchies
+   private final Map<ClassMapping, Block> blocks = new IdentityHashMap<>();
+
+   BreadthFirstRootMapper(GraphMapperContext ctx, Class<?> targetClass, Map<Class<?>, ClassMapping> classMappings,
+                          PrefetchFunction prefetchFunction) {
+      this.ctx = ctx;
+      this.prefetchFunction = prefetchFunction;
+      if (classMappings.size() == 1) {
+         this.rootBlock = block(ClassMapping.ofRoot(ctx, targetClass, classMappings));
+         this.rootDispatcher = null;
+      } else {
+         this.rootBlock = null;
+         this.rootDispatcher = dispatcher(classMappings);
+      }
+   }
+
+   @Override
+   public Object map(Object source) throws InvocationTargetException, IllegalAccessException {
+      Block block = rootBlock != null ? rootBlock : blocks.get(rootDispatcher.dispatch(source.getClass()));
+      Object target = block.mapper.apply(source);
+      List<Pending> level = Collections.singletonList(new Pending(source, target, block));
+      while (!level.isEmpty()) {
+         prefetch(level);
+         List<Pending> nextLevel = new ArrayList<>();
+         for (Pending parent: level) {
+            for (Step step: parent.block.steps) {
+               Object child = step.getter.apply(parent.source);
+               step.setter.accept(parent.target, step.collection
+                        ? mapCollection(step, (Collection<?>) child, nextLevel)
+                        : mapObject(step, child, nextLevel));
+            }
+         }
+         level = nextLevel;
+      }
+      return target;
+   }
+
+   private void prefetch(List<Pending> level) {
+      Map<NodeLabel, List<Object>> parentsByLabel = new LinkedHashMap<>();
+      for (Pending parent: level) {
+         for (Step step: parent.block.steps) {
+            parentsByLabel.computeIfAbsent(step.label, label -> new ArrayList<>()).add(parent.source);
+         }
+      }
+      for (Map.Entry<NodeLabel, List<Object>> entry: parentsByLabel.entrySet()) {
+         prefetchFunction.prefetch(entry.getKey(), entry.getValue());
+      }
+   }
+
+   private Object mapObject(Step step, Object source, List<Pending> nextLevel) {
+      if (source == null) {
+         return null;
+      }
+      return mapElement(step, ctx.unproxy(source), nextLevel);
+   }
+
+   private List<Object> mapCollection(Step step, Collection<?> sourceCollection, List<Pending> nextLevel) {
+      if (sourceCollection == null) {
+         return null;
+      }
+      List<Object> targetList = new ArrayList<>(sourceCollection.size());
+      for (Object source: sourceCollection) {
+         targetList.add(source == null ? null : mapElement(step, ctx.unproxy(source), nextLevel));
+      }
+      return targetList;
+   }
+
+   private Object mapElement(Step step, Object source, List<Pending> nextLevel) {
+      Block block = step.block != null ? step.block : blocks.get(step.dispatcher.dispatch(source.getClass()));
+      Object target = block.mapper.apply(source);
+      if (block.steps.length != 0) {
+         nextLevel.add(new Pending(source, target, block));
+      }
+      return target;
+   }
+
+   private Block block(ClassMapping classMapping) {
+      Block block = blocks.get(classMapping);
+      if (block != null) {
+         return block;
+      }
+      List<Reference> references = classMapping.getReferences();
+      block = new Block(classMapping.resolveMapper(ctx), new Step[references.size()]);
+      blocks.put(classMapping, block);
+      for (int i = 0; i < references.size(); i++) {
+         block.steps[i] = step(references.get(i));
+      }
+      return block;
+   }
+
+   private ClassMappingDispatcher dispatcher(Map<Class<?>, ClassMapping> classMappings) {
+      for (ClassMapping classMapping: classMappings.values()) {
+         block(classMapping);
+      }
+      return new ClassMappingDispatcher(classMappings);
+   }
+
+   private Step step(Reference reference) {
+      ReferenceTemplate template = reference.getTemplate();
+      if (template == null) {
+         throw new GraphMapperException("Reference " + reference + " does not describe its structure");
+      }
+      NodeMapperTemplate nodeMapperTemplate = template.getNodeMapperTemplate();
+      boolean collection = nodeMapperTemplate.getReferenceType() != NodeMapperTemplate.ReferenceType.OBJECT;
+      if (reference.isHeterogeneous()) {
+         return new Step(template.getNodeLabel(), nodeMapperTemplate.getGetter(), reference.getSetter(), collection,
+                  null, dispatcher(reference.getClassMappings()));
+      }
+      return new Step(template.getNodeLabel(), nodeMapperTemplate.getGetter(), reference.getSetter(), collection,
+               block(reference.getClassMappings().get(RootMapping.class)), null);
+   }
+
+   /**
+    * Mapping function and references of a class mapping
+    */
+   private static final class Block {
+
+      private final Function<Object, Object> mapper;
+
+      private final Step[] steps;
+
+      private Block(Function<Object, Object> mapper, Step[] steps) {
+         this.mapper = mapper;
+         this.steps = steps;
+      }
+
+   }
+
+   private static final class Step {
+
+      private final NodeLabel label;
+
+      private final Function getter;
+
+      private final BiConsumer setter;
+
+      private final boolean collection;
+
+      //null for a class hierarchy
+      private final Block block;
+
+      //null for a homogeneous reference
+      private final ClassMappingDispatcher dispatcher;
+
+      private Step(NodeLabel label, Function getter, BiConsumer setter, boolean collection, Block block,
+                   ClassMappingDispatcher dispatcher) {
+         this.label = label;
+         this.getter = getter;
+         this.setter = setter;
+         this.collection = collection;
+         this.block = block;
+         this.dispatcher = dispatcher;
+      }
+
+   }
+
+   /**
+    * Source whose references are mapped by the next level, together with its target
+    */
+   private static final class Pending {
+
+      private final Object source;
+
+      private final Object target;
+
+      private final Block block;
+
+      private Pending(Object source, Object target, Block block) {
+         this.source = source;
+         this.target = target;
+         this.block = block;
+      }
+
+   }
+
+}
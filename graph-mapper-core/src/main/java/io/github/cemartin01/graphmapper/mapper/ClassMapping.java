@@ -16,6 +16,8 @@
 package io.github.cemartin01.graphmapper.mapper;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -27,4 +29,29 @@ class ClassMapping {
    private final Class<?> targetClass;
    private final List<Reference> references;
 
-}
\ No newline at end of file
+   //Mapping function resolved when the graph mapper is built, null if the context maps the target class
+   private final Function<Object, Object> mapper;
+
+   public ClassMapping(Class<?> targetClass, List<Reference> references) {
+      this(targetClass, references, null);
+   }
+
+   /**
+    * @return the resolved mapping function, or a function resolved by the context if there is none
+    */
+   public Function<Object, Object> resolveMapper(GraphMapperContext ctx) {
+      return mapper != null ? mapper : ctx.resolveMapper(targetClass);
+   }
+
+   /**
+    * Obtains a class mapping of a homogeneous root mapped to the target class of a graph mapper
+    */
+   static ClassMapping ofRoot(GraphMapperContext ctx, Class<?> targetClass, Map<Class<?>, ClassMapping> classMappings) {
+      ClassMapping rootMapping = classMappings.get(RootMapping.class);
+      if (rootMapping.targetClass == targetClass && rootMapping.mapper != null) {
+         return rootMapping;
+      }
+      return new ClassMapping(targetClass, rootMapping.references, ctx.resolveMapper(targetClass));
+   }
+
+}
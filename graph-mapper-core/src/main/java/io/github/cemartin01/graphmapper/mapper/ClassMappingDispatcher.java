@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.util.Map;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Dispatches sources of a class hierarchy to their class mappings.
+ *
+ * A class mapping of a runtime class is resolved once and memoized by a {@link ClassValue}. A runtime class without
+ * its own class mapping, e.g. a bytecode-enhanced entity or a proxy subclass, inherits the class mapping of its
+ * nearest mapped superclass. The last two dispatched classes are kept in an inline cache, so monomorphic
+ * and bimorphic hierarchies are dispatched by a reference comparison.
+ */
+final class ClassMappingDispatcher {
+
+   private final Map<Class<?>, ClassMapping> classMappings;
+
+   private final ClassValue<ClassMapping> resolvedMappings = new ClassValue<ClassMapping>() {
+      @Override
+      protected ClassMapping computeValue(Class<?> type) {
+         for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            ClassMapping classMapping = classMappings.get(current);
+            if (classMapping != null) {
+               return classMapping;
+            }
+         }
+         return null;
+      }
+   };
+
+   //Entries are immutable, so racy updates publish them safely
+   private Entry first;
+   private Entry second;
+
+   ClassMappingDispatcher(Map<Class<?>, ClassMapping> classMappings) {
+      this.classMappings = classMappings;
+   }
+
+   /**
+    * @throws GraphMapperException if neither the class nor its superclasses are mapped
+    */
+   ClassMapping dispatch(Class<?> sourceClass) {
+      Entry entry = first;
+      if (entry != null && entry.sourceClass == sourceClass) {
+         return entry.classMapping;
+      }
+      entry = second;
+      if (entry != null && entry.sourceClass == sourceClass) {
+         return entry.classMapping;
+      }
+      ClassMapping classMapping = resolvedMappings.get(sourceClass);
+      if (classMapping == null) {
+         throw new GraphMapperException("No class mapping found for " + sourceClass);
+      }
+      entry = new Entry(sourceClass, classMapping);
+      if (first == null) {
+         first = entry;
+      } else {
+         second = entry;
+      }
+      return classMapping;
+   }
+
+   private static final class Entry {
+
+      private final Class<?> sourceClass;
+      private final ClassMapping classMapping;
+
+      private Entry(Class<?> sourceClass, ClassMapping classMapping) {
+         this.sourceClass = sourceClass;
+         this.classMapping = classMapping;
+      }
+
+   }
+
+}
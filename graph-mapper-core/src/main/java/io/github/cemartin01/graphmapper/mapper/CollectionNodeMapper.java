@@ -19,26 +19,28 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 
 class CollectionNodeMapper {
 
-   protected List<Object> mapToList(GraphMapperContext ctx, Collection<?> sourceCollection, Class<?> targetClass,
-                                    List<Reference> references) throws InvocationTargetException, IllegalAccessException {
+   protected List<Object> mapToList(GraphMapperContext ctx, Collection<?> sourceCollection, NodeMapper plan,
+                                    Function<Object, Object> mapper, List<Reference> references,
+                                    MappingSession session, ParallelCollectionMapper parallel)
+            throws InvocationTargetException, IllegalAccessException {
       if (sourceCollection == null) {
          return null;
       }
+      if (parallel != null) {
+         return parallel.mapToList(sourceCollection, session,
+                  source -> session.map(ctx.unproxy(source), plan, mapper, references));
+      }
       List<Object> targetList = new ArrayList<>();
       for (Object currentSource: sourceCollection) {
          if (currentSource == null) {
             targetList.add(null);
             continue;
          }
-         Object unwrappedSource = ctx.unproxy(currentSource);
-         Object target = ctx.map(unwrappedSource, targetClass);
-         for (Reference reference: references) {
-            reference.getSetter().accept(target, reference.getNodeMapper().map(unwrappedSource));
-         }
-         targetList.add(target);
+         targetList.add(session.map(ctx.unproxy(currentSource), plan, mapper, references));
       }
       return targetList;
    }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Runtime support of graph mappers compiled by {@link GraphMapperCompiler}, it's not a part of the API.
+ *
+ * Every compiled graph mapper is defined by a class loader of its own, so its class is unloaded together with
+ * the graph mapper. The compiled class belongs to another runtime package than the library, so it implements and calls
+ * only public types. Its constants are handed over to its static initializer by this class.
+ */
+public final class CompiledMapperSupport {
+
+   private CompiledMapperSupport() {
+   }
+
+   /**
+    * Mapping of a source implemented by a compiled class or called by it
+    */
+   public interface Mapping {
+
+      Object map(Object source) throws InvocationTargetException, IllegalAccessException;
+
+   }
+
+   /**
+    * Takes constants of a compiled class, called once by its static initializer
+    * @param compiledClass compiled class
+    * @return the constants
+    * @throws IllegalStateException if the class is not compiled or its constants have been taken
+    */
+   public static Object[] takeConstants(Class<?> compiledClass) {
+      ClassLoader classLoader = compiledClass.getClassLoader();
+      if (!(classLoader instanceof CompiledClassLoader)) {
+         throw new IllegalStateException(compiledClass + " is not a compiled graph mapper");
+      }
+      return ((CompiledClassLoader) classLoader).takeConstants();
+   }
+
+   /**
+    * Defines a compiled class by a new class loader and instantiates it
+    */
+   static Mapping define(String binaryName, byte[] bytecode, Object[] constants) throws ReflectiveOperationException {
+      Class<?> compiledClass = new CompiledClassLoader(constants).define(binaryName, bytecode);
+      return (Mapping) compiledClass.getConstructor().newInstance();
+   }
+
+   private static final class CompiledClassLoader extends ClassLoader {
+
+      private Object[] constants;
+
+      private CompiledClassLoader(Object[] constants) {
+         super(CompiledMapperSupport.class.getClassLoader());
+         this.constants = constants;
+      }
+
+      private Class<?> define(String binaryName, byte[] bytecode) {
+         return defineClass(binaryName, bytecode, 0, bytecode.length);
+      }
+
+      private synchronized Object[] takeConstants() {
+         Object[] taken = constants;
+         if (taken == null) {
+            throw new IllegalStateException("Constants of a compiled graph mapper have been taken");
+         }
+         constants = null;
+         return taken;
+      }
+
+   }
+
+}
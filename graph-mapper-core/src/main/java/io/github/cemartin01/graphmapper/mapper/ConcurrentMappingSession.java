@@ -0,0 +1,128 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mapping session resolving sibling references of a target concurrently by tasks of an executor.
+ *
+ * The first reference is resolved by the current thread, the others are forked. A forked reference not yet started
+ * by the executor is resolved by the thread joining it, so nested forks do not starve a bounded executor.
+ * Targets are always populated by the thread which created them.
+ */
+final class ConcurrentMappingSession extends MappingSession {
+
+   private final Executor executor;
+
+   ConcurrentMappingSession(Executor executor) {
+      super(null);
+      this.executor = executor;
+   }
+
+   @Override
+   void mapReferences(Object source, Object target, List<Reference> references)
+            throws InvocationTargetException, IllegalAccessException {
+      int size = references.size();
+      if (size < 2) {
+         super.mapReferences(source, target, references);
+         return;
+      }
+      ForkedReference[] forks = new ForkedReference[size - 1];
+      for (int i = 1; i < size; i++) {
+         forks[i - 1] = new ForkedReference(references.get(i).getNodeMapper(), source);
+         forks[i - 1].fork();
+      }
+      Reference first = references.get(0);
+      Object firstTarget;
+      try {
+         firstTarget = first.getNodeMapper().map(source, this);
+      } catch (Throwable e) {
+         for (ForkedReference fork: forks) {
+            fork.cancel();
+         }
+         throw e;
+      }
+      first.getSetter().accept(target, firstTarget);
+      for (int i = 1; i < size; i++) {
+         references.get(i).getSetter().accept(target, forks[i - 1].join());
+      }
+   }
+
+   private final class ForkedReference implements Runnable {
+
+      private final NodeMapper nodeMapper;
+
+      private final Object source;
+
+      //set by the thread which resolves the reference
+      private final AtomicBoolean claimed = new AtomicBoolean();
+
+      private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+      private ForkedReference(NodeMapper nodeMapper, Object source) {
+         this.nodeMapper = nodeMapper;
+         this.source = source;
+      }
+
+      private void fork() {
+         try {
+            executor.execute(this);
+         } catch (RejectedExecutionException e) {
+            //resolved by the joining thread
+         }
+      }
+
+      @Override
+      public void run() {
+         if (claimed.compareAndSet(false, true)) {
+            resolve();
+         }
+      }
+
+      private void resolve() {
+         try {
+            result.complete(nodeMapper.map(source, ConcurrentMappingSession.this));
+         } catch (Throwable e) {
+            result.completeExceptionally(e);
+         }
+      }
+
+      private void cancel() {
+         claimed.set(true);
+      }
+
+      private Object join() throws InvocationTargetException, IllegalAccessException {
+         if (claimed.compareAndSet(false, true)) {
+            resolve();
+         }
+         try {
+            return result.join();
+         } catch (CompletionException e) {
+            MappingSession.rethrow(e.getCause());
+            throw e;
+         }
+      }
+
+   }
+
+}
@@ -19,12 +19,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
 import java.util.function.Function;
 
-import lombok.RequiredArgsConstructor;
-
 /**
  * Object Node Mapper for a Class Hierarchy
  */
-@RequiredArgsConstructor
 public class DynamicObjectNodeMapper implements NodeMapper {
 
    private final GraphMapperContext ctx;
@@ -33,19 +30,23 @@ public class DynamicObjectNodeMapper implements NodeMapper {
 
    private final Map<Class<?>, ClassMapping> classMappings;
 
+   private final ClassMappingDispatcher dispatcher;
+
+   public DynamicObjectNodeMapper(GraphMapperContext ctx, Function getter, Map<Class<?>, ClassMapping> classMappings) {
+      this.ctx = ctx;
+      this.getter = getter;
+      this.classMappings = classMappings;
+      this.dispatcher = new ClassMappingDispatcher(classMappings);
+   }
+
    @Override
-   public Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+   public Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException {
       Object currentSource = getter.apply(parentSource);
       if (currentSource == null) {
          return null;
       }
       Object unwrappedSource = ctx.unproxy(currentSource);
-      ClassMapping classMapping = classMappings.get(unwrappedSource.getClass());
-      Object target = ctx.map(unwrappedSource, classMapping.getTargetClass());
-      for (Reference reference: classMapping.getReferences()) {
-         reference.getSetter().accept(target, reference.getNodeMapper().map(unwrappedSource));
-      }
-      return target;
+      return session.map(ctx, unwrappedSource, dispatcher.dispatch(unwrappedSource.getClass()));
    }
 
 }
\ No newline at end of file
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Mapping plan encoded in flat arrays and run by a single loop.
+ *
+ * Every class mapping is encoded as a mapping function and a block of consecutive slots, one slot per reference. A slot holds a getter,
+ * a setter, an opcode and an index of a child block or of a dispatch table of a class hierarchy. Blocks are laid out
+ * in pre-order, so references mapped one after another are stored next to each other.
+ *
+ * The loop keeps an explicit stack of frames. An object frame holds a source, a target and the next slot of its block,
+ * a collection frame holds an iterator of source elements and a list of mapped elements.
+ */
+class FlatRootMapper implements RootMapper {
+
+   static final byte OBJECT = 0;
+   static final byte DYNAMIC_OBJECT = 1;
+   static final byte COLLECTION = 2;
+   static final byte HETEROGENEOUS_COLLECTION = 3;
+
+   //Frame of a collection is marked by a negative block
+   private static final int COLLECTION_FRAME = -1;
+
+   private final GraphMapperContext ctx;
+
+   //Blocks
+   private final Function[] mappers;
+   private final int[] firstSlots;
+   private final int[] slotEnds;
+
+   //Slots
+   private final Function[] getters;
+   private final BiConsumer[] setters;
+   private final byte[] opcodes;
+   private final int[] children;
+
+   //Dispatch tables, source classes and their blocks compared by identity
+   private final Class<?>[][] dispatchClasses;
+   private final int[][] dispatchBlocks;
+
+   //Dispatchers of unmapped subclasses and blocks of their class mappings
+   private final ClassMappingDispatcher[] dispatchers;
+   private final Map<ClassMapping, Integer> blocksByMapping;
+
+   //Block of a homogeneous root or dispatch table of a class hierarchy
+   private final int root;
+   private final boolean rootDispatched;
+
+   private final int maxDepth;
+
+   private FlatRootMapper(GraphMapperContext ctx, Encoder encoder, int root, boolean rootDispatched, int maxDepth) {
+      this.ctx = ctx;
+      this.mappers = encoder.mappers.toArray(new Function[0]);
+      this.firstSlots = toIntArray(encoder.firstSlots);
+      this.slotEnds = toIntArray(encoder.slotEnds);
+      this.getters = encoder.getters.toArray(new Function[0]);
+      this.setters = encoder.setters.toArray(new BiConsumer[0]);
+      this.opcodes = new byte[encoder.opcodes.size()];
+      for (int i = 0; i < opcodes.length; i++) {
+         opcodes[i] = encoder.opcodes.get(i);
+      }
+      this.children = toIntArray(encoder.children);
+      this.dispatchClasses = new Class<?>[encoder.dispatchTables.size()][];
+      this.dispatchBlocks = new int[encoder.dispatchTables.size()][];
+      for (int i = 0; i < dispatchClasses.length; i++) {
+         Map<Class<?>, Integer> dispatchTable = encoder.dispatchTables.get(i);
+         dispatchClasses[i] = dispatchTable.keySet().toArray(new Class<?>[0]);
+         dispatchBlocks[i] = toIntArray(new ArrayList<>(dispatchTable.values()));
+      }
+      this.dispatchers = encoder.dispatchers.toArray(new ClassMappingDispatcher[0]);
+      this.blocksByMapping = encoder.blocks;
+      this.root = root;
+      this.rootDispatched = rootDispatched;
+      this.maxDepth = maxDepth;
+   }
+
+   /**
+    * Encodes class mappings of a graph mapper
+    * @throws GraphMapperException if a reference doesn't describe its structure
+    */
+   static FlatRootMapper encode(GraphMapperContext ctx, Class<?> targetClass, Map<Class<?>, ClassMapping> classMappings) {
+      Encoder encoder = new Encoder(ctx);
+      if (classMappings.size() == 1) {
+         int root = encoder.block(ClassMapping.ofRoot(ctx, targetClass, classMappings));
+         return new FlatRootMapper(ctx, encoder, root, false, encoder.blockDepths.get(root));
+      }
+      int root = encoder.dispatchTable(classMappings);
+      return new FlatRootMapper(ctx, encoder, root, true, encoder.dispatchDepths.get(root));
+   }
+
+   @Override
+   @SuppressWarnings({"unchecked"})
+   public Object map(Object source) throws InvocationTargetException, IllegalAccessException {
+      int[] blocks = new int[maxDepth];
+      int[] cursors = new int[maxDepth];
+      Object[] sources = new Object[maxDepth];
+      Object[] targets = new Object[maxDepth];
+
+      int top = 0;
+      int block = rootDispatched ? dispatch(root, source) : root;
+      blocks[0] = block;
+      cursors[0] = firstSlots[block];
+      sources[0] = source;
+      targets[0] = mappers[block].apply(source);
+
+      while (true) {
+         Object result;
+         if (blocks[top] != COLLECTION_FRAME) {
+            int slot = cursors[top];
+            if (slot < slotEnds[blocks[top]]) {
+               cursors[top] = slot + 1;
+               Object value = getters[slot].apply(sources[top]);
+               if (value == null) {
+                  setters[slot].accept(targets[top], null);
+                  continue;
+               }
+               top++;
+               if (opcodes[slot] < COLLECTION) {
+                  Object unwrappedSource = ctx.unproxy(value);
+                  block = opcodes[slot] == OBJECT ? children[slot] : dispatch(children[slot], unwrappedSource);
+                  blocks[top] = block;
+                  cursors[top] = firstSlots[block];
+                  sources[top] = unwrappedSource;
+                  targets[top] = mappers[block].apply(unwrappedSource);
+               } else {
+                  Collection<?> collection = (Collection<?>) value;
+                  blocks[top] = COLLECTION_FRAME;
+                  cursors[top] = slot;
+                  sources[top] = collection.iterator();
+                  targets[top] = new ArrayList<>(collection.size());
+               }
+               continue;
+            }
+            result = targets[top];
+         } else {
+            Iterator<?> iterator = (Iterator<?>) sources[top];
+            if (iterator.hasNext()) {
+               Object element = iterator.next();
+               if (element == null) {
+                  ((List<Object>) targets[top]).add(null);
+                  continue;
+               }
+               int slot = cursors[top];
+               Object unwrappedSource = ctx.unproxy(element);
+               block = opcodes[slot] == COLLECTION ? children[slot] : dispatch(children[slot], unwrappedSource);
+               top++;
+               blocks[top] = block;
+               cursors[top] = firstSlots[block];
+               sources[top] = unwrappedSource;
+               targets[top] = mappers[block].apply(unwrappedSource);
+               continue;
+            }
+            result = targets[top];
+         }
+
+         if (top == 0) {
+            return result;
+         }
+         top--;
+         if (blocks[top] != COLLECTION_FRAME) {
+            setters[cursors[top] - 1].accept(targets[top], result);
+         } else {
+            ((List<Object>) targets[top]).add(result);
+         }
+      }
+   }
+
+   private int dispatch(int dispatchTable, Object source) {
+      Class<?> sourceClass = source.getClass();
+      Class<?>[] classes = dispatchClasses[dispatchTable];
+      for (int i = 0; i < classes.length; i++) {
+         if (classes[i] == sourceClass) {
+            return dispatchBlocks[dispatchTable][i];
+         }
+      }
+      return blocksByMapping.get(dispatchers[dispatchTable].dispatch(sourceClass));
+   }
+
+   private static int[] toIntArray(List<Integer> list) {
+      int[] array = new int[list.size()];
+      for (int i = 0; i < array.length; i++) {
+         array[i] = list.get(i);
+      }
+      return array;
+   }
+
+   /**
+    * Encodes class mappings in pre-order, class mappings and class hierarchies shared by references
+    * are encoded only once
+    */
+   private static class Encoder {
+
+      private final GraphMapperContext ctx;
+
+      private final List<Function> mappers = new ArrayList<>();
+      private final List<Integer> firstSlots = new ArrayList<>();
+      private final List<Integer> slotEnds = new ArrayList<>();
+      private final List<Integer> blockDepths = new ArrayList<>();
+
+      private final List<Function> getters = new ArrayList<>();
+      private final List<BiConsumer> setters = new ArrayList<>();
+      private final List<Byte> opcodes = new ArrayList<>();
+      private final List<Integer> children = new ArrayList<>();
+
+      private final List<Map<Class<?>, Integer>> dispatchTables = new ArrayList<>();
+      private final List<Integer> dispatchDepths = new ArrayList<>();
+      private final List<ClassMappingDispatcher> dispatchers = new ArrayList<>();
+
+      private final Map<ClassMapping, Integer> blocks = new IdentityHashMap<>();
+      private final Map<Map<Class<?>, ClassMapping>, Integer> tables = new IdentityHashMap<>();
+
+      private Encoder(GraphMapperContext ctx) {
+         this.ctx = ctx;
+      }
+
+      private int block(ClassMapping mapping) {
+         Integer encoded = blocks.get(mapping);
+         if (encoded != null) {
+            return encoded;
+         }
+         int block = mappers.size();
+         blocks.put(mapping, block);
+         mappers.add(mapping.resolveMapper(ctx));
+         blockDepths.add(1);
+
+         //slots of a block are reserved first, so they stay consecutive
+         int firstSlot = getters.size();
+         List<Reference> references = mapping.getReferences();
+         firstSlots.add(firstSlot);
+         slotEnds.add(firstSlot + references.size());
+         for (int i = 0; i < references.size(); i++) {
+            getters.add(null);
+            setters.add(null);
+            opcodes.add(null);
+            children.add(null);
+         }
+
+         int depth = 1;
+         for (int i = 0; i < references.size(); i++) {
+            depth = Math.max(depth, 1 + slot(firstSlot + i, references.get(i)));
+         }
+         blockDepths.set(block, depth);
+         return block;
+      }
+
+      /**
+       * @return depth of frames needed by the slot
+       */
+      private int slot(int slot, Reference reference) {
+         ReferenceTemplate template = reference.getTemplate();
+         if (template == null) {
+            throw new GraphMapperException("Reference " + reference + " does not describe its structure");
+         }
+         NodeMapperTemplate nodeMapperTemplate = template.getNodeMapperTemplate();
+         boolean collection = nodeMapperTemplate.getReferenceType() != NodeMapperTemplate.ReferenceType.OBJECT;
+
+         getters.set(slot, nodeMapperTemplate.getGetter());
+         setters.set(slot, reference.getSetter());
+
+         int child;
+         int depth;
+         if (reference.isHeterogeneous()) {
+            opcodes.set(slot, collection ? HETEROGENEOUS_COLLECTION : DYNAMIC_OBJECT);
+            child = dispatchTable(reference.getClassMappings());
+            depth = dispatchDepths.get(child);
+         } else {
+            opcodes.set(slot, collection ? COLLECTION : OBJECT);
+            child = block(reference.getClassMappings().get(RootMapping.class));
+            depth = blockDepths.get(child);
+         }
+         children.set(slot, child);
+         return collection ? depth + 1 : depth;
+      }
+
+      private int dispatchTable(Map<Class<?>, ClassMapping> classMappings) {
+         Integer encoded = tables.get(classMappings);
+         if (encoded != null) {
+            return encoded;
+         }
+         int table = dispatchTables.size();
+         tables.put(classMappings, table);
+         Map<Class<?>, Integer> dispatchTable = new LinkedHashMap<>();
+         dispatchTables.add(dispatchTable);
+         dispatchDepths.add(1);
+         dispatchers.add(new ClassMappingDispatcher(classMappings));
+
+         int depth = 1;
+         for (Map.Entry<Class<?>, ClassMapping> entry: classMappings.entrySet()) {
+            int block = block(entry.getValue());
+            dispatchTable.put(entry.getKey(), block);
+            depth = Math.max(depth, blockDepths.get(block));
+         }
+         dispatchDepths.set(table, depth);
+         return table;
+      }
+
+   }
+
+}
@@ -16,15 +16,24 @@
 package io.github.cemartin01.graphmapper.mapper;
 
 import io.github.cemartin01.graphmapper.exception.GraphMapperException;
-import lombok.AllArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * GraphMapper is a component built for a specific mapping use case.
  * It's stateless and thread-safe.
  */
-@AllArgsConstructor
 public class GraphMapper<T> {
 
    private final GraphMapperContext ctx;
@@ -33,6 +42,40 @@ public class GraphMapper<T> {
 
    private final Map<Class<?>, ClassMapping> classMappings;
 
+   private final RootMapper rootMapper;
+
+   //Maps sources within a mapping session, which the other backends do not support
+   private final InterpretedRootMapper interpreter;
+
+   //Session of invocations which do not preserve identity of sources
+   private final MappingSession session;
+
+   public GraphMapper(GraphMapperContext ctx, Class<T> targetClass, Map<Class<?>, ClassMapping> classMappings) {
+      this(ctx, targetClass, classMappings, new InterpretedRootMapper(ctx, targetClass, classMappings));
+   }
+
+   GraphMapper(GraphMapperContext ctx, Class<T> targetClass, Map<Class<?>, ClassMapping> classMappings,
+               RootMapper rootMapper) {
+      this(ctx, targetClass, classMappings, rootMapper, null);
+   }
+
+   /**
+    * @param referenceExecutor executor resolving sibling references concurrently, null resolves them sequentially
+    */
+   GraphMapper(GraphMapperContext ctx, Class<T> targetClass, Map<Class<?>, ClassMapping> classMappings,
+               RootMapper rootMapper, Executor referenceExecutor) {
+      this.ctx = ctx;
+      this.targetClass = targetClass;
+      this.classMappings = classMappings;
+      this.rootMapper = rootMapper;
+      this.interpreter = rootMapper instanceof InterpretedRootMapper
+               ? (InterpretedRootMapper) rootMapper
+               : new InterpretedRootMapper(ctx, targetClass, classMappings);
+      this.session = referenceExecutor == null
+               ? MappingSession.STATELESS
+               : new ConcurrentMappingSession(referenceExecutor);
+   }
+
    /**
     * Maps given source to given target class or any of target subclasses.
     * @param source source to be mapped
@@ -42,23 +85,236 @@ public class GraphMapper<T> {
    @SuppressWarnings({"unchecked"})
    public T map(Object source) {
       try {
-         if (classMappings.size() == 1) {
-            Object target = ctx.map(source, targetClass);
-            for (Reference node: classMappings.get(RootMapping.class).getReferences()) {
-               node.getSetter().accept(target, node.getNodeMapper().map(source));
+         return (T) (session == MappingSession.STATELESS ? rootMapper.map(source) : interpreter.map(source, session));
+      } catch (Throwable e) {
+         throw new GraphMapperException("Mapping failed for instance of " + source.getClass(), e);
+      }
+   }
+
+   /**
+    * Maps given source to given target class or any of target subclasses.
+    * @param source source to be mapped
+    * @param identityPolicy whether sources shared within the source graph are mapped to shared targets
+    * @throws GraphMapperException if mapping fails
+    * @return new Instance of target class.
+    */
+   @SuppressWarnings({"unchecked"})
+   public T map(Object source, IdentityPolicy identityPolicy) {
+      if (identityPolicy == IdentityPolicy.NONE) {
+         return map(source);
+      }
+      try {
+         return (T) interpreter.map(source, MappingSession.of(identityPolicy));
+      } catch (Throwable e) {
+         throw new GraphMapperException("Mapping failed for instance of " + source.getClass(), e);
+      }
+   }
+
+   /**
+    * Maps given source by tasks of an executor, sibling references of every mapped object are resolved concurrently,
+    * so the latency of references waiting for I/O approaches the slowest of them.
+    * The context must be declared thread-safe by {@link GraphMapperContext#declareThreadSafe()}.
+    * @param source source to be mapped
+    * @param executor executor of mapping tasks
+    * @throws IllegalStateException if the context is not declared thread-safe
+    * @return future of a new instance of target class, completed exceptionally by GraphMapperException
+    *         if mapping fails
+    */
+   @SuppressWarnings({"unchecked"})
+   public CompletableFuture<T> mapAsync(Object source, Executor executor) {
+      if (!ctx.isThreadSafe()) {
+         throw new IllegalStateException("Asynchronous mapping requires a context declared thread-safe");
+      }
+      MappingSession session = new ConcurrentMappingSession(executor);
+      return CompletableFuture.supplyAsync(() -> {
+         try {
+            return (T) interpreter.map(source, session);
+         } catch (Throwable e) {
+            throw new GraphMapperException("Mapping failed for instance of " + source.getClass(), e);
+         }
+      }, executor);
+   }
+
+   /**
+    * Maps given sources in their iteration order, null sources are mapped to null.
+    * @param sources sources to be mapped
+    * @throws GraphMapperException if mapping of any source fails, the message contains its index
+    * @return list of new instances of target class
+    */
+   public List<T> mapAll(Collection<?> sources) {
+      return mapAll(sources, IdentityPolicy.NONE);
+   }
+
+   /**
+    * Maps given sources in their iteration order, null sources are mapped to null.
+    * @param sources sources to be mapped
+    * @param identityPolicy whether sources shared within the source graphs are mapped to shared targets
+    * @throws GraphMapperException if mapping of any source fails, the message contains its index
+    * @return list of new instances of target class
+    */
+   public List<T> mapAll(Collection<?> sources, IdentityPolicy identityPolicy) {
+      List<T> targets = new ArrayList<>(sources.size());
+      mapAll(sources, targets::add, identityPolicy);
+      return targets;
+   }
+
+   /**
+    * Maps given sources in their iteration order and passes the targets to a consumer,
+    * null sources are mapped to null.
+    * @param sources sources to be mapped
+    * @param consumer consumer of the targets
+    * @throws GraphMapperException if mapping of any source fails, the message contains its index
+    */
+   public void mapAll(Iterable<?> sources, Consumer<? super T> consumer) {
+      mapAll(sources, consumer, IdentityPolicy.NONE);
+   }
+
+   /**
+    * Maps given sources in their iteration order and passes the targets to a consumer,
+    * null sources are mapped to null.
+    * @param sources sources to be mapped
+    * @param consumer consumer of the targets
+    * @param identityPolicy whether sources shared within the source graphs are mapped to shared targets
+    * @throws GraphMapperException if mapping of any source fails, the message contains its index
+    */
+   public void mapAll(Iterable<?> sources, Consumer<? super T> consumer, IdentityPolicy identityPolicy) {
+      Batch batch = new Batch(identityPolicy);
+      for (Object source: sources) {
+         consumer.accept(batch.map(source));
+      }
+   }
+
+   /**
+    * Lazily maps sources of an iterator, a source is fetched only when its target is requested.
+    * @param sources sources to be mapped, null sources are mapped to null
+    * @throws GraphMapperException on fetching a target if mapping of its source fails, the message contains its index
+    * @return iterator of new instances of target class
+    */
+   public Iterator<T> mapIterator(Iterator<?> sources) {
+      return mapIterator(sources, Integer.MAX_VALUE, () -> { });
+   }
+
+   /**
+    * Lazily maps sources of an iterator, a source is fetched only when its target is requested.
+    * @param sources sources to be mapped, null sources are mapped to null
+    * @param chunkSize number of sources in a chunk
+    * @param chunkCallback called after each mapped chunk of sources, including the last incomplete chunk once
+    *                      the sources are exhausted, e.g. to clear a persistence context
+    * @throws GraphMapperException on fetching a target if mapping of its source fails, the message contains its index
+    * @return iterator of new instances of target class
+    */
+   public Iterator<T> mapIterator(Iterator<?> sources, int chunkSize, Runnable chunkCallback) {
+      if (chunkSize < 1) {
+         throw new IllegalArgumentException("Chunk size must be positive");
+      }
+      Batch batch = new Batch(IdentityPolicy.NONE);
+      return new Iterator<T>() {
+
+         //whether the callback of the last incomplete chunk has run
+         private boolean completed;
+
+         @Override
+         public boolean hasNext() {
+            if (sources.hasNext()) {
+               return true;
             }
-            return (T) target;
-         } else {
-            ClassMapping mapping = classMappings.get(source.getClass());
-            Object target = ctx.map(source, mapping.getTargetClass());
-            for (Reference node: mapping.getReferences()) {
-               node.getSetter().accept(target, node.getNodeMapper().map(source));
+            if (!completed) {
+               completed = true;
+               if (batch.index % chunkSize != 0) {
+                  chunkCallback.run();
+               }
             }
-            return (T) target;
+            return false;
+         }
+
+         @Override
+         public T next() {
+            T target = batch.map(sources.next());
+            if (batch.index % chunkSize == 0) {
+               chunkCallback.run();
+            }
+            return target;
+         }
+
+      };
+   }
+
+   /**
+    * Lazily maps a sequential stream of sources, closing the returned stream closes the stream of sources.
+    * @param sources sources to be mapped, null sources are mapped to null
+    * @throws GraphMapperException on consuming a target if mapping of its source fails, the message contains its index
+    * @return stream of new instances of target class
+    */
+   public Stream<T> mapStream(Stream<?> sources) {
+      return mapStream(sources, Integer.MAX_VALUE, () -> { });
+   }
+
+   /**
+    * Lazily maps a sequential stream of sources, closing the returned stream closes the stream of sources.
+    * @param sources sources to be mapped, null sources are mapped to null
+    * @param chunkSize number of sources in a chunk
+    * @param chunkCallback called after each mapped chunk of sources, including the last incomplete chunk once
+    *                      the sources are exhausted, e.g. to clear a persistence context
+    * @throws GraphMapperException on consuming a target if mapping of its source fails, the message contains its index
+    * @return stream of new instances of target class
+    */
+   public Stream<T> mapStream(Stream<?> sources, int chunkSize, Runnable chunkCallback) {
+      Iterator<T> targets = mapIterator(sources.iterator(), chunkSize, chunkCallback);
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(targets, Spliterator.ORDERED), false)
+               .onClose(sources::close);
+   }
+
+   /**
+    * State of a batch invocation, sources are mapped one by one in a single thread
+    */
+   private final class Batch {
+
+      //the interpreter resolves a class mapping once for each run of sources of the same class
+      private final boolean interpreted;
+
+      private final IdentityPolicy identityPolicy;
+
+      private final MappingSession batchSession;
+
+      private Class<?> runClass;
+
+      private ClassMapping runMapping;
+
+      //number of sources passed to the batch
+      private long index;
+
+      private Batch(IdentityPolicy identityPolicy) {
+         this.interpreted = rootMapper == interpreter || identityPolicy != IdentityPolicy.NONE;
+         this.identityPolicy = identityPolicy;
+         this.batchSession = identityPolicy == IdentityPolicy.PER_BATCH
+                  ? MappingSession.of(identityPolicy)
+                  : session;
+      }
+
+      @SuppressWarnings({"unchecked"})
+      private T map(Object source) {
+         long current = index++;
+         if (source == null) {
+            return null;
+         }
+         try {
+            if (!interpreted) {
+               return (T) rootMapper.map(source);
+            }
+            if (source.getClass() != runClass) {
+               runClass = source.getClass();
+               runMapping = interpreter.getClassMapping(runClass);
+            }
+            MappingSession session = identityPolicy == IdentityPolicy.PER_INVOCATION
+                     ? MappingSession.of(identityPolicy)
+                     : batchSession;
+            return (T) interpreter.map(source, runMapping, session);
+         } catch (Throwable e) {
+            throw new GraphMapperException("Mapping failed for element " + current + ", instance of "
+                     + source.getClass(), e);
          }
-      } catch (Throwable e) {
-         throw new GraphMapperException("Mapping failed for instance of " + source.getClass(), e);
       }
+
    }
 
-}
\ No newline at end of file
+}
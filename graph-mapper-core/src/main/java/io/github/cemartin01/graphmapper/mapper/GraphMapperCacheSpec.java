@@ -0,0 +1,55 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Specification of a cache of graph mappers built by {@link GraphMapperFactory}.
+ *
+ * Graph mappers are cached by the structure of a mapping graph (labels and shape of nodes) and the root target class,
+ * so structurally equal mapping graphs share one instance of graph mapper.
+ */
+@Getter
+@Builder
+public class GraphMapperCacheSpec {
+
+   /**
+    * Maximum number of cached graph mappers. Least recently used graph mappers are evicted first.
+    */
+   @Builder.Default
+   private final long maximumSize = 1000;
+
+   /**
+    * Graph mappers that have not been requested for the duration are evicted, null means no expiration.
+    */
+   private final Duration expireAfterAccess;
+
+   /**
+    * Graph mappers are evicted after the duration since they have been built, null means no expiration.
+    */
+   private final Duration expireAfterWrite;
+
+   /**
+    * Enables collecting of {@link GraphMapperCacheStats}
+    */
+   @Builder.Default
+   private final boolean recordStats = true;
+
+}
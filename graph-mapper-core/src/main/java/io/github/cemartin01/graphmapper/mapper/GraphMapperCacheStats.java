@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of statistics of a graph mapper cache.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class GraphMapperCacheStats {
+
+   private final long hitCount;
+
+   private final long missCount;
+
+   /**
+    * Number of successfully built graph mappers
+    */
+   private final long buildCount;
+
+   private final long buildFailureCount;
+
+   /**
+    * Total time spent by building graph mappers in nanoseconds
+    */
+   private final long totalBuildTime;
+
+   private final long evictionCount;
+
+   public double getHitRate() {
+      long requestCount = hitCount + missCount;
+      return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+   }
+
+   /**
+    * @return average time of building a graph mapper in nanoseconds
+    */
+   public double getAverageBuildTime() {
+      long count = buildCount + buildFailureCount;
+      return count == 0 ? 0.0 : (double) totalBuildTime / count;
+   }
+
+}
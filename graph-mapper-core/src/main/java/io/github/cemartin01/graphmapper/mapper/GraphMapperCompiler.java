@@ -0,0 +1,412 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Compiles a tree of class mappings into a generated class, one class per graph mapper.
+ *
+ * Every class mapping is compiled into a static method that calls getters and setters of its references one after
+ * another, collections are iterated by generated loops and class hierarchies are dispatched by a chain of class
+ * comparisons. Getters, setters and mapping functions are held by static final fields of the generated class, so the JIT
+ * compiler treats them as constants and every call site is private to the compiled graph mapper.
+ *
+ * Every generated class is defined by a class loader of its own, see {@link CompiledMapperSupport}, so it's unloaded
+ * once its graph mapper is unreachable, e.g. evicted from the cache of graph mappers.
+ */
+final class GraphMapperCompiler {
+
+   private static final String PACKAGE = "io/github/cemartin01/graphmapper/mapper/";
+
+   private static final AtomicLong CLASS_COUNTER = new AtomicLong();
+
+   private static final String OBJECT = "java/lang/Object";
+   private static final String OBJECT_TO_OBJECT = "(Ljava/lang/Object;)Ljava/lang/Object;";
+   private static final String COLLECTION_TO_OBJECT = "(Ljava/util/Collection;)Ljava/lang/Object;";
+   private static final String CONTEXT = Type.getInternalName(GraphMapperContext.class);
+   private static final String SUPPORT = Type.getInternalName(CompiledMapperSupport.class);
+   private static final String MAPPING = Type.getInternalName(CompiledMapperSupport.Mapping.class);
+
+   private final GraphMapperContext ctx;
+
+   private final String className;
+
+   private final ClassWriter classWriter = new PlanClassWriter();
+
+   private final List<Object> constants = new ArrayList<>();
+
+   private final List<Class<?>> constantTypes = new ArrayList<>();
+
+   private final Map<Object, String> constantFields = new IdentityHashMap<>();
+
+   private final Map<Object, String> methods = new IdentityHashMap<>();
+
+   private final Deque<Runnable> pendingMethods = new ArrayDeque<>();
+
+   private final String contextField;
+
+   private GraphMapperCompiler(GraphMapperContext ctx) {
+      this.ctx = ctx;
+      this.className = PACKAGE + "CompiledRootMapper$$" + CLASS_COUNTER.incrementAndGet();
+      this.contextField = constant(ctx, GraphMapperContext.class);
+   }
+
+   /**
+    * Compiles class mappings of a graph mapper
+    * @throws GraphMapperException if the class mappings can't be compiled
+    */
+   static RootMapper compile(GraphMapperContext ctx, Class<?> targetClass, Map<Class<?>, ClassMapping> classMappings) {
+      try {
+         return new GraphMapperCompiler(ctx).compileRoot(targetClass, classMappings);
+      } catch (GraphMapperException e) {
+         throw e;
+      } catch (RuntimeException e) {
+         throw new GraphMapperException("Compilation of graph mapper for " + targetClass + " failed", e);
+      }
+   }
+
+   private RootMapper compileRoot(Class<?> targetClass, Map<Class<?>, ClassMapping> classMappings) {
+      classWriter.visit(V11, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, className, null, OBJECT,
+               new String[] { MAPPING });
+
+      MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+      mv.visitCode();
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+      mv.visitInsn(RETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+
+      mv = classWriter.visitMethod(ACC_PUBLIC, "map", OBJECT_TO_OBJECT, null, null);
+      mv.visitCode();
+      mv.visitVarInsn(ALOAD, 1);
+      if (classMappings.size() == 1) {
+         invokeStatic(mv, mappingMethod(ClassMapping.ofRoot(ctx, targetClass, classMappings)), OBJECT_TO_OBJECT);
+      } else {
+         invokeStatic(mv, dispatchMethod(classMappings), OBJECT_TO_OBJECT);
+      }
+      mv.visitInsn(ARETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+
+      while (!pendingMethods.isEmpty()) {
+         pendingMethods.poll().run();
+      }
+
+      generateStaticInitializer();
+      classWriter.visitEnd();
+
+      return define(classWriter.toByteArray());
+   }
+
+   private RootMapper define(byte[] bytecode) {
+      String binaryName = className.replace('/', '.');
+      try {
+         return new CompiledRootMapper(CompiledMapperSupport.define(binaryName, bytecode, constants.toArray()));
+      } catch (ReflectiveOperationException | LinkageError e) {
+         throw new GraphMapperException("Definition of compiled graph mapper " + binaryName + " failed", e);
+      }
+   }
+
+   private String mappingMethod(ClassMapping mapping) {
+      return method(mapping, "mapping", () -> generateMappingMethod(mapping));
+   }
+
+   private String dispatchMethod(Map<Class<?>, ClassMapping> classMappings) {
+      return method(classMappings, "dispatch", () -> generateDispatchMethod(classMappings));
+   }
+
+   private String collectionMethod(Reference reference) {
+      return method(reference, "collection", () -> generateCollectionMethod(reference));
+   }
+
+   private String method(Object key, String prefix, Runnable generator) {
+      String name = methods.get(key);
+      if (name == null) {
+         name = prefix + "$" + methods.size();
+         methods.put(key, name);
+         pendingMethods.add(generator);
+      }
+      return name;
+   }
+
+   /**
+    * target = mapper.apply(source);
+    * setter.accept(target, value == null ? null : child(value)) for every reference
+    */
+   private void generateMappingMethod(ClassMapping mapping) {
+      MethodVisitor mv = classWriter.visitMethod(ACC_PRIVATE | ACC_STATIC, mappingMethod(mapping), OBJECT_TO_OBJECT,
+               null, null);
+      mv.visitCode();
+      getConstant(mv, constant(mapping.resolveMapper(ctx), Function.class), Function.class);
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitMethodInsn(INVOKEINTERFACE, "java/util/function/Function", "apply", OBJECT_TO_OBJECT, true);
+      mv.visitVarInsn(ASTORE, 1);
+      for (Reference reference: mapping.getReferences()) {
+         ReferenceTemplate template = requireTemplate(reference);
+         getConstant(mv, constant(template.getNodeMapperTemplate().getGetter(), Function.class),
+                  Function.class);
+         mv.visitVarInsn(ALOAD, 0);
+         mv.visitMethodInsn(INVOKEINTERFACE, "java/util/function/Function", "apply", OBJECT_TO_OBJECT, true);
+         mv.visitVarInsn(ASTORE, 2);
+
+         getConstant(mv, constant(reference.getSetter(), BiConsumer.class),
+                  BiConsumer.class);
+         mv.visitVarInsn(ALOAD, 1);
+         Label nonNull = new Label();
+         Label set = new Label();
+         mv.visitVarInsn(ALOAD, 2);
+         mv.visitJumpInsn(IFNONNULL, nonNull);
+         mv.visitInsn(ACONST_NULL);
+         mv.visitJumpInsn(GOTO, set);
+         mv.visitLabel(nonNull);
+         generateChild(mv, reference, template);
+         mv.visitLabel(set);
+         mv.visitMethodInsn(INVOKEINTERFACE, "java/util/function/BiConsumer", "accept",
+                  "(Ljava/lang/Object;Ljava/lang/Object;)V", true);
+      }
+      mv.visitVarInsn(ALOAD, 1);
+      mv.visitInsn(ARETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+   }
+
+   /**
+    * Maps a non-null value stored in the local variable 2
+    */
+   private void generateChild(MethodVisitor mv, Reference reference, ReferenceTemplate template) {
+      switch (template.getNodeMapperTemplate().getReferenceType()) {
+         case OBJECT:
+            unproxy(mv, 2);
+            invokeElementMapping(mv, reference);
+            break;
+         case LIST:
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitTypeInsn(CHECKCAST, "java/util/List");
+            invokeStatic(mv, collectionMethod(reference), COLLECTION_TO_OBJECT);
+            break;
+         case SET:
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitTypeInsn(CHECKCAST, "java/util/Set");
+            invokeStatic(mv, collectionMethod(reference), COLLECTION_TO_OBJECT);
+            break;
+         default: throw new GraphMapperException("Unknown reference type");
+      }
+   }
+
+   private void invokeElementMapping(MethodVisitor mv, Reference reference) {
+      if (reference.isHeterogeneous()) {
+         invokeStatic(mv, dispatchMethod(reference.getClassMappings()), OBJECT_TO_OBJECT);
+      } else {
+         invokeStatic(mv, mappingMethod(reference.getClassMappings().get(RootMapping.class)), OBJECT_TO_OBJECT);
+      }
+   }
+
+   /**
+    * list = new ArrayList(collection.size());
+    * for (element: collection) list.add(element == null ? null : map(ctx.unproxy(element)));
+    */
+   private void generateCollectionMethod(Reference reference) {
+      MethodVisitor mv = classWriter.visitMethod(ACC_PRIVATE | ACC_STATIC, collectionMethod(reference),
+               COLLECTION_TO_OBJECT, null, null);
+      mv.visitCode();
+      mv.visitTypeInsn(NEW, "java/util/ArrayList");
+      mv.visitInsn(DUP);
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Collection", "size", "()I", true);
+      mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "(I)V", false);
+      mv.visitVarInsn(ASTORE, 1);
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Collection", "iterator", "()Ljava/util/Iterator;", true);
+      mv.visitVarInsn(ASTORE, 3);
+
+      Label loop = new Label();
+      Label end = new Label();
+      Label nonNull = new Label();
+      Label add = new Label();
+      mv.visitLabel(loop);
+      mv.visitVarInsn(ALOAD, 3);
+      mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "hasNext", "()Z", true);
+      mv.visitJumpInsn(IFEQ, end);
+      mv.visitVarInsn(ALOAD, 3);
+      mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Iterator", "next", "()Ljava/lang/Object;", true);
+      mv.visitVarInsn(ASTORE, 2);
+      mv.visitVarInsn(ALOAD, 1);
+      mv.visitVarInsn(ALOAD, 2);
+      mv.visitJumpInsn(IFNONNULL, nonNull);
+      mv.visitInsn(ACONST_NULL);
+      mv.visitJumpInsn(GOTO, add);
+      mv.visitLabel(nonNull);
+      unproxy(mv, 2);
+      invokeElementMapping(mv, reference);
+      mv.visitLabel(add);
+      mv.visitMethodInsn(INVOKEVIRTUAL, "java/util/ArrayList", "add", "(Ljava/lang/Object;)Z", false);
+      mv.visitInsn(POP);
+      mv.visitJumpInsn(GOTO, loop);
+      mv.visitLabel(end);
+      mv.visitVarInsn(ALOAD, 1);
+      mv.visitInsn(ARETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+   }
+
+   /**
+    * Compares the class of a source with classes of the hierarchy,
+    * a source of any other class is dispatched by {@link ClassMappingDispatcher}
+    */
+   private void generateDispatchMethod(Map<Class<?>, ClassMapping> classMappings) {
+      MethodVisitor mv = classWriter.visitMethod(ACC_PRIVATE | ACC_STATIC, dispatchMethod(classMappings),
+               OBJECT_TO_OBJECT, null, null);
+      mv.visitCode();
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "getClass", "()Ljava/lang/Class;", false);
+      mv.visitVarInsn(ASTORE, 1);
+      for (Map.Entry<Class<?>, ClassMapping> entry: classMappings.entrySet()) {
+         Label next = new Label();
+         mv.visitVarInsn(ALOAD, 1);
+         getConstant(mv, constant(entry.getKey(), Class.class), Class.class);
+         mv.visitJumpInsn(IF_ACMPNE, next);
+         mv.visitVarInsn(ALOAD, 0);
+         invokeStatic(mv, mappingMethod(entry.getValue()), OBJECT_TO_OBJECT);
+         mv.visitInsn(ARETURN);
+         mv.visitLabel(next);
+      }
+      ClassMappingDispatcher dispatcher = new ClassMappingDispatcher(classMappings);
+      CompiledMapperSupport.Mapping dynamicMapping = source -> mapDynamic(ctx, dispatcher, source);
+      getConstant(mv, constant(dynamicMapping, CompiledMapperSupport.Mapping.class), CompiledMapperSupport.Mapping.class);
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitMethodInsn(INVOKEINTERFACE, MAPPING, "map", OBJECT_TO_OBJECT, true);
+      mv.visitInsn(ARETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+   }
+
+   private void generateStaticInitializer() {
+      MethodVisitor mv = classWriter.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+      mv.visitCode();
+      mv.visitLdcInsn(Type.getObjectType(className));
+      mv.visitMethodInsn(INVOKESTATIC, SUPPORT, "takeConstants", "(Ljava/lang/Class;)[Ljava/lang/Object;", false);
+      mv.visitVarInsn(ASTORE, 0);
+      for (int i = 0; i < constants.size(); i++) {
+         Class<?> type = constantTypes.get(i);
+         mv.visitVarInsn(ALOAD, 0);
+         mv.visitLdcInsn(i);
+         mv.visitInsn(AALOAD);
+         mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+         mv.visitFieldInsn(PUTSTATIC, className, constantFields.get(constants.get(i)), Type.getDescriptor(type));
+      }
+      mv.visitInsn(RETURN);
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+   }
+
+   private String constant(Object value, Class<?> type) {
+      String name = constantFields.get(value);
+      if (name == null) {
+         name = "c$" + constants.size();
+         constantFields.put(value, name);
+         constants.add(value);
+         constantTypes.add(type);
+         classWriter.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, name, Type.getDescriptor(type), null, null)
+                  .visitEnd();
+      }
+      return name;
+   }
+
+   private void getConstant(MethodVisitor mv, String name, Class<?> type) {
+      mv.visitFieldInsn(GETSTATIC, className, name, Type.getDescriptor(type));
+   }
+
+   private void unproxy(MethodVisitor mv, int local) {
+      getConstant(mv, contextField, GraphMapperContext.class);
+      mv.visitVarInsn(ALOAD, local);
+      mv.visitMethodInsn(INVOKEVIRTUAL, CONTEXT, "unproxy", OBJECT_TO_OBJECT, false);
+   }
+
+   private void invokeStatic(MethodVisitor mv, String name, String descriptor) {
+      mv.visitMethodInsn(INVOKESTATIC, className, name, descriptor, false);
+   }
+
+   private ReferenceTemplate requireTemplate(Reference reference) {
+      if (reference.getTemplate() == null) {
+         throw new GraphMapperException("Reference " + reference + " does not describe its structure");
+      }
+      return reference.getTemplate();
+   }
+
+   /**
+    * Maps a source of a class hierarchy the same way as {@link DynamicObjectNodeMapper},
+    * used for classes not compiled into the comparison chain, e.g. unmapped subclasses
+    */
+   static Object mapDynamic(GraphMapperContext ctx, ClassMappingDispatcher dispatcher, Object source)
+            throws InvocationTargetException, IllegalAccessException {
+      return MappingSession.STATELESS.map(ctx, source, dispatcher.dispatch(source.getClass()));
+   }
+
+   /**
+    * Root mapper of a compiled class
+    */
+   static final class CompiledRootMapper implements RootMapper {
+
+      final CompiledMapperSupport.Mapping mapping;
+
+      private CompiledRootMapper(CompiledMapperSupport.Mapping mapping) {
+         this.mapping = mapping;
+      }
+
+      @Override
+      public Object map(Object source) throws InvocationTargetException, IllegalAccessException {
+         return mapping.map(source);
+      }
+
+   }
+
+   /**
+    * Frames are computed without loading of classes, the generated code merges only equal types and nulls
+    */
+   private static final class PlanClassWriter extends ClassWriter {
+
+      PlanClassWriter() {
+         super(COMPUTE_FRAMES);
+      }
+
+      @Override
+      protected String getCommonSuperClass(String type1, String type2) {
+         return OBJECT;
+      }
+
+   }
+
+}
@@ -25,11 +25,14 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import io.github.cemartin01.graphmapper.NodeLabel;
 import io.github.cemartin01.graphmapper.classtree.ClassNode;
@@ -54,6 +57,10 @@ import lombok.RequiredArgsConstructor;
  * The conditional fields (references) of mapped classes are defined by {@link #addMapping} method.
  *
  * The mappers of unconditional fields are added by {@link #addMapper} method.
+ *
+ * Mapping functions are resolved by {@link #resolveMapper} once per class mapping when a graph mapper is built.
+ * Every change of registrations increments {@link #getVersion}, so graph mapper factories rebuild their cached
+ * graph mappers. Graph mappers built before a change keep the functions resolved at the time they were built.
  */
 public class GraphMapperContext {
 
@@ -65,18 +72,69 @@ public class GraphMapperContext {
 
    protected final Map<Class<?>, Function> mappers = new HashMap<>(17, 0.3f);
 
+   //Target class, source class bound by addMapping
+   protected final Map<Class<?>, Class<?>> sourceClasses = new HashMap<>();
+
+   //Target class, name of its type in type conditions of nodes
+   protected final Map<Class<?>, String> typeNames = new HashMap<>();
+
+   private final AtomicLong version = new AtomicLong();
+
    @Getter
    protected final UnproxyFunction unproxyFunction;
 
+   private final ProxyClassifier proxyClassifier;
+
+   private volatile boolean threadSafe;
+
+   /**
+    * @param unproxyFunction function unwrapping proxies of sources, it's called for every source
+    */
    public GraphMapperContext(UnproxyFunction unproxyFunction) {
+      this(unproxyFunction, null);
+   }
+
+   /**
+    * @param unproxyFunction function unwrapping proxies of sources
+    * @param proxyClassPredicate tells whether instances of a runtime class may be proxies, the unproxy function
+    *                            is skipped for other classes. If null, the unproxy function is called for every source.
+    */
+   public GraphMapperContext(UnproxyFunction unproxyFunction, Predicate<Class<?>> proxyClassPredicate) {
+      this.unproxyFunction = unproxyFunction;
+      this.proxyClassifier = new ProxyClassifier(unproxyFunction, proxyClassPredicate, false);
+   }
+
+   /**
+    * @param unproxyFunction function unwrapping proxies of sources
+    * @param learnPlainClasses if true, the unproxy function is skipped for a runtime class once its instances were
+    *                          returned unchanged {@value ProxyClassifier#LEARNING_THRESHOLD} times and never unwrapped.
+    *                          It's safe only if proxies are always instances of generated proxy classes.
+    */
+   public GraphMapperContext(UnproxyFunction unproxyFunction, boolean learnPlainClasses) {
       this.unproxyFunction = unproxyFunction;
+      this.proxyClassifier = new ProxyClassifier(unproxyFunction, null, learnPlainClasses);
+   }
+
+   /**
+    * Declares that the unproxy function and all mapping functions of this context may be called concurrently.
+    * The declaration is required by parallel mapping of collections, see {@link ParallelMappingSpec}.
+    */
+   public void declareThreadSafe() {
+      threadSafe = true;
+   }
+
+   public boolean isThreadSafe() {
+      return threadSafe;
    }
 
    public <T> void addMapper(Function<Object, T> mapper, Class<T> targetClass) {
       mappers.put(targetClass, mapper);
+      registrationChanged();
    }
 
    public <T, S> Binding<T, S> addMapping(Class<T> targetClass, Class<S> sourceClass) {
+      sourceClasses.put(targetClass, sourceClass);
+      registrationChanged();
       return new Binding<>(targetClass, sourceClass);
    }
 
@@ -90,6 +148,7 @@ public class GraphMapperContext {
       ClassTree tree = ClassTree.of(targetClass, sourceClass, classNodes);
       classTreeNodes.put(targetClass, tree.getRoot());
       populateClassTrees(tree.getRoot());
+      registrationChanged();
    }
 
    /**
@@ -131,6 +190,26 @@ public class GraphMapperContext {
       defineClassHierarchy(targetInterface, sourceClass, classNodes);
    }
 
+   /**
+    * Names the type of a target class, so nodes restricted by type conditions are mapped only for sources
+    * of the class or its subclasses, see {@link io.github.cemartin01.graphmapper.Node#getTypeConditions}
+    * @param targetClass target class of a class hierarchy
+    * @param typeName name of the type, e.g. a GraphQL object type
+    */
+   public void defineTypeName(Class<?> targetClass, String typeName) {
+      typeNames.put(targetClass, typeName);
+      registrationChanged();
+   }
+
+   /**
+    * @param targetClass target class
+    * @return name of the type of the target class, its simple name if it's not defined
+    */
+   public String getTypeName(Class<?> targetClass) {
+      String typeName = typeNames.get(targetClass);
+      return typeName == null ? targetClass.getSimpleName() : typeName;
+   }
+
    private void populateClassTrees(ClassNode currentNode) {
       currentNode.getChildren().forEach(node -> {
          if (!node.getChildren().isEmpty()) {
@@ -145,17 +224,91 @@ public class GraphMapperContext {
    }
 
    public Object unproxy(Object object) {
-      return unproxyFunction.unproxy(object);
+      return proxyClassifier.unproxy(object);
+   }
+
+   /**
+    * Obtains statistics of unproxying, i.e. how often the unproxy function was called, needed or skipped
+    */
+   public UnproxyStats getUnproxyStats() {
+      return proxyClassifier.getStats();
    }
 
    public Object map(Object source, Class<?> targetClass) {
       return mappers.get(targetClass).apply(source);
    }
 
+   /**
+    * Resolves a function that maps unconditional fields of a source to a new instance of a target class.
+    *
+    * The function must map any source the same way as {@link #map} does, subclasses may return a function
+    * specialized to the given source class.
+    * @param sourceClass expected source class, null if it's not known
+    * @param targetClass target class
+    * @return mapping function
+    */
+   @SuppressWarnings({"unchecked"})
+   protected Function<Object, Object> resolveMapper(Class<?> sourceClass, Class<?> targetClass) {
+      Function<Object, Object> mapper = mappers.get(targetClass);
+      if (mapper == null) {
+         //the mapper may be added after the graph mapper is built
+         return source -> map(source, targetClass);
+      }
+      return mapper;
+   }
+
+   /**
+    * Resolves a mapping function for a source class bound to the target class by {@link #addMapping}
+    */
+   Function<Object, Object> resolveMapper(Class<?> targetClass) {
+      return resolveMapper(sourceClasses.get(targetClass), targetClass);
+   }
+
+   /**
+    * @return version of registrations, it changes whenever a mapper, a binding, a class hierarchy or a type name
+    *         is added
+    */
+   public long getVersion() {
+      return version.get();
+   }
+
+   /**
+    * Marks a change of registrations, so graph mappers cached by factories are rebuilt
+    */
+   protected void registrationChanged() {
+      version.incrementAndGet();
+   }
+
    public List<ReferenceTemplate> getReferenceTemplates(Class<?> clazz) {
       return referenceMap.get(clazz);
    }
 
+   /**
+    * Describes references bound to a target class in the order of binding
+    * @param targetClass target class
+    * @return list of descriptors, empty if no reference is bound
+    */
+   public List<ReferenceDescriptor> getReferenceDescriptors(Class<?> targetClass) {
+      List<ReferenceTemplate> templates = referenceMap.get(targetClass);
+      if (templates == null) {
+         return Collections.emptyList();
+      }
+      List<ReferenceDescriptor> descriptors = new ArrayList<>(templates.size());
+      for (ReferenceTemplate template: templates) {
+         NodeMapperTemplate nodeMapperTemplate = template.getNodeMapperTemplate();
+         descriptors.add(new ReferenceDescriptor(template.getNodeLabel(), nodeMapperTemplate.getTargetClass(),
+                  nodeMapperTemplate.getReferenceType() != NodeMapperTemplate.ReferenceType.OBJECT));
+      }
+      return descriptors;
+   }
+
+   /**
+    * @return source class bound to a target class by {@link #addMapping}, null if there is none
+    */
+   public Class<?> getSourceClass(Class<?> targetClass) {
+      return sourceClasses.get(targetClass);
+   }
+
    /**
     * Describes a binding between a target class and an source class.
     *
@@ -192,6 +345,7 @@ public class GraphMapperContext {
          referenceMap.computeIfAbsent(parentTargetClass, clazz -> new ArrayList<>())
                   .add(new ReferenceTemplate(nodeLabel, setterLambda, new NodeMapperTemplate(getterLambda, childTargetClass,
                            NodeMapperTemplate.ReferenceType.OBJECT)));
+         registrationChanged();
          return this;
       }
 
@@ -240,6 +394,7 @@ public class GraphMapperContext {
          referenceMap.computeIfAbsent(parentTargetClass, clazz -> new ArrayList<>())
                   .add(new ReferenceTemplate(nodeLabel, setterLambda,
                            new NodeMapperTemplate(getterLambda, childTargetClass, referenceType)));
+         registrationChanged();
 
          return this;
 
@@ -18,47 +18,230 @@ package io.github.cemartin01.graphmapper.mapper;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.github.cemartin01.graphmapper.MappingGraph;
 import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.NodeLabel;
 import io.github.cemartin01.graphmapper.classtree.ClassNode;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
 
-import lombok.AllArgsConstructor;
+import lombok.Builder;
 
 /**
  * Factory for new GraphMapper instances.
+ *
+ * Graph mappers may be cached by the structure of a mapping graph, see {@link GraphMapperCacheSpec}.
+ * Concurrent requests of the same uncached structure build the graph mapper only once.
  */
-@AllArgsConstructor
 public class GraphMapperFactory {
 
    private final GraphMapperContext ctx;
 
    private final ReferenceFactory referenceFactory;
 
+   //null if caching is disabled
+   private final Cache<MappingGraphKey, GraphMapper<?>> cache;
+
+   //Version of context registrations of cached graph mappers
+   private volatile long cacheVersion;
+
+   //null if compilation is disabled
+   private final Integer compileThreshold;
+
+   private final PlanForm planForm;
+
+   //null if sibling references are resolved sequentially
+   private final Executor referenceExecutor;
+
+   //null if graph mappers map depth-first
+   private final PrefetchFunction prefetchFunction;
+
+   //null if lazy references are unproxied
+   private final LazyReferenceHandler lazyReferenceHandler;
+
    public GraphMapperFactory(final GraphMapperContext ctx) {
-      this.ctx = ctx;
-      this.referenceFactory = new ReferenceFactory(ctx);
+      this(ctx, null, null, null, null, false, null, null);
+   }
+
+   /**
+    * @param context graph mapper context
+    * @param cache specification of a graph mapper cache, null disables caching
+    * @param compileThreshold number of invocations after which a graph mapper is compiled to bytecode,
+    *                         null disables compilation
+    * @param planForm form of a mapping plan interpreted before compilation, {@link PlanForm#OBJECT_GRAPH} by default
+    * @param parallelism specification of parallel mapping of collections, null maps collections sequentially.
+    *                    Parallel mapping is performed by the object graph interpreter, so it cannot be combined
+    *                    with compilation or the flat plan form.
+    * @param virtualThreads maps sibling references and elements of collections on virtual threads, so lazy loading
+    *                       getters do not block platform threads. Requires Java 21, on older JVMs graph mappers
+    *                       map sequentially, see {@link #isMappingOnVirtualThreads}. It cannot be combined
+    *                       with parallelism, compilation or the flat plan form.
+    * @param prefetchFunction if set, graph mappers map level by level and let the function prefetch references
+    *                         of every level, see {@link PrefetchFunction}. Breadth-first mapping cannot be combined
+    *                         with compilation, the flat plan form or concurrent mapping. Invocations preserving
+    *                         identity of sources map depth-first.
+    * @param lazyReferenceHandler if set, references are passed to the handler before they are unproxied,
+    *                             see {@link LazyReferenceHandler}. It cannot be combined with a cache, because
+    *                             the handler decides by nodes which cache keys leave out.
+    */
+   @Builder
+   private GraphMapperFactory(final GraphMapperContext context, final GraphMapperCacheSpec cache,
+                              final Integer compileThreshold, final PlanForm planForm,
+                              final ParallelMappingSpec parallelism, final boolean virtualThreads,
+                              final PrefetchFunction prefetchFunction,
+                              final LazyReferenceHandler lazyReferenceHandler) {
+      if (compileThreshold != null && compileThreshold < 0) {
+         throw new IllegalArgumentException("Compile threshold must not be negative");
+      }
+      if (parallelism != null && parallelism.getThreshold() < 1) {
+         throw new IllegalArgumentException("Parallel mapping threshold must be positive");
+      }
+      if (parallelism != null && virtualThreads) {
+         throw new IllegalArgumentException("Parallel mapping cannot be combined with virtual threads");
+      }
+      if (prefetchFunction != null && (compileThreshold != null || planForm == PlanForm.FLAT
+               || parallelism != null || virtualThreads)) {
+         throw new IllegalArgumentException("Breadth-first mapping cannot be combined with other mapping backends");
+      }
+      if (lazyReferenceHandler != null && cache != null) {
+         throw new IllegalArgumentException("Lazy reference handler cannot be combined with a graph mapper cache");
+      }
+      if ((parallelism != null || virtualThreads) && (compileThreshold != null || planForm == PlanForm.FLAT)) {
+         throw new IllegalArgumentException("Parallel mapping is supported only by the object graph plan form");
+      }
+      this.referenceExecutor = virtualThreads ? VirtualThreads.executor() : null;
+      //graph mappers map sequentially if virtual threads are not supported
+      if ((parallelism != null || referenceExecutor != null) && !context.isThreadSafe()) {
+         throw new IllegalStateException("Parallel mapping requires a context declared thread-safe");
+      }
+      //every element of a collection is mapped by its own virtual thread
+      ParallelMappingSpec collectionParallelism = referenceExecutor == null ? parallelism
+               : ParallelMappingSpec.builder().threshold(1).executor(referenceExecutor).build();
+      this.prefetchFunction = prefetchFunction;
+      this.lazyReferenceHandler = lazyReferenceHandler;
+      this.ctx = context;
+      this.referenceFactory = new ReferenceFactory(context, collectionParallelism);
+      this.cache = cache == null ? null : buildCache(cache);
+      this.compileThreshold = compileThreshold;
+      this.planForm = planForm == null ? PlanForm.OBJECT_GRAPH : planForm;
+      this.cacheVersion = context.getVersion();
+   }
+
+   private static Cache<MappingGraphKey, GraphMapper<?>> buildCache(GraphMapperCacheSpec spec) {
+      CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+               .maximumSize(spec.getMaximumSize());
+      if (spec.getExpireAfterAccess() != null) {
+         builder.expireAfterAccess(spec.getExpireAfterAccess());
+      }
+      if (spec.getExpireAfterWrite() != null) {
+         builder.expireAfterWrite(spec.getExpireAfterWrite());
+      }
+      if (spec.isRecordStats()) {
+         builder.recordStats();
+      }
+      return builder.build();
    }
 
    /**
     * Creates a GraphMapper that maps given source to given target class or any of target subclasses.
     * If you want to map a heterogeneous collection, pass the parent of of class hierarchy.
+    *
+    * If caching is enabled, a cached instance built for a structurally equal mapping graph is returned.
+    * Cached instances are discarded when registrations of the context change.
     * @param mappingGraph template for Graph Mapper
     * @param rootTargetClass root of a target class hierarchy
     * @param <T> target class typing
     * @return GraphMapper typed to target class
+    * @throws GraphMapperException if building of the graph mapper fails
     */
+   @SuppressWarnings({"unchecked"})
    public <T> GraphMapper<T> getGraphMapper(MappingGraph<?> mappingGraph, Class<T> rootTargetClass) {
-      return new GraphMapper<>(ctx, rootTargetClass, getChildren(mappingGraph.getRoot(), rootTargetClass));
+      if (cache == null) {
+         return buildGraphMapper(mappingGraph, rootTargetClass);
+      }
+      long version = ctx.getVersion();
+      if (version != cacheVersion) {
+         cacheVersion = version;
+         cache.invalidateAll();
+      }
+      try {
+         return (GraphMapper<T>) cache.get(MappingGraphKey.of(mappingGraph, rootTargetClass, version),
+                  () -> buildGraphMapper(mappingGraph, rootTargetClass));
+      } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+         if (e.getCause() instanceof GraphMapperException) {
+            throw (GraphMapperException) e.getCause();
+         }
+         throw new GraphMapperException("Building of graph mapper failed for " + rootTargetClass, e.getCause());
+      }
+   }
+
+   /**
+    * Obtains statistics of the graph mapper cache
+    * @return Optional of statistics, empty if caching is disabled
+    */
+   public Optional<GraphMapperCacheStats> getCacheStats() {
+      if (cache == null) {
+         return Optional.empty();
+      }
+      CacheStats stats = cache.stats();
+      return Optional.of(new GraphMapperCacheStats(stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+               stats.loadExceptionCount(), stats.totalLoadTime(), stats.evictionCount()));
+   }
+
+   /**
+    * @return true if graph mappers map on virtual threads, false if virtual threads are not requested
+    *         or the JVM does not support them
+    */
+   public boolean isMappingOnVirtualThreads() {
+      return referenceExecutor != null;
+   }
+
+   /**
+    * Discards all cached graph mappers
+    */
+   public void invalidateCache() {
+      if (cache != null) {
+         cache.invalidateAll();
+      }
+   }
+
+   private <T> GraphMapper<T> buildGraphMapper(MappingGraph<?> mappingGraph, Class<T> rootTargetClass) {
+      Map<Class<?>, ClassMapping> classMappings = getChildren(mappingGraph.getRoot(), rootTargetClass);
+      RootMapper rootMapper;
+      if (prefetchFunction != null) {
+         rootMapper = new BreadthFirstRootMapper(ctx, rootTargetClass, classMappings, prefetchFunction);
+      } else if (planForm == PlanForm.FLAT) {
+         rootMapper = FlatRootMapper.encode(ctx, rootTargetClass, classMappings);
+      } else {
+         rootMapper = new InterpretedRootMapper(ctx, rootTargetClass, classMappings);
+      }
+      if (compileThreshold != null) {
+         rootMapper = new PromotingRootMapper(rootMapper, compileThreshold,
+                  () -> GraphMapperCompiler.compile(ctx, rootTargetClass, classMappings));
+      }
+      return new GraphMapper<>(ctx, rootTargetClass, classMappings, rootMapper, referenceExecutor);
    }
 
    private Map<Class<?>, ClassMapping> getChildren(Node<?> parentNode, Class<?> rootTargetClass) {
+      if (hasTypeConditions(parentNode)) {
+         return getConditionalChildren(parentNode, rootTargetClass);
+      }
+
       Map<Class<?>, ClassMapping> mappings;
 
-      ClassMapping rootMapping = getChildrenForClass(Collections.emptyList(), parentNode, rootTargetClass);
+      ClassMapping rootMapping = getChildrenForClass(Collections.emptyList(), parentNode, null, rootTargetClass);
 
       ClassNode classNode = ctx.getClassNode(rootTargetClass);
 
@@ -75,14 +258,15 @@ public class GraphMapperFactory {
    private void populateClassMappings(Map<Class<?>, ClassMapping> mappings, Node<?> node,
                                       ClassNode parentClassNode, List<Reference> superReferences) {
       for (ClassNode classNode: parentClassNode.getChildren()) {
-         ClassMapping subclassMapping = getChildrenForClass(superReferences, node, classNode.getTargetClass());
+         ClassMapping subclassMapping = getChildrenForClass(superReferences, node, classNode.getSourceClass(),
+                  classNode.getTargetClass());
          mappings.put(classNode.getSourceClass(), subclassMapping);
          populateClassMappings(mappings, node, classNode, subclassMapping.getReferences());
       }
    }
 
    private ClassMapping getChildrenForClass(List<Reference> superReferences, Node<?> parentNode,
-                                            Class<?> currentTargetClass) {
+                                            Class<?> currentSourceClass, Class<?> currentTargetClass) {
       List<Reference> references = new ArrayList<>(superReferences);
       List<ReferenceTemplate> templates = ctx.getReferenceTemplates(currentTargetClass);
       if (templates != null) {
@@ -90,16 +274,163 @@ public class GraphMapperFactory {
             Optional<ReferenceTemplate> selected = templates.stream()
                      .filter(t -> t.nodeLabel == node.getLabel())
                      .findFirst();
-            if (selected.isPresent()) {
-               ReferenceTemplate template = selected.get();
-               Map<Class<?>, ClassMapping> classMappings = getChildren(node, template.getNodeMapperTemplate().getTargetClass());
-               Reference reference = referenceFactory.getReference(template, classMappings);
-               references.add(reference);
-            }
+            selected.ifPresent(template -> references.add(getReference(template, node)));
          });
       }
+      return new ClassMapping(currentTargetClass, references, resolveMapper(currentSourceClass, currentTargetClass));
+   }
+
+   private static boolean hasTypeConditions(Node<?> parentNode) {
+      for (Node<?> node: parentNode.getChildren()) {
+         if (!node.getTypeConditions().isEmpty()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Builds class mappings of a node whose children are restricted by type conditions. Every class mapping
+    * gets references of the children selected for its class, children of the same label are merged, so a reference
+    * is mapped once. References of equal children are shared by class mappings.
+    */
+   private Map<Class<?>, ClassMapping> getConditionalChildren(Node<?> parentNode, Class<?> rootTargetClass) {
+      Map<List<Object>, Reference> references = new HashMap<>();
+      ClassNode classNode = ctx.getClassNode(rootTargetClass);
+      if (classNode == null) {
+         return Collections.singletonMap(RootMapping.class, getChildrenForClassLineage(parentNode,
+                  Collections.singletonList(rootTargetClass), Collections.emptyMap(), null, references));
+      }
+      Map<String, Class<?>> typeClasses = new HashMap<>();
+      populateTypeClasses(typeClasses, classNode);
+      Map<Class<?>, ClassMapping> mappings = new HashMap<>();
+      populateConditionalClassMappings(mappings, parentNode, classNode, Collections.singletonList(rootTargetClass),
+               typeClasses, references);
+      return Collections.unmodifiableMap(mappings);
+   }
 
-      return new ClassMapping(currentTargetClass, references);
+   private void populateTypeClasses(Map<String, Class<?>> typeClasses, ClassNode classNode) {
+      typeClasses.put(ctx.getTypeName(classNode.getTargetClass()), classNode.getTargetClass());
+      for (ClassNode child: classNode.getChildren()) {
+         populateTypeClasses(typeClasses, child);
+      }
+   }
+
+   private void populateConditionalClassMappings(Map<Class<?>, ClassMapping> mappings, Node<?> node,
+                                                 ClassNode parentClassNode, List<Class<?>> parentLineage,
+                                                 Map<String, Class<?>> typeClasses,
+                                                 Map<List<Object>, Reference> references) {
+      for (ClassNode classNode: parentClassNode.getChildren()) {
+         List<Class<?>> lineage = new ArrayList<>(parentLineage.size() + 1);
+         lineage.addAll(parentLineage);
+         lineage.add(classNode.getTargetClass());
+         mappings.put(classNode.getSourceClass(), getChildrenForClassLineage(node, lineage, typeClasses,
+                  classNode.getSourceClass(), references));
+         populateConditionalClassMappings(mappings, node, classNode, lineage, typeClasses, references);
+      }
+   }
+
+   /**
+    * @param lineage target classes from the root of the hierarchy to the current class
+    * @param typeClasses target classes of the hierarchy by names of their types
+    * @param references references built for other classes by their templates and children
+    */
+   private ClassMapping getChildrenForClassLineage(Node<?> parentNode, List<Class<?>> lineage,
+                                                   Map<String, Class<?>> typeClasses, Class<?> currentSourceClass,
+                                                   Map<List<Object>, Reference> references) {
+      Map<NodeLabel, List<Node<?>>> selectedNodes = new LinkedHashMap<>();
+      for (Node<?> node: parentNode.getChildren()) {
+         if (isSelected(node, lineage, typeClasses)) {
+            selectedNodes.computeIfAbsent(node.getLabel(), label -> new ArrayList<>(2)).add(node);
+         }
+      }
+      List<Reference> classReferences = new ArrayList<>();
+      for (Class<?> targetClass: lineage) {
+         List<ReferenceTemplate> templates = ctx.getReferenceTemplates(targetClass);
+         if (templates == null) {
+            continue;
+         }
+         for (List<Node<?>> nodes: selectedNodes.values()) {
+            templates.stream()
+                     .filter(t -> t.nodeLabel == nodes.get(0).getLabel())
+                     .findFirst()
+                     .ifPresent(template -> {
+                        List<Object> key = new ArrayList<>(nodes.size() + 1);
+                        key.add(template);
+                        key.addAll(nodes);
+                        classReferences.add(references.computeIfAbsent(key,
+                                 k -> getReference(template, Node.merge(nodes))));
+                     });
+         }
+      }
+      Class<?> currentTargetClass = lineage.get(lineage.size() - 1);
+      return new ClassMapping(currentTargetClass, classReferences,
+               resolveMapper(currentSourceClass, currentTargetClass));
+   }
+
+   /**
+    * A node is selected for a class if every class named by its type conditions is the class or its superclass
+    */
+   private static boolean isSelected(Node<?> node, List<Class<?>> lineage, Map<String, Class<?>> typeClasses) {
+      for (String typeCondition: node.getTypeConditions()) {
+         Class<?> typeClass = typeClasses.get(typeCondition);
+         if (typeClass != null && !lineage.contains(typeClass)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private Reference getReference(ReferenceTemplate template, Node<?> node) {
+      Map<Class<?>, ClassMapping> classMappings = getChildren(node, template.getNodeMapperTemplate().getTargetClass());
+      return lazyReferenceHandler == null
+               ? referenceFactory.getReference(template, classMappings)
+               : getLazyReference(template, node, classMappings);
+   }
+
+   private Function<Object, Object> resolveMapper(Class<?> currentSourceClass, Class<?> currentTargetClass) {
+      return currentSourceClass == null
+               ? ctx.resolveMapper(currentTargetClass)
+               : ctx.resolveMapper(currentSourceClass, currentTargetClass);
+   }
+
+   /**
+    * Builds a reference whose getter passes sources to the lazy reference handler. A getter of a reference mapped
+    * from identifiers returns {@link IdentifierSource} instead of an uninitialized proxy.
+    */
+   @SuppressWarnings({"unchecked"})
+   private Reference getLazyReference(ReferenceTemplate template, Node<?> node,
+                                      Map<Class<?>, ClassMapping> classMappings) {
+      NodeMapperTemplate nodeMapperTemplate = template.getNodeMapperTemplate();
+      Function<Object, Object> getter = nodeMapperTemplate.getGetter();
+      Class<?> targetClass = nodeMapperTemplate.getTargetClass();
+      Function<Object, Object> lazyGetter;
+      Map<Class<?>, ClassMapping> lazyClassMappings = classMappings;
+      if (nodeMapperTemplate.getReferenceType() != NodeMapperTemplate.ReferenceType.OBJECT) {
+         lazyGetter = source -> {
+            Object collection = getter.apply(source);
+            return collection == null ? null : lazyReferenceHandler.resolveCollection(collection);
+         };
+      } else if (node.getChildren().isEmpty() && classMappings.size() == 1
+               && lazyReferenceHandler.isIdentifierSelected(node, targetClass)) {
+         lazyGetter = source -> {
+            Object reference = getter.apply(source);
+            Object identifier = reference == null ? null : lazyReferenceHandler.getIdentifier(reference);
+            return identifier == null ? reference : new IdentifierSource(identifier);
+         };
+         ClassMapping rootMapping = classMappings.get(RootMapping.class);
+         Function<Object, Object> mapper = rootMapping.resolveMapper(ctx);
+         Function<Object, Object> lazyMapper = reference -> reference instanceof IdentifierSource
+                  ? lazyReferenceHandler.mapIdentifier(((IdentifierSource) reference).identifier, targetClass)
+                  : mapper.apply(reference);
+         lazyClassMappings = Collections.singletonMap(RootMapping.class,
+                  new ClassMapping(targetClass, rootMapping.getReferences(), lazyMapper));
+      } else {
+         return referenceFactory.getReference(template, classMappings);
+      }
+      ReferenceTemplate lazyTemplate = new ReferenceTemplate(template.getNodeLabel(), template.getSetter(),
+               new NodeMapperTemplate(lazyGetter, targetClass, nodeMapperTemplate.getReferenceType()));
+      return referenceFactory.getReference(lazyTemplate, lazyClassMappings);
    }
 
 }
\ No newline at end of file
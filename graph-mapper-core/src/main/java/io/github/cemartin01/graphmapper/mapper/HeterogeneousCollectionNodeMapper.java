@@ -19,16 +19,22 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 class HeterogeneousCollectionNodeMapper {
 
    public List<Object> mapToList(GraphMapperContext ctx, Collection<?> sourceCollection,
-                                 Map<Class<?>, ClassMapping> classMappings
+                                 ClassMappingDispatcher dispatcher, MappingSession session,
+                                 ParallelCollectionMapper parallel
    ) throws InvocationTargetException, IllegalAccessException {
       if (sourceCollection == null) {
          return null;
       }
+      if (parallel != null) {
+         return parallel.mapToList(sourceCollection, session, source -> {
+            Object unwrappedSource = ctx.unproxy(source);
+            return session.map(ctx, unwrappedSource, dispatcher.dispatch(unwrappedSource.getClass()));
+         });
+      }
       List<Object> targetList = new ArrayList<>();
       for (Object currentSource: sourceCollection) {
          if (currentSource == null) {
@@ -36,12 +42,7 @@ class HeterogeneousCollectionNodeMapper {
             continue;
          }
          Object unwrappedSource = ctx.unproxy(currentSource);
-         ClassMapping classMapping = classMappings.get(unwrappedSource.getClass());
-         Object target = ctx.map(currentSource, classMapping.getTargetClass());
-         for (Reference reference: classMapping.getReferences()) {
-            reference.getSetter().accept(target, reference.getNodeMapper().map(unwrappedSource));
-         }
-         targetList.add(target);
+         targetList.add(session.map(ctx, unwrappedSource, dispatcher.dispatch(unwrappedSource.getClass())));
       }
       return targetList;
    }
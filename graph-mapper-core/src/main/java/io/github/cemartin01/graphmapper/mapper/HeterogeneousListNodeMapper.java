@@ -20,12 +20,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
-import lombok.RequiredArgsConstructor;
-
 /**
  * List Node Mapper for a Class Hierarchy
  */
-@RequiredArgsConstructor
 class HeterogeneousListNodeMapper extends HeterogeneousCollectionNodeMapper implements NodeMapper {
 
    private final GraphMapperContext ctx;
@@ -34,10 +31,28 @@ class HeterogeneousListNodeMapper extends HeterogeneousCollectionNodeMapper impl
 
    private final Map<Class<?>, ClassMapping> classMappings;
 
+   private final ClassMappingDispatcher dispatcher;
+
+   //null if the collection is mapped sequentially
+   private final ParallelCollectionMapper parallel;
+
+   HeterogeneousListNodeMapper(GraphMapperContext ctx, Function getter, Map<Class<?>, ClassMapping> classMappings) {
+      this(ctx, getter, classMappings, null);
+   }
+
+   HeterogeneousListNodeMapper(GraphMapperContext ctx, Function getter, Map<Class<?>, ClassMapping> classMappings,
+                               ParallelCollectionMapper parallel) {
+      this.ctx = ctx;
+      this.getter = getter;
+      this.classMappings = classMappings;
+      this.dispatcher = new ClassMappingDispatcher(classMappings);
+      this.parallel = parallel;
+   }
+
    @Override
-   public Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+   public Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException {
       List<?> currentSourceList = (List<?>) getter.apply(parentSource);
-      return mapToList(ctx, currentSourceList, classMappings);
+      return mapToList(ctx, currentSourceList, dispatcher, session, parallel);
    }
 
 }
\ No newline at end of file
@@ -20,12 +20,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
-import lombok.RequiredArgsConstructor;
-
 /**
  * Set Node Mapper for a Class Hierarchy
  */
-@RequiredArgsConstructor
 class HeterogeneousSetNodeMapper extends HeterogeneousCollectionNodeMapper implements NodeMapper {
 
    private final GraphMapperContext ctx;
@@ -34,10 +31,28 @@ class HeterogeneousSetNodeMapper extends HeterogeneousCollectionNodeMapper imple
 
    private final Map<Class<?>, ClassMapping> subclassMappings;
 
+   private final ClassMappingDispatcher dispatcher;
+
+   //null if the collection is mapped sequentially
+   private final ParallelCollectionMapper parallel;
+
+   HeterogeneousSetNodeMapper(GraphMapperContext ctx, Function getter, Map<Class<?>, ClassMapping> subclassMappings) {
+      this(ctx, getter, subclassMappings, null);
+   }
+
+   HeterogeneousSetNodeMapper(GraphMapperContext ctx, Function getter, Map<Class<?>, ClassMapping> subclassMappings,
+                              ParallelCollectionMapper parallel) {
+      this.ctx = ctx;
+      this.getter = getter;
+      this.subclassMappings = subclassMappings;
+      this.dispatcher = new ClassMappingDispatcher(subclassMappings);
+      this.parallel = parallel;
+   }
+
    @Override
-   public Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+   public Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException {
       Set<?> currentSourceSet = (Set<?>) getter.apply(parentSource);
-      return mapToList(ctx, currentSourceSet, subclassMappings);
+      return mapToList(ctx, currentSourceSet, dispatcher, session, parallel);
    }
 
 }
\ No newline at end of file
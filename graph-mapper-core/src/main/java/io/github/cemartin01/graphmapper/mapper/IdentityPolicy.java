@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+/**
+ * Defines whether a graph mapper preserves identity of sources in mapped targets.
+ */
+public enum IdentityPolicy {
+
+   /**
+    * Every occurrence of a source is mapped to a new target.
+    */
+   NONE,
+
+   /**
+    * A source reachable through several paths of the source graph is mapped once per invocation of a graph mapper
+    * and all the occurrences share one target. Sources are distinguished by identity, not by equals.
+    * A source mapped by different parts of a mapping graph is still mapped separately for each of them,
+    * because the parts may select different fields.
+    */
+   PER_INVOCATION,
+
+   /**
+    * Like {@link #PER_INVOCATION}, but the sources are shared by all roots mapped by one batch invocation
+    * of a graph mapper, e.g. {@link GraphMapper#mapAll(java.util.Collection, IdentityPolicy)}.
+    * A single root is a batch of its own.
+    */
+   PER_BATCH
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+
+/**
+ * Root Mapper that interprets the tree of class mappings and node mappers
+ */
+class InterpretedRootMapper implements RootMapper {
+
+   private final GraphMapperContext ctx;
+
+   //null for a homogeneous root
+   private final ClassMappingDispatcher dispatcher;
+
+   //null for a class hierarchy
+   private final ClassMapping rootMapping;
+
+   InterpretedRootMapper(GraphMapperContext ctx, Class<?> targetClass, Map<Class<?>, ClassMapping> classMappings) {
+      this.ctx = ctx;
+      if (classMappings.size() == 1) {
+         this.rootMapping = ClassMapping.ofRoot(ctx, targetClass, classMappings);
+         this.dispatcher = null;
+      } else {
+         this.rootMapping = null;
+         this.dispatcher = new ClassMappingDispatcher(classMappings);
+      }
+   }
+
+   @Override
+   public Object map(Object source) throws InvocationTargetException, IllegalAccessException {
+      return map(source, MappingSession.STATELESS);
+   }
+
+   Object map(Object source, MappingSession session) throws InvocationTargetException, IllegalAccessException {
+      return map(source, getClassMapping(source.getClass()), session);
+   }
+
+   /**
+    * Maps a root source by its class mapping, which may be resolved once for a run of sources of the same class
+    */
+   Object map(Object source, ClassMapping classMapping, MappingSession session)
+            throws InvocationTargetException, IllegalAccessException {
+      return session.map(ctx, source, classMapping);
+   }
+
+   ClassMapping getClassMapping(Class<?> sourceClass) {
+      return rootMapping != null ? rootMapping : dispatcher.dispatch(sourceClass);
+   }
+
+}
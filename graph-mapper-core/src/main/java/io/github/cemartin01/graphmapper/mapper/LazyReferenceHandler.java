@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.Node;
+
+/**
+ * Handles lazy references of sources before they are unproxied, so persistence integrations can avoid
+ * loading of references the mapping graph doesn't need.
+ *
+ * A reference to a single object whose node has no children and whose target class has no subclasses is mapped
+ * from the identifier of an uninitialized proxy if the handler tells the node selects nothing beyond it.
+ * Such a proxy is neither unproxied nor passed to the mapping function of the target class.
+ * Collections are passed to the handler before their elements are mapped.
+ *
+ * Graph mappers are cached by the structure of mapping graphs, which leaves out metadata of nodes, so a handler
+ * cannot be used by a factory with a cache.
+ */
+public interface LazyReferenceHandler {
+
+   /**
+    * Tells whether a node selects nothing beyond the identifier of its target, called when a graph mapper is built
+    * @param node leaf node of a reference to a single object
+    * @param targetClass target class of the reference
+    * @return true if a target can be mapped by {@link #mapIdentifier}
+    */
+   boolean isIdentifierSelected(Node<?> node, Class<?> targetClass);
+
+   /**
+    * Obtains the identifier of an uninitialized proxy without initializing it
+    * @param source source of a reference, not null
+    * @return the identifier, null if the source is not an uninitialized proxy
+    */
+   Object getIdentifier(Object source);
+
+   /**
+    * Maps an identifier to a new target
+    * @param identifier identifier of an uninitialized proxy
+    * @param targetClass target class of the reference
+    * @return the target
+    */
+   Object mapIdentifier(Object identifier, Class<?> targetClass);
+
+   /**
+    * Resolves a collection of a source before its elements are mapped
+    * @param collection source collection, not null
+    * @return collection to be mapped, null to set null to the target
+    */
+   Object resolveCollection(Object collection);
+
+}
@@ -19,9 +19,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.function.Function;
 
-import lombok.RequiredArgsConstructor;
+import lombok.AllArgsConstructor;
 
-@RequiredArgsConstructor
+@AllArgsConstructor
 class ListNodeMapper extends CollectionNodeMapper implements NodeMapper {
 
    private final GraphMapperContext ctx;
@@ -32,10 +32,19 @@ class ListNodeMapper extends CollectionNodeMapper implements NodeMapper {
 
    private final List<Reference> references;
 
+   private final Function<Object, Object> mapper;
+
+   //null if the collection is mapped sequentially
+   private final ParallelCollectionMapper parallel;
+
+   ListNodeMapper(GraphMapperContext ctx, Function getter, Class<?> targetClass, List<Reference> references) {
+      this(ctx, getter, targetClass, references, ctx.resolveMapper(targetClass), null);
+   }
+
    @Override
-   public Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+   public Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException {
       List<?> currentSourceList = (List<?>) getter.apply(parentSource);
-      return mapToList(ctx, currentSourceList, targetClass, references);
+      return mapToList(ctx, currentSourceList, this, mapper, references, session, parallel);
    }
 
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+/**
+ * Structural identity of a mapping graph, a root target class and a version of context registrations.
+ *
+ * Nodes are encoded in pre-order as their labels, type conditions and children counts, metadata are ignored
+ * because they do not influence the built graph mapper.
+ */
+final class MappingGraphKey {
+
+   private final Class<?> rootTargetClass;
+
+   private final long version;
+
+   private final NodeLabel[] labels;
+
+   private final int[] childrenCounts;
+
+   //null if no node is restricted by type conditions
+   private final List<?>[] typeConditions;
+
+   private final int hash;
+
+   private MappingGraphKey(Class<?> rootTargetClass, long version, NodeLabel[] labels, int[] childrenCounts,
+                           List<?>[] typeConditions) {
+      this.rootTargetClass = rootTargetClass;
+      this.version = version;
+      this.labels = labels;
+      this.childrenCounts = childrenCounts;
+      this.typeConditions = typeConditions;
+      this.hash = 31 * (31 * (31 * (31 * rootTargetClass.hashCode() + Long.hashCode(version))
+               + Arrays.hashCode(labels)) + Arrays.hashCode(childrenCounts)) + Arrays.hashCode(typeConditions);
+   }
+
+   public static MappingGraphKey of(MappingGraph<?> mappingGraph, Class<?> rootTargetClass) {
+      return of(mappingGraph, rootTargetClass, 0);
+   }
+
+   public static MappingGraphKey of(MappingGraph<?> mappingGraph, Class<?> rootTargetClass, long version) {
+      Node<?> root = mappingGraph.getRoot();
+      int size = countNodes(root);
+      NodeLabel[] labels = new NodeLabel[size];
+      int[] childrenCounts = new int[size];
+      List<?>[] typeConditions = new List<?>[size];
+      encode(root, labels, childrenCounts, typeConditions, 0);
+      return new MappingGraphKey(rootTargetClass, version, labels, childrenCounts,
+               hasTypeConditions(typeConditions) ? typeConditions : null);
+   }
+
+   private static boolean hasTypeConditions(List<?>[] typeConditions) {
+      for (List<?> conditions: typeConditions) {
+         if (!conditions.isEmpty()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static int countNodes(Node<?> node) {
+      int count = 1;
+      for (Node<?> child: node.getChildren()) {
+         count += countNodes(child);
+      }
+      return count;
+   }
+
+   private static int encode(Node<?> node, NodeLabel[] labels, int[] childrenCounts, List<?>[] typeConditions,
+                             int position) {
+      labels[position] = node.getLabel();
+      childrenCounts[position] = node.getChildren().size();
+      typeConditions[position] = node.getTypeConditions();
+      int next = position + 1;
+      for (Node<?> child: node.getChildren()) {
+         next = encode(child, labels, childrenCounts, typeConditions, next);
+      }
+      return next;
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (this == o) {
+         return true;
+      }
+      if (!(o instanceof MappingGraphKey)) {
+         return false;
+      }
+      MappingGraphKey other = (MappingGraphKey) o;
+      return hash == other.hash
+               && rootTargetClass == other.rootTargetClass
+               && version == other.version
+               && Arrays.equals(childrenCounts, other.childrenCounts)
+               && Arrays.equals(labels, other.labels)
+               && Arrays.equals(typeConditions, other.typeConditions);
+   }
+
+   @Override
+   public int hashCode() {
+      return hash;
+   }
+
+}
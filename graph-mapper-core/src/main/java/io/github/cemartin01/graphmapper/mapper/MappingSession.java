@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * State of a single invocation of a graph mapper.
+ *
+ * If identity of sources is preserved, the session maps a source and a part of the mapping plan
+ * (a node mapper or a class mapping) to the target already created for them. A target is registered
+ * before its references are mapped, so a source referring back to itself terminates with the same target.
+ */
+class MappingSession {
+
+   /**
+    * Session without any state, shared by all invocations which do not preserve identity
+    */
+   static final MappingSession STATELESS = new MappingSession(null);
+
+   //null if identity of sources is not preserved
+   private final Map<IdentityKey, Object> targets;
+
+   MappingSession(Map<IdentityKey, Object> targets) {
+      this.targets = targets;
+   }
+
+   static MappingSession of(IdentityPolicy identityPolicy) {
+      return identityPolicy == IdentityPolicy.NONE ? STATELESS : new MappingSession(new HashMap<>());
+   }
+
+   boolean preservesIdentity() {
+      return targets != null;
+   }
+
+   /**
+    * Maps a source and its references, or returns the target the source has been mapped to by the same plan
+    * @param plan identity of the part of the mapping plan, a node mapper or a class mapping
+    */
+   Object map(Object source, Object plan, Function<Object, Object> mapper, List<Reference> references)
+            throws InvocationTargetException, IllegalAccessException {
+      Object target;
+      if (targets != null) {
+         IdentityKey key = new IdentityKey(source, plan);
+         target = targets.get(key);
+         if (target != null) {
+            return target;
+         }
+         target = mapper.apply(source);
+         targets.put(key, target);
+      } else {
+         target = mapper.apply(source);
+      }
+      mapReferences(source, target, references);
+      return target;
+   }
+
+   /**
+    * Maps references of a source and sets them to its target
+    */
+   void mapReferences(Object source, Object target, List<Reference> references)
+            throws InvocationTargetException, IllegalAccessException {
+      for (Reference reference: references) {
+         reference.getSetter().accept(target, reference.getNodeMapper().map(source, this));
+      }
+   }
+
+   /**
+    * Maps a source by a class mapping selected for the class of the source
+    */
+   Object map(GraphMapperContext ctx, Object source, ClassMapping classMapping)
+            throws InvocationTargetException, IllegalAccessException {
+      return map(source, classMapping, classMapping.resolveMapper(ctx), classMapping.getReferences());
+   }
+
+   /**
+    * Rethrows a failure of mapping caught in another thread
+    */
+   static void rethrow(Throwable e) throws InvocationTargetException, IllegalAccessException {
+      if (e instanceof InvocationTargetException) {
+         throw (InvocationTargetException) e;
+      }
+      if (e instanceof IllegalAccessException) {
+         throw (IllegalAccessException) e;
+      }
+      if (e instanceof RuntimeException) {
+         throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+         throw (Error) e;
+      }
+      throw new GraphMapperException("Mapping failed in another thread", e);
+   }
+
+   static final class IdentityKey {
+
+      private final Object source;
+
+      private final Object plan;
+
+      private IdentityKey(Object source, Object plan) {
+         this.source = source;
+         this.plan = plan;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (!(o instanceof IdentityKey)) {
+            return false;
+         }
+         IdentityKey other = (IdentityKey) o;
+         return source == other.source && plan == other.plan;
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * System.identityHashCode(source) + System.identityHashCode(plan);
+      }
+
+   }
+
+}
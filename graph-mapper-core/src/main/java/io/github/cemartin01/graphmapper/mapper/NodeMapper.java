@@ -19,6 +19,10 @@ import java.lang.reflect.InvocationTargetException;
 
 interface NodeMapper {
 
-   Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException;
+   default Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+      return map(parentSource, MappingSession.STATELESS);
+   }
+
+   Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException;
 
 }
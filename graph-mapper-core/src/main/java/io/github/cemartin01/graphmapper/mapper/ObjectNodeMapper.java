@@ -19,9 +19,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.function.Function;
 
-import lombok.RequiredArgsConstructor;
+import lombok.AllArgsConstructor;
 
-@RequiredArgsConstructor
+@AllArgsConstructor
 class ObjectNodeMapper implements NodeMapper {
 
    private final GraphMapperContext ctx;
@@ -32,18 +32,19 @@ class ObjectNodeMapper implements NodeMapper {
 
    private final List<Reference> references;
 
+   private final Function<Object, Object> mapper;
+
+   ObjectNodeMapper(GraphMapperContext ctx, Function getter, Class<?> targetClass, List<Reference> references) {
+      this(ctx, getter, targetClass, references, ctx.resolveMapper(targetClass));
+   }
+
    @Override
-   public Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+   public Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException {
       Object currentSource = getter.apply(parentSource);
       if (currentSource == null) {
          return null;
       }
-      Object unwrappedSource = ctx.unproxy(currentSource);
-      Object target = ctx.map(unwrappedSource, targetClass);
-      for (Reference reference: references) {
-         reference.getSetter().accept(target, reference.getNodeMapper().map(unwrappedSource));
-      }
-      return target;
+      return session.map(ctx.unproxy(currentSource), this, mapper, references);
    }
 
 }
\ No newline at end of file
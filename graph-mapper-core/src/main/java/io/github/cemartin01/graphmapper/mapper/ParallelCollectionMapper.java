@@ -0,0 +1,194 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Maps elements of a collection reference in chunks by tasks of an executor, see {@link ParallelMappingSpec}.
+ * Every collection node mapper has its own instance, so the adaptive chunk size reflects the cost of its sub-plan.
+ */
+final class ParallelCollectionMapper {
+
+   /**
+    * Maps a non null element of a source collection
+    */
+   interface ElementMapper {
+
+      Object map(Object source) throws InvocationTargetException, IllegalAccessException;
+
+   }
+
+   private static final double COST_WEIGHT = 0.25;
+
+   private final ParallelMappingSpec spec;
+
+   private final long targetChunkNanos;
+
+   //Average cost of an element in nanoseconds, 0 until observed in adaptive mode
+   private volatile double elementCost;
+
+   ParallelCollectionMapper(ParallelMappingSpec spec) {
+      this.spec = spec;
+      this.targetChunkNanos = spec.getTargetChunkTime().toNanos();
+   }
+
+   List<Object> mapToList(Collection<?> sourceCollection, MappingSession session, ElementMapper elementMapper)
+            throws InvocationTargetException, IllegalAccessException {
+      int chunkSize = getChunkSize();
+      int threshold = spec.isAdaptive() && elementCost > 0 ? 2 * chunkSize : spec.getThreshold();
+      //identity of sources is tracked by a session which is not thread-safe
+      if (session.preservesIdentity() || sourceCollection.size() < threshold) {
+         return mapSequentially(sourceCollection, elementMapper);
+      }
+      return mapInParallel(sourceCollection.toArray(), chunkSize, elementMapper);
+   }
+
+   int getChunkSize() {
+      double cost = elementCost;
+      if (!spec.isAdaptive() || cost == 0) {
+         return spec.getThreshold();
+      }
+      return (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, targetChunkNanos / cost));
+   }
+
+   private List<Object> mapSequentially(Collection<?> sourceCollection, ElementMapper elementMapper)
+            throws InvocationTargetException, IllegalAccessException {
+      long start = spec.isAdaptive() ? System.nanoTime() : 0;
+      List<Object> targetList = new ArrayList<>(sourceCollection.size());
+      for (Object source: sourceCollection) {
+         targetList.add(source == null ? null : elementMapper.map(source));
+      }
+      if (spec.isAdaptive()) {
+         observe(targetList.size(), System.nanoTime() - start);
+      }
+      return targetList;
+   }
+
+   private List<Object> mapInParallel(Object[] sources, int chunkSize, ElementMapper elementMapper)
+            throws InvocationTargetException, IllegalAccessException {
+      Object[] targets = new Object[sources.length];
+      ChunkedMapping mapping = new ChunkedMapping(sources, targets, chunkSize, elementMapper);
+      for (int i = 1; i < mapping.chunkCount; i++) {
+         try {
+            spec.getExecutor().execute(mapping);
+         } catch (RejectedExecutionException e) {
+            //remaining chunks are mapped by the calling thread
+            break;
+         }
+      }
+      mapping.run();
+      mapping.await();
+      mapping.rethrowFailure();
+      return new ArrayList<>(Arrays.asList(targets));
+   }
+
+   private void observe(int count, long nanos) {
+      if (count == 0) {
+         return;
+      }
+      double sample = (double) nanos / count;
+      double cost = elementCost;
+      elementCost = cost == 0 ? sample : cost + COST_WEIGHT * (sample - cost);
+   }
+
+   /**
+    * Chunks claimed one by one by executor tasks and by the calling thread
+    */
+   private final class ChunkedMapping implements Runnable {
+
+      private final Object[] sources;
+
+      private final Object[] targets;
+
+      private final int chunkSize;
+
+      private final int chunkCount;
+
+      private final ElementMapper elementMapper;
+
+      private final AtomicInteger nextChunk = new AtomicInteger();
+
+      private final CountDownLatch finishedChunks;
+
+      private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+      private ChunkedMapping(Object[] sources, Object[] targets, int chunkSize, ElementMapper elementMapper) {
+         this.sources = sources;
+         this.targets = targets;
+         this.chunkSize = chunkSize;
+         this.chunkCount = (int) ((sources.length + (long) chunkSize - 1) / chunkSize);
+         this.elementMapper = elementMapper;
+         this.finishedChunks = new CountDownLatch(chunkCount);
+      }
+
+      @Override
+      public void run() {
+         int chunk;
+         while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+            try {
+               if (failure.get() == null) {
+                  mapChunk(chunk);
+               }
+            } catch (Throwable e) {
+               failure.compareAndSet(null, e);
+            } finally {
+               finishedChunks.countDown();
+            }
+         }
+      }
+
+      private void mapChunk(int chunk) throws InvocationTargetException, IllegalAccessException {
+         long start = spec.isAdaptive() ? System.nanoTime() : 0;
+         int from = chunk * chunkSize;
+         int to = Math.min(sources.length, from + chunkSize);
+         for (int i = from; i < to; i++) {
+            targets[i] = sources[i] == null ? null : elementMapper.map(sources[i]);
+         }
+         if (spec.isAdaptive()) {
+            observe(to - from, System.nanoTime() - start);
+         }
+      }
+
+      private void await() {
+         try {
+            finishedChunks.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphMapperException("Parallel mapping of a collection has been interrupted", e);
+         }
+      }
+
+      private void rethrowFailure() throws InvocationTargetException, IllegalAccessException {
+         Throwable e = failure.get();
+         if (e != null) {
+            MappingSession.rethrow(e);
+         }
+      }
+
+   }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Specification of parallel mapping of collection references by graph mappers built by {@link GraphMapperFactory}.
+ *
+ * A large source collection is split into chunks mapped by tasks of an executor, the order of targets is kept.
+ * The calling thread maps unclaimed chunks itself, so nested parallel collections do not starve a bounded executor.
+ * The context must be declared thread-safe by {@link GraphMapperContext#declareThreadSafe()}.
+ * Invocations preserving identity of sources map collections sequentially.
+ */
+@Getter
+@Builder
+public class ParallelMappingSpec {
+
+   /**
+    * Minimum size of a source collection mapped in parallel, also the initial size of a chunk
+    */
+   @Builder.Default
+   private final int threshold = 1024;
+
+   /**
+    * Executor of chunk tasks
+    */
+   @Builder.Default
+   private final Executor executor = ForkJoinPool.commonPool();
+
+   /**
+    * Adapts the threshold and the size of a chunk to the cost of an element observed by each collection reference,
+    * so that a chunk takes about {@link #targetChunkTime}
+    */
+   @Builder.Default
+   private final boolean adaptive = false;
+
+   /**
+    * Desired duration of mapping of a chunk if the mode is adaptive
+    */
+   @Builder.Default
+   private final Duration targetChunkTime = Duration.ofMillis(1);
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+/**
+ * Form of a mapping plan interpreted by graph mappers built by {@link GraphMapperFactory}
+ */
+public enum PlanForm {
+
+   /**
+    * Tree of node mappers, every reference is mapped by its own node mapper
+    */
+   OBJECT_GRAPH,
+
+   /**
+    * Array-encoded plan run by a single interpreter loop with an explicit stack,
+    * suitable for deep plans with many references
+    */
+   FLAT
+
+}
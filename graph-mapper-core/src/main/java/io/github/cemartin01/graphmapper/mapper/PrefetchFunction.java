@@ -0,0 +1,38 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.util.List;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+/**
+ * Prefetches references of all sources of one level of a mapping graph at once,
+ * e.g. initializes lazy associations of the sources by a single batched query.
+ *
+ * It's called by graph mappers mapping breadth-first, see {@link GraphMapperFactory}.
+ */
+@FunctionalInterface
+public interface PrefetchFunction {
+
+   /**
+    * Called once for every label of references of a level before any of the references is obtained from its source.
+    * @param nodeLabel label of the references
+    * @param parents unproxied sources of the references in mapping order
+    */
+   void prefetch(NodeLabel nodeLabel, List<Object> parents);
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Root Mapper that starts with an initial backend and promotes itself to a compiled backend
+ * once it has been invoked a given number of times.
+ *
+ * The invocation counter is intentionally not synchronized, so the promotion may happen a few invocations later
+ * than configured. The compilation runs once in the invoking thread, other threads keep using the initial backend
+ * meanwhile. If the compilation fails, the initial backend is used for good.
+ */
+class PromotingRootMapper implements RootMapper {
+
+   private final RootMapper initial;
+
+   private final Supplier<RootMapper> compiler;
+
+   private final int threshold;
+
+   private final AtomicBoolean compilationStarted = new AtomicBoolean();
+
+   private volatile RootMapper delegate;
+
+   private int invocations;
+
+   PromotingRootMapper(RootMapper initial, int threshold, Supplier<RootMapper> compiler) {
+      this.initial = initial;
+      this.threshold = threshold;
+      this.compiler = compiler;
+      this.delegate = initial;
+   }
+
+   @Override
+   public Object map(Object source) throws InvocationTargetException, IllegalAccessException {
+      RootMapper current = delegate;
+      if (current == initial && ++invocations >= threshold && !compilationStarted.get()) {
+         current = promote();
+      }
+      return current.map(source);
+   }
+
+   boolean isPromoted() {
+      return delegate != initial;
+   }
+
+   private RootMapper promote() {
+      if (compilationStarted.compareAndSet(false, true)) {
+         try {
+            delegate = compiler.get();
+         } catch (GraphMapperException e) {
+            //the plan is not compilable, keep the initial backend
+         }
+      }
+      return delegate;
+   }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Skips the unproxy function for runtime classes whose instances are never proxies.
+ *
+ * A class is classified once by a user predicate, if there is one. Otherwise, if learning is enabled, it is learned:
+ * a class whose instances were returned unchanged by the unproxy function {@link #LEARNING_THRESHOLD} times and never
+ * unwrapped is treated as a plain class. Proxy libraries generate their own proxy classes, so a plain class stays plain.
+ * Without a predicate and learning, the unproxy function is called for every object.
+ */
+final class ProxyClassifier {
+
+   static final int LEARNING_THRESHOLD = 32;
+
+   private final UnproxyFunction unproxyFunction;
+
+   private final ClassValue<ProxyClass> classes;
+
+   private final LongAdder unproxyCount = new LongAdder();
+
+   private final LongAdder unwrappedCount = new LongAdder();
+
+   private final LongAdder skippedCount = new LongAdder();
+
+   /**
+    * @param proxyClassPredicate tells whether instances of a class may be proxies, null if it's not known
+    * @param learning whether plain classes are learned when there is no predicate
+    */
+   ProxyClassifier(UnproxyFunction unproxyFunction, Predicate<Class<?>> proxyClassPredicate, boolean learning) {
+      this.unproxyFunction = unproxyFunction;
+      this.classes = new ClassValue<ProxyClass>() {
+         @Override
+         protected ProxyClass computeValue(Class<?> type) {
+            ProxyClass proxyClass = new ProxyClass();
+            if (proxyClassPredicate != null) {
+               proxyClass.learnt = true;
+               proxyClass.plain = !proxyClassPredicate.test(type);
+            } else if (!learning) {
+               proxyClass.learnt = true;
+            }
+            return proxyClass;
+         }
+      };
+   }
+
+   Object unproxy(Object object) {
+      if (object == null) {
+         return unproxyFunction.unproxy(null);
+      }
+      ProxyClass proxyClass = classes.get(object.getClass());
+      if (proxyClass.plain) {
+         skippedCount.increment();
+         return object;
+      }
+      unproxyCount.increment();
+      Object unproxiedObject = unproxyFunction.unproxy(object);
+      if (!proxyClass.learnt) {
+         if (unproxiedObject != object) {
+            proxyClass.learnt = true;
+         } else if (++proxyClass.plainObservations >= LEARNING_THRESHOLD) {
+            proxyClass.learnt = true;
+            proxyClass.plain = true;
+         }
+      }
+      if (unproxiedObject != object) {
+         unwrappedCount.increment();
+      }
+      return unproxiedObject;
+   }
+
+   UnproxyStats getStats() {
+      return new UnproxyStats(unproxyCount.sum(), unwrappedCount.sum(), skippedCount.sum());
+   }
+
+   /**
+    * Classification of a runtime class, racy updates only delay learning
+    */
+   private static final class ProxyClass {
+
+      private volatile boolean plain;
+
+      private boolean learnt;
+
+      private int plainObservations;
+
+   }
+
+}
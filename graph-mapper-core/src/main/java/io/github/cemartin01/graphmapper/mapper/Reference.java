@@ -15,6 +15,7 @@
  */
 package io.github.cemartin01.graphmapper.mapper;
 
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 import lombok.AllArgsConstructor;
@@ -27,4 +28,16 @@ class Reference {
    public final BiConsumer setter;
    public final NodeMapper nodeMapper;
 
+   //Structure of the reference used by alternative mapping backends, null if only the node mapper is known
+   public final ReferenceTemplate template;
+   public final Map<Class<?>, ClassMapping> classMappings;
+
+   public Reference(BiConsumer setter, NodeMapper nodeMapper) {
+      this(setter, nodeMapper, null, null);
+   }
+
+   public boolean isHeterogeneous() {
+      return classMappings.size() != 1;
+   }
+
 }
\ No newline at end of file
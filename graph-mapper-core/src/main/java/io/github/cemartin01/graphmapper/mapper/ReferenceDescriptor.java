@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Read-only description of a reference bound by {@link GraphMapperContext.Binding},
+ * used by integrations deriving fetch plans from mapping graphs.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReferenceDescriptor {
+
+   /**
+    * Label of the reference, its name is the name of the source and target property
+    */
+   private final NodeLabel nodeLabel;
+
+   /**
+    * Target class of the reference or of elements of a collection reference
+    */
+   private final Class<?> targetClass;
+
+   private final boolean collection;
+
+}
@@ -17,6 +17,7 @@ package io.github.cemartin01.graphmapper.mapper;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import io.github.cemartin01.graphmapper.exception.GraphMapperException;
 
@@ -27,26 +28,34 @@ class ReferenceFactory {
 
    private final GraphMapperContext ctx;
 
+   //null if collections are mapped sequentially
+   private final ParallelMappingSpec parallelism;
+
+   ReferenceFactory(GraphMapperContext ctx) {
+      this(ctx, null);
+   }
+
    public Reference getReference(ReferenceTemplate template, Map<Class<?>, ClassMapping> classMappings) {
       NodeMapper nodeMapper;
       NodeMapperTemplate nodeMapperTemplate = template.getNodeMapperTemplate();
       if (classMappings.size() == 1) {
-         List<Reference> rootReferences = classMappings.get(RootMapping.class).getReferences();
-         nodeMapper = buildNodeMapper(nodeMapperTemplate, rootReferences);
+         nodeMapper = buildNodeMapper(nodeMapperTemplate, classMappings.get(RootMapping.class));
       } else {
          nodeMapper = buildDynamicNodeMapper(nodeMapperTemplate, classMappings);
       }
-      return new Reference(template.getSetter(), nodeMapper);
+      return new Reference(template.getSetter(), nodeMapper, template, classMappings);
    }
 
-   private NodeMapper buildNodeMapper(NodeMapperTemplate nodeMapperTemplate, List<Reference> rootReferences) {
+   private NodeMapper buildNodeMapper(NodeMapperTemplate nodeMapperTemplate, ClassMapping rootMapping) {
+      List<Reference> rootReferences = rootMapping.getReferences();
+      Function<Object, Object> mapper = rootMapping.resolveMapper(ctx);
       switch (nodeMapperTemplate.getReferenceType()) {
          case OBJECT: return new ObjectNodeMapper(ctx, nodeMapperTemplate.getGetter(),
-                  nodeMapperTemplate.getTargetClass(), rootReferences);
+                  nodeMapperTemplate.getTargetClass(), rootReferences, mapper);
          case LIST: return new ListNodeMapper(ctx, nodeMapperTemplate.getGetter(),
-                  nodeMapperTemplate.getTargetClass(), rootReferences);
+                  nodeMapperTemplate.getTargetClass(), rootReferences, mapper, parallelCollectionMapper());
          case SET: return new SetNodeMapper(ctx, nodeMapperTemplate.getGetter(),
-                  nodeMapperTemplate.getTargetClass(), rootReferences);
+                  nodeMapperTemplate.getTargetClass(), rootReferences, mapper, parallelCollectionMapper());
          default: throw new GraphMapperException("Unknown reference type");
       }
    }
@@ -55,10 +64,16 @@ class ReferenceFactory {
                                              Map<Class<?>, ClassMapping> classMappings) {
       switch (nodeMapperTemplate.getReferenceType()) {
          case OBJECT: return new DynamicObjectNodeMapper(ctx, nodeMapperTemplate.getGetter(), classMappings);
-         case LIST:  return new HeterogeneousListNodeMapper(ctx, nodeMapperTemplate.getGetter(), classMappings);
-         case SET: return new HeterogeneousSetNodeMapper(ctx, nodeMapperTemplate.getGetter(), classMappings);
+         case LIST:  return new HeterogeneousListNodeMapper(ctx, nodeMapperTemplate.getGetter(), classMappings,
+                  parallelCollectionMapper());
+         case SET: return new HeterogeneousSetNodeMapper(ctx, nodeMapperTemplate.getGetter(), classMappings,
+                  parallelCollectionMapper());
          default: throw new GraphMapperException("Unknown reference type");
       }
    }
 
+   private ParallelCollectionMapper parallelCollectionMapper() {
+      return parallelism == null ? null : new ParallelCollectionMapper(parallelism);
+   }
+
 }
\ No newline at end of file
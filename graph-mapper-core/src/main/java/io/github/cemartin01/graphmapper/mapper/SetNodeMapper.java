@@ -20,9 +20,9 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 
-import lombok.RequiredArgsConstructor;
+import lombok.AllArgsConstructor;
 
-@RequiredArgsConstructor
+@AllArgsConstructor
 class SetNodeMapper extends CollectionNodeMapper implements NodeMapper {
 
    private final GraphMapperContext ctx;
@@ -33,10 +33,19 @@ class SetNodeMapper extends CollectionNodeMapper implements NodeMapper {
 
    private final List<Reference> references;
 
+   private final Function<Object, Object> mapper;
+
+   //null if the collection is mapped sequentially
+   private final ParallelCollectionMapper parallel;
+
+   SetNodeMapper(GraphMapperContext ctx, Function getter, Class<?> targetClass, List<Reference> references) {
+      this(ctx, getter, targetClass, references, ctx.resolveMapper(targetClass), null);
+   }
+
    @Override
-   public Object map(Object parentSource) throws InvocationTargetException, IllegalAccessException {
+   public Object map(Object parentSource, MappingSession session) throws InvocationTargetException, IllegalAccessException {
       Set<?> currentSourceSet = (Set<?>) getter.apply(parentSource);
-      return mapToList(ctx, currentSourceSet, targetClass, references);
+      return mapToList(ctx, currentSourceSet, this, mapper, references, session, parallel);
    }
 
 }
\ No newline at end of file
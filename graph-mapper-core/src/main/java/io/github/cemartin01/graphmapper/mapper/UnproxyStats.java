@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of statistics of unproxying in a graph mapper context.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class UnproxyStats {
+
+   /**
+    * Number of calls of the unproxy function
+    */
+   private final long unproxyCount;
+
+   /**
+    * Number of calls of the unproxy function that returned a different object, i.e. unproxying was needed
+    */
+   private final long unwrappedCount;
+
+   /**
+    * Number of objects of plain classes for which the unproxy function was skipped
+    */
+   private final long skippedCount;
+
+}
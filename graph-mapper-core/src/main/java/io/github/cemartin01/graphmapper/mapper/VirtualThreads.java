@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Provides an executor of virtual threads.
+ *
+ * The library is compiled for Java 11, so the factory of virtual threads is looked up reflectively
+ * by {@code Thread.ofVirtual()} once. On JVMs without virtual threads, or with virtual threads in preview
+ * and preview features disabled, there is no executor.
+ */
+final class VirtualThreads {
+
+   //null if the JVM does not support virtual threads
+   private static final Executor EXECUTOR = createExecutor();
+
+   private VirtualThreads() {
+   }
+
+   /**
+    * @return executor starting a virtual thread for every task, null if the JVM does not support virtual threads
+    */
+   static Executor executor() {
+      return EXECUTOR;
+   }
+
+   private static Executor createExecutor() {
+      try {
+         Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+         Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+         builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "graph-mapper-", 0L);
+         ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+         return task -> factory.newThread(task).start();
+      } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException e) {
+         return null;
+      } catch (InvocationTargetException e) {
+         //virtual threads are a disabled preview feature
+         if (e.getCause() instanceof UnsupportedOperationException) {
+            return null;
+         }
+         throw new IllegalStateException("Creation of virtual thread factory failed", e.getCause());
+      }
+   }
+
+}
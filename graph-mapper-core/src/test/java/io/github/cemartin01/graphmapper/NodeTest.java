@@ -4,6 +4,7 @@ import io.github.cemartin01.graphmapper.mock.CateringNodeLabel;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,4 +39,36 @@ public class NodeTest {
 
     }
 
+    @Test
+    public void childrenOfSameLabelAreMerged() {
+
+        Node<Void> node = Node.<Void>builder()
+                .child(Node.<Void>builder()
+                        .label(CateringNodeLabel.RECIPE)
+                        .child(Node.of(CateringNodeLabel.MEAL))
+                        .build())
+                .child(Node.of(CateringNodeLabel.MEAL))
+                .child(Node.<Void>builder()
+                        .label(CateringNodeLabel.RECIPE)
+                        .typeCondition("Lunch")
+                        .child(Node.<Void>builder()
+                                .label(CateringNodeLabel.MEAL)
+                                .child(Node.of(CateringNodeLabel.RECIPE))
+                                .build())
+                        .build())
+                .build();
+
+        List<? extends Node<?>> children = Node.mergeChildren(node);
+
+        assertEquals(2, children.size());
+        Node<?> recipe = children.get(0);
+        assertEquals(CateringNodeLabel.RECIPE, recipe.getLabel());
+        assertTrue(recipe.getTypeConditions().isEmpty());
+        assertEquals(1, recipe.getChildren().size());
+        assertEquals(CateringNodeLabel.MEAL, recipe.getChildren().get(0).getLabel());
+        assertEquals(1, recipe.getChildren().get(0).getChildren().size());
+        assertSame(node.getChildren().get(1), children.get(1));
+        assertSame(recipe.getChildren(), Node.mergeChildren(recipe));
+    }
+
 }
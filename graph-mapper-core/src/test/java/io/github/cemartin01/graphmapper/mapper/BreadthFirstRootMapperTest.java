@@ -0,0 +1,104 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
+import io.github.cemartin01.graphmapper.mock.dto.*;
+import io.github.cemartin01.graphmapper.mock.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+import static io.github.cemartin01.graphmapper.mock.GraphAssertions.assertGraphEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BreadthFirstRootMapperTest {
+
+    private final GraphMapperContext CONTEXT = CateringFixtures.context();
+
+    @Test
+    public void breadthFirstMapsLikeInterpreter() throws Exception {
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class));
+
+        RootMapper interpreted = new InterpretedRootMapper(CONTEXT, WeekMenuDTO.class, classMappings);
+        RootMapper breadthFirst = new BreadthFirstRootMapper(CONTEXT, WeekMenuDTO.class, classMappings,
+                (label, parents) -> { });
+
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(3, 4);
+        weekMenu.setCustomer(null);
+
+        assertGraphEquals(interpreted.map(weekMenu), breadthFirst.map(weekMenu));
+    }
+
+    @Test
+    public void breadthFirstMapsClassHierarchy() throws Exception {
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(RECIPE)
+                                .child(Node.of(VARIANTS))
+                                .build())
+                        .child(Node.of(MEAL_TYPE))
+                        .build()
+        );
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(mappingGraph, Meal.class));
+
+        RootMapper interpreted = new InterpretedRootMapper(CONTEXT, Meal.class, classMappings);
+        RootMapper breadthFirst = new BreadthFirstRootMapper(CONTEXT, Meal.class, classMappings,
+                (label, parents) -> { });
+
+        for (DayMenuItemEntity item: CateringFixtures.weekMenu(1, 3).getDays().get(0).getItems()) {
+            if (item != null && item.getMeal() != null) {
+                assertGraphEquals(interpreted.map(item.getMeal()), breadthFirst.map(item.getMeal()));
+            }
+        }
+    }
+
+    @Test
+    public void prefetchIsCalledOncePerLabelOfLevel() {
+        List<NodeLabel> labels = new ArrayList<>();
+        List<Integer> parentCounts = new ArrayList<>();
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .prefetchFunction((label, parents) -> {
+                    labels.add(label);
+                    parentCounts.add(parents.size());
+                })
+                .build();
+
+        //items per day: lunch, soup, no meal, lunch and a null item
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(2, 4);
+        factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class).map(weekMenu);
+
+        assertEquals(Arrays.asList(
+                DAY_MENUS, PROVIDER, CUSTOMER,
+                DAY_MENU_ITEMS,
+                MEAL, MEAL_TYPE,
+                RECIPE, SIDE_DISH, MEAL_TYPE,
+                VARIANTS
+        ), labels);
+        assertEquals(Arrays.asList(
+                1, 1, 1,
+                2,
+                8, 8,
+                6, 4, 6,
+                6
+        ), parentCounts);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private Map<Class<?>, ClassMapping> classMappings(GraphMapper<?> mapper) throws Exception {
+        Field field = GraphMapper.class.getDeclaredField("classMappings");
+        field.setAccessible(true);
+        return (Map<Class<?>, ClassMapping>) field.get(mapper);
+    }
+
+}
@@ -0,0 +1,100 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
+import io.github.cemartin01.graphmapper.mock.dto.*;
+import io.github.cemartin01.graphmapper.mock.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassMappingDispatcherTest {
+
+    private static final ClassMapping LUNCH_MAPPING = new ClassMapping(LunchDTO.class, Collections.emptyList());
+
+    private static final ClassMapping SOUP_MAPPING = new ClassMapping(SoupDTO.class, Collections.emptyList());
+
+    private final Map<Class<?>, ClassMapping> CLASS_MAPPINGS = ImmutableMap.of(
+            LunchEntity.class, LUNCH_MAPPING,
+            SoupEntity.class, SOUP_MAPPING
+    );
+
+    @Test
+    public void mappedClassesAreDispatched() {
+        ClassMappingDispatcher dispatcher = new ClassMappingDispatcher(CLASS_MAPPINGS);
+
+        for (int i = 0; i < 3; i++) {
+            assertSame(LUNCH_MAPPING, dispatcher.dispatch(LunchEntity.class));
+            assertSame(SOUP_MAPPING, dispatcher.dispatch(SoupEntity.class));
+        }
+    }
+
+    @Test
+    public void unmappedSubclassInheritsClassMappingOfSuperclass() {
+        ClassMappingDispatcher dispatcher = new ClassMappingDispatcher(CLASS_MAPPINGS);
+
+        assertSame(LUNCH_MAPPING, dispatcher.dispatch(EnhancedLunchEntity.class));
+        assertSame(SOUP_MAPPING, dispatcher.dispatch(SoupEntity.class));
+        assertSame(LUNCH_MAPPING, dispatcher.dispatch(LunchEntity.class));
+        assertSame(LUNCH_MAPPING, dispatcher.dispatch(EnhancedLunchEntity.class));
+    }
+
+    @Test
+    public void unmappedClassIsRejected() {
+        ClassMappingDispatcher dispatcher = new ClassMappingDispatcher(CLASS_MAPPINGS);
+
+        assertThrows(GraphMapperException.class, () -> dispatcher.dispatch(MealTypeEntity.class));
+    }
+
+    @Test
+    public void unmappedSubclassIsMappedByEveryBackend() {
+        GraphMapperContext ctx = CateringFixtures.context();
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(DAY_MENU_ITEMS)
+                                .child(Node.<Void>builder()
+                                        .label(MEAL)
+                                        .child(Node.of(SIDE_DISH))
+                                        .build())
+                                .build())
+                        .build()
+        );
+
+        DayMenuItemEntity item = new DayMenuItemEntity();
+        EnhancedLunchEntity lunch = new EnhancedLunchEntity();
+        lunch.setName("lunch");
+        lunch.setSideDish(new SideDishEntity());
+        item.setMeal(lunch);
+        DayMenuEntity day = new DayMenuEntity();
+        day.getItems().add(item);
+
+        for (GraphMapperFactory factory: new GraphMapperFactory[] {
+                GraphMapperFactory.builder().context(ctx).build(),
+                GraphMapperFactory.builder().context(ctx).planForm(PlanForm.FLAT).build(),
+                GraphMapperFactory.builder().context(ctx).compileThreshold(0).build()
+        }) {
+            DayMenuDTO dayDTO = factory.getGraphMapper(mappingGraph, DayMenuDTO.class).map(day);
+            LunchDTO lunchDTO = (LunchDTO) dayDTO.getItems().get(0).getMeal();
+            assertEquals("lunch", lunchDTO.getName());
+            assertNotNull(lunchDTO.getSideDish());
+
+            Meal meal = factory.getGraphMapper(MappingGraph.of(Node.<Void>builder().build()), Meal.class).map(lunch);
+            assertTrue(meal instanceof LunchDTO);
+        }
+    }
+
+    /**
+     * Simulates a bytecode-enhanced entity
+     */
+    private static class EnhancedLunchEntity extends LunchEntity {
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
+import io.github.cemartin01.graphmapper.mock.dto.*;
+import io.github.cemartin01.graphmapper.mock.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+import static io.github.cemartin01.graphmapper.mock.GraphAssertions.assertGraphEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlatRootMapperTest {
+
+    private final GraphMapperContext CONTEXT = CateringFixtures.context();
+
+    @Test
+    public void flatPlanMapsLikeInterpreter() throws Exception {
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class));
+
+        RootMapper interpreted = new InterpretedRootMapper(CONTEXT, WeekMenuDTO.class, classMappings);
+        RootMapper flat = FlatRootMapper.encode(CONTEXT, WeekMenuDTO.class, classMappings);
+
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(3, 4);
+        weekMenu.setCustomer(null);
+
+        assertGraphEquals(interpreted.map(weekMenu), flat.map(weekMenu));
+    }
+
+    @Test
+    public void flatPlanMapsClassHierarchy() throws Exception {
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(RECIPE)
+                                .child(Node.of(VARIANTS))
+                                .build())
+                        .child(Node.of(SIDE_DISH))
+                        .build()
+        );
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(mappingGraph, Meal.class));
+
+        RootMapper interpreted = new InterpretedRootMapper(CONTEXT, Meal.class, classMappings);
+        RootMapper flat = FlatRootMapper.encode(CONTEXT, Meal.class, classMappings);
+
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.getVariants().add(new SoupEntity());
+        recipe.getVariants().add(new LunchEntity());
+        LunchEntity lunch = new LunchEntity();
+        lunch.setId(UUID.randomUUID());
+        lunch.setRecipe(recipe);
+        lunch.setSideDish(new SideDishEntity());
+        SoupEntity soup = new SoupEntity();
+        soup.setId(UUID.randomUUID());
+
+        assertGraphEquals(interpreted.map(lunch), flat.map(lunch));
+        assertGraphEquals(interpreted.map(soup), flat.map(soup));
+
+        LunchDTO lunchDTO = (LunchDTO) flat.map(lunch);
+        assertEquals(2, lunchDTO.getRecipe().getVariants().size());
+        assertNotNull(lunchDTO.getSideDish());
+    }
+
+    @Test
+    public void emptyCollectionsAndLeavesAreMapped() throws Exception {
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.of(DAY_MENUS))
+                        .build()
+        );
+        GraphMapper<WeekMenuDTO> mapper = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .planForm(PlanForm.FLAT)
+                .build()
+                .getGraphMapper(mappingGraph, WeekMenuDTO.class);
+
+        WeekMenuEntity weekMenu = new WeekMenuEntity(UUID.randomUUID());
+        assertTrue(mapper.map(weekMenu).getDays().isEmpty());
+
+        weekMenu.setDaysToNull();
+        assertNull(mapper.map(weekMenu).getDays());
+    }
+
+    @Test
+    public void factoryBuildsSelectedPlanForm() throws Exception {
+        GraphMapper<WeekMenuDTO> flat = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .planForm(PlanForm.FLAT)
+                .build()
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        GraphMapper<WeekMenuDTO> objectGraph = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .build()
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        assertTrue(rootMapper(flat) instanceof FlatRootMapper);
+        assertTrue(rootMapper(objectGraph) instanceof InterpretedRootMapper);
+
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(2, 2);
+        assertGraphEquals(objectGraph.map(weekMenu), flat.map(weekMenu));
+    }
+
+    private Map<Class<?>, ClassMapping> classMappings(GraphMapper<?> mapper) throws Exception {
+        Field field = GraphMapper.class.getDeclaredField("classMappings");
+        field.setAccessible(true);
+        return (Map<Class<?>, ClassMapping>) field.get(mapper);
+    }
+
+    private RootMapper rootMapper(GraphMapper<?> mapper) throws Exception {
+        Field field = GraphMapper.class.getDeclaredField("rootMapper");
+        field.setAccessible(true);
+        return (RootMapper) field.get(mapper);
+    }
+
+}
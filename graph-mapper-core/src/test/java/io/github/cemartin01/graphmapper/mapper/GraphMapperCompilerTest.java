@@ -0,0 +1,158 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import com.google.common.collect.ImmutableMap;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
+import io.github.cemartin01.graphmapper.mock.dto.*;
+import io.github.cemartin01.graphmapper.mock.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+import static io.github.cemartin01.graphmapper.mock.GraphAssertions.assertGraphEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphMapperCompilerTest {
+
+    private final GraphMapperContext CONTEXT = CateringFixtures.context();
+
+    @Test
+    public void compiledMapperMapsLikeInterpreter() throws Exception {
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class));
+
+        RootMapper interpreted = new InterpretedRootMapper(CONTEXT, WeekMenuDTO.class, classMappings);
+        RootMapper compiled = GraphMapperCompiler.compile(CONTEXT, WeekMenuDTO.class, classMappings);
+
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(3, 4);
+
+        WeekMenuDTO expected = (WeekMenuDTO) interpreted.map(weekMenu);
+        WeekMenuDTO actual = (WeekMenuDTO) compiled.map(weekMenu);
+
+        assertGraphEquals(expected, actual);
+        assertNotNull(actual.getDays().get(0).getItems().get(0).getMeal().getRecipe().getVariants());
+        assertNull(actual.getCustomer());
+    }
+
+    @Test
+    public void compiledMappersAreDefinedByOwnClassLoaders() throws Exception {
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class));
+
+        Class<?> first = ((GraphMapperCompiler.CompiledRootMapper) GraphMapperCompiler.compile(CONTEXT,
+                WeekMenuDTO.class, classMappings)).mapping.getClass();
+        Class<?> second = ((GraphMapperCompiler.CompiledRootMapper) GraphMapperCompiler.compile(CONTEXT,
+                WeekMenuDTO.class, classMappings)).mapping.getClass();
+
+        assertNotSame(first.getClassLoader(), second.getClassLoader());
+        assertNotSame(GraphMapperCompiler.class.getClassLoader(), first.getClassLoader());
+        assertSame(GraphMapperCompiler.class.getClassLoader(), first.getClassLoader().getParent());
+        //constants are taken by the static initializer
+        assertThrows(IllegalStateException.class, () -> CompiledMapperSupport.takeConstants(first));
+        assertThrows(IllegalStateException.class, () -> CompiledMapperSupport.takeConstants(WeekMenuDTO.class));
+    }
+
+    @Test
+    public void compiledMapperMapsClassHierarchy() throws Exception {
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.of(RECIPE))
+                        .child(Node.of(SIDE_DISH))
+                        .build()
+        );
+        Map<Class<?>, ClassMapping> classMappings = classMappings(
+                new GraphMapperFactory(CONTEXT).getGraphMapper(mappingGraph, Meal.class));
+
+        RootMapper interpreted = new InterpretedRootMapper(CONTEXT, Meal.class, classMappings);
+        RootMapper compiled = GraphMapperCompiler.compile(CONTEXT, Meal.class, classMappings);
+
+        LunchEntity lunch = new LunchEntity();
+        lunch.setId(UUID.randomUUID());
+        lunch.setRecipe(new RecipeEntity());
+        lunch.setSideDish(new SideDishEntity());
+        SoupEntity soup = new SoupEntity();
+        soup.setId(UUID.randomUUID());
+
+        assertGraphEquals(interpreted.map(lunch), compiled.map(lunch));
+        assertGraphEquals(interpreted.map(soup), compiled.map(soup));
+        assertTrue(compiled.map(lunch) instanceof LunchDTO);
+    }
+
+    @Test
+    public void referenceWithoutStructureIsNotCompiled() {
+        GraphMapperContext ctx = new GraphMapperContext(object -> object);
+        ctx.addMapper((e) -> new DayMenuItemDTO(), DayMenuItemDTO.class);
+        ctx.addMapper((e) -> new MealTypeDTO(), MealTypeDTO.class);
+
+        Function<DayMenuItemEntity, MealTypeEntity> mealTypeGetter = DayMenuItemEntity::getMealType;
+        BiConsumer<DayMenuItemDTO, MealTypeDTO> mealTypeSetter = DayMenuItemDTO::setMealType;
+        Reference reference = new Reference(mealTypeSetter,
+                new ObjectNodeMapper(ctx, mealTypeGetter, MealTypeDTO.class, Collections.emptyList()));
+
+        Map<Class<?>, ClassMapping> classMappings = ImmutableMap.of(RootMapping.class,
+                new ClassMapping(DayMenuItemDTO.class, Collections.singletonList(reference)));
+
+        assertThrows(GraphMapperException.class,
+                () -> GraphMapperCompiler.compile(ctx, DayMenuItemDTO.class, classMappings));
+
+        PromotingRootMapper rootMapper = new PromotingRootMapper(
+                new InterpretedRootMapper(ctx, DayMenuItemDTO.class, classMappings), 0,
+                () -> GraphMapperCompiler.compile(ctx, DayMenuItemDTO.class, classMappings));
+        GraphMapper<DayMenuItemDTO> mapper = new GraphMapper<>(ctx, DayMenuItemDTO.class, classMappings, rootMapper);
+
+        DayMenuItemEntity entity = new DayMenuItemEntity();
+        entity.setMealType(new MealTypeEntity());
+
+        assertNotNull(mapper.map(entity).getMealType());
+        assertFalse(rootMapper.isPromoted());
+    }
+
+    @Test
+    public void graphMapperIsPromotedAfterThreshold() throws Exception {
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .compileThreshold(3)
+                .build();
+
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        PromotingRootMapper rootMapper = (PromotingRootMapper) rootMapper(mapper);
+
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(2, 3);
+        WeekMenuDTO expected = mapper.map(weekMenu);
+        mapper.map(weekMenu);
+        assertFalse(rootMapper.isPromoted());
+
+        WeekMenuDTO actual = mapper.map(weekMenu);
+        assertTrue(rootMapper.isPromoted());
+        assertGraphEquals(expected, actual);
+    }
+
+    @Test
+    public void graphMapperIsInterpretedWithoutThreshold() throws Exception {
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(CONTEXT)
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        assertTrue(rootMapper(mapper) instanceof InterpretedRootMapper);
+    }
+
+    private Map<Class<?>, ClassMapping> classMappings(GraphMapper<?> mapper) throws Exception {
+        Field field = GraphMapper.class.getDeclaredField("classMappings");
+        field.setAccessible(true);
+        return (Map<Class<?>, ClassMapping>) field.get(mapper);
+    }
+
+    private RootMapper rootMapper(GraphMapper<?> mapper) throws Exception {
+        Field field = GraphMapper.class.getDeclaredField("rootMapper");
+        field.setAccessible(true);
+        return (RootMapper) field.get(mapper);
+    }
+
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -272,4 +273,39 @@ public class GraphMapperContextTest {
         assertSame(e, ctx.unproxy(e));
     }
 
+    @Test
+    public void versionChangesWithRegistrations() throws GraphMapperInitializationException {
+        GraphMapperContext ctx = new GraphMapperContext((object) -> object);
+
+        long version = ctx.getVersion();
+        ctx.addMapper((e) -> new MealTypeDTO(), MealTypeDTO.class);
+        assertTrue(ctx.getVersion() > version);
+
+        version = ctx.getVersion();
+        ctx.addMapping(DayMenuItemDTO.class, DayMenuItemEntity.class)
+                .bind(MEAL_TYPE);
+        assertTrue(ctx.getVersion() > version);
+
+        version = ctx.getVersion();
+        ctx.defineInterface(Meal.class, MealEntity.class,
+                ClassNode.of(LunchDTO.class, LunchEntity.class),
+                ClassNode.of(SoupDTO.class, SoupEntity.class)
+        );
+        assertTrue(ctx.getVersion() > version);
+    }
+
+    @Test
+    public void mapperIsResolved() {
+        GraphMapperContext ctx = new GraphMapperContext((object) -> object);
+        Function<Object, MealTypeDTO> mealTypeMapper = (e) -> new MealTypeDTO();
+        ctx.addMapper(mealTypeMapper, MealTypeDTO.class);
+
+        assertSame(mealTypeMapper, ctx.resolveMapper(MealTypeEntity.class, MealTypeDTO.class));
+
+        //mapper added after resolution is looked up when mapping
+        Function<Object, Object> soupMapper = ctx.resolveMapper(SoupEntity.class, SoupDTO.class);
+        ctx.addMapper((e) -> new SoupDTO(), SoupDTO.class);
+        assertTrue(soupMapper.apply(new SoupEntity()) instanceof SoupDTO);
+    }
+
 }
@@ -4,15 +4,24 @@ import io.github.cemartin01.graphmapper.MappingGraph;
 import io.github.cemartin01.graphmapper.Node;
 import io.github.cemartin01.graphmapper.classtree.ClassNode;
 import io.github.cemartin01.graphmapper.exception.GraphMapperInitializationException;
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
 import io.github.cemartin01.graphmapper.mock.dto.*;
 import io.github.cemartin01.graphmapper.mock.entity.*;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+import static io.github.cemartin01.graphmapper.mock.GraphAssertions.assertGraphEquals;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GraphMapperFactoryTest {
@@ -47,7 +56,7 @@ public class GraphMapperFactoryTest {
         ctxField.setAccessible(true);
         assertSame(CONTEXT, ctxField.get(mapper));
 
-        Field dtoClassField = GraphMapper.class.getDeclaredField("dtoClass");
+        Field dtoClassField = GraphMapper.class.getDeclaredField("targetClass");
         dtoClassField.setAccessible(true);
         assertEquals(WeekMenuDTO.class, dtoClassField.get(mapper));
 
@@ -119,6 +128,321 @@ public class GraphMapperFactoryTest {
         assertNotNull(classMappings.get(LunchEntity.class).getReferences().get(0).getNodeMapper());
     }
 
+    @Test
+    public void graphMapperIsCachedByStructure() {
+
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .cache(GraphMapperCacheSpec.builder().build())
+                .build();
+
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class);
+
+        assertSame(mapper, factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class));
+
+        GraphMapper<Meal> mealMapper = factory.getGraphMapper(weekMenuGraph(), Meal.class);
+        assertNotSame(mapper, mealMapper);
+
+        MappingGraph<Void> differentShape = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(DAY_MENUS)
+                                .build())
+                        .build()
+        );
+        assertNotSame(mapper, factory.getGraphMapper(differentShape, WeekMenuDTO.class));
+
+        GraphMapperCacheStats stats = factory.getCacheStats().orElseThrow(AssertionError::new);
+        assertEquals(1, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+        assertEquals(3, stats.getBuildCount());
+        assertEquals(0, stats.getBuildFailureCount());
+
+        factory.invalidateCache();
+
+        assertNotSame(mapper, factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class));
+    }
+
+    @Test
+    public void cacheIsBounded() {
+
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .cache(GraphMapperCacheSpec.builder().maximumSize(1).build())
+                .build();
+
+        factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class);
+        factory.getGraphMapper(weekMenuGraph(), Meal.class);
+
+        assertEquals(1, factory.getCacheStats().orElseThrow(AssertionError::new).getEvictionCount());
+    }
+
+    @Test
+    public void concurrentRequestsBuildGraphMapperOnce() throws Exception {
+
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(CONTEXT)
+                .cache(GraphMapperCacheSpec.builder().build())
+                .build();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<GraphMapper<WeekMenuDTO>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class);
+                }));
+            }
+            start.countDown();
+            GraphMapper<WeekMenuDTO> first = futures.get(0).get();
+            for (Future<GraphMapper<WeekMenuDTO>> future: futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, factory.getCacheStats().orElseThrow(AssertionError::new).getBuildCount());
+    }
+
+    @Test
+    public void cacheIsInvalidatedByRegistrationChange() throws GraphMapperInitializationException {
+
+        GraphMapperContext ctx = initContext();
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(ctx)
+                .cache(GraphMapperCacheSpec.builder().build())
+                .build();
+
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class);
+        assertSame(mapper, factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class));
+
+        ctx.addMapper((e) -> new WeekMenuDTO(), WeekMenuDTO.class);
+
+        assertNotSame(mapper, factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class));
+    }
+
+    @Test
+    public void classMappingsHoldResolvedMappers() throws NoSuchFieldException, IllegalAccessException {
+
+        GraphMapperContext ctx = initContext();
+        Function<Object, LunchDTO> lunchMapper = (e) -> new LunchDTO();
+        ctx.addMapper(lunchMapper, LunchDTO.class);
+
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.of(RECIPE))
+                        .build()
+        );
+        GraphMapper<Meal> mapper = new GraphMapperFactory(ctx).getGraphMapper(mappingGraph, Meal.class);
+
+        Field classMappingsField = GraphMapper.class.getDeclaredField("classMappings");
+        classMappingsField.setAccessible(true);
+        Map<Class<?>, ClassMapping> classMappings = (Map<Class<?>, ClassMapping>) classMappingsField.get(mapper);
+
+        assertSame(lunchMapper, classMappings.get(LunchEntity.class).getMapper());
+    }
+
+    @Test
+    public void cacheStatsAreEmptyWithoutCache() {
+        assertFalse(new GraphMapperFactory(CONTEXT).getCacheStats().isPresent());
+    }
+
+    @Test
+    public void graphIsMappedOnVirtualThreads() {
+        GraphMapperContext ctx = CateringFixtures.context();
+        ctx.declareThreadSafe();
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(ctx)
+                .virtualThreads(true)
+                .build();
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(3, 5);
+
+        //runs sequentially on JVMs without virtual threads
+        WeekMenuDTO dto = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class).map(weekMenu);
+
+        WeekMenuDTO expected = new GraphMapperFactory(ctx)
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class)
+                .map(weekMenu);
+        assertGraphEquals(expected, dto);
+    }
+
+    @Test
+    public void virtualThreadsRequireThreadSafeContext() {
+        if (VirtualThreads.executor() != null) {
+            assertThrows(IllegalStateException.class, () -> GraphMapperFactory.builder()
+                    .context(CateringFixtures.context())
+                    .virtualThreads(true)
+                    .build());
+        } else {
+            //mapped sequentially
+            assertDoesNotThrow(() -> GraphMapperFactory.builder()
+                    .context(CateringFixtures.context())
+                    .virtualThreads(true)
+                    .build());
+        }
+        assertThrows(IllegalArgumentException.class, () -> GraphMapperFactory.builder()
+                .context(CateringFixtures.context())
+                .virtualThreads(true)
+                .compileThreshold(0)
+                .build());
+    }
+
+    @Test
+    public void lazyReferencesArePassedToHandler() {
+        //provider entities stand for uninitialized proxies, they must not be unproxied
+        GraphMapperContext ctx = CateringFixtures.context(object -> {
+            assertFalse(object instanceof ProviderEntity);
+            return object;
+        });
+        LazyReferenceHandler handler = new LazyReferenceHandler() {
+            @Override
+            public boolean isIdentifierSelected(Node<?> node, Class<?> targetClass) {
+                return targetClass == ProviderDTO.class;
+            }
+
+            @Override
+            public Object getIdentifier(Object source) {
+                return source instanceof ProviderEntity ? ((ProviderEntity) source).getId() : null;
+            }
+
+            @Override
+            public Object mapIdentifier(Object identifier, Class<?> targetClass) {
+                return ProviderDTO.builder().id((UUID) identifier).build();
+            }
+
+            @Override
+            public Object resolveCollection(Object collection) {
+                return null;
+            }
+        };
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(2, 2);
+
+        for (GraphMapperFactory factory: List.of(
+                GraphMapperFactory.builder().context(ctx).lazyReferenceHandler(handler).build(),
+                GraphMapperFactory.builder().context(ctx).lazyReferenceHandler(handler).planForm(PlanForm.FLAT).build(),
+                GraphMapperFactory.builder().context(ctx).lazyReferenceHandler(handler).compileThreshold(0).build())) {
+
+            WeekMenuDTO dto = factory.getGraphMapper(weekMenuGraph(), WeekMenuDTO.class).map(weekMenu);
+
+            assertEquals(weekMenu.getProvider().getId(), dto.getProvider().getId());
+            assertNull(dto.getProvider().getName());
+            assertNull(dto.getDays());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> GraphMapperFactory.builder()
+                .context(ctx)
+                .cache(GraphMapperCacheSpec.builder().build())
+                .lazyReferenceHandler(handler)
+                .build());
+    }
+
+    @Test
+    public void typeConditionsRestrictReferencesToTypes() {
+
+        GraphMapperContext ctx = CateringFixtures.context();
+        ctx.defineTypeName(LunchDTO.class, "Lunch");
+        ctx.defineTypeName(SoupDTO.class, "Soup");
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(DAY_MENUS)
+                                .child(Node.<Void>builder()
+                                        .label(DAY_MENU_ITEMS)
+                                        .child(Node.<Void>builder()
+                                                .label(MEAL)
+                                                .child(Node.<Void>builder()
+                                                        .label(RECIPE)
+                                                        .typeCondition("Soup")
+                                                        .child(Node.of(VARIANTS))
+                                                        .build())
+                                                .child(Node.<Void>builder()
+                                                        .label(MEAL_TYPE)
+                                                        .typeCondition("Lunch")
+                                                        .build())
+                                                .child(Node.<Void>builder()
+                                                        .label(SIDE_DISH)
+                                                        .typeCondition("Meal")
+                                                        .typeCondition("Lunch")
+                                                        .build())
+                                                .build())
+                                        .build())
+                                .build())
+                        .build()
+        );
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(2, 3);
+
+        for (GraphMapperFactory factory: List.of(
+                new GraphMapperFactory(ctx),
+                GraphMapperFactory.builder().context(ctx).planForm(PlanForm.FLAT).build(),
+                GraphMapperFactory.builder().context(ctx).compileThreshold(0).build())) {
+
+            WeekMenuDTO dto = factory.getGraphMapper(mappingGraph, WeekMenuDTO.class).map(weekMenu);
+
+            for (DayMenuDTO day: dto.getDays()) {
+                LunchDTO lunch = (LunchDTO) day.getItems().get(0).getMeal();
+                assertNull(lunch.getRecipe());
+                assertNotNull(lunch.getMealType());
+                assertNotNull(lunch.getSideDish());
+
+                SoupDTO soup = (SoupDTO) day.getItems().get(1).getMeal();
+                assertNull(soup.getMealType());
+                assertEquals(3, soup.getRecipe().getVariants().size());
+            }
+        }
+    }
+
+    @Test
+    public void nodesSelectedForTypeAreMerged() throws NoSuchFieldException, IllegalAccessException {
+
+        GraphMapperContext ctx = CateringFixtures.context();
+        ctx.defineTypeName(SoupDTO.class, "Soup");
+        MappingGraph<Void> mappingGraph = MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.of(RECIPE))
+                        .child(Node.<Void>builder()
+                                .label(RECIPE)
+                                .typeCondition("Soup")
+                                .child(Node.of(VARIANTS))
+                                .build())
+                        .build()
+        );
+
+        GraphMapper<Meal> mapper = new GraphMapperFactory(ctx).getGraphMapper(mappingGraph, Meal.class);
+
+        Field classMappingsField = GraphMapper.class.getDeclaredField("classMappings");
+        classMappingsField.setAccessible(true);
+        Map<Class<?>, ClassMapping> classMappings = (Map<Class<?>, ClassMapping>) classMappingsField.get(mapper);
+        assertEquals(1, classMappings.get(LunchEntity.class).getReferences().size());
+        assertEquals(1, classMappings.get(SoupEntity.class).getReferences().size());
+
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(1, 2);
+        LunchDTO lunch = (LunchDTO) mapper.map(weekMenu.getDays().get(0).getItems().get(0).getMeal());
+        SoupDTO soup = (SoupDTO) mapper.map(weekMenu.getDays().get(0).getItems().get(1).getMeal());
+        assertNull(lunch.getRecipe().getVariants());
+        assertEquals(3, soup.getRecipe().getVariants().size());
+    }
+
+    private MappingGraph<Void> weekMenuGraph() {
+        return MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(DAY_MENUS)
+                                .child(Node.<Void>builder()
+                                        .label(DAY_MENU_ITEMS)
+                                        .child(Node.of(MEAL))
+                                        .build())
+                                .build())
+                        .child(Node.<Void>builder()
+                                .label(PROVIDER)
+                                .build())
+                        .build()
+        );
+    }
+
     private GraphMapperContext initContext() {
         try {
             GraphMapperContext ctx = new GraphMapperContext((object) -> object);
@@ -2,15 +2,45 @@ package io.github.cemartin01.graphmapper.mapper;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
 import io.github.cemartin01.graphmapper.mock.dto.*;
 import io.github.cemartin01.graphmapper.mock.entity.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.CUSTOMER;
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.PROVIDER;
+import static io.github.cemartin01.graphmapper.mock.GraphAssertions.assertGraphEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GraphMapperTest {
 
@@ -99,4 +129,263 @@ public class GraphMapperTest {
         assertNotNull(soupDTO.getMealType());
     }
 
+    @Test
+    public void sharedSourceIsMappedOncePerInvocation() throws Exception {
+        GraphMapperFactory factory = new GraphMapperFactory(CateringFixtures.context());
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        WeekMenuDTO dto = mapper.map(CateringFixtures.weekMenu(2, 3), IdentityPolicy.PER_INVOCATION);
+
+        List<DayMenuItemDTO> items = dto.getDays().get(0).getItems();
+        MealTypeDTO itemMealType = items.get(0).getMealType();
+        assertSame(itemMealType, items.get(1).getMealType());
+        assertSame(itemMealType, dto.getDays().get(1).getItems().get(2).getMealType());
+
+        //meal type of a meal is selected by another part of the mapping graph
+        MealTypeDTO lunchMealType = items.get(0).getMeal().getMealType();
+        assertNotSame(itemMealType, lunchMealType);
+        assertSame(lunchMealType, dto.getDays().get(1).getItems().get(0).getMeal().getMealType());
+
+        WeekMenuDTO withoutIdentity = mapper.map(CateringFixtures.weekMenu(2, 3));
+        List<DayMenuItemDTO> separateItems = withoutIdentity.getDays().get(0).getItems();
+        assertNotSame(separateItems.get(0).getMealType(), separateItems.get(1).getMealType());
+    }
+
+    @Test
+    public void cycleIsMappedOncePerInvocation() {
+        GraphMapperContext ctx = new GraphMapperContext(object -> object);
+        ctx.addMapper((e) -> new WeekMenuDTO(), WeekMenuDTO.class);
+        ctx.addMapper((e) -> new DayMenuDTO(), DayMenuDTO.class);
+
+        //plan recursing through the back reference from a day to its week menu
+        List<Reference> weekMenuReferences = new ArrayList<>();
+        List<Reference> dayReferences = new ArrayList<>();
+        Function<WeekMenuEntity, List<DayMenuEntity>> daysGetter = WeekMenuEntity::getDays;
+        Function<DayMenuEntity, WeekMenuEntity> weekMenuGetter = DayMenuEntity::getWeekMenu;
+        BiConsumer<WeekMenuDTO, List<DayMenuDTO>> daysSetter = WeekMenuDTO::setDays;
+        Map<DayMenuDTO, WeekMenuDTO> weekMenus = new IdentityHashMap<>();
+        BiConsumer<DayMenuDTO, WeekMenuDTO> weekMenuSetter = weekMenus::put;
+        weekMenuReferences.add(new Reference(daysSetter,
+                new ListNodeMapper(ctx, daysGetter, DayMenuDTO.class, dayReferences)));
+        dayReferences.add(new Reference(weekMenuSetter,
+                new ObjectNodeMapper(ctx, weekMenuGetter, WeekMenuDTO.class, weekMenuReferences)));
+
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapper<>(
+                ctx,
+                WeekMenuDTO.class,
+                ImmutableMap.<Class<?>, ClassMapping>builder()
+                        .put(RootMapping.class, new ClassMapping(WeekMenuDTO.class, weekMenuReferences))
+                        .build()
+        );
+
+        WeekMenuEntity weekMenu = new WeekMenuEntity(UUID.randomUUID());
+        DayMenuEntity day = new DayMenuEntity();
+        day.setWeekMenu(weekMenu);
+        weekMenu.getDays().add(day);
+
+        WeekMenuDTO dto = mapper.map(weekMenu, IdentityPolicy.PER_INVOCATION);
+
+        DayMenuDTO dayDTO = dto.getDays().get(0);
+        WeekMenuDTO backReference = weekMenus.get(dayDTO);
+        assertNotNull(backReference);
+        //the root and the back reference are different parts of the plan, the day is shared by both
+        assertSame(dayDTO, backReference.getDays().get(0));
+        assertEquals(1, weekMenus.size());
+    }
+
+    @Test
+    public void batchIsMappedInOrder() throws Exception {
+        GraphMapperFactory factory = new GraphMapperFactory(CateringFixtures.context());
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        WeekMenuEntity first = CateringFixtures.weekMenu(1, 2);
+        WeekMenuEntity second = CateringFixtures.weekMenu(2, 1);
+
+        List<WeekMenuDTO> dtos = mapper.mapAll(Arrays.asList(first, null, second));
+
+        assertEquals(3, dtos.size());
+        assertEquals(first.getId(), dtos.get(0).getId());
+        assertNull(dtos.get(1));
+        assertEquals(second.getId(), dtos.get(2).getId());
+        assertEquals(2, dtos.get(2).getDays().size());
+
+        List<WeekMenuDTO> consumed = new ArrayList<>();
+        mapper.mapAll(Arrays.asList(first, second), consumed::add);
+        assertEquals(second.getId(), consumed.get(1).getId());
+    }
+
+    @Test
+    public void sharedSourceIsMappedOncePerBatch() throws Exception {
+        GraphMapperFactory factory = new GraphMapperFactory(CateringFixtures.context());
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        WeekMenuEntity first = CateringFixtures.weekMenu(1, 1);
+        WeekMenuEntity second = CateringFixtures.weekMenu(1, 1);
+        second.setProvider(first.getProvider());
+        List<WeekMenuEntity> batch = Arrays.asList(first, second);
+
+        List<WeekMenuDTO> shared = mapper.mapAll(batch, IdentityPolicy.PER_BATCH);
+        assertSame(shared.get(0).getProvider(), shared.get(1).getProvider());
+
+        List<WeekMenuDTO> separate = mapper.mapAll(batch, IdentityPolicy.PER_INVOCATION);
+        assertNotSame(separate.get(0).getProvider(), separate.get(1).getProvider());
+    }
+
+    @Test
+    public void failingIndexIsReported() throws Exception {
+        GraphMapperContext ctx = CateringFixtures.context();
+        ctx.addMapper(e -> {
+            if (((WeekMenuEntity) e).getMenuWeek() == 13) {
+                throw new IllegalStateException("unlucky week");
+            }
+            return new WeekMenuDTO();
+        }, WeekMenuDTO.class);
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(ctx)
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        WeekMenuEntity unlucky = CateringFixtures.weekMenu(1, 1);
+        unlucky.setMenuWeek((byte) 13);
+        List<WeekMenuEntity> batch = Arrays.asList(CateringFixtures.weekMenu(1, 1), null, unlucky);
+
+        GraphMapperException e = assertThrows(GraphMapperException.class, () -> mapper.mapAll(batch));
+        assertTrue(e.getMessage().contains("element 2"));
+        assertEquals(IllegalStateException.class, e.getCause().getClass());
+    }
+
+    @Test
+    public void iteratorIsMappedLazilyInChunks() throws Exception {
+        GraphMapperFactory factory = new GraphMapperFactory(CateringFixtures.context());
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        AtomicInteger fetched = new AtomicInteger();
+        Iterator<WeekMenuEntity> sources = IntStream.range(0, 5)
+                .mapToObj(i -> {
+                    fetched.incrementAndGet();
+                    return CateringFixtures.weekMenu(1, 1);
+                })
+                .iterator();
+        AtomicInteger chunks = new AtomicInteger();
+
+        Iterator<WeekMenuDTO> targets = mapper.mapIterator(sources, 2, chunks::incrementAndGet);
+
+        assertEquals(0, fetched.get());
+        assertNotNull(targets.next());
+        assertEquals(1, fetched.get());
+        assertEquals(0, chunks.get());
+        targets.next();
+        assertEquals(1, chunks.get());
+        targets.next();
+        targets.next();
+        targets.next();
+        assertEquals(2, chunks.get());
+        //the last incomplete chunk
+        assertFalse(targets.hasNext());
+        assertEquals(3, chunks.get());
+        assertFalse(targets.hasNext());
+        assertEquals(3, chunks.get());
+    }
+
+    @Test
+    public void streamIsMappedInChunks() throws Exception {
+        GraphMapperFactory factory = new GraphMapperFactory(CateringFixtures.context());
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        AtomicInteger chunks = new AtomicInteger();
+        try (Stream<WeekMenuDTO> targets = mapper.mapStream(IntStream.range(0, 1050)
+                .mapToObj(i -> CateringFixtures.weekMenu(1, 1)), 100, chunks::incrementAndGet)) {
+            assertEquals(1050, targets.count());
+        }
+        assertEquals(11, chunks.get());
+
+        chunks.set(0);
+        try (Stream<WeekMenuDTO> targets = mapper.mapStream(IntStream.range(0, 1000)
+                .mapToObj(i -> CateringFixtures.weekMenu(1, 1)), 100, chunks::incrementAndGet)) {
+            assertEquals(1000, targets.count());
+        }
+        assertEquals(10, chunks.get());
+    }
+
+    @Test
+    public void streamIsMappedLazily() throws Exception {
+        GraphMapperFactory factory = new GraphMapperFactory(CateringFixtures.context());
+        GraphMapper<WeekMenuDTO> mapper = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        List<WeekMenuEntity> entities = Arrays.asList(CateringFixtures.weekMenu(1, 1), CateringFixtures.weekMenu(2, 1));
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<WeekMenuEntity> sources = entities.stream().onClose(() -> closed.set(true));
+
+        List<UUID> ids;
+        try (Stream<WeekMenuDTO> targets = mapper.mapStream(sources)) {
+            ids = targets.map(WeekMenuDTO::getId).collect(Collectors.toList());
+        }
+
+        assertEquals(Arrays.asList(entities.get(0).getId(), entities.get(1).getId()), ids);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void graphIsMappedAsynchronously() throws Exception {
+        GraphMapperContext ctx = CateringFixtures.context();
+        ctx.declareThreadSafe();
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(ctx)
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(3, 4);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            WeekMenuDTO dto = mapper.mapAsync(weekMenu, executor).get(10, TimeUnit.SECONDS);
+
+            assertGraphEquals(mapper.map(weekMenu), dto);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void siblingReferencesAreResolvedConcurrently() throws Exception {
+        //provider and customer wait for each other, so they are resolved only if resolved concurrently
+        CountDownLatch siblings = new CountDownLatch(2);
+        GraphMapperContext ctx = CateringFixtures.context(object -> {
+            if (object instanceof ProviderEntity || object instanceof CustomerEntity) {
+                siblings.countDown();
+                try {
+                    siblings.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return object;
+        });
+        ctx.declareThreadSafe();
+        MappingGraph<Void> graph = MappingGraph.of(Node.<Void>builder()
+                .child(Node.of(PROVIDER))
+                .child(Node.of(CUSTOMER))
+                .build());
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(ctx).getGraphMapper(graph, WeekMenuDTO.class);
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(0, 0);
+        CustomerEntity customer = new CustomerEntity();
+        customer.setName("customer");
+        weekMenu.setCustomer(customer);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            long start = System.nanoTime();
+            WeekMenuDTO dto = mapper.mapAsync(weekMenu, executor).get(30, TimeUnit.SECONDS);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+            assertEquals("provider", dto.getProvider().getName());
+            assertEquals("customer", dto.getCustomer().getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void asynchronousMappingRequiresThreadSafeContext() throws Exception {
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(CateringFixtures.context())
+                .getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        assertThrows(IllegalStateException.class, () -> mapper.mapAsync(CateringFixtures.weekMenu(1, 1), Runnable::run));
+    }
+
 }
@@ -0,0 +1,78 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.mock.dto.DayMenuItemDTO;
+import io.github.cemartin01.graphmapper.mock.dto.WeekMenuDTO;
+import org.junit.jupiter.api.Test;
+
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappingGraphKeyTest {
+
+    @Test
+    public void structurallyEqualGraphsHaveEqualKeys() {
+
+        MappingGraphKey key = MappingGraphKey.of(graph("metadata"), WeekMenuDTO.class);
+        MappingGraphKey sameKey = MappingGraphKey.of(graph("other metadata"), WeekMenuDTO.class);
+
+        assertEquals(key, sameKey);
+        assertEquals(key.hashCode(), sameKey.hashCode());
+    }
+
+    @Test
+    public void keysDifferByRootTargetClass() {
+        assertNotEquals(MappingGraphKey.of(graph(null), WeekMenuDTO.class),
+                MappingGraphKey.of(graph(null), DayMenuItemDTO.class));
+    }
+
+    @Test
+    public void keysDifferByShape() {
+
+        MappingGraph<String> flatGraph = MappingGraph.of(
+                Node.<String>builder()
+                        .child(Node.<String>builder().label(DAY_MENUS).build())
+                        .child(Node.<String>builder().label(DAY_MENU_ITEMS).build())
+                        .build()
+        );
+
+        assertNotEquals(MappingGraphKey.of(graph(null), WeekMenuDTO.class),
+                MappingGraphKey.of(flatGraph, WeekMenuDTO.class));
+    }
+
+    @Test
+    public void keysDifferByTypeConditions() {
+
+        MappingGraph<String> conditionalGraph = MappingGraph.of(
+                Node.<String>builder()
+                        .child(Node.<String>builder()
+                                .label(DAY_MENUS)
+                                .typeCondition("WeekMenu")
+                                .child(Node.<String>builder()
+                                        .label(DAY_MENU_ITEMS)
+                                        .build())
+                                .build())
+                        .build()
+        );
+
+        assertNotEquals(MappingGraphKey.of(graph(null), WeekMenuDTO.class),
+                MappingGraphKey.of(conditionalGraph, WeekMenuDTO.class));
+    }
+
+    private MappingGraph<String> graph(String metadata) {
+        return MappingGraph.of(
+                Node.<String>builder()
+                        .metadata(metadata)
+                        .child(Node.<String>builder()
+                                .label(DAY_MENUS)
+                                .metadata(metadata)
+                                .child(Node.<String>builder()
+                                        .label(DAY_MENU_ITEMS)
+                                        .build())
+                                .build())
+                        .build()
+        );
+    }
+
+}
@@ -0,0 +1,154 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
+import io.github.cemartin01.graphmapper.mock.dto.WeekMenuDTO;
+import io.github.cemartin01.graphmapper.mock.entity.WeekMenuEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.github.cemartin01.graphmapper.mock.GraphAssertions.assertGraphEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelCollectionMapperTest {
+
+    private static final List<Integer> SOURCES = IntStream.range(0, 100)
+            .mapToObj(i -> i % 10 == 9 ? null : i)
+            .collect(Collectors.toList());
+
+    @Test
+    public void orderOfTargetsIsKept() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            AtomicInteger tasks = new AtomicInteger();
+            ParallelCollectionMapper mapper = new ParallelCollectionMapper(ParallelMappingSpec.builder()
+                    .threshold(8)
+                    .executor(task -> {
+                        tasks.incrementAndGet();
+                        executor.execute(task);
+                    })
+                    .build());
+
+            List<Object> targets = mapper.mapToList(SOURCES, MappingSession.STATELESS, source -> "#" + source);
+
+            assertEquals(SOURCES.stream().map(s -> s == null ? null : "#" + s).collect(Collectors.toList()), targets);
+            assertEquals(12, tasks.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void smallCollectionIsMappedSequentially() throws Exception {
+        ParallelCollectionMapper mapper = new ParallelCollectionMapper(ParallelMappingSpec.builder()
+                .threshold(1000)
+                .executor(task -> fail("Collection is mapped in parallel"))
+                .build());
+
+        assertEquals(SOURCES.size(), mapper.mapToList(SOURCES, MappingSession.STATELESS, source -> source).size());
+    }
+
+    @Test
+    public void collectionIsMappedSequentiallyIfIdentityIsPreserved() throws Exception {
+        ParallelCollectionMapper mapper = new ParallelCollectionMapper(ParallelMappingSpec.builder()
+                .threshold(8)
+                .executor(task -> fail("Collection is mapped in parallel"))
+                .build());
+
+        MappingSession session = MappingSession.of(IdentityPolicy.PER_INVOCATION);
+        assertEquals(SOURCES.size(), mapper.mapToList(SOURCES, session, source -> source).size());
+    }
+
+    @Test
+    public void callerMapsChunksRejectedByExecutor() throws Exception {
+        ParallelCollectionMapper mapper = new ParallelCollectionMapper(ParallelMappingSpec.builder()
+                .threshold(8)
+                .executor(task -> {
+                    throw new RejectedExecutionException();
+                })
+                .build());
+
+        List<Object> targets = mapper.mapToList(SOURCES, MappingSession.STATELESS, source -> source);
+
+        assertEquals(SOURCES, targets);
+    }
+
+    @Test
+    public void failureOfChunkIsRethrown() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ParallelCollectionMapper mapper = new ParallelCollectionMapper(ParallelMappingSpec.builder()
+                    .threshold(8)
+                    .executor(executor)
+                    .build());
+
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> mapper.mapToList(SOURCES, MappingSession.STATELESS, source -> {
+                        if ((Integer) source == 50) {
+                            throw new IllegalStateException("element 50");
+                        }
+                        return source;
+                    }));
+            assertEquals("element 50", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void chunkSizeAdaptsToCostOfElement() throws Exception {
+        ParallelCollectionMapper mapper = new ParallelCollectionMapper(ParallelMappingSpec.builder()
+                .threshold(1000)
+                .adaptive(true)
+                .targetChunkTime(Duration.ofMillis(5))
+                .build());
+        assertEquals(1000, mapper.getChunkSize());
+
+        mapper.mapToList(SOURCES.subList(0, 5), MappingSession.STATELESS, source -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return source;
+        });
+
+        assertTrue(mapper.getChunkSize() <= 3);
+    }
+
+    @Test
+    public void graphIsMappedInParallel() throws Exception {
+        GraphMapperContext ctx = CateringFixtures.context();
+        ctx.declareThreadSafe();
+        GraphMapperFactory parallelFactory = GraphMapperFactory.builder()
+                .context(ctx)
+                .parallelism(ParallelMappingSpec.builder().threshold(2).build())
+                .build();
+        GraphMapperFactory sequentialFactory = new GraphMapperFactory(ctx);
+        WeekMenuEntity weekMenu = CateringFixtures.weekMenu(7, 20);
+
+        List<WeekMenuDTO> targets = new ArrayList<>();
+        for (GraphMapperFactory factory: new GraphMapperFactory[] {sequentialFactory, parallelFactory}) {
+            targets.add(factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class).map(weekMenu));
+        }
+
+        assertGraphEquals(targets.get(0), targets.get(1));
+    }
+
+    @Test
+    public void parallelMappingRequiresThreadSafeContext() {
+        assertThrows(IllegalStateException.class, () -> GraphMapperFactory.builder()
+                .context(CateringFixtures.context())
+                .parallelism(ParallelMappingSpec.builder().build())
+                .build());
+    }
+
+}
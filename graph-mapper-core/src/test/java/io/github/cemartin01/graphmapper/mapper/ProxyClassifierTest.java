@@ -0,0 +1,116 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.mock.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProxyClassifierTest {
+
+    @Test
+    public void plainClassIsLearnt() {
+        AtomicInteger calls = new AtomicInteger();
+        ProxyClassifier classifier = new ProxyClassifier(object -> {
+            calls.incrementAndGet();
+            return object;
+        }, null, true);
+
+        int count = ProxyClassifier.LEARNING_THRESHOLD + 10;
+        for (int i = 0; i < count; i++) {
+            MealTypeEntity entity = new MealTypeEntity();
+            assertSame(entity, classifier.unproxy(entity));
+        }
+
+        assertEquals(ProxyClassifier.LEARNING_THRESHOLD, calls.get());
+
+        UnproxyStats stats = classifier.getStats();
+        assertEquals(ProxyClassifier.LEARNING_THRESHOLD, stats.getUnproxyCount());
+        assertEquals(0, stats.getUnwrappedCount());
+        assertEquals(10, stats.getSkippedCount());
+    }
+
+    @Test
+    public void proxyClassIsAlwaysUnproxied() {
+        MealTypeEntity target = new MealTypeEntity();
+        ProxyClassifier classifier = new ProxyClassifier(
+                object -> object instanceof MealTypeProxy ? target : object, null, true);
+
+        int count = ProxyClassifier.LEARNING_THRESHOLD * 2;
+        for (int i = 0; i < count; i++) {
+            assertSame(target, classifier.unproxy(new MealTypeProxy()));
+        }
+
+        UnproxyStats stats = classifier.getStats();
+        assertEquals(count, stats.getUnproxyCount());
+        assertEquals(count, stats.getUnwrappedCount());
+        assertEquals(0, stats.getSkippedCount());
+    }
+
+    @Test
+    public void classesAreClassifiedByPredicate() {
+        AtomicInteger calls = new AtomicInteger();
+        ProxyClassifier classifier = new ProxyClassifier(object -> {
+            calls.incrementAndGet();
+            return object;
+        }, MealTypeProxy.class::isAssignableFrom, true);
+
+        classifier.unproxy(new MealTypeEntity());
+        classifier.unproxy(new MealTypeProxy());
+        classifier.unproxy(new MealTypeProxy());
+
+        assertEquals(2, calls.get());
+        assertEquals(1, classifier.getStats().getSkippedCount());
+    }
+
+    @Test
+    public void contextSkipsUnproxyForPlainClasses() {
+        GraphMapperContext ctx = new GraphMapperContext(object -> {
+            throw new AssertionError("unproxy function must be skipped");
+        }, type -> false);
+
+        CustomerEntity e = new CustomerEntity();
+
+        assertSame(e, ctx.unproxy(e));
+        assertEquals(1, ctx.getUnproxyStats().getSkippedCount());
+    }
+
+    @Test
+    public void contextUnproxiesEveryObjectByDefault() {
+        AtomicInteger calls = new AtomicInteger();
+        GraphMapperContext ctx = new GraphMapperContext(object -> {
+            calls.incrementAndGet();
+            return object;
+        });
+
+        int count = ProxyClassifier.LEARNING_THRESHOLD * 2;
+        for (int i = 0; i < count; i++) {
+            ctx.unproxy(new CustomerEntity());
+        }
+
+        assertEquals(count, calls.get());
+        assertEquals(0, ctx.getUnproxyStats().getSkippedCount());
+    }
+
+    @Test
+    public void contextLearnsPlainClassesIfEnabled() {
+        AtomicInteger calls = new AtomicInteger();
+        GraphMapperContext ctx = new GraphMapperContext(object -> {
+            calls.incrementAndGet();
+            return object;
+        }, true);
+
+        int count = ProxyClassifier.LEARNING_THRESHOLD * 2;
+        for (int i = 0; i < count; i++) {
+            ctx.unproxy(new CustomerEntity());
+        }
+
+        assertEquals(ProxyClassifier.LEARNING_THRESHOLD, calls.get());
+        assertEquals(ProxyClassifier.LEARNING_THRESHOLD, ctx.getUnproxyStats().getSkippedCount());
+    }
+
+    private static class MealTypeProxy extends MealTypeEntity {
+    }
+
+}
@@ -47,7 +47,7 @@ public class ReferenceFactoryTest {
         getterField.setAccessible(true);
         assertSame(referenceTemplate.nodeMapperTemplate.getGetter(), getterField.get(nodeMapper));
 
-        Field dtoClassField = ObjectNodeMapper.class.getDeclaredField("dtoClass");
+        Field dtoClassField = ObjectNodeMapper.class.getDeclaredField("targetClass");
         dtoClassField.setAccessible(true);
         assertSame(referenceTemplate.nodeMapperTemplate.getTargetClass(), dtoClassField.get(nodeMapper));
 
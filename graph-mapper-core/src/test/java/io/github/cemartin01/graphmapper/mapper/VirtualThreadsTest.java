@@ -0,0 +1,58 @@
+package io.github.cemartin01.graphmapper.mapper;
+
+import io.github.cemartin01.graphmapper.mock.CateringFixtures;
+import io.github.cemartin01.graphmapper.mock.dto.WeekMenuDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs on Java 21 too, see the java21-tests profile
+ */
+public class VirtualThreadsTest {
+
+    @Test
+    public void graphMappersMapSequentiallyWithoutVirtualThreads() {
+        assumeTrue(Runtime.version().feature() < 21);
+
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(CateringFixtures.context())
+                .virtualThreads(true)
+                .build();
+
+        assertNull(VirtualThreads.executor());
+        assertFalse(factory.isMappingOnVirtualThreads());
+    }
+
+    @Test
+    public void graphMappersMapOnVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        GraphMapperContext ctx = CateringFixtures.context(object -> {
+            threads.add(Thread.currentThread());
+            return object;
+        });
+        ctx.declareThreadSafe();
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(ctx)
+                .virtualThreads(true)
+                .build();
+        assertTrue(factory.isMappingOnVirtualThreads());
+
+        WeekMenuDTO dto = factory.getGraphMapper(CateringFixtures.weekMenuGraph(), WeekMenuDTO.class)
+                .map(CateringFixtures.weekMenu(3, 5));
+
+        assertEquals(3, dto.getDays().size());
+        boolean virtual = false;
+        for (Thread thread: threads) {
+            virtual |= (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        }
+        assertTrue(virtual);
+    }
+
+}
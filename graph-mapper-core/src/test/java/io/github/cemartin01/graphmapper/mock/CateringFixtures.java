@@ -0,0 +1,229 @@
+package io.github.cemartin01.graphmapper.mock;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.classtree.ClassNode;
+import io.github.cemartin01.graphmapper.exception.GraphMapperInitializationException;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.UnproxyFunction;
+import io.github.cemartin01.graphmapper.mock.dto.*;
+import io.github.cemartin01.graphmapper.mock.entity.*;
+
+import java.util.UUID;
+
+import static io.github.cemartin01.graphmapper.mock.CateringNodeLabel.*;
+
+/**
+ * Fully configured catering context with sample entities, shared by tests comparing mapping backends.
+ */
+public final class CateringFixtures {
+
+    private CateringFixtures() {
+    }
+
+    public static GraphMapperContext context() {
+        return context((object) -> object);
+    }
+
+    public static GraphMapperContext context(UnproxyFunction unproxyFunction) {
+        try {
+            GraphMapperContext ctx = new GraphMapperContext(unproxyFunction);
+
+            ctx.defineInterface(Meal.class, MealEntity.class,
+                    ClassNode.of(LunchDTO.class, LunchEntity.class),
+                    ClassNode.of(SoupDTO.class, SoupEntity.class)
+            );
+
+            ctx.addMapper(e -> {
+                WeekMenuEntity source = (WeekMenuEntity) e;
+                WeekMenuDTO target = new WeekMenuDTO();
+                target.setId(source.getId());
+                target.setMenuYear((int) source.getMenuYear());
+                target.setMenuWeek((int) source.getMenuWeek());
+                return target;
+            }, WeekMenuDTO.class);
+            ctx.addMapper(e -> {
+                DayMenuEntity source = (DayMenuEntity) e;
+                DayMenuDTO target = new DayMenuDTO();
+                target.setId(source.getId());
+                target.setDayOfWeek(source.getDayOfWeek());
+                return target;
+            }, DayMenuDTO.class);
+            ctx.addMapper(e -> {
+                DayMenuItemEntity source = (DayMenuItemEntity) e;
+                DayMenuItemDTO target = new DayMenuItemDTO();
+                target.setId(source.getId());
+                target.setPosition(source.getPosition());
+                return target;
+            }, DayMenuItemDTO.class);
+            ctx.addMapper(e -> {
+                LunchEntity source = (LunchEntity) e;
+                LunchDTO target = new LunchDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, LunchDTO.class);
+            ctx.addMapper(e -> {
+                SoupEntity source = (SoupEntity) e;
+                SoupDTO target = new SoupDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, SoupDTO.class);
+            ctx.addMapper(e -> {
+                RecipeEntity source = (RecipeEntity) e;
+                RecipeDTO target = new RecipeDTO();
+                target.setId(source.getId());
+                target.setCode(source.getCode());
+                return target;
+            }, RecipeDTO.class);
+            ctx.addMapper(e -> {
+                MealTypeEntity source = (MealTypeEntity) e;
+                MealTypeDTO target = new MealTypeDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, MealTypeDTO.class);
+            ctx.addMapper(e -> {
+                SideDishEntity source = (SideDishEntity) e;
+                SideDishDTO target = new SideDishDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, SideDishDTO.class);
+            ctx.addMapper(e -> {
+                ProviderEntity source = (ProviderEntity) e;
+                ProviderDTO target = new ProviderDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, ProviderDTO.class);
+            ctx.addMapper(e -> {
+                CustomerEntity source = (CustomerEntity) e;
+                CustomerDTO target = new CustomerDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, CustomerDTO.class);
+
+            ctx.addMapping(WeekMenuDTO.class, WeekMenuEntity.class)
+                    .bind(PROVIDER)
+                    .bind(CUSTOMER)
+                    .bindList(DAY_MENUS);
+
+            ctx.addMapping(DayMenuDTO.class, DayMenuEntity.class)
+                    .bindList(DAY_MENU_ITEMS);
+
+            ctx.addMapping(DayMenuItemDTO.class, DayMenuItemEntity.class)
+                    .bind(MEAL)
+                    .bind(MEAL_TYPE);
+
+            ctx.addMapping(LunchDTO.class, LunchEntity.class)
+                    .bind(MEAL_TYPE)
+                    .bind(RECIPE)
+                    .bind(SIDE_DISH);
+
+            ctx.addMapping(SoupDTO.class, SoupEntity.class)
+                    .bind(MEAL_TYPE)
+                    .bind(RECIPE);
+
+            ctx.addMapping(RecipeDTO.class, RecipeEntity.class)
+                    .bindSet(VARIANTS);
+
+            return ctx;
+        } catch (GraphMapperInitializationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Mapping graph covering every reference of a week menu
+     */
+    public static MappingGraph<Void> weekMenuGraph() {
+        return MappingGraph.of(
+                Node.<Void>builder()
+                        .child(Node.<Void>builder()
+                                .label(DAY_MENUS)
+                                .child(Node.<Void>builder()
+                                        .label(DAY_MENU_ITEMS)
+                                        .child(Node.<Void>builder()
+                                                .label(MEAL)
+                                                .child(Node.<Void>builder()
+                                                        .label(RECIPE)
+                                                        .child(Node.of(VARIANTS))
+                                                        .build())
+                                                .child(Node.of(SIDE_DISH))
+                                                .child(Node.of(MEAL_TYPE))
+                                                .build())
+                                        .child(Node.of(MEAL_TYPE))
+                                        .build())
+                                .build())
+                        .child(Node.of(PROVIDER))
+                        .child(Node.of(CUSTOMER))
+                        .build()
+        );
+    }
+
+    /**
+     * Week menu with nested collections, class hierarchy members and null references
+     */
+    public static WeekMenuEntity weekMenu(int days, int itemsPerDay) {
+        WeekMenuEntity weekMenu = new WeekMenuEntity(UUID.randomUUID());
+        weekMenu.setMenuYear((short) 2021);
+        weekMenu.setMenuWeek((byte) 10);
+        weekMenu.setProvider(named(new ProviderEntity(), "provider"));
+
+        MealTypeEntity mealType = named(new MealTypeEntity(), "main course");
+        for (int d = 0; d < days; d++) {
+            DayMenuEntity day = new DayMenuEntity();
+            day.setId(UUID.randomUUID());
+            day.setDayOfWeek((byte) d);
+            for (int i = 0; i < itemsPerDay; i++) {
+                DayMenuItemEntity item = new DayMenuItemEntity();
+                item.setId(UUID.randomUUID());
+                item.setPosition((byte) i);
+                item.setMealType(mealType);
+                item.setMeal(i % 3 == 2 ? null : meal(i % 3 == 0, mealType));
+                day.getItems().add(item);
+            }
+            day.getItems().add(null);
+            weekMenu.getDays().add(day);
+        }
+        return weekMenu;
+    }
+
+    private static MealEntity meal(boolean lunch, MealTypeEntity mealType) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setId(UUID.randomUUID());
+        recipe.setCode("R-" + recipe.getId());
+        recipe.getVariants().add(named(new SoupEntity(), "variant soup"));
+        recipe.getVariants().add(named(new LunchEntity(), "variant lunch"));
+        recipe.getVariants().add(null);
+
+        MealEntity meal;
+        if (lunch) {
+            LunchEntity lunchEntity = named(new LunchEntity(), "lunch");
+            SideDishEntity sideDish = new SideDishEntity();
+            sideDish.setId(UUID.randomUUID());
+            sideDish.setName("rice");
+            lunchEntity.setSideDish(sideDish);
+            meal = lunchEntity;
+        } else {
+            meal = named(new SoupEntity(), "soup");
+        }
+        meal.setRecipe(recipe);
+        meal.setMealType(mealType);
+        return meal;
+    }
+
+    private static <T extends CateringEntity> T named(T entity, String name) {
+        entity.setId(UUID.randomUUID());
+        try {
+            entity.getClass().getMethod("setName", String.class).invoke(entity, name);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return entity;
+    }
+
+}
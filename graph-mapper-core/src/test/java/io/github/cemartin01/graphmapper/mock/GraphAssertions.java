@@ -0,0 +1,58 @@
+package io.github.cemartin01.graphmapper.mock;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares mapped targets field by field, because target classes of the catering model don't implement equals.
+ */
+public final class GraphAssertions {
+
+    private GraphAssertions() {
+    }
+
+    public static void assertGraphEquals(Object expected, Object actual) {
+        assertGraphEquals(expected, actual, "root");
+    }
+
+    private static void assertGraphEquals(Object expected, Object actual, String path) {
+        if (expected == null || actual == null) {
+            assertSame(expected, actual, path);
+            return;
+        }
+        assertEquals(expected.getClass(), actual.getClass(), path);
+        if (expected instanceof Collection) {
+            Collection<?> expectedCollection = (Collection<?>) expected;
+            Collection<?> actualCollection = (Collection<?>) actual;
+            assertEquals(expectedCollection.size(), actualCollection.size(), path);
+            Iterator<?> actualIterator = actualCollection.iterator();
+            int index = 0;
+            for (Object expectedElement: expectedCollection) {
+                assertGraphEquals(expectedElement, actualIterator.next(), path + "[" + index++ + "]");
+            }
+            return;
+        }
+        if (expected.getClass().getName().startsWith("java.")) {
+            assertEquals(expected, actual, path);
+            return;
+        }
+        for (Class<?> clazz = expected.getClass(); clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field: clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                try {
+                    assertGraphEquals(field.get(expected), field.get(actual), path + "." + field.getName());
+                } catch (IllegalAccessException e) {
+                    fail(e);
+                }
+            }
+        }
+    }
+
+}
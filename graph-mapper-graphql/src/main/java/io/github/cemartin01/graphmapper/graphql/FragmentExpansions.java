@@ -0,0 +1,180 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.graphql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+import graphql.language.Directive;
+import graphql.language.DirectivesContainer;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Fragment definitions of a document expanded into selections of labeled fields.
+ *
+ * A fragment is expanded when it's spread first, other spreads share the expansion. Inline fragments are flattened
+ * into type conditions and conditional directives of the selections, fields without a node label are dropped.
+ * Spreads nested in a fragment are kept as references to expansions of their fragments. Expansions are immutable,
+ * so they are shared by concurrent requests of the document.
+ */
+final class FragmentExpansions {
+
+   private final Map<String, FragmentDefinition> definitions;
+
+   private final Map<String, NodeLabel> nodeLabels;
+
+   private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+
+   FragmentExpansions(Map<String, FragmentDefinition> definitions, Map<String, NodeLabel> nodeLabels) {
+      this.definitions = definitions;
+      this.nodeLabels = nodeLabels;
+   }
+
+   /**
+    * @param name name of a fragment
+    * @return expansion of the fragment
+    * @throws GraphMapperException if a definition of the fragment is missing
+    */
+   Fragment get(String name) {
+      Fragment fragment = fragments.get(name);
+      if (fragment == null) {
+         FragmentDefinition definition = definitions.get(name);
+         if (definition == null) {
+            throw new GraphMapperException("Fragment definition for " + name + " is missing");
+         }
+         fragment = new Fragment(definition.getTypeCondition() == null ? null : definition.getTypeCondition().getName(),
+                  expand(definition.getSelectionSet()));
+         Fragment previous = fragments.putIfAbsent(name, fragment);
+         if (previous != null) {
+            fragment = previous;
+         }
+      }
+      return fragment;
+   }
+
+   private List<Selected> expand(SelectionSet selectionSet) {
+      if (selectionSet == null) {
+         return ImmutableList.of();
+      }
+      ImmutableList.Builder<Selected> selections = ImmutableList.builder();
+      expand(selectionSet, Collections.emptyList(), Collections.emptyList(), selections);
+      return selections.build();
+   }
+
+   private void expand(SelectionSet selectionSet, List<Directive> conditions, List<String> typeConditions,
+                       ImmutableList.Builder<Selected> selections) {
+      if (selectionSet == null) {
+         return;
+      }
+      for (Selection<?> selection: selectionSet.getSelections()) {
+         if (selection instanceof Field) {
+            Field field = (Field) selection;
+            NodeLabel label = nodeLabels.get(field.getName());
+            if (label != null) {
+               selections.add(new Selected(restrict(conditions, field), typeConditions, label, field,
+                        expand(field.getSelectionSet()), null));
+            }
+         } else if (selection instanceof InlineFragment) {
+            InlineFragment inlineFragment = (InlineFragment) selection;
+            expand(inlineFragment.getSelectionSet(), restrict(conditions, inlineFragment),
+                     MappingGraphBuilder.restrict(typeConditions, inlineFragment.getTypeCondition()), selections);
+         } else if (selection instanceof FragmentSpread) {
+            FragmentSpread fragmentSpread = (FragmentSpread) selection;
+            selections.add(new Selected(restrict(conditions, fragmentSpread), typeConditions, null, null, null,
+                     fragmentSpread.getName()));
+         }
+      }
+   }
+
+   /**
+    * Adds conditional directives of a selection to directives of enclosing inline fragments
+    */
+   private static List<Directive> restrict(List<Directive> conditions, DirectivesContainer<?> selection) {
+      List<Directive> restricted = conditions;
+      for (Directive directive: selection.getDirectives()) {
+         if (MappingGraphBuilder.isConditional(directive)) {
+            if (restricted == conditions) {
+               restricted = new ArrayList<>(conditions.size() + 1);
+               restricted.addAll(conditions);
+            }
+            restricted.add(directive);
+         }
+      }
+      return restricted;
+   }
+
+   /**
+    * Expansion of a fragment definition
+    */
+   static final class Fragment {
+
+      //null if the fragment has no type condition
+      final String typeCondition;
+
+      final List<Selected> selections;
+
+      private Fragment(String typeCondition, List<Selected> selections) {
+         this.typeCondition = typeCondition;
+         this.selections = selections;
+      }
+
+   }
+
+   /**
+    * A labeled field or a fragment spread
+    */
+   static final class Selected {
+
+      //conditional directives of the selection and enclosing inline fragments
+      final List<Directive> conditions;
+
+      //type conditions of enclosing inline fragments
+      final List<String> typeConditions;
+
+      //null for a fragment spread
+      final NodeLabel label;
+
+      final Field field;
+
+      final List<Selected> selections;
+
+      //null for a field
+      final String fragmentName;
+
+      private Selected(List<Directive> conditions, List<String> typeConditions, NodeLabel label, Field field,
+                       List<Selected> selections, String fragmentName) {
+         this.conditions = conditions;
+         this.typeConditions = typeConditions;
+         this.label = label;
+         this.field = field;
+         this.selections = selections;
+         this.fragmentName = fragmentName;
+      }
+
+   }
+
+}
@@ -15,16 +15,17 @@
  */
 package io.github.cemartin01.graphmapper.graphql;
 
-import graphql.language.*;
+import graphql.language.Argument;
 import graphql.schema.DataFetchingEnvironment;
-import io.github.cemartin01.graphmapper.MappingGraph;
-import io.github.cemartin01.graphmapper.Node;
 import io.github.cemartin01.graphmapper.NodeLabel;
-import io.github.cemartin01.graphmapper.exception.GraphMapperException;
 import io.github.cemartin01.graphmapper.graphql.argument.ArgumentBindingContext;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperCacheStats;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Factory for a GraphQL mapping.
@@ -35,14 +36,29 @@ public class GraphQLMappingFactory {
 
    private final ArgumentBindingContext bindingFactory;
 
+   //null if caching is disabled
+   private final MappingGraphCache cache;
+
    public GraphQLMappingFactory(NodeLabel[] nodeLabels, ArgumentBindingContext bindingFactory) {
-      fillNodeLabelMap(Arrays.asList(nodeLabels));
-      this.bindingFactory = bindingFactory;
+      this(Arrays.asList(nodeLabels), bindingFactory, null);
    }
 
    public GraphQLMappingFactory(List<NodeLabel> nodeLabels, ArgumentBindingContext bindingFactory) {
+      this(nodeLabels, bindingFactory, null);
+   }
+
+   /**
+    * @param nodeLabels labels of fields mapped as references
+    * @param bindingFactory context of argument bindings
+    * @param cache specification of a cache of mapping graphs, null disables caching. Graphs are cached by
+    *              a configured document key, e.g. {@link MappingGraphCacheSpec#DOCUMENT_IDENTITY}, which requires
+    *              a preparsed document cache of GraphQL-java, or a hash of a persisted query.
+    */
+   public GraphQLMappingFactory(List<NodeLabel> nodeLabels, ArgumentBindingContext bindingFactory,
+                                MappingGraphCacheSpec cache) {
       fillNodeLabelMap(nodeLabels);
       this.bindingFactory = bindingFactory;
+      this.cache = cache == null ? null : new MappingGraphCache(cache);
    }
 
    private void fillNodeLabelMap(List<NodeLabel> nodeLabels) {
@@ -55,62 +71,52 @@ public class GraphQLMappingFactory {
       return bindingFactory.instantiateArgument(argument, clazz, env);
    }
 
+   <T> T instantiateArgument(Object value, Class<T> clazz) {
+      return bindingFactory.instantiateArgument(value, clazz);
+   }
+
    /**
     * Builds instance of GraphQL mapping that contains a mapping graph based on passed Data fetching environment.
+    *
+    * If caching is enabled, the mapping graph is a copy of a cached graph of the same document and field path
+    * bound to the environment.
     * @param env Data fetching environment of current GraphQL query or mutation
     * @return instance of GraphQL mapping
     */
    public GraphQLMapping getMapping(DataFetchingEnvironment env) {
-      RawNode root = RawNode.of(Node.RootNodeLabel.ROOT, getRootNodeChildren(env.getField(), env), Collections.singletonList(env.getField()));
-      RawMappingGraph rawGraph = RawMappingGraph.of(root);
-      MappingGraph<GraphQLMetadata> graph = rawGraph.getMappingGraph(env, this);
-      return new GraphQLMapping(graph);
+      MappingGraphBuilder builder = new MappingGraphBuilder(nodeLabelMap, env, this);
+      return new GraphQLMapping(cache == null ? builder.build(env.getField()) : cache.get(env, builder));
    }
 
-   private List<RawNode> getRootNodeChildren(Field parentField, DataFetchingEnvironment env) {
-      return parentField.getSelectionSet().getSelections().stream()
-               .map(selection -> getChildNodes(selection, env))
-               .flatMap(Collection::stream)
-               .collect(Collectors.toList());
+   /**
+    * Builds instance of GraphQL mapping of the selection set of the environment, i.e. of fields normalized by GraphQL-java,
+    * instead of fields of the document.
+    *
+    * Fragments are already inlined, directives evaluated and duplicate fields merged. Fields of an interface or a union
+    * are selected per object type, their nodes are restricted by names of the object types. Metadata of nodes hold
+    * selected fields, see {@link GraphQLMetadata#getSelectedField}. Mapping graphs of selection sets are not cached.
+    * @param env Data fetching environment of current GraphQL query or mutation
+    * @return instance of GraphQL mapping
+    */
+   public GraphQLMapping getSelectionSetMapping(DataFetchingEnvironment env) {
+      return new GraphQLMapping(new SelectionSetGraphBuilder(nodeLabelMap, env, this).build());
    }
 
-   private List<RawNode> getChildNodes(Selection<?> parentSelection, DataFetchingEnvironment env) {
-      List<RawNode> nodes = null;
-      if (parentSelection instanceof Field) {
-         Field parentField = (Field)parentSelection;
-         NodeLabel currentLabel = nodeLabelMap.get(parentField.getName());
-         if (currentLabel != null) {
-            List<RawNode> children = newNodeList();
-            parentField.getSelectionSet().getSelections().forEach(selection -> {
-               children.addAll(getChildNodes(selection, env));
-            });
-            nodes = newNodeList();
-            nodes.add(RawNode.of(currentLabel, children, Collections.singletonList(parentField)));
-         } else {
-            nodes = Collections.emptyList();
-         }
-      } else if (parentSelection instanceof InlineFragment) {
-         InlineFragment inlineFragment = (InlineFragment) parentSelection;
-         nodes = newNodeList();
-         for (Selection<?> selection : inlineFragment.getSelectionSet().getSelections()) {
-            nodes.addAll(getChildNodes(selection, env));
-         }
-      } else if (parentSelection instanceof FragmentSpread) {
-         FragmentSpread fragmentSpread = (FragmentSpread) parentSelection;
-         FragmentDefinition fragmentDefinition = env.getFragmentsByName().get(fragmentSpread.getName());
-         if (fragmentDefinition == null) {
-            throw new GraphMapperException("Fragment definition for " + fragmentSpread.getName() + " is missing");
-         }
-         nodes = newNodeList();
-         for (Selection<?> selection : fragmentDefinition.getSelectionSet().getSelections()) {
-            nodes.addAll(getChildNodes(selection, env));
-         }
-      }
-      return nodes;
+   /**
+    * Obtains statistics of the mapping graph cache
+    * @return Optional of statistics, empty if caching is disabled
+    */
+   public Optional<GraphMapperCacheStats> getCacheStats() {
+      return cache == null ? Optional.empty() : Optional.of(cache.getStats());
    }
 
-   private List<RawNode> newNodeList() {
-      return new ArrayList<>(3);
+   /**
+    * Discards all cached mapping graphs
+    */
+   public void invalidateCache() {
+      if (cache != null) {
+         cache.invalidate();
+      }
    }
 
-}
\ No newline at end of file
+}
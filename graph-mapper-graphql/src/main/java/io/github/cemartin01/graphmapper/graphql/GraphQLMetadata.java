@@ -15,22 +15,34 @@
  */
 package io.github.cemartin01.graphmapper.graphql;
 
+import graphql.language.Argument;
 import graphql.language.Field;
 import graphql.schema.DataFetchingEnvironment;
-import lombok.AllArgsConstructor;
+import graphql.schema.SelectedField;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Metadata of a mapping graph node that contains GraphQL-java specific data as associated fields.
  *
  * It provides a way to instantiate object arguments that have been previously set up using
  * {@link io.github.cemartin01.graphmapper.graphql.argument.ArgumentBindingContext#addBinding}
+ *
+ * Metadata of a node built of a normalized selection set hold the selected field instead of fields of the document,
+ * see {@link GraphQLMappingFactory#getSelectionSetMapping}.
+ *
+ * Metadata are resolved lazily. Arguments are indexed by name on the first lookup and the index is shared
+ * by metadata of the same fields bound to other environments. Object arguments are instantiated once per argument
+ * and class, so every caller gets the same instance. Metadata of nodes nobody queries hold only references.
  */
 @Getter
-@AllArgsConstructor
 public class GraphQLMetadata {
 
     private final List<Field> fields;
@@ -39,21 +51,104 @@ public class GraphQLMetadata {
 
     private final GraphQLMappingFactory factory;
 
+    //null if the node is built of fields of the document
+    private final SelectedField selectedField;
+
+    //null if the node is built of a selected field
+    @Getter(AccessLevel.NONE)
+    private final ArgumentIndex argumentIndex;
+
+    //instantiated object arguments by class and name, created by the first lookup
+    @Getter(AccessLevel.NONE)
+    private volatile Map<Class<?>, Map<String, Optional<?>>> objectArguments;
+
+    private GraphQLMetadata(List<Field> fields, DataFetchingEnvironment env, GraphQLMappingFactory factory,
+                            SelectedField selectedField, ArgumentIndex argumentIndex) {
+        this.fields = fields;
+        this.env = env;
+        this.factory = factory;
+        this.selectedField = selectedField;
+        this.argumentIndex = argumentIndex;
+    }
+
+    public GraphQLMetadata(List<Field> fields, DataFetchingEnvironment env, GraphQLMappingFactory factory) {
+        this(fields, env, factory, null, new ArgumentIndex(fields));
+    }
+
+    public GraphQLMetadata(SelectedField selectedField, DataFetchingEnvironment env, GraphQLMappingFactory factory) {
+        this(Collections.emptyList(), env, factory, selectedField, null);
+    }
+
+    /**
+     * Obtains metadata of the same fields bound to an environment of a request
+     */
+    GraphQLMetadata bind(DataFetchingEnvironment env) {
+        return new GraphQLMetadata(fields, env, factory, selectedField, argumentIndex);
+    }
+
     /*
     getScalarArgument(String name)
      */
 
     /**
-     * Obtains a new instance of a given class based on an argument of a given name.
+     * Obtains an instance of a given class based on an argument of a given name.
+     *
+     * The instance is created by the first call and returned by subsequent calls of the same name and class.
      * @param name name of an argument associated with GrahpQL-java field
      * @param argClass class that should be used to bind the argument and it values
      * @return Optional value, empty if argument is missing
      */
+    @SuppressWarnings("unchecked")
     public <T> Optional<T> getObjectArgument(String name, Class<T> argClass) {
-        return fields.get(0).getArguments().stream()
-                .filter(arg -> arg.getName().equals(name))
-                .findFirst()
+        Map<Class<?>, Map<String, Optional<?>>> instances = objectArguments;
+        if (instances == null) {
+            synchronized (this) {
+                instances = objectArguments;
+                if (instances == null) {
+                    instances = new ConcurrentHashMap<>(2);
+                    objectArguments = instances;
+                }
+            }
+        }
+        return (Optional<T>) instances.computeIfAbsent(argClass, clazz -> new ConcurrentHashMap<>(2))
+                .computeIfAbsent(name, argName -> instantiateObjectArgument(argName, argClass));
+    }
+
+    private <T> Optional<T> instantiateObjectArgument(String name, Class<T> argClass) {
+        if (selectedField != null) {
+            return Optional.ofNullable(selectedField.getArguments().get(name))
+                    .map(value -> factory.instantiateArgument(value, argClass));
+        }
+        return Optional.ofNullable(argumentIndex.get(name))
                 .map(arg -> factory.instantiateArgument(arg, argClass, env));
     }
 
+    /**
+     * Arguments of the first field indexed by name on the first lookup
+     */
+    private static final class ArgumentIndex {
+
+        private final List<Field> fields;
+
+        private volatile Map<String, Argument> arguments;
+
+        private ArgumentIndex(List<Field> fields) {
+            this.fields = fields;
+        }
+
+        private Argument get(String name) {
+            Map<String, Argument> index = arguments;
+            if (index == null) {
+                List<Argument> fieldArguments = fields.get(0).getArguments();
+                index = new HashMap<>(fieldArguments.size() * 2);
+                for (Argument argument: fieldArguments) {
+                    index.putIfAbsent(argument.getName(), argument);
+                }
+                arguments = index;
+            }
+            return index.get(name);
+        }
+
+    }
+
 }
@@ -0,0 +1,429 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.graphql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import graphql.language.Argument;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.DirectivesContainer;
+import graphql.language.Field;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.TypeName;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLInterfaceType;
+import graphql.schema.GraphQLNamedType;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.GraphQLUnionType;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Builds a mapping graph of a GraphQL selection set in a single pass.
+ *
+ * Selections of a field are collected into a draft of its node. A field selected again, directly or by a fragment,
+ * is merged into the existing draft of its label, so its selections are collected into the same children.
+ * Drafts are emitted as nodes once the whole selection set is walked. Children keep the order of their first
+ * selections.
+ *
+ * Fields, inline fragments and fragment spreads excluded by {@code @skip} or {@code @include} directives
+ * are not collected, the directives are evaluated against variables of the request.
+ *
+ * Fragment spreads merge expansions of their fragments, see {@link FragmentExpansions}. Expansions are created
+ * per build unless the builder gets expansions shared by requests of the document.
+ *
+ * Type conditions of enclosing fragments restrict nodes of fields, see {@link Node#getTypeConditions}. A field
+ * selected under other type conditions gets a node of its own, so references of a type are mapped only if they
+ * are selected for the type. Type conditions that can't narrow the type of the enclosing field or fragment,
+ * e.g. of the declared type of the field, are dropped, so such fragments are merged as plain selections. Types are
+ * resolved by the schema of the environment, type conditions are kept if the type of the field is unknown.
+ */
+final class MappingGraphBuilder {
+
+   private static final String SKIP = "skip";
+
+   private static final String INCLUDE = "include";
+
+   private static final String CONDITION = "if";
+
+   private final Map<String, NodeLabel> nodeLabels;
+
+   private final DataFetchingEnvironment env;
+
+   private final GraphQLMappingFactory factory;
+
+   //null if types of fields are unknown
+   private final GraphQLSchema schema;
+
+   //environment bound into metadata, null for cached graphs
+   private DataFetchingEnvironment metadataEnv;
+
+   //variables of conditional directives the graph depends on, null unless the graph is cached
+   private Set<String> conditionVariables;
+
+   //created by the first fragment spread unless it's shared
+   private FragmentExpansions fragments;
+
+   MappingGraphBuilder(Map<String, NodeLabel> nodeLabels, DataFetchingEnvironment env, GraphQLMappingFactory factory) {
+      this.nodeLabels = nodeLabels;
+      this.env = env;
+      this.factory = factory;
+      this.schema = env == null ? null : env.getGraphQLSchema();
+   }
+
+   /**
+    * Shares expansions of fragments of the document
+    * @param fragments expansions of fragments of the document of the environment
+    * @return this builder
+    */
+   MappingGraphBuilder withFragments(FragmentExpansions fragments) {
+      this.fragments = fragments;
+      return this;
+   }
+
+   /**
+    * @return new expansions of fragments of the document of the environment
+    */
+   FragmentExpansions newFragmentExpansions() {
+      return new FragmentExpansions(env.getFragmentsByName(), nodeLabels);
+   }
+
+   /**
+    * @param rootField field of the root node
+    * @throws GraphMapperException if a definition of a fragment is missing
+    */
+   MappingGraph<GraphQLMetadata> build(Field rootField) {
+      metadataEnv = env;
+      conditionVariables = null;
+      return emit(rootField);
+   }
+
+   /**
+    * Builds a mapping graph whose metadata are not bound to the environment, see {@link GraphQLMetadata#bind}
+    * @param rootField field of the root node
+    * @throws GraphMapperException if a definition of a fragment is missing
+    */
+   MappingGraph<GraphQLMetadata> buildUnbound(Field rootField) {
+      metadataEnv = null;
+      conditionVariables = new LinkedHashSet<>();
+      return emit(rootField);
+   }
+
+   /**
+    * Obtains variables of conditional directives that decided the last unbound graph, including directives
+    * of excluded selections, so graphs of other values of the variables may differ
+    * @return names of the variables
+    */
+   List<String> getConditionVariables() {
+      return new ArrayList<>(conditionVariables);
+   }
+
+   private MappingGraph<GraphQLMetadata> emit(Field rootField) {
+      Draft root = new Draft(Node.RootNodeLabel.ROOT, rootField, Collections.emptyList());
+      GraphQLType rootType = schema == null || env.getFieldType() == null ? null
+               : GraphQLTypeUtil.unwrapAll(env.getFieldType());
+      collect(root, rootField.getSelectionSet(), Collections.emptyList(), rootType);
+      return MappingGraph.of(emit(root));
+   }
+
+   /**
+    * @param parent draft collecting the selections, null if the selections are excluded and only their conditions
+    *               are recorded
+    * @param typeConditions type conditions of enclosing fragments
+    * @param scope type of the enclosing field or fragment, null if unknown
+    */
+   private void collect(Draft parent, SelectionSet selectionSet, List<String> typeConditions, GraphQLType scope) {
+      if (selectionSet == null) {
+         return;
+      }
+      for (Selection<?> selection: selectionSet.getSelections()) {
+         if (selection instanceof Field && !nodeLabels.containsKey(((Field) selection).getName())) {
+            continue;
+         }
+         Draft current = parent;
+         if (selection instanceof DirectivesContainer
+                  && !isIncluded(((DirectivesContainer<?>) selection).getDirectives())) {
+            if (conditionVariables == null) {
+               continue;
+            }
+            current = null;
+         }
+         if (selection instanceof Field) {
+            Field field = (Field) selection;
+            NodeLabel label = nodeLabels.get(field.getName());
+            collect(current == null ? null : current.child(label, field, typeConditions), field.getSelectionSet(),
+                     Collections.emptyList(), getFieldType(scope, field.getName()));
+         } else if (selection instanceof InlineFragment) {
+            InlineFragment inlineFragment = (InlineFragment) selection;
+            String typeCondition = inlineFragment.getTypeCondition() == null ? null
+                     : inlineFragment.getTypeCondition().getName();
+            collect(current, inlineFragment.getSelectionSet(), narrow(typeConditions, typeCondition, scope),
+                     getScope(scope, typeCondition));
+         } else if (selection instanceof FragmentSpread) {
+            mergeFragment(current, ((FragmentSpread) selection).getName(), typeConditions, scope);
+         }
+      }
+   }
+
+   /**
+    * Merges selections of an expanded fragment
+    * @param parent draft collecting the selections, null if the selections are excluded and only their conditions
+    *               are recorded
+    * @param typeConditions type conditions of enclosing fragments
+    * @param scope type of the enclosing field or fragment, null if unknown
+    */
+   private void merge(Draft parent, List<FragmentExpansions.Selected> selections, List<String> typeConditions,
+                      GraphQLType scope) {
+      for (FragmentExpansions.Selected selected: selections) {
+         Draft current = parent;
+         if (!selected.conditions.isEmpty() && !isIncluded(selected.conditions)) {
+            if (conditionVariables == null) {
+               continue;
+            }
+            current = null;
+         }
+         List<String> selectedTypeConditions = typeConditions;
+         GraphQLType selectedScope = scope;
+         for (String typeCondition: selected.typeConditions) {
+            selectedTypeConditions = narrow(selectedTypeConditions, typeCondition, selectedScope);
+            selectedScope = getScope(selectedScope, typeCondition);
+         }
+         if (selected.field != null) {
+            merge(current == null ? null : current.child(selected.label, selected.field, selectedTypeConditions),
+                     selected.selections, Collections.emptyList(), getFieldType(selectedScope, selected.field.getName()));
+         } else {
+            mergeFragment(current, selected.fragmentName, selectedTypeConditions, selectedScope);
+         }
+      }
+   }
+
+   private void mergeFragment(Draft parent, String name, List<String> typeConditions, GraphQLType scope) {
+      if (fragments == null) {
+         fragments = newFragmentExpansions();
+      }
+      FragmentExpansions.Fragment fragment = fragments.get(name);
+      merge(parent, fragment.selections, narrow(typeConditions, fragment.typeCondition, scope),
+               getScope(scope, fragment.typeCondition));
+   }
+
+   /**
+    * Adds a type condition unless it can't narrow the scope
+    */
+   private List<String> narrow(List<String> typeConditions, String typeCondition, GraphQLType scope) {
+      return typeCondition == null || !isNarrowing(scope, typeCondition) ? typeConditions
+               : restrict(typeConditions, typeCondition);
+   }
+
+   /**
+    * A type condition narrows an abstract type unless every possible object type of the abstract type is a possible
+    * type of the condition, it never narrows an object type
+    * @param scope type of the enclosing field or fragment, null if unknown
+    */
+   private boolean isNarrowing(GraphQLType scope, String typeCondition) {
+      if (!(scope instanceof GraphQLNamedType)) {
+         return true;
+      }
+      if (scope instanceof GraphQLObjectType || ((GraphQLNamedType) scope).getName().equals(typeCondition)) {
+         return false;
+      }
+      List<? extends GraphQLType> possibleTypes;
+      if (scope instanceof GraphQLInterfaceType) {
+         possibleTypes = schema.getImplementations((GraphQLInterfaceType) scope);
+      } else if (scope instanceof GraphQLUnionType) {
+         possibleTypes = ((GraphQLUnionType) scope).getTypes();
+      } else {
+         return true;
+      }
+      GraphQLType condition = schema.getType(typeCondition);
+      if (!(condition instanceof GraphQLInterfaceType || condition instanceof GraphQLUnionType)) {
+         //an object type narrows an abstract type of other possible types
+         return true;
+      }
+      for (GraphQLType possibleType: possibleTypes) {
+         if (!(possibleType instanceof GraphQLObjectType)
+                  || !schema.isPossibleType((GraphQLNamedType) condition, (GraphQLObjectType) possibleType)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return type of a fragment of a type condition, the scope if the condition can't narrow it or is unknown
+    */
+   private GraphQLType getScope(GraphQLType scope, String typeCondition) {
+      if (scope == null || typeCondition == null || !isNarrowing(scope, typeCondition)) {
+         return scope;
+      }
+      GraphQLType type = schema.getType(typeCondition);
+      return type == null ? scope : type;
+   }
+
+   /**
+    * @return unwrapped type of a field of a type, null if unknown
+    */
+   private static GraphQLType getFieldType(GraphQLType type, String fieldName) {
+      if (!(type instanceof GraphQLFieldsContainer)) {
+         return null;
+      }
+      GraphQLFieldDefinition definition = ((GraphQLFieldsContainer) type).getFieldDefinition(fieldName);
+      return definition == null ? null : GraphQLTypeUtil.unwrapAll(definition.getType());
+   }
+
+   static List<String> restrict(List<String> typeConditions, TypeName typeCondition) {
+      return typeCondition == null ? typeConditions : restrict(typeConditions, typeCondition.getName());
+   }
+
+   private static List<String> restrict(List<String> typeConditions, String typeCondition) {
+      if (typeCondition == null || typeConditions.contains(typeCondition)) {
+         return typeConditions;
+      }
+      List<String> restricted = new ArrayList<>(typeConditions.size() + 1);
+      restricted.addAll(typeConditions);
+      restricted.add(typeCondition);
+      return restricted;
+   }
+
+   static boolean isConditional(Directive directive) {
+      return SKIP.equals(directive.getName()) || INCLUDE.equals(directive.getName());
+   }
+
+   /**
+    * Evaluates {@code @skip} and {@code @include} directives
+    */
+   private boolean isIncluded(List<Directive> directives) {
+      if (directives.isEmpty()) {
+         return true;
+      }
+      boolean included = true;
+      for (Directive directive: directives) {
+         if (SKIP.equals(directive.getName())) {
+            included &= !isConditionTrue(directive);
+         } else if (INCLUDE.equals(directive.getName())) {
+            included &= isConditionTrue(directive);
+         }
+      }
+      return included;
+   }
+
+   private boolean isConditionTrue(Directive directive) {
+      Argument condition = directive.getArgument(CONDITION);
+      if (condition == null) {
+         throw new GraphMapperException("Directive @" + directive.getName() + " misses its condition");
+      }
+      Value<?> value = condition.getValue();
+      if (value instanceof BooleanValue) {
+         return ((BooleanValue) value).isValue();
+      }
+      if (value instanceof VariableReference) {
+         String name = ((VariableReference) value).getName();
+         if (conditionVariables != null) {
+            conditionVariables.add(name);
+         }
+         return Boolean.TRUE.equals(env.getVariables().get(name));
+      }
+      throw new GraphMapperException("Condition of directive @" + directive.getName() + " must be a boolean");
+   }
+
+   private Node<GraphQLMetadata> emit(Draft draft) {
+      List<Node<GraphQLMetadata>> children;
+      if (draft.children == null) {
+         children = ImmutableList.of();
+      } else {
+         //node doesn't copy an immutable list
+         ImmutableList.Builder<Node<GraphQLMetadata>> builder = ImmutableList.builderWithExpectedSize(draft.children.size());
+         for (Draft child: draft.children) {
+            builder.add(emit(child));
+         }
+         children = builder.build();
+      }
+      return Node.of(draft.label, new GraphQLMetadata(draft.getFields(), metadataEnv, factory), children,
+               draft.typeConditions);
+   }
+
+   private static final class Draft {
+
+      private final NodeLabel label;
+
+      private final Field field;
+
+      private final List<String> typeConditions;
+
+      //all fields of a node selected more than once, null otherwise
+      private List<Field> mergedFields;
+
+      //null if there are no children
+      private List<Draft> children;
+
+      private Draft(NodeLabel label, Field field, List<String> typeConditions) {
+         this.label = label;
+         this.field = field;
+         this.typeConditions = typeConditions;
+      }
+
+      /**
+       * Obtains a draft of a child, selection sets are small, so drafts are searched linearly
+       */
+      private Draft child(NodeLabel label, Field field, List<String> typeConditions) {
+         if (children == null) {
+            children = new ArrayList<>(4);
+         } else {
+            for (Draft child: children) {
+               if (child.label == label && child.typeConditions.equals(typeConditions)) {
+                  child.merge(field);
+                  return child;
+               }
+            }
+         }
+         Draft child = new Draft(label, field, typeConditions);
+         children.add(child);
+         return child;
+      }
+
+      private void merge(Field mergedField) {
+         if (mergedFields == null) {
+            mergedFields = new ArrayList<>(2);
+            mergedFields.add(field);
+         }
+         mergedFields.add(mergedField);
+      }
+
+      private List<Field> getFields() {
+         return mergedFields == null ? Collections.singletonList(field) : mergedFields;
+      }
+
+   }
+
+}
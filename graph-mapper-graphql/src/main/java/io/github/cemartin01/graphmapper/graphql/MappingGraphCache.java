@@ -0,0 +1,238 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.graphql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import graphql.execution.ExecutionStepInfo;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLObjectType;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperCacheStats;
+
+/**
+ * Cache of unbound mapping graphs, see {@link MappingGraphCacheSpec}.
+ *
+ * Values of variables of {@code @skip} and {@code @include} directives are a part of the key, so requests excluding
+ * different selections don't share graphs. Object types containing fields of the path are a part of the key too,
+ * so fields selected per object type of an abstract parent don't share graphs. Statistics count requests of documents and paths.
+ *
+ * Expansions of fragments are shared by all paths of a document, they are held by a cache of the same bounds.
+ */
+class MappingGraphCache {
+
+   private final Cache<Key, Entry> cache;
+
+   private final Cache<Object, FragmentExpansions> fragments;
+
+   private final Function<DataFetchingEnvironment, Object> documentKey;
+
+   MappingGraphCache(MappingGraphCacheSpec spec) {
+      CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+               .maximumSize(spec.getMaximumSize());
+      if (spec.getExpireAfterAccess() != null) {
+         builder.expireAfterAccess(spec.getExpireAfterAccess());
+      }
+      if (spec.isRecordStats()) {
+         builder.recordStats();
+      }
+      this.cache = builder.build();
+      CacheBuilder<Object, Object> fragmentsBuilder = CacheBuilder.newBuilder()
+               .maximumSize(spec.getMaximumSize());
+      if (spec.getExpireAfterAccess() != null) {
+         fragmentsBuilder.expireAfterAccess(spec.getExpireAfterAccess());
+      }
+      this.fragments = fragmentsBuilder.build();
+      this.documentKey = spec.getDocumentKey();
+   }
+
+   /**
+    * Obtains a mapping graph bound to the environment
+    * @param env data fetching environment of a request
+    * @param builder builder of the mapping graph of the environment
+    * @return the mapping graph
+    * @throws GraphMapperException if building of the mapping graph fails
+    */
+   MappingGraph<GraphQLMetadata> get(DataFetchingEnvironment env, MappingGraphBuilder builder) {
+      Key key = Key.of(env, documentKey);
+      if (key == null) {
+         return builder.build(env.getField());
+      }
+      Entry entry;
+      try {
+         entry = cache.get(key, () -> new Entry(shareFragments(key, builder), env));
+      } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+         if (e.getCause() instanceof GraphMapperException) {
+            throw (GraphMapperException) e.getCause();
+         }
+         throw new GraphMapperException("Building of mapping graph failed for " + key.path, e.getCause());
+      }
+      List<Object> conditions = entry.getConditions(env);
+      MappingGraph<GraphQLMetadata> unbound = entry.graphs.get(conditions);
+      if (unbound == null) {
+         unbound = shareFragments(key, builder).buildUnbound(env.getField());
+         entry.graphs.putIfAbsent(conditions, unbound);
+      }
+      return MappingGraph.of(bind(unbound.getRoot(), env));
+   }
+
+   private MappingGraphBuilder shareFragments(Key key, MappingGraphBuilder builder) {
+      return builder.withFragments(fragments.asMap()
+               .computeIfAbsent(key.document, document -> builder.newFragmentExpansions()));
+   }
+
+   private static Node<GraphQLMetadata> bind(Node<GraphQLMetadata> node, DataFetchingEnvironment env) {
+      List<Node<GraphQLMetadata>> children = node.getChildren();
+      if (!children.isEmpty()) {
+         ImmutableList.Builder<Node<GraphQLMetadata>> builder = ImmutableList.builderWithExpectedSize(children.size());
+         for (Node<GraphQLMetadata> child: children) {
+            builder.add(bind(child, env));
+         }
+         children = builder.build();
+      }
+      return Node.of(node.getLabel(), node.getMetadata().bind(env), children, node.getTypeConditions());
+   }
+
+   GraphMapperCacheStats getStats() {
+      CacheStats stats = cache.stats();
+      return new GraphMapperCacheStats(stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+               stats.loadExceptionCount(), stats.totalLoadTime(), stats.evictionCount());
+   }
+
+   void invalidate() {
+      cache.invalidateAll();
+      fragments.invalidateAll();
+   }
+
+   /**
+    * Mapping graphs of a field by values of variables of its conditional directives. Variables are found
+    * by the first build, they don't depend on their values, because excluded selections are searched too.
+    */
+   private static final class Entry {
+
+      private final List<String> conditionVariables;
+
+      private final Map<List<Object>, MappingGraph<GraphQLMetadata>> graphs = new ConcurrentHashMap<>(2);
+
+      private Entry(MappingGraphBuilder builder, DataFetchingEnvironment env) {
+         MappingGraph<GraphQLMetadata> graph = builder.buildUnbound(env.getField());
+         this.conditionVariables = builder.getConditionVariables();
+         graphs.put(getConditions(env), graph);
+      }
+
+      private List<Object> getConditions(DataFetchingEnvironment env) {
+         if (conditionVariables.isEmpty()) {
+            return Collections.emptyList();
+         }
+         Object[] values = new Object[conditionVariables.size()];
+         for (int i = 0; i < values.length; i++) {
+            values[i] = env.getVariables().get(conditionVariables.get(i));
+         }
+         return Arrays.asList(values);
+      }
+
+   }
+
+   private static final class Key {
+
+      private final Object document;
+
+      private final String operationName;
+
+      private final List<String> path;
+
+      //object types containing fields of the path, from the field up, they differ under abstract types
+      private final List<String> objectTypes;
+
+      private final int hash;
+
+      private Key(Object document, String operationName, List<String> path, List<String> objectTypes) {
+         this.document = document;
+         this.operationName = operationName;
+         this.path = path;
+         this.objectTypes = objectTypes;
+         this.hash = 31 * (31 * (31 * document.hashCode() + Objects.hashCode(operationName)) + path.hashCode())
+                  + objectTypes.hashCode();
+      }
+
+      /**
+       * @return the key, null if the environment lacks the document key or the execution step
+       */
+      private static Key of(DataFetchingEnvironment env, Function<DataFetchingEnvironment, Object> documentKey) {
+         Object document = documentKey == null ? null : documentKey.apply(env);
+         ExecutionStepInfo stepInfo = env.getExecutionStepInfo();
+         if (document == null || stepInfo == null) {
+            return null;
+         }
+         String operationName = env.getOperationDefinition() == null ? null : env.getOperationDefinition().getName();
+         return new Key(document, operationName, stepInfo.getPath().getKeysOnly(), getObjectTypes(stepInfo));
+      }
+
+      /**
+       * Sub-fields of an abstract type are collected per object type under the same path, so graphs of the same path
+       * differ by object types containing fields of the path
+       */
+      private static List<String> getObjectTypes(ExecutionStepInfo stepInfo) {
+         List<String> objectTypes = new ArrayList<>(stepInfo.getPath().getLevel());
+         for (ExecutionStepInfo step = stepInfo; step != null; step = step.getParent()) {
+            if (step.getPath() != null && step.getPath().isNamedSegment()) {
+               GraphQLObjectType objectType = step.getObjectType();
+               objectTypes.add(objectType == null ? null : objectType.getName());
+            }
+         }
+         return objectTypes;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) {
+            return true;
+         }
+         if (!(o instanceof Key)) {
+            return false;
+         }
+         Key other = (Key) o;
+         return hash == other.hash
+                  && document.equals(other.document)
+                  && Objects.equals(operationName, other.operationName)
+                  && path.equals(other.path)
+                  && objectTypes.equals(other.objectTypes);
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+   }
+
+}
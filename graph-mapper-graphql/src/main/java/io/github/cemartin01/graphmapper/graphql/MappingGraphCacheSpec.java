@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.graphql;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import graphql.schema.DataFetchingEnvironment;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Specification of a cache of mapping graphs built by {@link GraphQLMappingFactory}.
+ *
+ * Mapping graphs are cached by a key of the operation document, the operation name, the path of the field
+ * without list indices and object types containing fields of the path, so every element of a list and every request of the same document share one graph.
+ * Requests with different values of variables of {@code @skip} and {@code @include} directives get different graphs.
+ * Cached graphs hold only fields of the document, the data fetching environment of a request is bound into
+ * metadata of a copy returned for the request. Expanded fragments are cached per document with the same bounds.
+ *
+ * Mapping graphs are cached only if a {@link #documentKey} is configured. GraphQL-java parses a new document
+ * for every request unless a preparsed document cache is used, so documents themselves are valid keys only
+ * with such a cache, see {@link #DOCUMENT_IDENTITY}.
+ */
+@Getter
+@Builder
+public class MappingGraphCacheSpec {
+
+   /**
+    * Document key comparing documents by identity. It fits only preparsed document caches returning the same
+    * document for the same query, otherwise every request misses and the cache fills up with dead documents.
+    */
+   public static final Function<DataFetchingEnvironment, Object> DOCUMENT_IDENTITY =
+            DataFetchingEnvironment::getDocument;
+
+   /**
+    * Maximum number of cached mapping graphs. Least recently used graphs are evicted first.
+    */
+   @Builder.Default
+   private final long maximumSize = 1000;
+
+   /**
+    * Mapping graphs that have not been requested for the duration are evicted, null means no expiration.
+    */
+   private final Duration expireAfterAccess;
+
+   /**
+    * Enables collecting of cache statistics
+    */
+   @Builder.Default
+   private final boolean recordStats = true;
+
+   /**
+    * Obtains a key of the operation document, e.g. a hash of a persisted query or {@link #DOCUMENT_IDENTITY}
+    * with a preparsed document cache. Mapping graphs of a null key are not cached, null function disables caching.
+    */
+   private final Function<DataFetchingEnvironment, Object> documentKey;
+
+}
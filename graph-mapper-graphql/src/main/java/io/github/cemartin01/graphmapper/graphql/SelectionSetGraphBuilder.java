@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.graphql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import graphql.schema.SelectedField;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+/**
+ * Builds a mapping graph of a selection set normalized by GraphQL-java.
+ *
+ * Fields of a node are selected per object type. If the type of the node is an interface or a union, children
+ * are restricted by names of their object types, see {@link Node#getTypeConditions}. Fields of the same label
+ * and object type, i.e. aliases, are merged into one node.
+ */
+final class SelectionSetGraphBuilder {
+
+   private final Map<String, NodeLabel> nodeLabels;
+
+   private final DataFetchingEnvironment env;
+
+   private final GraphQLMappingFactory factory;
+
+   SelectionSetGraphBuilder(Map<String, NodeLabel> nodeLabels, DataFetchingEnvironment env,
+                            GraphQLMappingFactory factory) {
+      this.nodeLabels = nodeLabels;
+      this.env = env;
+      this.factory = factory;
+   }
+
+   MappingGraph<GraphQLMetadata> build() {
+      List<Node<GraphQLMetadata>> children = build(env.getSelectionSet().getImmediateFields(), env.getFieldType());
+      return MappingGraph.of(Node.of(Node.RootNodeLabel.ROOT,
+               new GraphQLMetadata(env.getMergedField().getFields(), env, factory), children));
+   }
+
+   /**
+    * @param selectedFields fields selected by a parent
+    * @param parentType output type of the parent
+    */
+   private List<Node<GraphQLMetadata>> build(List<SelectedField> selectedFields, GraphQLType parentType) {
+      boolean abstractType = !(GraphQLTypeUtil.unwrapAll(parentType) instanceof GraphQLObjectType);
+      List<Selection> selections = null;
+      for (SelectedField selectedField: selectedFields) {
+         NodeLabel label = nodeLabels.get(selectedField.getName());
+         if (label == null) {
+            continue;
+         }
+         String typeCondition = abstractType ? selectedField.getObjectType().getName() : null;
+         if (selections == null) {
+            selections = new ArrayList<>(4);
+         }
+         select(selections, label, typeCondition).fields.add(selectedField);
+      }
+      if (selections == null) {
+         return ImmutableList.of();
+      }
+      ImmutableList.Builder<Node<GraphQLMetadata>> nodes = ImmutableList.builderWithExpectedSize(selections.size());
+      for (Selection selection: selections) {
+         SelectedField first = selection.fields.get(0);
+         nodes.add(Node.of(selection.label, new GraphQLMetadata(first, env, factory),
+                  build(selection.getChildren(), first.getFieldDefinition().getType()),
+                  selection.typeCondition == null
+                           ? Collections.emptyList()
+                           : Collections.singletonList(selection.typeCondition)));
+      }
+      return nodes.build();
+   }
+
+   /**
+    * Obtains a selection of a label and an object type, selection sets are small, so they are searched linearly
+    */
+   private static Selection select(List<Selection> selections, NodeLabel label, String typeCondition) {
+      for (Selection selection: selections) {
+         if (selection.label == label && (typeCondition == null || typeCondition.equals(selection.typeCondition))) {
+            return selection;
+         }
+      }
+      Selection selection = new Selection(label, typeCondition);
+      selections.add(selection);
+      return selection;
+   }
+
+   private static final class Selection {
+
+      private final NodeLabel label;
+
+      //null unless the parent is an interface or a union
+      private final String typeCondition;
+
+      private final List<SelectedField> fields = new ArrayList<>(1);
+
+      private Selection(NodeLabel label, String typeCondition) {
+         this.label = label;
+         this.typeCondition = typeCondition;
+      }
+
+      private List<SelectedField> getChildren() {
+         if (fields.size() == 1) {
+            return getImmediateFields(fields.get(0));
+         }
+         List<SelectedField> children = new ArrayList<>();
+         for (SelectedField field: fields) {
+            children.addAll(getImmediateFields(field));
+         }
+         return children;
+      }
+
+      private static List<SelectedField> getImmediateFields(SelectedField field) {
+         DataFetchingFieldSelectionSet selectionSet = field.getSelectionSet();
+         return selectionSet == null ? Collections.emptyList() : selectionSet.getImmediateFields();
+      }
+
+   }
+
+}
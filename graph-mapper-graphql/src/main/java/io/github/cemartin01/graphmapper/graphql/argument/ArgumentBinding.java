@@ -15,61 +15,176 @@
  */
 package io.github.cemartin01.graphmapper.graphql.argument;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import graphql.language.ArrayValue;
 import graphql.language.ObjectField;
 import graphql.language.ObjectValue;
 import graphql.language.Value;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 
+/**
+ * Binding of a class instantiated out of arguments.
+ *
+ * Literal object values are compiled into binders on the first instantiation. A binder holds bindings of fields
+ * of the literal by their index, so subsequent instantiations out of the same literal, e.g. of a cached document,
+ * skip lookups of properties. Instances of an immutable binding are created once per literal and shared.
+ * Literals are held weakly, so they are released with their documents.
+ *
+ * Properties are compiled into binders when the binding is created, so instantiations out of variables look up
+ * values of the properties in variables and skip lookups of bindings and dispatch on types of values.
+ */
 @Getter
-@AllArgsConstructor
-@Builder
 class ArgumentBinding<T> {
 
     private final Class<T> clazz;
     private final Supplier<T> constructor;
     private final Map<String, ValueBindings.AbstractBinding<T>> propertyMap;
 
+    //names of list properties
+    private final Set<String> listProperties;
+
+    @Getter(AccessLevel.NONE)
+    private final PropertyBinder<T>[] propertyBinders;
+
+    //instances are shared by instantiations out of the same literal
+    private final boolean immutable;
+
+    @Getter(AccessLevel.NONE)
+    private final Cache<ObjectValue, LiteralBinder<T>> literalBinders = CacheBuilder.newBuilder().weakKeys().build();
+
+    //null unless the binding is immutable
+    @Getter(AccessLevel.NONE)
+    private final Cache<ObjectValue, T> literalInstances;
+
+    @Builder
+    public ArgumentBinding(Class<T> clazz, Supplier<T> constructor, Map<String, ValueBindings.AbstractBinding<T>> propertyMap,
+                           Set<String> listProperties, boolean immutable) {
+        this.clazz = clazz;
+        this.constructor = constructor;
+        this.propertyMap = propertyMap;
+        this.listProperties = listProperties == null ? Collections.emptySet() : listProperties;
+        this.immutable = immutable;
+        this.literalInstances = immutable ? CacheBuilder.newBuilder().weakKeys().build() : null;
+        this.propertyBinders = compilePropertyBinders(propertyMap, this.listProperties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PropertyBinder<T>[] compilePropertyBinders(Map<String, ValueBindings.AbstractBinding<T>> propertyMap,
+                                                                 Set<String> listProperties) {
+        PropertyBinder<T>[] binders = new PropertyBinder[propertyMap.size()];
+        int i = 0;
+        for (Map.Entry<String, ValueBindings.AbstractBinding<T>> entry : propertyMap.entrySet()) {
+            binders[i++] = new PropertyBinder<>(entry.getKey(), entry.getValue(), listProperties.contains(entry.getKey()));
+        }
+        return binders;
+    }
+
     public T instantiateByValue(ObjectValue objectValue) {
-        T object = constructor.get();
-        for (ObjectField objectField : objectValue.getObjectFields()) {
-            ValueBindings.AbstractBinding<T> binding = propertyMap.get(objectField.getName());
-            if (binding == null) {
-                continue;
-            }
-            Value currentValue = objectField.getValue();
-            if (currentValue instanceof ArrayValue) {
-                binding.setListByValue(object, (ArrayValue) currentValue);
-            } else {
-                binding.setByValue(object, currentValue);
-            }
+        if (!immutable) {
+            return getLiteralBinder(objectValue).instantiate(constructor);
+        }
+        T object = literalInstances.getIfPresent(objectValue);
+        if (object == null) {
+            object = getLiteralBinder(objectValue).instantiate(constructor);
+            literalInstances.put(objectValue, object);
         }
         return object;
     }
 
+    private LiteralBinder<T> getLiteralBinder(ObjectValue objectValue) {
+        LiteralBinder<T> binder = literalBinders.getIfPresent(objectValue);
+        if (binder == null) {
+            binder = new LiteralBinder<>(objectValue, propertyMap);
+            literalBinders.put(objectValue, binder);
+        }
+        return binder;
+    }
+
     public T instantiate(Object variable) {
         T object = constructor.get();
         if (variable instanceof Map) {
             Map<String, Object> map = (Map<String, Object>) variable;
-            for (Map.Entry<String, Object> entry : map.entrySet()) {
-                ValueBindings.AbstractBinding<T> binding = propertyMap.get(entry.getKey());
-                if (binding == null) {
-                    continue;
-                }
-                if (entry.getValue() instanceof List) {
-                    binding.setList(object, (List) entry.getValue());
+            for (PropertyBinder<T> binder : propertyBinders) {
+                Object value = map.get(binder.name);
+                if (value == null) {
+                    if (map.containsKey(binder.name)) {
+                        binder.binding.set(object, null);
+                    }
+                } else if (binder.list) {
+                    binder.binding.setList(object, (List) value);
                 } else {
-                    binding.set(object, entry.getValue());
+                    binder.binding.set(object, value);
                 }
             }
         }
         return object;
     }
 
+    /**
+     * Binding of a property by its name, compiled once per class
+     */
+    private static final class PropertyBinder<T> {
+
+        private final String name;
+        private final ValueBindings.AbstractBinding<T> binding;
+        private final boolean list;
+
+        private PropertyBinder(String name, ValueBindings.AbstractBinding<T> binding, boolean list) {
+            this.name = name;
+            this.binding = binding;
+            this.list = list;
+        }
+
+    }
+
+    /**
+     * Bindings of fields of a literal object value by index of the field, unknown fields are left out
+     */
+    private static final class LiteralBinder<T> {
+
+        private final List<ValueBindings.AbstractBinding<T>> bindings;
+        private final List<Value> values;
+        private final boolean[] lists;
+
+        private LiteralBinder(ObjectValue objectValue, Map<String, ValueBindings.AbstractBinding<T>> propertyMap) {
+            List<ObjectField> objectFields = objectValue.getObjectFields();
+            bindings = new ArrayList<>(objectFields.size());
+            values = new ArrayList<>(objectFields.size());
+            for (ObjectField objectField : objectFields) {
+                ValueBindings.AbstractBinding<T> binding = propertyMap.get(objectField.getName());
+                if (binding != null) {
+                    bindings.add(binding);
+                    values.add(objectField.getValue());
+                }
+            }
+            lists = new boolean[values.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = values.get(i) instanceof ArrayValue;
+            }
+        }
+
+        private T instantiate(Supplier<T> constructor) {
+            T object = constructor.get();
+            for (int i = 0; i < lists.length; i++) {
+                if (lists[i]) {
+                    bindings.get(i).setListByValue(object, (ArrayValue) values.get(i));
+                } else {
+                    bindings.get(i).setByValue(object, values.get(i));
+                }
+            }
+            return object;
+        }
+
+    }
+
 }
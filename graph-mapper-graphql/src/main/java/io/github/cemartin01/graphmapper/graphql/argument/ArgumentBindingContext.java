@@ -32,8 +32,10 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -97,8 +99,25 @@ public class ArgumentBindingContext {
      * @throws GraphMapperInitializationException if it's not possible to set up the binding
      */
     public <T> void addBinding(Class<T> clazz) throws GraphMapperInitializationException {
+        addBinding(clazz, false);
+    }
+
+    /**
+     * Initializes the binding of a given class whose instances are not modified.
+     *
+     * An instance out of a literal argument is created once per literal of a document and shared by all requests
+     * of the document. Instances out of variables are created per request.
+     * @param clazz class that is supposed to represent a GraphQL-java argument
+     * @throws GraphMapperInitializationException if it's not possible to set up the binding
+     */
+    public <T> void addImmutableBinding(Class<T> clazz) throws GraphMapperInitializationException {
+        addBinding(clazz, true);
+    }
+
+    private <T> void addBinding(Class<T> clazz, boolean immutable) throws GraphMapperInitializationException {
 
         Map<String, ValueBindings.AbstractBinding<T>> propertyMap = new HashMap<>();
+        Set<String> listProperties = new HashSet<>();
         Supplier<T> constructor = createConstructor(clazz);
 
         for (Method method: clazz.getMethods()) {
@@ -110,6 +129,7 @@ public class ArgumentBindingContext {
                     ParameterizedType list = (ParameterizedType) method.getGenericParameterTypes()[0];
                     Class<?> listItemType = (Class<?>)list.getActualTypeArguments()[0];
                     propertyMap.put(getFieldName(method.getName()), resolveBinding(clazz, listItemType, setter));
+                    listProperties.add(getFieldName(method.getName()));
                 } else {
                     propertyMap.put(getFieldName(method.getName()), resolveBinding(clazz, fieldType, setter));
                 }
@@ -120,6 +140,8 @@ public class ArgumentBindingContext {
                 .clazz(clazz)
                 .constructor(constructor)
                 .propertyMap(propertyMap)
+                .listProperties(listProperties)
+                .immutable(immutable)
                 .build());
     }
 
@@ -210,6 +232,22 @@ public class ArgumentBindingContext {
         }
     }
 
+    /**
+     * Instantiates a given class out of a value of an argument resolved by GraphQL-java,
+     * e.g. of {@link graphql.schema.SelectedField#getArguments}
+     * @param value resolved value of the argument, a map of an input object
+     * @param clazz class of the argument
+     * @return instance of the class, null if the value is null
+     * @throws GraphMapperException if a binding of the class is missing
+     */
+    public <T> T instantiateArgument(Object value, Class<T> clazz) {
+        ArgumentBinding binding = bindingMap.get(clazz);
+        if (binding == null) {
+            throw new GraphMapperException("Binding for class " + clazz + " missing");
+        }
+        return value == null ? null : (T) binding.instantiate(value);
+    }
+
     public <T> T instantiateArgument(Argument argument, Class<T> clazz, DataFetchingEnvironment env) {
         ArgumentBinding binding = bindingMap.get(clazz);
         if (binding == null) {
@@ -59,7 +59,7 @@ class ValueBindings {
 
         @Override
         public void setList(T object, List list) {
-            List targetList = new ArrayList();
+            List targetList = new ArrayList(list.size());
             for (Object item : list) {
                 targetList.add(argumentBinding.instantiate(item));
             }
@@ -73,8 +73,9 @@ class ValueBindings {
 
         @Override
         public void setListByValue(T object, ArrayValue arrayValue) {
-            List targetList = new ArrayList();
-            for (Value value : arrayValue.getValues()) {
+            List<Value> values = arrayValue.getValues();
+            List targetList = new ArrayList(values.size());
+            for (Value value : values) {
                 targetList.add(argumentBinding.instantiateByValue((ObjectValue) value));
             }
             setter.accept(object, targetList);
@@ -97,13 +98,14 @@ class ValueBindings {
 
         @Override
         public void setListByValue(T object, ArrayValue arrayValue) {
-            List list = new ArrayList<>();
-            arrayValue.getValues().forEach(itemValue -> {
+            List<Value> values = arrayValue.getValues();
+            List list = new ArrayList<>(values.size());
+            for (Value itemValue : values) {
                 Object e = getEnumValue(itemValue);
                 if (e != null) {
                     list.add(e);
                 }
-            });
+            }
             setter.accept(object, list);
         }
 
@@ -132,13 +134,14 @@ class ValueBindings {
 
         @Override
         public void setListByValue(T object, ArrayValue arrayValue) {
-            List list = new ArrayList<>();
-            arrayValue.getValues().forEach(itemValue -> {
+            List<Value> values = arrayValue.getValues();
+            List list = new ArrayList<>(values.size());
+            for (Value itemValue : values) {
                 Object e = getParsedValue(itemValue);
                 if (e != null) {
                     list.add(e);
                 }
-            });
+            }
             setter.accept(object, list);
         }
 
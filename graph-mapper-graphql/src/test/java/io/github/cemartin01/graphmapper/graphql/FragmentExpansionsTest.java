@@ -0,0 +1,89 @@
+package io.github.cemartin01.graphmapper.graphql;
+
+import com.google.common.collect.ImmutableMap;
+import graphql.language.Argument;
+import graphql.language.Directive;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.TypeName;
+import graphql.language.VariableReference;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+import io.github.cemartin01.graphmapper.graphql.mock.GraphQLTestNodeLabel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.github.cemartin01.graphmapper.graphql.mock.GraphQLTestNodeLabel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FragmentExpansionsTest {
+
+    private final Map<String, NodeLabel> nodeLabels = new HashMap<>();
+
+    {
+        for (GraphQLTestNodeLabel label: GraphQLTestNodeLabel.values()) {
+            nodeLabels.put(label.getName(), label);
+        }
+    }
+
+    @Test
+    public void fragmentIsExpandedOnce() {
+
+        Directive condition = Directive.newDirective()
+                .name("include")
+                .argument(Argument.newArgument("if", new VariableReference("withB")).build())
+                .build();
+        Field childA_field = Field.newField("childA", selectionSet(Field.newField("childA_A").build())).build();
+        Field childB_field = Field.newField("childB").build();
+        FragmentDefinition fragment = FragmentDefinition.newFragmentDefinition()
+                .name("children")
+                .typeCondition(new TypeName("Meal"))
+                .selectionSet(selectionSet(
+                        Field.newField("id").build(),
+                        childA_field,
+                        InlineFragment.newInlineFragment()
+                                .typeCondition(new TypeName("Soup"))
+                                .directive(condition)
+                                .selectionSet(selectionSet(childB_field, new FragmentSpread("other")))
+                                .build()))
+                .build();
+        FragmentExpansions fragments = new FragmentExpansions(ImmutableMap.of("children", fragment), nodeLabels);
+
+        FragmentExpansions.Fragment expansion = fragments.get("children");
+
+        assertSame(expansion, fragments.get("children"));
+        assertEquals("Meal", expansion.typeCondition);
+        //fields without node labels are dropped
+        assertEquals(3, expansion.selections.size());
+
+        FragmentExpansions.Selected childA = expansion.selections.get(0);
+        assertEquals(CHILD_A, childA.label);
+        assertSame(childA_field, childA.field);
+        assertTrue(childA.conditions.isEmpty());
+        assertEquals(CHILD_A_A, childA.selections.get(0).label);
+
+        FragmentExpansions.Selected childB = expansion.selections.get(1);
+        assertSame(childB_field, childB.field);
+        assertEquals(Collections.singletonList("Soup"), childB.typeConditions);
+        assertEquals(Collections.singletonList(condition), childB.conditions);
+
+        //nested spreads are expanded when they are merged
+        FragmentExpansions.Selected other = expansion.selections.get(2);
+        assertEquals("other", other.fragmentName);
+        assertEquals(Collections.singletonList("Soup"), other.typeConditions);
+        assertThrows(GraphMapperException.class, () -> fragments.get("other"));
+    }
+
+    private static SelectionSet selectionSet(Selection<?>... selections) {
+        return SelectionSet.newSelectionSet().selections(Arrays.asList(selections)).build();
+    }
+
+}
@@ -3,10 +3,16 @@ package io.github.cemartin01.graphmapper.graphql;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import graphql.execution.ExecutionContext;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.ResultPath;
 import graphql.execution.MergedField;
 import graphql.language.Field;
 import graphql.language.FragmentDefinition;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
 import graphql.language.SelectionSet;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
 import io.github.cemartin01.graphmapper.MappingGraph;
 import io.github.cemartin01.graphmapper.Node;
 import io.github.cemartin01.graphmapper.NodeLabel;
@@ -18,7 +24,12 @@ import io.github.cemartin01.graphmapper.graphql.schema.QueryTestUtil;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment;
 import static org.junit.jupiter.api.Assertions.*;
@@ -165,6 +176,46 @@ public class GraphQLMappingFactoryTest {
 
         val env = newDataFetchingEnvironment(executionContext)
                 .mergedField(QueryTestUtil.getMergedField(executionContext))
+                .fieldType(QueryTestUtil.getFieldType(executionContext))
+                .build();
+
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(GraphQLSchemaNodeLabel.values(), null);
+        GraphQLMapping mapping = factory.getMapping(env);
+
+        MappingGraph<GraphQLMetadata> mappingGraph = mapping.getMappingGraph();
+
+        assertEquals(Node.RootNodeLabel.ROOT, mappingGraph.getRoot().getLabel());
+        assertEquals(3, mappingGraph.getRoot().getChildren().size());
+
+        //a node per narrowing type condition, ... on Meal is merged
+        List<List<String>> typeConditions = Arrays.asList(Collections.emptyList(), Collections.singletonList("Lunch"),
+                Collections.singletonList("Soup"));
+        List<Integer> fieldCounts = Arrays.asList(2, 1, 1);
+        for (int i = 0; i < typeConditions.size(); i++) {
+            Node<GraphQLMetadata> recipe = mappingGraph.getRoot().getChildren().get(i);
+
+            assertEquals(GraphQLSchemaNodeLabel.RECIPE, recipe.getLabel());
+            assertEquals(typeConditions.get(i), recipe.getTypeConditions());
+            assertEquals(0, recipe.getChildren().size());
+            assertEquals(fieldCounts.get(i), recipe.getMetadata().getFields().size());
+            assertEquals("recipe", recipe.getMetadata().getFields().get(0).getName());
+        }
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void mappingBasedOn_findMeal_declaredTypeFragment_isBuilt() {
+        ExecutionContext executionContext = QueryTestUtil.produce(
+                "findMeal_declaredTypeFragment",
+                "findMeal",
+                ImmutableMap.of()
+        );
+
+        val env = newDataFetchingEnvironment(executionContext)
+                .mergedField(QueryTestUtil.getMergedField(executionContext))
+                .fieldType(QueryTestUtil.getFieldType(executionContext))
+                .fragmentsByName(executionContext.getDocument().getDefinitionsOfType(FragmentDefinition.class).stream()
+                        .collect(Collectors.toMap(FragmentDefinition::getName, Function.identity())))
                 .build();
 
         GraphQLMappingFactory factory = new GraphQLMappingFactory(GraphQLSchemaNodeLabel.values(), null);
@@ -186,4 +237,256 @@ public class GraphQLMappingFactoryTest {
         assertEquals("recipe", recipe.getMetadata().getFields().get(3).getName());
     }
 
+    @Test
+    @GraphQLSchemaBasedTest
+    public void mappingGraphIsCachedAcrossRequests() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_simple", "findMeal", ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(MappingGraphCacheSpec.DOCUMENT_IDENTITY).build());
+
+        val firstEnv = environment(executionContext, "/findMeal");
+        val secondEnv = environment(executionContext, "/findMeal");
+        MappingGraph<GraphQLMetadata> first = factory.getMapping(firstEnv).getMappingGraph();
+        MappingGraph<GraphQLMetadata> second = factory.getMapping(secondEnv).getMappingGraph();
+
+        assertEquals(1, factory.getCacheStats().get().getMissCount());
+        assertEquals(1, factory.getCacheStats().get().getHitCount());
+        //fields are shared, environments are bound per request
+        Node<GraphQLMetadata> firstRecipe = first.getRoot().getChildren().get(0);
+        Node<GraphQLMetadata> secondRecipe = second.getRoot().getChildren().get(0);
+        assertEquals(GraphQLSchemaNodeLabel.RECIPE, secondRecipe.getLabel());
+        assertSame(firstRecipe.getMetadata().getFields(), secondRecipe.getMetadata().getFields());
+        assertSame(firstEnv, firstRecipe.getMetadata().getEnv());
+        assertSame(secondEnv, secondRecipe.getMetadata().getEnv());
+        assertSame(secondEnv, second.getRoot().getMetadata().getEnv());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void cacheKeyConsistsOfDocumentAndPathWithoutIndices() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_simple", "findMeal", ImmutableMap.of());
+        ExecutionContext reparsedContext = QueryTestUtil.produce("findMeal_simple", "findMeal", ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(MappingGraphCacheSpec.DOCUMENT_IDENTITY).build());
+
+        factory.getMapping(environment(executionContext, "/findMeal[0]"));
+        factory.getMapping(environment(executionContext, "/findMeal[1]"));
+        factory.getMapping(environment(reparsedContext, "/findMeal[0]"));
+        factory.getMapping(environment(executionContext, "/other"));
+
+        assertEquals(3, factory.getCacheStats().get().getMissCount());
+        assertEquals(1, factory.getCacheStats().get().getHitCount());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void persistedQueriesAreCachedByHash() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_simple", "findMeal", ImmutableMap.of());
+        ExecutionContext reparsedContext = QueryTestUtil.produce("findMeal_simple", "findMeal", ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(env -> "hash").build());
+
+        factory.getMapping(environment(executionContext, "/findMeal"));
+        MappingGraph<GraphQLMetadata> graph = factory.getMapping(environment(reparsedContext, "/findMeal"))
+                .getMappingGraph();
+
+        assertEquals(1, factory.getCacheStats().get().getHitCount());
+        assertEquals(GraphQLSchemaNodeLabel.RECIPE, graph.getRoot().getChildren().get(0).getLabel());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void mappingGraphsWithoutDocumentKeyAreNotCached() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_simple", "findMeal", ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(env -> null).build());
+        val env = environment(executionContext, "/findMeal");
+
+        MappingGraph<GraphQLMetadata> graph = factory.getMapping(env).getMappingGraph();
+
+        assertSame(env, graph.getRoot().getChildren().get(0).getMetadata().getEnv());
+        assertEquals(0, factory.getCacheStats().get().getMissCount());
+        assertFalse(new GraphQLMappingFactory(GraphQLSchemaNodeLabel.values(), null).getCacheStats().isPresent());
+
+        //no document key is configured by default
+        GraphQLMappingFactory defaultFactory = new GraphQLMappingFactory(
+                ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()), null, MappingGraphCacheSpec.builder().build());
+        defaultFactory.getMapping(env);
+        defaultFactory.getMapping(env);
+        assertEquals(0, defaultFactory.getCacheStats().get().getMissCount());
+        assertEquals(0, defaultFactory.getCacheStats().get().getHitCount());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void directiveOutcomesArePartOfCacheKey() {
+
+        ExecutionContext withRecipe = QueryTestUtil.produce("findMeal_directives", "findMeal",
+                ImmutableMap.of("withRecipe", true));
+        ExecutionContext withoutRecipe = withRecipe.transform(builder -> builder
+                .variables(ImmutableMap.of("withRecipe", false)));
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(MappingGraphCacheSpec.DOCUMENT_IDENTITY).build());
+
+        MappingGraph<GraphQLMetadata> included = factory.getMapping(rawEnvironment(withRecipe, "/findMeal"))
+                .getMappingGraph();
+        MappingGraph<GraphQLMetadata> excluded = factory.getMapping(rawEnvironment(withoutRecipe, "/findMeal"))
+                .getMappingGraph();
+        MappingGraph<GraphQLMetadata> includedAgain = factory.getMapping(rawEnvironment(withRecipe, "/findMeal"))
+                .getMappingGraph();
+
+        assertEquals(1, included.getRoot().getChildren().size());
+        assertTrue(excluded.getRoot().getChildren().isEmpty());
+        assertSame(included.getRoot().getChildren().get(0).getMetadata().getFields(),
+                includedAgain.getRoot().getChildren().get(0).getMetadata().getFields());
+        assertEquals(1, factory.getCacheStats().get().getMissCount());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void cachedMappingGraphsKeepTypeConditions() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_inlineFragment", "findMeal",
+                ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(MappingGraphCacheSpec.DOCUMENT_IDENTITY).build());
+
+        factory.getMapping(environment(executionContext, "/findMeal"));
+        MappingGraph<GraphQLMetadata> cached = factory.getMapping(environment(executionContext, "/findMeal"))
+                .getMappingGraph();
+
+        assertEquals(1, factory.getCacheStats().get().getHitCount());
+        assertEquals(Collections.singletonList("Soup"), cached.getRoot().getChildren().get(2).getTypeConditions());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void fieldsOfObjectTypesOfAbstractParentAreCachedSeparately() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_inlineFragment", "findMeal",
+                ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(ImmutableList.copyOf(GraphQLSchemaNodeLabel.values()),
+                null, MappingGraphCacheSpec.builder().documentKey(MappingGraphCacheSpec.DOCUMENT_IDENTITY).build());
+        OperationDefinition operation = executionContext.getDocument().getDefinitionsOfType(OperationDefinition.class)
+                .get(0);
+        Field findMeal = (Field) operation.getSelectionSet().getSelections().get(0);
+        //recipe of ... on Lunch and of ... on Soup
+        Field lunchRecipe = (Field) ((InlineFragment) findMeal.getSelectionSet().getSelections().get(3))
+                .getSelectionSet().getSelections().get(0);
+        Field soupRecipe = (Field) ((InlineFragment) findMeal.getSelectionSet().getSelections().get(4))
+                .getSelectionSet().getSelections().get(0);
+
+        MappingGraph<GraphQLMetadata> lunch = factory.getMapping(
+                recipeEnvironment(executionContext, lunchRecipe, findMeal, "Lunch")).getMappingGraph();
+        MappingGraph<GraphQLMetadata> soup = factory.getMapping(
+                recipeEnvironment(executionContext, soupRecipe, findMeal, "Soup")).getMappingGraph();
+        factory.getMapping(recipeEnvironment(executionContext, soupRecipe, findMeal, "Soup"));
+
+        assertSame(lunchRecipe, lunch.getRoot().getMetadata().getFields().get(0));
+        assertSame(soupRecipe, soup.getRoot().getMetadata().getFields().get(0));
+        assertEquals(2, factory.getCacheStats().get().getMissCount());
+        assertEquals(1, factory.getCacheStats().get().getHitCount());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void selectionSetMappingIsRestrictedByObjectTypes() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findMeal_inlineFragment", "findMeal",
+                ImmutableMap.of());
+        DataFetchingEnvironment env = QueryTestUtil.getSelectionSetEnvironment(executionContext);
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(GraphQLSchemaNodeLabel.values(), null);
+
+        MappingGraph<GraphQLMetadata> mappingGraph = factory.getSelectionSetMapping(env).getMappingGraph();
+
+        assertSame(env.getField(), mappingGraph.getRoot().getMetadata().getFields().get(0));
+        //fields of the interface are selected per object type
+        assertEquals(2, mappingGraph.getRoot().getChildren().size());
+        for (Node<GraphQLMetadata> recipe: mappingGraph.getRoot().getChildren()) {
+            assertEquals(GraphQLSchemaNodeLabel.RECIPE, recipe.getLabel());
+            assertEquals(recipe.getMetadata().getSelectedField().getObjectType().getName(),
+                    recipe.getTypeConditions().get(0));
+            assertTrue(recipe.getMetadata().getFields().isEmpty());
+            assertSame(env, recipe.getMetadata().getEnv());
+        }
+        assertNotEquals(mappingGraph.getRoot().getChildren().get(0).getTypeConditions(),
+                mappingGraph.getRoot().getChildren().get(1).getTypeConditions());
+    }
+
+    @Test
+    @GraphQLSchemaBasedTest
+    public void selectionSetMappingMergesAliases() {
+
+        ExecutionContext executionContext = QueryTestUtil.produce("findRecipe_variants", "findRecipe",
+                ImmutableMap.of());
+        GraphQLMappingFactory factory = new GraphQLMappingFactory(GraphQLSchemaNodeLabel.values(), null);
+
+        MappingGraph<GraphQLMetadata> mappingGraph = factory
+                .getSelectionSetMapping(QueryTestUtil.getSelectionSetEnvironment(executionContext))
+                .getMappingGraph();
+
+        assertEquals(1, mappingGraph.getRoot().getChildren().size());
+        Node<GraphQLMetadata> variants = mappingGraph.getRoot().getChildren().get(0);
+        assertEquals(GraphQLSchemaNodeLabel.VARIANTS, variants.getLabel());
+        assertTrue(variants.getTypeConditions().isEmpty());
+        assertEquals(1, variants.getMetadata().getSelectedField().getArguments().get("size"));
+        assertEquals(2, variants.getChildren().size());
+        assertEquals(GraphQLSchemaNodeLabel.RECIPE, variants.getChildren().get(0).getLabel());
+    }
+
+    private static DataFetchingEnvironment environment(ExecutionContext executionContext, String path) {
+        return environment(executionContext, QueryTestUtil.getMergedField(executionContext), path);
+    }
+
+    /**
+     * Creates environment of the first field of the operation, the field is not normalized, so its directives
+     * may depend on variables
+     */
+    private static DataFetchingEnvironment rawEnvironment(ExecutionContext executionContext, String path) {
+        OperationDefinition operation = executionContext.getDocument().getDefinitionsOfType(OperationDefinition.class)
+                .get(0);
+        Field field = (Field) operation.getSelectionSet().getSelections().get(0);
+        return environment(executionContext, MergedField.newMergedField(field).build(), path);
+    }
+
+    /**
+     * Creates environment of a recipe of a meal of a given object type
+     */
+    private static DataFetchingEnvironment recipeEnvironment(ExecutionContext executionContext, Field recipe,
+                                                             Field findMeal, String objectType) {
+        GraphQLSchema schema = executionContext.getGraphQLSchema();
+        ExecutionStepInfo findMealInfo = ExecutionStepInfo.newExecutionStepInfo()
+                .type(schema.getObjectType("Lunch"))
+                .field(MergedField.newMergedField(findMeal).build())
+                .fieldContainer(schema.getQueryType())
+                .path(ResultPath.parse("/findMeal"))
+                .build();
+        return newDataFetchingEnvironment(executionContext)
+                .mergedField(MergedField.newMergedField(recipe).build())
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .type(schema.getObjectType("Recipe"))
+                        .field(MergedField.newMergedField(recipe).build())
+                        .fieldContainer(schema.getObjectType(objectType))
+                        .parentInfo(findMealInfo)
+                        .path(ResultPath.parse("/findMeal/recipe"))
+                        .build())
+                .build();
+    }
+
+    private static DataFetchingEnvironment environment(ExecutionContext executionContext, MergedField mergedField,
+                                                       String path) {
+        return newDataFetchingEnvironment(executionContext)
+                .mergedField(mergedField)
+                .fieldType(QueryTestUtil.getFieldType(executionContext))
+                .executionStepInfo(ExecutionStepInfo.newExecutionStepInfo()
+                        .type(executionContext.getGraphQLSchema().getQueryType())
+                        .path(ResultPath.parse(path))
+                        .build())
+                .build();
+    }
+
 }
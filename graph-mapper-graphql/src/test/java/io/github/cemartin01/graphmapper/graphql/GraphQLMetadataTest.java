@@ -1,17 +1,25 @@
 package io.github.cemartin01.graphmapper.graphql;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import graphql.language.Argument;
 import graphql.language.Field;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.SelectedField;
 import io.github.cemartin01.graphmapper.graphql.mock.dto.MealCriteria;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 public class GraphQLMetadataTest {
@@ -52,4 +60,50 @@ public class GraphQLMetadataTest {
         assertFalse(mealCriteriaOptional.isPresent());
     }
 
+    @Test
+    public void objectArgumentOfSelectedFieldIsReturned() {
+
+        GraphQLMappingFactory factory = mock(GraphQLMappingFactory.class);
+        SelectedField selectedField = mock(SelectedField.class);
+        Map<String, Object> value = ImmutableMap.of("nameContains", "m");
+        when(selectedField.getArguments()).thenReturn(ImmutableMap.of("myArg", value));
+        when(factory.instantiateArgument(value, MealCriteria.class)).thenReturn(new MealCriteria());
+
+        GraphQLMetadata metadata = new GraphQLMetadata(selectedField, mock(DataFetchingEnvironment.class), factory);
+
+        assertTrue(metadata.getObjectArgument("myArg", MealCriteria.class).isPresent());
+        assertFalse(metadata.getObjectArgument("otherArg", MealCriteria.class).isPresent());
+        assertTrue(metadata.getFields().isEmpty());
+    }
+
+    @Test
+    public void objectArgumentIsInstantiatedOnce() {
+
+        GraphQLMappingFactory factory = mock(GraphQLMappingFactory.class);
+
+        Field field = mock(Field.class);
+        Argument argument = mock(Argument.class);
+        when(argument.getName()).thenReturn("myArg");
+        when(field.getArguments()).thenReturn(ImmutableList.of(argument));
+
+        DataFetchingEnvironment env = mock(DataFetchingEnvironment.class);
+        DataFetchingEnvironment otherEnv = mock(DataFetchingEnvironment.class);
+
+        when(factory.instantiateArgument(argument, MealCriteria.class, env)).thenReturn(new MealCriteria());
+        when(factory.instantiateArgument(argument, MealCriteria.class, otherEnv)).thenReturn(new MealCriteria());
+
+        GraphQLMetadata metadata = new GraphQLMetadata(ImmutableList.of(field), env, factory);
+        verifyNoInteractions(field);
+
+        MealCriteria criteria = metadata.getObjectArgument("myArg", MealCriteria.class).get();
+        assertSame(criteria, metadata.getObjectArgument("myArg", MealCriteria.class).get());
+        assertFalse(metadata.getObjectArgument("otherArg", MealCriteria.class).isPresent());
+        verify(factory, times(1)).instantiateArgument(argument, MealCriteria.class, env);
+
+        //bound metadata share the index of arguments, not the instances
+        GraphQLMetadata boundMetadata = metadata.bind(otherEnv);
+        assertNotSame(criteria, boundMetadata.getObjectArgument("myArg", MealCriteria.class).get());
+        verify(field, times(1)).getArguments();
+    }
+
 }
@@ -0,0 +1,301 @@
+package io.github.cemartin01.graphmapper.graphql;
+
+import com.google.common.collect.ImmutableMap;
+import graphql.language.Argument;
+import graphql.language.BooleanValue;
+import graphql.language.Directive;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.language.TypeName;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.DataFetchingEnvironment;
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.NodeLabel;
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+import io.github.cemartin01.graphmapper.graphql.mock.GraphQLTestNodeLabel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment;
+import static io.github.cemartin01.graphmapper.graphql.mock.GraphQLTestNodeLabel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappingGraphBuilderTest {
+
+    private final Map<String, NodeLabel> nodeLabels = new HashMap<>();
+
+    {
+        for (GraphQLTestNodeLabel label: GraphQLTestNodeLabel.values()) {
+            nodeLabels.put(label.getName(), label);
+        }
+    }
+
+    @Test
+    public void mappingGraphIsBuilt() {
+
+        Field mealField = field("meal", field("name"));
+        Field rootField = field("findMeal", field("id"), mealField);
+
+        MappingGraph<GraphQLMetadata> graph = new MappingGraphBuilder(nodeLabels, null, null).build(rootField);
+
+        Node<GraphQLMetadata> root = graph.getRoot();
+        assertEquals(Node.RootNodeLabel.ROOT, root.getLabel());
+        assertEquals(1, root.getMetadata().getFields().size());
+        assertSame(rootField, root.getMetadata().getFields().get(0));
+        assertEquals(1, root.getChildren().size());
+        Node<GraphQLMetadata> mealNode = root.getChildren().get(0);
+        assertEquals(MEAL, mealNode.getLabel());
+        assertTrue(mealNode.getChildren().isEmpty());
+        assertEquals(1, mealNode.getMetadata().getFields().size());
+        assertSame(mealField, mealNode.getMetadata().getFields().get(0));
+    }
+
+    @Test
+    public void nodesAreMerged() {
+
+        Field childA_A_field = field("childA_A");
+        Field childA_A_dup_field = field("childA_A");
+        Field childA_B_field = field("childA_B");
+        Field childA_field = field("childA", childA_A_field, childA_A_dup_field, childA_B_field);
+
+        Field childA_dup_childA_B_field = field("childA_B");
+        Field childA_dup_childA_B_dup_field = field("childA_B");
+        Field childA_dup_childA_A_field = field("childA_A");
+        Field childA_dup_field = field("childA", childA_dup_childA_B_field, childA_dup_childA_B_dup_field,
+                childA_dup_childA_A_field);
+
+        Field childB_A_field = field("childC_A");
+        Field childB_field = field("childB", childB_A_field);
+
+        Field rootField = field("root", childA_field, childA_dup_field, childB_field);
+
+        MappingGraph<GraphQLMetadata> mappingGraph = new MappingGraphBuilder(nodeLabels, null, null).build(rootField);
+
+        Node<GraphQLMetadata> root = mappingGraph.getRoot();
+        assertEquals(2, root.getChildren().size());
+        assertSame(rootField, root.getMetadata().getFields().get(0));
+
+        //children keep the order of their first selections
+        Node<GraphQLMetadata> childA = root.getChildren().get(0);
+        assertEquals(CHILD_A, childA.getLabel());
+        assertFields(childA, childA_field, childA_dup_field);
+        assertEquals(2, childA.getChildren().size());
+
+        Node<GraphQLMetadata> childAA = childA.getChildren().get(0);
+        assertEquals(CHILD_A_A, childAA.getLabel());
+        assertTrue(childAA.getChildren().isEmpty());
+        assertFields(childAA, childA_A_field, childA_A_dup_field, childA_dup_childA_A_field);
+
+        Node<GraphQLMetadata> childAB = childA.getChildren().get(1);
+        assertEquals(CHILD_A_B, childAB.getLabel());
+        assertTrue(childAB.getChildren().isEmpty());
+        assertFields(childAB, childA_B_field, childA_dup_childA_B_field, childA_dup_childA_B_dup_field);
+
+        Node<GraphQLMetadata> childB = root.getChildren().get(1);
+        assertEquals(CHILD_B, childB.getLabel());
+        assertFields(childB, childB_field);
+        assertEquals(1, childB.getChildren().size());
+
+        Node<GraphQLMetadata> childBA = childB.getChildren().get(0);
+        assertEquals(CHILD_B_A, childBA.getLabel());
+        assertTrue(childBA.getChildren().isEmpty());
+        assertFields(childBA, childB_A_field);
+    }
+
+    @Test
+    public void fragmentsAreMerged() {
+
+        Field childA_field = field("childA", field("childA_A"));
+        Field childA_fragment_field = field("childA", field("childA_B"));
+        Field childB_field = field("childB");
+        FragmentDefinition fragment = FragmentDefinition.newFragmentDefinition()
+                .name("children")
+                .selectionSet(selectionSet(childA_fragment_field))
+                .build();
+        InlineFragment inlineFragment = InlineFragment.newInlineFragment()
+                .selectionSet(selectionSet(childB_field, new FragmentSpread("children")))
+                .build();
+        Field rootField = field("root", childA_field, inlineFragment);
+        DataFetchingEnvironment env = newDataFetchingEnvironment()
+                .fragmentsByName(ImmutableMap.of("children", fragment))
+                .build();
+
+        Node<GraphQLMetadata> root = new MappingGraphBuilder(nodeLabels, env, null).build(rootField).getRoot();
+
+        assertEquals(2, root.getChildren().size());
+        Node<GraphQLMetadata> childA = root.getChildren().get(0);
+        assertFields(childA, childA_field, childA_fragment_field);
+        assertEquals(CHILD_A_A, childA.getChildren().get(0).getLabel());
+        assertEquals(CHILD_A_B, childA.getChildren().get(1).getLabel());
+        assertFields(root.getChildren().get(1), childB_field);
+    }
+
+    @Test
+    public void missingFragmentIsRejected() {
+
+        Field rootField = field("root", new FragmentSpread("missing"));
+        DataFetchingEnvironment env = newDataFetchingEnvironment().fragmentsByName(ImmutableMap.of()).build();
+
+        assertThrows(GraphMapperException.class, () -> new MappingGraphBuilder(nodeLabels, env, null).build(rootField));
+    }
+
+    @Test
+    public void excludedSelectionsAreNotCollected() {
+
+        Field rootField = field("root",
+                directed(field("childA", field("childA_A")), "include", new VariableReference("withA")),
+                directed(field("childB", directed(field("childC_A"), "include", new VariableReference("withBA"))),
+                        "skip", new BooleanValue(false)),
+                InlineFragment.newInlineFragment()
+                        .selectionSet(selectionSet(field("meal")))
+                        .directive(directive("skip", new VariableReference("withoutMeal")))
+                        .build(),
+                FragmentSpread.newFragmentSpread("children")
+                        .directive(directive("include", new BooleanValue(false)))
+                        .build());
+        FragmentDefinition fragment = FragmentDefinition.newFragmentDefinition()
+                .name("children")
+                .selectionSet(selectionSet(directed(field("childA_B"), "include", new VariableReference("withAB"))))
+                .build();
+        DataFetchingEnvironment env = newDataFetchingEnvironment()
+                .fragmentsByName(ImmutableMap.of("children", fragment))
+                .variables(ImmutableMap.of("withA", false, "withBA", true, "withoutMeal", true))
+                .build();
+
+        MappingGraphBuilder builder = new MappingGraphBuilder(nodeLabels, env, null);
+        Node<GraphQLMetadata> root = builder.buildUnbound(rootField).getRoot();
+
+        assertEquals(1, root.getChildren().size());
+        assertEquals(CHILD_B, root.getChildren().get(0).getLabel());
+        assertEquals(CHILD_B_A, root.getChildren().get(0).getChildren().get(0).getLabel());
+        //variables of excluded selections are found too
+        assertEquals(Arrays.asList("withA", "withBA", "withoutMeal", "withAB"), builder.getConditionVariables());
+        assertEquals(1, builder.build(rootField).getRoot().getChildren().size());
+    }
+
+    @Test
+    public void typeConditionsRestrictNodes() {
+
+        Field childA_field = field("childA", field("childA_A"));
+        Field childA_lunch_field = field("childA", field("childA_B"));
+        Field childA_lunch_dup_field = field("childA");
+        Field childB_field = field("childB");
+        FragmentDefinition fragment = FragmentDefinition.newFragmentDefinition()
+                .name("soupChildren")
+                .typeCondition(new TypeName("Soup"))
+                .selectionSet(selectionSet(childB_field))
+                .build();
+        Field rootField = field("root",
+                childA_field,
+                InlineFragment.newInlineFragment()
+                        .typeCondition(new TypeName("Lunch"))
+                        .selectionSet(selectionSet(childA_lunch_field, InlineFragment.newInlineFragment()
+                                .typeCondition(new TypeName("Lunch"))
+                                .selectionSet(selectionSet(childA_lunch_dup_field))
+                                .build()))
+                        .build(),
+                InlineFragment.newInlineFragment()
+                        .typeCondition(new TypeName("Meal"))
+                        .selectionSet(selectionSet(new FragmentSpread("soupChildren")))
+                        .build());
+        DataFetchingEnvironment env = newDataFetchingEnvironment()
+                .fragmentsByName(ImmutableMap.of("soupChildren", fragment))
+                .build();
+
+        Node<GraphQLMetadata> root = new MappingGraphBuilder(nodeLabels, env, null).build(rootField).getRoot();
+
+        assertEquals(3, root.getChildren().size());
+        Node<GraphQLMetadata> childA = root.getChildren().get(0);
+        assertTrue(childA.getTypeConditions().isEmpty());
+        assertFields(childA, childA_field);
+        assertEquals(CHILD_A_A, childA.getChildren().get(0).getLabel());
+
+        Node<GraphQLMetadata> lunchChildA = root.getChildren().get(1);
+        assertEquals(Collections.singletonList("Lunch"), lunchChildA.getTypeConditions());
+        assertFields(lunchChildA, childA_lunch_field, childA_lunch_dup_field);
+        assertEquals(CHILD_A_B, lunchChildA.getChildren().get(0).getLabel());
+        //conditions don't propagate to children of a field
+        assertTrue(lunchChildA.getChildren().get(0).getTypeConditions().isEmpty());
+
+        Node<GraphQLMetadata> childB = root.getChildren().get(2);
+        assertEquals(Arrays.asList("Meal", "Soup"), childB.getTypeConditions());
+        assertFields(childB, childB_field);
+    }
+
+    @Test
+    public void fragmentExpansionsAreShared() {
+
+        Field childA_A_field = field("childA_A");
+        FragmentDefinition inner = FragmentDefinition.newFragmentDefinition()
+                .name("inner")
+                .selectionSet(selectionSet(childA_A_field))
+                .build();
+        FragmentDefinition outer = FragmentDefinition.newFragmentDefinition()
+                .name("outer")
+                .selectionSet(selectionSet(field("childA", new FragmentSpread("inner")),
+                        directed(field("childB"), "include", new VariableReference("withB"))))
+                .build();
+        Field rootField = field("root", new FragmentSpread("outer"), field("childA", new FragmentSpread("inner")));
+        DataFetchingEnvironment env = newDataFetchingEnvironment()
+                .fragmentsByName(ImmutableMap.of("inner", inner, "outer", outer))
+                .variables(ImmutableMap.of("withB", false))
+                .build();
+        FragmentExpansions fragments = new FragmentExpansions(env.getFragmentsByName(), nodeLabels);
+
+        MappingGraphBuilder builder = new MappingGraphBuilder(nodeLabels, env, null).withFragments(fragments);
+        Node<GraphQLMetadata> root = builder.buildUnbound(rootField).getRoot();
+        Node<GraphQLMetadata> otherRoot = new MappingGraphBuilder(nodeLabels, env, null).withFragments(fragments)
+                .build(rootField).getRoot();
+
+        assertEquals(1, root.getChildren().size());
+        Node<GraphQLMetadata> childA = root.getChildren().get(0);
+        assertEquals(2, childA.getMetadata().getFields().size());
+        assertFields(childA.getChildren().get(0), childA_A_field, childA_A_field);
+        assertEquals(Collections.singletonList("withB"), builder.getConditionVariables());
+        assertSame(fragments.get("inner"), fragments.get("inner"));
+        assertFields(otherRoot.getChildren().get(0).getChildren().get(0), childA_A_field, childA_A_field);
+    }
+
+    private static void assertFields(Node<GraphQLMetadata> node, Field... fields) {
+        List<Field> actual = node.getMetadata().getFields();
+        assertEquals(fields.length, actual.size());
+        for (int i = 0; i < fields.length; i++) {
+            assertSame(fields[i], actual.get(i));
+        }
+    }
+
+    private static Field field(String name, Selection<?>... selections) {
+        Field.Builder builder = Field.newField(name);
+        if (selections.length > 0) {
+            builder.selectionSet(selectionSet(selections));
+        }
+        return builder.build();
+    }
+
+    private static Field directed(Field field, String directive, Value<?> condition) {
+        return field.transform(builder -> builder.directive(directive(directive, condition)));
+    }
+
+    private static Directive directive(String name, Value<?> condition) {
+        return Directive.newDirective()
+                .name(name)
+                .argument(Argument.newArgument("if", condition).build())
+                .build();
+    }
+
+    private static SelectionSet selectionSet(Selection<?>... selections) {
+        return SelectionSet.newSelectionSet().selections(Arrays.asList(selections)).build();
+    }
+
+}
@@ -146,6 +146,27 @@ public class ArgumentBindingContextTest {
         assertNotNull(c);
     }
 
+    @Test
+    public void argumentBasedOnResolvedValueIsInstantiated() throws GraphMapperInitializationException {
+        ArgumentBindingContext ctx = new ArgumentBindingContext(ImmutableList.of());
+        ctx.addBinding(EmptyCriteria.class);
+
+        assertNotNull(ctx.instantiateArgument(new HashMap<>(), EmptyCriteria.class));
+        assertNull(ctx.instantiateArgument((Object) null, EmptyCriteria.class));
+    }
+
+    @Test
+    public void immutableArgumentBasedOnValueIsShared() throws GraphMapperInitializationException {
+        ArgumentBindingContext ctx = new ArgumentBindingContext(ImmutableList.of());
+        ctx.addImmutableBinding(EmptyCriteria.class);
+        Argument argument = Argument.newArgument().value(
+                new ObjectValue(ImmutableList.of()))
+                .build();
+
+        EmptyCriteria c = ctx.instantiateArgument(argument, EmptyCriteria.class, null);
+        assertSame(c, ctx.instantiateArgument(argument, EmptyCriteria.class, null));
+    }
+
     @Test
     public void instantiationFailsDueToMissingBinding() {
         ArgumentBindingContext ctx = new ArgumentBindingContext(ImmutableList.of());
@@ -1,6 +1,8 @@
 package io.github.cemartin01.graphmapper.graphql.argument;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import graphql.language.ArrayValue;
 import graphql.language.IntValue;
 import graphql.language.ObjectField;
@@ -16,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -53,7 +56,11 @@ public class ArgumentBindingTest {
         Map<String, ValueBindings.AbstractBinding<ArrayCriteria>> bindings = new HashMap<>();
         bindings.put("maxNutritionValue", binding);
 
-        ArgumentBinding<ArrayCriteria> argumentBinding = new ArgumentBinding<>(ArrayCriteria.class, constructor, bindings);
+        ArgumentBinding<ArrayCriteria> argumentBinding = ArgumentBinding.<ArrayCriteria>builder()
+                .constructor(constructor)
+                .propertyMap(bindings)
+                .clazz(ArrayCriteria.class)
+                .build();
         ObjectField maxNutritionValueField = new ObjectField("maxNutritionValue", new ArrayValue(ImmutableList.of()));
         ObjectValue objectValue = new ObjectValue(ImmutableList.of(maxNutritionValueField));
         assertSame(arrayCriteria, argumentBinding.instantiateByValue(objectValue));
@@ -65,7 +72,11 @@ public class ArgumentBindingTest {
         ArrayCriteria arrayCriteria = new ArrayCriteria();
         Supplier<ArrayCriteria> constructor = () -> arrayCriteria;
 
-        ArgumentBinding<ArrayCriteria> argumentBinding = new ArgumentBinding<>(ArrayCriteria.class, constructor, new HashMap<>());
+        ArgumentBinding<ArrayCriteria> argumentBinding = ArgumentBinding.<ArrayCriteria>builder()
+                .constructor(constructor)
+                .propertyMap(new HashMap<>())
+                .clazz(ArrayCriteria.class)
+                .build();
         ObjectField maxNutritionValueField = new ObjectField("maxNutritionValue", new ArrayValue(ImmutableList.of()));
         ObjectValue objectValue = new ObjectValue(ImmutableList.of(maxNutritionValueField));
         assertSame(arrayCriteria, argumentBinding.instantiateByValue(objectValue));
@@ -80,7 +91,11 @@ public class ArgumentBindingTest {
         Map<String, ValueBindings.AbstractBinding<MealCriteria>> bindings = new HashMap<>();
         bindings.put("maxNutritionValue", binding);
 
-        ArgumentBinding<MealCriteria> argumentBinding = new ArgumentBinding<>(MealCriteria.class, constructor, bindings);
+        ArgumentBinding<MealCriteria> argumentBinding = ArgumentBinding.<MealCriteria>builder()
+                .constructor(constructor)
+                .propertyMap(bindings)
+                .clazz(MealCriteria.class)
+                .build();
 
         Map<String, Object> variableMap = new HashMap<>();
         variableMap.put("maxNutritionValue", Integer.valueOf(10));
@@ -98,7 +113,12 @@ public class ArgumentBindingTest {
         Map<String, ValueBindings.AbstractBinding<ArrayCriteria>> bindings = new HashMap<>();
         bindings.put("maxNutritionValue", binding);
 
-        ArgumentBinding<ArrayCriteria> argumentBinding = new ArgumentBinding<>(ArrayCriteria.class, constructor, bindings);
+        ArgumentBinding<ArrayCriteria> argumentBinding = ArgumentBinding.<ArrayCriteria>builder()
+                .constructor(constructor)
+                .propertyMap(bindings)
+                .listProperties(ImmutableSet.of("maxNutritionValue"))
+                .clazz(ArrayCriteria.class)
+                .build();
 
         List list = ImmutableList.of(Integer.valueOf(10));
         Map<String, Object> variableMap = new HashMap<>();
@@ -113,7 +133,11 @@ public class ArgumentBindingTest {
         ArrayCriteria arrayCriteria = new ArrayCriteria();
         Supplier<ArrayCriteria> constructor = () -> arrayCriteria;
 
-        ArgumentBinding<ArrayCriteria> argumentBinding = new ArgumentBinding<>(ArrayCriteria.class, constructor, new HashMap<>());
+        ArgumentBinding<ArrayCriteria> argumentBinding = ArgumentBinding.<ArrayCriteria>builder()
+                .constructor(constructor)
+                .propertyMap(new HashMap<>())
+                .clazz(ArrayCriteria.class)
+                .build();
 
         List list = ImmutableList.of(Integer.valueOf(10));
         Map<String, Object> variableMap = new HashMap<>();
@@ -122,5 +146,61 @@ public class ArgumentBindingTest {
         assertSame(arrayCriteria, argumentBinding.instantiate(variableMap));
     }
 
+    @Test
+    public void literalIsBoundOnce() {
+        ValueBindings.CoercingBinding<MealCriteria> binding = mock(ValueBindings.CoercingBinding.class);
+        Map<String, ValueBindings.AbstractBinding<MealCriteria>> bindings = mock(Map.class);
+        Mockito.when(bindings.get("maxNutritionValue")).thenReturn(binding);
+
+        ArgumentBinding<MealCriteria> argumentBinding = ArgumentBinding.<MealCriteria>builder()
+                .constructor(MealCriteria::new)
+                .propertyMap(bindings)
+                .clazz(MealCriteria.class)
+                .build();
+
+        ObjectField maxNutritionValueField = new ObjectField("maxNutritionValue", new IntValue(BigInteger.valueOf(10L)));
+        ObjectValue objectValue = new ObjectValue(ImmutableList.of(maxNutritionValueField));
+        assertNotSame(argumentBinding.instantiateByValue(objectValue), argumentBinding.instantiateByValue(objectValue));
+        Mockito.verify(bindings, times(1)).get("maxNutritionValue");
+        Mockito.verify(binding, times(2)).setByValue(Mockito.any(), Mockito.same(maxNutritionValueField.getValue()));
+    }
+
+    @Test
+    public void variablesAreBoundByCompiledProperties() {
+        ValueBindings.CoercingBinding<MealCriteria> binding = mock(ValueBindings.CoercingBinding.class);
+        Map<String, ValueBindings.AbstractBinding<MealCriteria>> bindings = mock(Map.class);
+        Mockito.when(bindings.size()).thenReturn(1);
+        Mockito.when(bindings.entrySet()).thenReturn(ImmutableMap.<String, ValueBindings.AbstractBinding<MealCriteria>>of("maxNutritionValue", binding).entrySet());
+
+        ArgumentBinding<MealCriteria> argumentBinding = ArgumentBinding.<MealCriteria>builder()
+                .constructor(MealCriteria::new)
+                .propertyMap(bindings)
+                .clazz(MealCriteria.class)
+                .build();
+
+        Map<String, Object> variableMap = new HashMap<>();
+        variableMap.put("maxNutritionValue", Integer.valueOf(10));
+        variableMap.put("unknown", Integer.valueOf(20));
+
+        assertNotSame(argumentBinding.instantiate(variableMap), argumentBinding.instantiate(variableMap));
+        Mockito.verify(bindings, Mockito.never()).get(Mockito.any());
+        Mockito.verify(binding, times(2)).set(Mockito.any(), Mockito.eq(Integer.valueOf(10)));
+    }
+
+    @Test
+    public void immutableInstanceIsSharedByLiteral() {
+        ArgumentBinding<MealCriteria> argumentBinding = ArgumentBinding.<MealCriteria>builder()
+                .constructor(MealCriteria::new)
+                .propertyMap(new HashMap<>())
+                .clazz(MealCriteria.class)
+                .immutable(true)
+                .build();
+
+        ObjectValue objectValue = new ObjectValue(ImmutableList.of());
+        MealCriteria mealCriteria = argumentBinding.instantiateByValue(objectValue);
+        assertSame(mealCriteria, argumentBinding.instantiateByValue(objectValue));
+        assertNotSame(mealCriteria, argumentBinding.instantiateByValue(new ObjectValue(ImmutableList.of())));
+        assertNotSame(mealCriteria, argumentBinding.instantiate(new HashMap<>()));
+    }
 
 }
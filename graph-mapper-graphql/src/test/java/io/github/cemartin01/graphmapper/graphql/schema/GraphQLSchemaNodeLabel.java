@@ -5,7 +5,8 @@ import io.github.cemartin01.graphmapper.NodeLabel;
 public enum GraphQLSchemaNodeLabel implements NodeLabel {
 
     MEAL("meal"),
-    RECIPE("recipe");
+    RECIPE("recipe"),
+    VARIANTS("variants");
 
     private final String name;
 
@@ -6,8 +6,12 @@ import graphql.execution.ExecutionId;
 import graphql.execution.MergedField;
 import graphql.language.Field;
 import graphql.language.OperationDefinition;
+import graphql.normalized.NormalizedField;
 import graphql.normalized.NormalizedQueryTree;
 import graphql.normalized.NormalizedQueryTreeFactory;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSetImpl;
+import graphql.schema.GraphQLOutputType;
 import lombok.val;
 import org.dataloader.DataLoaderRegistry;
 
@@ -16,6 +20,7 @@ import java.util.Map;
 import java.util.Optional;
 
 import static graphql.execution.ExecutionContextBuilder.newExecutionContextBuilder;
+import static graphql.schema.DataFetchingEnvironmentImpl.newDataFetchingEnvironment;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class QueryTestUtil {
@@ -60,4 +65,30 @@ public class QueryTestUtil {
         return possibleMergedField.get();
     }
 
+    /**
+     * Obtains the declared type of the query field of the operation
+     */
+    public static GraphQLOutputType getFieldType(ExecutionContext ctx) {
+        return ctx.getGraphQLSchema().getQueryType().getFieldDefinition(ctx.getOperationDefinition().getName())
+                .getType();
+    }
+
+    /**
+     * Creates environment of the first field of the operation with its selection set normalized by GraphQL-java
+     */
+    public static DataFetchingEnvironment getSelectionSetEnvironment(ExecutionContext ctx) {
+
+        NormalizedQueryTree tree = NormalizedQueryTreeFactory.createNormalizedQuery(
+                ctx.getGraphQLSchema(), ctx.getDocument(), null, ctx.getVariables()
+        );
+        NormalizedField field = tree.getTopLevelFields().get(0);
+
+        return newDataFetchingEnvironment(ctx)
+                .mergedField(tree.getMergedField(field))
+                .fieldType(field.getFieldDefinition().getType())
+                .selectionSet(DataFetchingFieldSelectionSetImpl.newCollector(field.getFieldDefinition().getType(),
+                        () -> field))
+                .build();
+    }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.hibernate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.mapper.LazyReferenceHandler;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+/**
+ * Lazy reference handler of Hibernate proxies and persistent collections.
+ *
+ * A reference to a single object is mapped from the identifier of an uninitialized proxy, if an identifier mapper
+ * is registered for its target class and its node is accepted by the identifier selection predicate.
+ * The identifier is obtained by {@link LazyInitializer#getIdentifier()}, so the proxy stays uninitialized
+ * and no statement is executed. Initialized proxies are mapped by mapping functions of the context.
+ *
+ * Uninitialized persistent collections are handled by an {@link UninitializedCollectionPolicy}.
+ *
+ * Identifier mappers are registered before graph mappers are built.
+ */
+public class HibernateLazyReferenceHandler implements LazyReferenceHandler {
+
+   private final UninitializedCollectionPolicy collectionPolicy;
+
+   private final Predicate<Node<?>> identifierSelection;
+
+   private final Map<Class<?>, Function<Object, ?>> identifierMappers = new HashMap<>();
+
+   /**
+    * @param collectionPolicy policy of uninitialized persistent collections
+    * @param identifierSelection tells whether a leaf node selects nothing beyond the identifier of its target,
+    *                            e.g. by fields of a query in metadata of the node. Nodes it rejects are mapped
+    *                            from initialized proxies.
+    */
+   public HibernateLazyReferenceHandler(UninitializedCollectionPolicy collectionPolicy,
+                                        Predicate<Node<?>> identifierSelection) {
+      this.collectionPolicy = collectionPolicy;
+      this.identifierSelection = identifierSelection;
+   }
+
+   /**
+    * Registers a function mapping an identifier to a new target
+    * @param targetClass target class
+    * @param identifierMapper function mapping an identifier to a target
+    * @return this handler
+    */
+   public <T> HibernateLazyReferenceHandler addIdentifierMapper(Class<T> targetClass,
+                                                               Function<Object, ? extends T> identifierMapper) {
+      identifierMappers.put(targetClass, identifierMapper);
+      return this;
+   }
+
+   @Override
+   public boolean isIdentifierSelected(Node<?> node, Class<?> targetClass) {
+      return identifierMappers.containsKey(targetClass) && identifierSelection.test(node);
+   }
+
+   @Override
+   public Object getIdentifier(Object source) {
+      if (source instanceof HibernateProxy) {
+         LazyInitializer initializer = ((HibernateProxy) source).getHibernateLazyInitializer();
+         if (initializer.isUninitialized()) {
+            return initializer.getIdentifier();
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public Object mapIdentifier(Object identifier, Class<?> targetClass) {
+      return identifierMappers.get(targetClass).apply(identifier);
+   }
+
+   @Override
+   public Object resolveCollection(Object collection) {
+      if (collectionPolicy == UninitializedCollectionPolicy.INITIALIZE
+               || !(collection instanceof PersistentCollection)
+               || ((PersistentCollection) collection).wasInitialized()) {
+         return collection;
+      }
+      return collectionPolicy == UninitializedCollectionPolicy.SKIP ? null : Collections.emptyList();
+   }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.hibernate;
+
+import io.github.cemartin01.graphmapper.mapper.UnproxyFunction;
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * Unproxy function of Hibernate proxies.
+ *
+ * Contexts should be created with {@link #isProxyClass} as their proxy class predicate, so the function is called
+ * only for proxy classes generated by Hibernate.
+ */
+public final class HibernateUnproxyFunction implements UnproxyFunction {
+
+   public static final HibernateUnproxyFunction INSTANCE = new HibernateUnproxyFunction();
+
+   private HibernateUnproxyFunction() {
+   }
+
+   /**
+    * Obtains the implementation of a proxy, initializes the proxy if it is not initialized
+    * @param proxiedObject object that may be a proxy
+    * @return the implementation, or the object itself if it is not a proxy
+    */
+   @Override
+   public Object unproxy(Object proxiedObject) {
+      if (proxiedObject instanceof HibernateProxy) {
+         return ((HibernateProxy) proxiedObject).getHibernateLazyInitializer().getImplementation();
+      }
+      return proxiedObject;
+   }
+
+   /**
+    * Tells whether instances of a runtime class may be Hibernate proxies
+    * @param type runtime class
+    * @return true for proxy classes
+    */
+   public static boolean isProxyClass(Class<?> type) {
+      return HibernateProxy.class.isAssignableFrom(type);
+   }
+
+}
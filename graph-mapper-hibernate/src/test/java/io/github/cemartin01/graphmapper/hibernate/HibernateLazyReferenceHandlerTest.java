@@ -0,0 +1,162 @@
+package io.github.cemartin01.graphmapper.hibernate;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.hibernate.mock.HibernateFixtures;
+import io.github.cemartin01.graphmapper.hibernate.mock.dto.*;
+import io.github.cemartin01.graphmapper.hibernate.mock.entity.WeekMenuEntity;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperFactory;
+import io.github.cemartin01.graphmapper.mapper.LazyReferenceHandler;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HibernateLazyReferenceHandlerTest {
+
+    private static final List<String> IDENTIFIER = Collections.singletonList("id");
+
+    private static final MappingGraph<List<String>> IDENTIFIER_GRAPH = HibernateFixtures.weekMenuGraph(IDENTIFIER);
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    private Statistics statistics;
+
+    private final GraphMapperContext ctx = HibernateFixtures.context();
+
+    @BeforeEach
+    public void setUp() {
+        emf = HibernateFixtures.entityManagerFactory();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        em = emf.createEntityManager();
+        HibernateFixtures.persistWeekMenus(em, 3);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Test
+    public void identifierSelectionDoesNotInitializeProxies() {
+        List<WeekMenuEntity> weekMenus = queryWeekMenus("select w from WeekMenuEntity w order by w.id");
+
+        List<WeekMenuDTO> dtos = map(identifierHandler(UninitializedCollectionPolicy.SKIP), weekMenus);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        for (int i = 0; i < dtos.size(); i++) {
+            assertFalse(Hibernate.isInitialized(weekMenus.get(i).getProvider()));
+            assertEquals(i + 1L, dtos.get(i).getProvider().getId());
+            assertNull(dtos.get(i).getProvider().getName());
+            assertNull(dtos.get(i).getDays());
+        }
+    }
+
+    @Test
+    public void initializedProxiesAreMappedFully() {
+        List<WeekMenuEntity> weekMenus = queryWeekMenus("select w from WeekMenuEntity w order by w.id");
+        Hibernate.initialize(weekMenus.get(0).getProvider());
+
+        List<WeekMenuDTO> dtos = map(identifierHandler(UninitializedCollectionPolicy.SKIP), weekMenus);
+
+        assertEquals("provider 1", dtos.get(0).getProvider().getName());
+        assertNull(dtos.get(1).getProvider().getName());
+    }
+
+    @Test
+    public void unselectedIdentifiersInitializeProxies() {
+        List<WeekMenuEntity> weekMenus = queryWeekMenus("select w from WeekMenuEntity w order by w.id");
+        LazyReferenceHandler handler = new HibernateLazyReferenceHandler(UninitializedCollectionPolicy.SKIP,
+                node -> false)
+                .addIdentifierMapper(ProviderDTO.class, HibernateLazyReferenceHandlerTest::providerOf);
+
+        List<WeekMenuDTO> dtos = map(handler, weekMenus);
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals("provider 3", dtos.get(2).getProvider().getName());
+    }
+
+    @Test
+    public void selectionBeyondIdentifierInitializesProxies() {
+        List<WeekMenuEntity> weekMenus = queryWeekMenus("select w from WeekMenuEntity w order by w.id");
+        MappingGraph<List<String>> mappingGraph = HibernateFixtures.weekMenuGraph(List.of("id", "name"));
+
+        List<WeekMenuDTO> dtos = map(identifierHandler(UninitializedCollectionPolicy.SKIP), mappingGraph, weekMenus);
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+        for (int i = 0; i < dtos.size(); i++) {
+            assertTrue(Hibernate.isInitialized(weekMenus.get(i).getProvider()));
+            assertEquals("provider " + (i + 1), dtos.get(i).getProvider().getName());
+        }
+    }
+
+    @Test
+    public void uninitializedCollectionsAreHandledByPolicy() {
+        List<WeekMenuEntity> weekMenus = queryWeekMenus("select w from WeekMenuEntity w order by w.id");
+
+        List<WeekMenuDTO> empty = map(identifierHandler(UninitializedCollectionPolicy.EMPTY), weekMenus);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(empty.get(0).getDays().isEmpty());
+
+        List<WeekMenuDTO> initialized = map(identifierHandler(UninitializedCollectionPolicy.INITIALIZE), weekMenus);
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(2, initialized.get(0).getDays().size());
+    }
+
+    @Test
+    public void initializedCollectionsAreMapped() {
+        List<WeekMenuEntity> weekMenus = queryWeekMenus(
+                "select distinct w from WeekMenuEntity w join fetch w.days order by w.id");
+
+        List<WeekMenuDTO> dtos = map(identifierHandler(UninitializedCollectionPolicy.SKIP), weekMenus);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(2, dtos.get(0).getDays().size());
+        assertEquals((byte) 1, dtos.get(0).getDays().get(1).getDayOfWeek());
+    }
+
+    private List<WeekMenuEntity> queryWeekMenus(String query) {
+        return em.createQuery(query, WeekMenuEntity.class).getResultList();
+    }
+
+    private List<WeekMenuDTO> map(LazyReferenceHandler handler, List<WeekMenuEntity> weekMenus) {
+        return map(handler, IDENTIFIER_GRAPH, weekMenus);
+    }
+
+    private List<WeekMenuDTO> map(LazyReferenceHandler handler, MappingGraph<?> mappingGraph,
+                                  List<WeekMenuEntity> weekMenus) {
+        GraphMapperFactory factory = GraphMapperFactory.builder()
+                .context(ctx)
+                .lazyReferenceHandler(handler)
+                .build();
+        return factory.getGraphMapper(mappingGraph, WeekMenuDTO.class).mapAll(weekMenus);
+    }
+
+    /**
+     * Maps providers from identifiers if only their identifier is selected
+     */
+    private static LazyReferenceHandler identifierHandler(UninitializedCollectionPolicy policy) {
+        return new HibernateLazyReferenceHandler(policy, node -> IDENTIFIER.equals(node.getMetadata()))
+                .addIdentifierMapper(ProviderDTO.class, HibernateLazyReferenceHandlerTest::providerOf);
+    }
+
+    private static ProviderDTO providerOf(Object id) {
+        ProviderDTO provider = new ProviderDTO();
+        provider.setId((Long) id);
+        return provider;
+    }
+
+}
@@ -0,0 +1,37 @@
+package io.github.cemartin01.graphmapper.hibernate;
+
+import io.github.cemartin01.graphmapper.hibernate.mock.HibernateFixtures;
+import io.github.cemartin01.graphmapper.hibernate.mock.entity.ProviderEntity;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HibernateUnproxyFunctionTest {
+
+    @Test
+    public void proxiesAreUnproxied() {
+        EntityManagerFactory emf = HibernateFixtures.entityManagerFactory();
+        try {
+            EntityManager em = emf.createEntityManager();
+            HibernateFixtures.persistWeekMenus(em, 1);
+            ProviderEntity proxy = em.getReference(ProviderEntity.class, 1L);
+
+            Object provider = HibernateUnproxyFunction.INSTANCE.unproxy(proxy);
+
+            assertTrue(HibernateUnproxyFunction.isProxyClass(proxy.getClass()));
+            assertTrue(Hibernate.isInitialized(proxy));
+            assertSame(ProviderEntity.class, provider.getClass());
+            assertEquals("provider 1", ((ProviderEntity) provider).getName());
+            assertSame(provider, HibernateUnproxyFunction.INSTANCE.unproxy(provider));
+            assertFalse(HibernateUnproxyFunction.isProxyClass(ProviderEntity.class));
+            em.close();
+        } finally {
+            emf.close();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.github.cemartin01.graphmapper.hibernate.mock;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.exception.GraphMapperInitializationException;
+import io.github.cemartin01.graphmapper.hibernate.HibernateUnproxyFunction;
+import io.github.cemartin01.graphmapper.hibernate.mock.dto.*;
+import io.github.cemartin01.graphmapper.hibernate.mock.entity.*;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static io.github.cemartin01.graphmapper.hibernate.mock.HibernateTestNodeLabel.*;
+
+/**
+ * Week menus persisted in an embedded H2 database and a context mapping them.
+ */
+public final class HibernateFixtures {
+
+    private HibernateFixtures() {
+    }
+
+    /**
+     * Creates a factory of a new empty in-memory database
+     */
+    public static EntityManagerFactory entityManagerFactory() {
+        return Persistence.createEntityManagerFactory("catering", Collections.singletonMap(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+    }
+
+    public static GraphMapperContext context() {
+        try {
+            GraphMapperContext ctx = new GraphMapperContext(HibernateUnproxyFunction.INSTANCE,
+                    HibernateUnproxyFunction::isProxyClass);
+
+            ctx.addMapper(e -> {
+                WeekMenuEntity source = (WeekMenuEntity) e;
+                WeekMenuDTO target = new WeekMenuDTO();
+                target.setId(source.getId());
+                target.setMenuWeek(source.getMenuWeek());
+                return target;
+            }, WeekMenuDTO.class);
+            ctx.addMapper(e -> {
+                ProviderEntity source = (ProviderEntity) e;
+                ProviderDTO target = new ProviderDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, ProviderDTO.class);
+            ctx.addMapper(e -> {
+                DayMenuEntity source = (DayMenuEntity) e;
+                DayMenuDTO target = new DayMenuDTO();
+                target.setId(source.getId());
+                target.setDayOfWeek(source.getDayOfWeek());
+                return target;
+            }, DayMenuDTO.class);
+
+            ctx.addMapping(WeekMenuDTO.class, WeekMenuEntity.class)
+                    .bind(PROVIDER)
+                    .bindList(DAY_MENUS);
+
+            return ctx;
+        } catch (GraphMapperInitializationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static MappingGraph<Void> weekMenuGraph() {
+        return MappingGraph.of(Node.<Void>builder()
+                .child(Node.of(PROVIDER))
+                .child(Node.of(DAY_MENUS))
+                .build());
+    }
+
+    /**
+     * Week menu graph whose provider node holds names of selected fields of the provider as metadata
+     */
+    public static MappingGraph<List<String>> weekMenuGraph(List<String> providerFields) {
+        return MappingGraph.of(Node.<List<String>>builder()
+                .child(Node.of(PROVIDER, providerFields, Collections.emptyList()))
+                .child(Node.of(DAY_MENUS, null, Collections.emptyList()))
+                .build());
+    }
+
+    /**
+     * Persists week menus 1..count, each with its own provider and two days
+     */
+    public static void persistWeekMenus(EntityManager em, int count) {
+        em.getTransaction().begin();
+        for (long i = 1; i <= count; i++) {
+            ProviderEntity provider = new ProviderEntity();
+            provider.setId(i);
+            provider.setName("provider " + i);
+            em.persist(provider);
+
+            WeekMenuEntity weekMenu = new WeekMenuEntity();
+            weekMenu.setId(i);
+            weekMenu.setMenuWeek((int) i);
+            weekMenu.setProvider(provider);
+            em.persist(weekMenu);
+
+            for (long d = 0; d < 2; d++) {
+                DayMenuEntity day = new DayMenuEntity();
+                day.setId(i * 10 + d);
+                day.setDayOfWeek((byte) d);
+                day.setWeekMenu(weekMenu);
+                em.persist(day);
+            }
+        }
+        em.getTransaction().commit();
+        em.clear();
+    }
+
+}
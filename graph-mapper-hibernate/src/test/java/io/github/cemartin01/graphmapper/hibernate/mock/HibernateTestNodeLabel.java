@@ -0,0 +1,20 @@
+package io.github.cemartin01.graphmapper.hibernate.mock;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+public enum HibernateTestNodeLabel implements NodeLabel {
+
+    PROVIDER("provider"),
+    DAY_MENUS("days");
+
+    private final String name;
+
+    HibernateTestNodeLabel(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.cemartin01.graphmapper.hibernate.mock.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class WeekMenuDTO {
+
+    private Long id;
+
+    private int menuWeek;
+
+    private ProviderDTO provider;
+
+    private List<DayMenuDTO> days;
+
+}
@@ -0,0 +1,26 @@
+package io.github.cemartin01.graphmapper.hibernate.mock.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class DayMenuEntity {
+
+   @Id
+   private Long id;
+
+   private byte dayOfWeek;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private WeekMenuEntity weekMenu;
+
+}
@@ -0,0 +1,21 @@
+package io.github.cemartin01.graphmapper.hibernate.mock.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class ProviderEntity {
+
+   @Id
+   private Long id;
+
+   private String name;
+
+}
@@ -0,0 +1,34 @@
+package io.github.cemartin01.graphmapper.hibernate.mock.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class WeekMenuEntity {
+
+   @Id
+   private Long id;
+
+   private int menuWeek;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private ProviderEntity provider;
+
+   @OneToMany(mappedBy = "weekMenu")
+   @OrderBy("dayOfWeek")
+   private List<DayMenuEntity> days = new ArrayList<>();
+
+}
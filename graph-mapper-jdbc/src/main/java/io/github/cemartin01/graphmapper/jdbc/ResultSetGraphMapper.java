@@ -0,0 +1,318 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+
+/**
+ * Folds rows of a joined result set into nested target objects in a single pass.
+ *
+ * Every row carries one object of each level selected by the mapping graph. Objects are de-duplicated by their keys
+ * within their parents, so repeated parents of joined rows are read only once and child objects are added directly
+ * to collections of their parents. References of the mapping graph without a binding in a descriptor are ignored,
+ * references of descriptors which are not in the mapping graph are neither read nor set.
+ *
+ * Instances are immutable and thread-safe, a result set is folded by the invoking thread.
+ * @param <T> root target class
+ */
+public class ResultSetGraphMapper<T> {
+
+   private final Level root;
+
+   private final int levelCount;
+
+   private final int edgeCount;
+
+   private ResultSetGraphMapper(Level root, int levelCount, int edgeCount) {
+      this.root = root;
+      this.levelCount = levelCount;
+      this.edgeCount = edgeCount;
+   }
+
+   /**
+    * Creates a mapper of levels selected by a mapping graph
+    * @param mappingGraph graph of mapped references
+    * @param rootDescriptor descriptor of the root level
+    * @return the mapper
+    */
+   public static <T> ResultSetGraphMapper<T> of(MappingGraph<?> mappingGraph, RowDescriptor<T> rootDescriptor) {
+      int[] counters = new int[2];
+      Level root = compile(mappingGraph.getRoot(), rootDescriptor, counters);
+      return new ResultSetGraphMapper<>(root, counters[0], counters[1]);
+   }
+
+   private static Level compile(Node<?> node, RowDescriptor<?> descriptor, int[] counters) {
+      List<Edge> edges = new ArrayList<>();
+      Level level = new Level(counters[0]++, descriptor.reader, descriptor.keyColumns);
+      for (Node<?> child: Node.mergeChildren(node)) {
+         for (RowDescriptor.Binding binding: descriptor.bindings) {
+            if (binding.nodeLabel == child.getLabel()) {
+               int index = counters[1]++;
+               edges.add(new Edge(index, binding.setter, binding.collectionFactory,
+                        compile(child, binding.child, counters)));
+               break;
+            }
+         }
+      }
+      level.edges = edges.toArray(new Edge[0]);
+      return level;
+   }
+
+   /**
+    * Maps all rows of a result set. Rows of a root object don't need to be adjacent.
+    * @param resultSet result set positioned before its first row
+    * @return root objects ordered by their first rows
+    * @throws SQLException if reading of the result set fails
+    */
+   public List<T> map(ResultSet resultSet) throws SQLException {
+      List<T> roots = new ArrayList<>();
+      new Fold(resultSet, false).run(roots::add);
+      return roots;
+   }
+
+   /**
+    * Maps all rows of a result set and passes every root object to the consumer as soon as it is complete,
+    * so a large result set is never held in memory. Rows of a root object must be adjacent,
+    * e.g. the query is ordered by the key columns of the root level.
+    * @param resultSet result set positioned before its first row
+    * @param consumer consumer of complete root objects
+    * @throws SQLException if reading of the result set fails
+    */
+   public void map(ResultSet resultSet, Consumer<? super T> consumer) throws SQLException {
+      new Fold(resultSet, true).run(consumer);
+   }
+
+   /**
+    * Compiled level, positions of its key columns are resolved for each result set
+    */
+   private static class Level {
+
+      final int index;
+
+      final RowReader<?> reader;
+
+      final String[] keyColumns;
+
+      Edge[] edges;
+
+      Level(int index, RowReader<?> reader, String[] keyColumns) {
+         this.index = index;
+         this.reader = reader;
+         this.keyColumns = keyColumns;
+      }
+
+   }
+
+   private static class Edge {
+
+      final int index;
+
+      final BiConsumer<Object, Object> setter;
+
+      //null if the reference is a single object
+      final Supplier<Collection<Object>> collectionFactory;
+
+      final Level child;
+
+      Edge(int index, BiConsumer<Object, Object> setter, Supplier<Collection<Object>> collectionFactory, Level child) {
+         this.index = index;
+         this.setter = setter;
+         this.collectionFactory = collectionFactory;
+         this.child = child;
+      }
+
+   }
+
+   /**
+    * Children of one parent object by their keys
+    */
+   private static class Children {
+
+      //null if the reference is a single object
+      final Collection<Object> collection;
+
+      final Map<Object, Object> byKey = new HashMap<>();
+
+      Children(Collection<Object> collection) {
+         this.collection = collection;
+      }
+
+   }
+
+   /**
+    * State of one pass over a result set
+    */
+   private class Fold {
+
+      private final ResultSet resultSet;
+
+      private final boolean adjacent;
+
+      private final int[][] keyPositions = new int[levelCount][];
+
+      //Children of parents per edge, parents are compared by identity
+      private final List<Map<Object, Children>> children = new ArrayList<>(edgeCount);
+
+      //The last child per edge, rows of a parent mostly repeat it
+      private final Object[] lastParents = new Object[edgeCount];
+      private final Object[] lastKeys = new Object[edgeCount];
+      private final Object[] lastChildren = new Object[edgeCount];
+
+      private Fold(ResultSet resultSet, boolean adjacent) throws SQLException {
+         this.resultSet = resultSet;
+         this.adjacent = adjacent;
+         for (int i = 0; i < edgeCount; i++) {
+            children.add(new IdentityHashMap<>());
+         }
+         resolveKeyPositions(root);
+      }
+
+      private void resolveKeyPositions(Level level) throws SQLException {
+         int[] positions = new int[level.keyColumns.length];
+         for (int i = 0; i < positions.length; i++) {
+            positions[i] = resultSet.findColumn(level.keyColumns[i]);
+         }
+         keyPositions[level.index] = positions;
+         for (Edge edge: level.edges) {
+            resolveKeyPositions(edge.child);
+         }
+      }
+
+      @SuppressWarnings({"unchecked"})
+      private void run(Consumer<? super T> consumer) throws SQLException {
+         //null if roots are adjacent
+         Map<Object, Object> roots = adjacent ? null : new HashMap<>();
+         Object lastKey = null;
+         Object lastRoot = null;
+         while (resultSet.next()) {
+            Object key = readKey(root);
+            if (key == null) {
+               continue;
+            }
+            if (!key.equals(lastKey)) {
+               if (adjacent) {
+                  if (lastRoot != null) {
+                     consumer.accept((T) lastRoot);
+                     reset();
+                  }
+                  lastRoot = create(root);
+               } else {
+                  lastRoot = roots.get(key);
+                  if (lastRoot == null) {
+                     lastRoot = create(root);
+                     roots.put(key, lastRoot);
+                     consumer.accept((T) lastRoot);
+                  }
+               }
+               lastKey = key;
+            }
+            fold(root, lastRoot);
+         }
+         if (adjacent && lastRoot != null) {
+            consumer.accept((T) lastRoot);
+         }
+      }
+
+      private void fold(Level level, Object parent) throws SQLException {
+         for (Edge edge: level.edges) {
+            Object key = readKey(edge.child);
+            if (key == null) {
+               continue;
+            }
+            int index = edge.index;
+            Object child;
+            if (lastParents[index] == parent && key.equals(lastKeys[index])) {
+               child = lastChildren[index];
+            } else {
+               Children siblings = children.get(index).computeIfAbsent(parent, p -> new Children(null));
+               child = siblings.byKey.get(key);
+               if (child == null) {
+                  child = create(edge.child);
+                  siblings.byKey.put(key, child);
+                  if (siblings.collection == null) {
+                     edge.setter.accept(parent, child);
+                  } else {
+                     siblings.collection.add(child);
+                  }
+               }
+               lastParents[index] = parent;
+               lastKeys[index] = key;
+               lastChildren[index] = child;
+            }
+            fold(edge.child, child);
+         }
+      }
+
+      /**
+       * Reads a target object, its collections are set empty, so parents without children of outer joins
+       * have empty collections
+       */
+      private Object create(Level level) throws SQLException {
+         Object target = level.reader.read(resultSet);
+         for (Edge edge: level.edges) {
+            if (edge.collectionFactory != null) {
+               Collection<Object> collection = edge.collectionFactory.get();
+               edge.setter.accept(target, collection);
+               children.get(edge.index).put(target, new Children(collection));
+            }
+         }
+         return target;
+      }
+
+      /**
+       * @return value of a single key column, list of values of multiple key columns, null if any value is null
+       */
+      private Object readKey(Level level) throws SQLException {
+         int[] positions = keyPositions[level.index];
+         if (positions.length == 1) {
+            return resultSet.getObject(positions[0]);
+         }
+         Object[] values = new Object[positions.length];
+         for (int i = 0; i < positions.length; i++) {
+            values[i] = resultSet.getObject(positions[i]);
+            if (values[i] == null) {
+               return null;
+            }
+         }
+         return Arrays.asList(values);
+      }
+
+      private void reset() {
+         for (Map<Object, Children> edgeChildren: children) {
+            edgeChildren.clear();
+         }
+         Arrays.fill(lastParents, null);
+         Arrays.fill(lastKeys, null);
+         Arrays.fill(lastChildren, null);
+      }
+
+   }
+
+}
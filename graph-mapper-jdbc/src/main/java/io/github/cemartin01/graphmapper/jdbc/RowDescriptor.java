@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+
+/**
+ * Description of one level of rows of a joined result set.
+ *
+ * A level is identified by its key columns and read by a {@link RowReader}. References to child levels are bound
+ * to node labels, so a mapping graph selects which of them are folded. Null values of key columns mean that a row
+ * doesn't contain an object of the level, e.g. the level is outer joined and its parent has no children.
+ *
+ * Descriptors are configured before graph mappers are created, later changes don't affect created mappers.
+ * @param <T> target class of the level
+ */
+public class RowDescriptor<T> {
+
+   final RowReader<? extends T> reader;
+
+   final String[] keyColumns;
+
+   final List<Binding> bindings = new ArrayList<>();
+
+   private RowDescriptor(RowReader<? extends T> reader, String[] keyColumns) {
+      this.reader = reader;
+      this.keyColumns = keyColumns;
+   }
+
+   /**
+    * Creates a descriptor of a level
+    * @param reader reader of target objects
+    * @param keyColumns labels of columns identifying an object of the level, at least one
+    * @return the descriptor
+    */
+   public static <T> RowDescriptor<T> of(RowReader<? extends T> reader, String... keyColumns) {
+      if (keyColumns.length == 0) {
+         throw new IllegalArgumentException("At least one key column is required");
+      }
+      return new RowDescriptor<>(reader, keyColumns.clone());
+   }
+
+   /**
+    * Binds a reference to a single child object
+    * @param nodeLabel label of the reference
+    * @param child descriptor of the child level
+    * @param setter setter of the reference on a target object
+    * @return this descriptor
+    */
+   public <C> RowDescriptor<T> reference(NodeLabel nodeLabel, RowDescriptor<C> child,
+                                         BiConsumer<? super T, ? super C> setter) {
+      return bind(nodeLabel, child, setter, null);
+   }
+
+   /**
+    * Binds a reference to a list of child objects, ordered by their first rows
+    * @param nodeLabel label of the reference
+    * @param child descriptor of the child level
+    * @param setter setter of the reference on a target object
+    * @return this descriptor
+    */
+   public <C> RowDescriptor<T> list(NodeLabel nodeLabel, RowDescriptor<C> child,
+                                    BiConsumer<? super T, ? super List<C>> setter) {
+      return bind(nodeLabel, child, setter, ArrayList::new);
+   }
+
+   /**
+    * Binds a reference to a set of child objects, ordered by their first rows
+    * @param nodeLabel label of the reference
+    * @param child descriptor of the child level
+    * @param setter setter of the reference on a target object
+    * @return this descriptor
+    */
+   public <C> RowDescriptor<T> set(NodeLabel nodeLabel, RowDescriptor<C> child,
+                                   BiConsumer<? super T, ? super Set<C>> setter) {
+      return bind(nodeLabel, child, setter, LinkedHashSet::new);
+   }
+
+   @SuppressWarnings({"unchecked"})
+   private RowDescriptor<T> bind(NodeLabel nodeLabel, RowDescriptor<?> child, BiConsumer<? super T, ?> setter,
+                                 Supplier<Collection<Object>> collectionFactory) {
+      for (Binding binding: bindings) {
+         if (binding.nodeLabel == nodeLabel) {
+            throw new IllegalArgumentException("Reference " + nodeLabel.getName() + " is already bound");
+         }
+      }
+      bindings.add(new Binding(nodeLabel, child, (BiConsumer<Object, Object>) setter, collectionFactory));
+      return this;
+   }
+
+   @AllArgsConstructor(access = AccessLevel.PRIVATE)
+   static class Binding {
+
+      final NodeLabel nodeLabel;
+
+      final RowDescriptor<?> child;
+
+      final BiConsumer<Object, Object> setter;
+
+      //null if the reference is a single object
+      final Supplier<Collection<Object>> collectionFactory;
+
+   }
+
+}
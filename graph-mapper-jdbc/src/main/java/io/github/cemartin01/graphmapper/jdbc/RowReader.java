@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads a target object from the current row of a result set.
+ *
+ * Only columns of the own level are read, references are set by {@link ResultSetGraphMapper}.
+ * @param <T> target class
+ */
+@FunctionalInterface
+public interface RowReader<T> {
+
+   /**
+    * @param resultSet result set positioned at a row
+    * @return new target object, not null
+    * @throws SQLException if reading of a column fails
+    */
+   T read(ResultSet resultSet) throws SQLException;
+
+}
@@ -0,0 +1,153 @@
+package io.github.cemartin01.graphmapper.jdbc;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.jdbc.mock.JdbcFixtures;
+import io.github.cemartin01.graphmapper.jdbc.mock.dto.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.github.cemartin01.graphmapper.jdbc.mock.JdbcTestNodeLabel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultSetGraphMapperTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = JdbcFixtures.connection();
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void foldsJoinedRowsIntoNestedGraph() throws SQLException {
+        ResultSetGraphMapper<WeekMenuDTO> mapper = ResultSetGraphMapper.of(JdbcFixtures.weekMenuGraph(),
+                JdbcFixtures.weekMenuDescriptor());
+
+        List<WeekMenuDTO> menus = query(JdbcFixtures.WEEK_MENU_QUERY + " order by w.id, d.id, i.position, h.id",
+                mapper::map);
+
+        assertWeekMenus(menus);
+    }
+
+    @Test
+    public void foldsRootsOfNonAdjacentRows() throws SQLException {
+        ResultSetGraphMapper<WeekMenuDTO> mapper = ResultSetGraphMapper.of(JdbcFixtures.weekMenuGraph(),
+                JdbcFixtures.weekMenuDescriptor());
+
+        List<WeekMenuDTO> menus = query(JdbcFixtures.WEEK_MENU_QUERY + " order by h.id, i.position, d.id desc",
+                mapper::map);
+
+        //roots and children are ordered by their first rows
+        assertEquals(List.of(2L, 1L, 3L), menus.stream().map(WeekMenuDTO::getId).collect(Collectors.toList()));
+        WeekMenuDTO first = menus.get(1);
+        assertEquals(List.of(12L, 11L), first.getDays().stream().map(DayMenuDTO::getId).collect(Collectors.toList()));
+        assertEquals(List.of(1, 2), first.getDays().get(1).getItems().stream()
+                .map(DayMenuItemDTO::getPosition).collect(Collectors.toList()));
+        assertEquals(2, first.getHolidays().size());
+    }
+
+    @Test
+    public void streamsCompleteRoots() throws SQLException {
+        ResultSetGraphMapper<WeekMenuDTO> mapper = ResultSetGraphMapper.of(JdbcFixtures.weekMenuGraph(),
+                JdbcFixtures.weekMenuDescriptor());
+        List<WeekMenuDTO> menus = new ArrayList<>();
+        List<Integer> dayCounts = new ArrayList<>();
+
+        query(JdbcFixtures.WEEK_MENU_QUERY + " order by w.id, d.id, i.position, h.id", rs -> {
+            mapper.map(rs, menu -> {
+                menus.add(menu);
+                dayCounts.add(menu.getDays().size());
+            });
+            return null;
+        });
+
+        assertEquals(List.of(2, 1, 0), dayCounts);
+        assertWeekMenus(menus);
+    }
+
+    @Test
+    public void foldsOnlyReferencesOfMappingGraph() throws SQLException {
+        MappingGraph<Void> graph = MappingGraph.of(Node.<Void>builder()
+                .child(Node.of(DAY_MENUS))
+                .build());
+        ResultSetGraphMapper<WeekMenuDTO> mapper = ResultSetGraphMapper.of(graph, JdbcFixtures.weekMenuDescriptor());
+
+        //columns of unselected levels are not even selected
+        List<WeekMenuDTO> menus = query("select w.id w_id, w.menu_week w_menu_week, d.id d_id,"
+                + " d.day_of_week d_day_of_week from week_menu w left join day_menu d on d.week_menu_id = w.id"
+                + " order by w.id, d.id", mapper::map);
+
+        assertEquals(3, menus.size());
+        WeekMenuDTO menu = menus.get(0);
+        assertNull(menu.getProvider());
+        assertNull(menu.getHolidays());
+        assertEquals(2, menu.getDays().size());
+        assertNull(menu.getDays().get(0).getItems());
+    }
+
+    @Test
+    public void rejectsInvalidDescriptors() {
+        RowDescriptor<HolidayDTO> holiday = RowDescriptor.of(rs -> new HolidayDTO(), "h_id");
+        RowDescriptor<WeekMenuDTO> menu = RowDescriptor.<WeekMenuDTO>of(rs -> new WeekMenuDTO(), "w_id")
+                .set(HOLIDAYS, holiday, WeekMenuDTO::setHolidays);
+
+        assertThrows(IllegalArgumentException.class, () -> RowDescriptor.of(rs -> new HolidayDTO()));
+        assertThrows(IllegalArgumentException.class, () -> menu.set(HOLIDAYS, holiday, WeekMenuDTO::setHolidays));
+    }
+
+    private void assertWeekMenus(List<WeekMenuDTO> menus) {
+        assertEquals(3, menus.size());
+
+        WeekMenuDTO first = menus.get(0);
+        assertEquals(1L, first.getId());
+        assertEquals(10, first.getMenuWeek());
+        assertEquals("Canteen", first.getProvider().getName());
+        //6 rows of the cartesian product of days and holidays
+        assertEquals(2, first.getDays().size());
+        assertEquals(11L, first.getDays().get(0).getId());
+        assertEquals(List.of("Goulash", "Pancakes"), first.getDays().get(0).getItems().stream()
+                .map(DayMenuItemDTO::getMealName).collect(Collectors.toList()));
+        assertEquals(List.of("Schnitzel"), first.getDays().get(1).getItems().stream()
+                .map(DayMenuItemDTO::getMealName).collect(Collectors.toList()));
+        assertEquals(List.of("Easter Monday", "Good Friday"), first.getHolidays().stream()
+                .map(HolidayDTO::getName).collect(Collectors.toList()));
+
+        WeekMenuDTO second = menus.get(1);
+        assertEquals("Bistro", second.getProvider().getName());
+        assertEquals(1, second.getDays().size());
+        assertTrue(second.getDays().get(0).getItems().isEmpty());
+        assertTrue(second.getHolidays().isEmpty());
+
+        WeekMenuDTO third = menus.get(2);
+        assertNull(third.getProvider());
+        assertTrue(third.getDays().isEmpty());
+        assertEquals(1, third.getHolidays().size());
+    }
+
+    private <R> R query(String sql, ResultSetFunction<R> function) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            return function.apply(resultSet);
+        }
+    }
+
+    private interface ResultSetFunction<R> {
+        R apply(ResultSet resultSet) throws SQLException;
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.cemartin01.graphmapper.jdbc.mock;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.jdbc.RowDescriptor;
+import io.github.cemartin01.graphmapper.jdbc.mock.dto.*;
+
+import static io.github.cemartin01.graphmapper.jdbc.mock.JdbcTestNodeLabel.*;
+
+public class JdbcFixtures {
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    public static final String WEEK_MENU_QUERY = "select w.id w_id, w.menu_week w_menu_week,"
+            + " p.id p_id, p.name p_name,"
+            + " d.id d_id, d.day_of_week d_day_of_week,"
+            + " i.position i_position, i.meal_name i_meal_name,"
+            + " h.id h_id, h.name h_name"
+            + " from week_menu w"
+            + " left join provider p on p.id = w.provider_id"
+            + " left join day_menu d on d.week_menu_id = w.id"
+            + " left join day_menu_item i on i.day_menu_id = d.id"
+            + " left join holiday h on h.week_menu_id = w.id";
+
+    /**
+     * Opens a new in-memory database of three week menus:
+     * 1 - provider 1, days 11 (items 1, 2) and 12 (item 1), holidays 101 and 102
+     * 2 - provider 2, day 21 without items, no holidays
+     * 3 - no provider, no days, holiday 301
+     */
+    public static Connection connection() throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:jdbc" + DATABASE_COUNTER.incrementAndGet());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table provider (id bigint primary key, name varchar(50))");
+            statement.execute("create table week_menu (id bigint primary key, menu_week int, provider_id bigint)");
+            statement.execute("create table day_menu (id bigint primary key, week_menu_id bigint, day_of_week tinyint)");
+            statement.execute("create table day_menu_item (day_menu_id bigint, position int, meal_name varchar(50),"
+                    + " primary key (day_menu_id, position))");
+            statement.execute("create table holiday (id bigint primary key, week_menu_id bigint, name varchar(50))");
+            statement.execute("insert into provider values (1, 'Canteen'), (2, 'Bistro')");
+            statement.execute("insert into week_menu values (1, 10, 1), (2, 11, 2), (3, 12, null)");
+            statement.execute("insert into day_menu values (11, 1, 1), (12, 1, 2), (21, 2, 1)");
+            statement.execute("insert into day_menu_item values (11, 1, 'Goulash'), (11, 2, 'Pancakes'),"
+                    + " (12, 1, 'Schnitzel')");
+            statement.execute("insert into holiday values (101, 1, 'Easter Monday'), (102, 1, 'Good Friday'),"
+                    + " (301, 3, 'Labour Day')");
+        }
+        return connection;
+    }
+
+    public static RowDescriptor<WeekMenuDTO> weekMenuDescriptor() {
+        RowDescriptor<ProviderDTO> provider = RowDescriptor.of(rs -> {
+            ProviderDTO dto = new ProviderDTO();
+            dto.setId(rs.getLong("p_id"));
+            dto.setName(rs.getString("p_name"));
+            return dto;
+        }, "p_id");
+        RowDescriptor<DayMenuItemDTO> item = RowDescriptor.of(rs -> {
+            DayMenuItemDTO dto = new DayMenuItemDTO();
+            dto.setPosition(rs.getInt("i_position"));
+            dto.setMealName(rs.getString("i_meal_name"));
+            return dto;
+        }, "d_id", "i_position");
+        RowDescriptor<DayMenuDTO> day = RowDescriptor.<DayMenuDTO>of(rs -> {
+            DayMenuDTO dto = new DayMenuDTO();
+            dto.setId(rs.getLong("d_id"));
+            dto.setDayOfWeek(rs.getByte("d_day_of_week"));
+            return dto;
+        }, "d_id").list(DAY_MENU_ITEMS, item, DayMenuDTO::setItems);
+        RowDescriptor<HolidayDTO> holiday = RowDescriptor.of(rs -> {
+            HolidayDTO dto = new HolidayDTO();
+            dto.setId(rs.getLong("h_id"));
+            dto.setName(rs.getString("h_name"));
+            return dto;
+        }, "h_id");
+        return RowDescriptor.<WeekMenuDTO>of(rs -> {
+            WeekMenuDTO dto = new WeekMenuDTO();
+            dto.setId(rs.getLong("w_id"));
+            dto.setMenuWeek(rs.getInt("w_menu_week"));
+            return dto;
+        }, "w_id")
+                .reference(PROVIDER, provider, WeekMenuDTO::setProvider)
+                .list(DAY_MENUS, day, WeekMenuDTO::setDays)
+                .set(HOLIDAYS, holiday, WeekMenuDTO::setHolidays);
+    }
+
+    public static MappingGraph<Void> weekMenuGraph() {
+        return MappingGraph.of(Node.<Void>builder()
+                .child(Node.of(PROVIDER))
+                .child(Node.<Void>builder().label(DAY_MENUS)
+                        .child(Node.of(DAY_MENU_ITEMS))
+                        .build())
+                .child(Node.of(HOLIDAYS))
+                .build());
+    }
+
+}
@@ -0,0 +1,22 @@
+package io.github.cemartin01.graphmapper.jdbc.mock;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+public enum JdbcTestNodeLabel implements NodeLabel {
+
+    PROVIDER("provider"),
+    DAY_MENUS("days"),
+    HOLIDAYS("holidays"),
+    DAY_MENU_ITEMS("items");
+
+    private final String name;
+
+    JdbcTestNodeLabel(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
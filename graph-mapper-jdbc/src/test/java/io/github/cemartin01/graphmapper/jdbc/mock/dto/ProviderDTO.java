@@ -0,0 +1,16 @@
+package io.github.cemartin01.graphmapper.jdbc.mock.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProviderDTO {
+
+    private Long id;
+
+    private String name;
+
+}
@@ -0,0 +1,25 @@
+package io.github.cemartin01.graphmapper.jdbc.mock.dto;
+
+import java.util.List;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class WeekMenuDTO {
+
+    private Long id;
+
+    private int menuWeek;
+
+    private ProviderDTO provider;
+
+    private List<DayMenuDTO> days;
+
+    private Set<HolidayDTO> holidays;
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+import javax.persistence.metamodel.Attribute;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Writes a projected value to an attribute of an unmanaged entity instance by its field or setter,
+ * depending on the access type of the attribute
+ */
+class AttributeWriter {
+
+   private final String name;
+
+   //exactly one of them is set
+   private final Field field;
+   private final Method setter;
+
+   private AttributeWriter(String name, Field field, Method setter) {
+      this.name = name;
+      this.field = field;
+      this.setter = setter;
+   }
+
+   /**
+    * @throws IllegalArgumentException if the attribute has no field nor setter
+    */
+   static AttributeWriter of(Attribute<?, ?> attribute) {
+      Member member = attribute.getJavaMember();
+      if (member instanceof Field) {
+         Field field = (Field) member;
+         field.setAccessible(true);
+         return new AttributeWriter(attribute.getName(), field, null);
+      }
+      String name = attribute.getName();
+      String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+      for (Class<?> clazz = member.getDeclaringClass(); clazz != null; clazz = clazz.getSuperclass()) {
+         try {
+            Method setter = clazz.getDeclaredMethod(setterName, attribute.getJavaType());
+            setter.setAccessible(true);
+            return new AttributeWriter(name, null, setter);
+         } catch (NoSuchMethodException e) {
+            //declared by a superclass
+         }
+      }
+      throw new IllegalArgumentException("Attribute " + name + " of " + member.getDeclaringClass() + " has no setter");
+   }
+
+   void write(Object target, Object value) {
+      try {
+         if (field != null) {
+            field.set(target, value);
+         } else {
+            setter.invoke(target, value);
+         }
+      } catch (IllegalAccessException | InvocationTargetException e) {
+         throw new GraphMapperException("Attribute " + name + " of " + target.getClass() + " can't be written", e);
+      }
+   }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+/**
+ * Instantiates an unmanaged entity from a projected row, the row holds the identifier followed by
+ * the selected basic and embedded attributes of the entity
+ */
+class EntityLoader {
+
+   final Class<?> entityClass;
+
+   final String entityName;
+
+   final String idName;
+
+   private final Constructor<?> constructor;
+
+   private final AttributeWriter idWriter;
+
+   private final List<String> attributeNames = new ArrayList<>();
+
+   private final List<AttributeWriter> attributeWriters = new ArrayList<>();
+
+   /**
+    * @param selectedAttributes names of basic and embedded attributes to select, null to select all of them
+    * @throws IllegalArgumentException if the entity has no constructor without arguments
+    */
+   EntityLoader(EntityType<?> entityType, Set<String> selectedAttributes) {
+      this.entityClass = entityType.getJavaType();
+      this.entityName = entityType.getName();
+      SingularAttribute<?, ?> id = entityType.getId(entityType.getIdType().getJavaType());
+      this.idName = id.getName();
+      this.idWriter = AttributeWriter.of(id);
+      for (SingularAttribute<?, ?> attribute: entityType.getSingularAttributes()) {
+         Attribute.PersistentAttributeType type = attribute.getPersistentAttributeType();
+         if (!attribute.isId() && (type == Attribute.PersistentAttributeType.BASIC
+                  || type == Attribute.PersistentAttributeType.EMBEDDED)
+                  && (selectedAttributes == null || selectedAttributes.contains(attribute.getName()))) {
+            attributeNames.add(attribute.getName());
+            attributeWriters.add(AttributeWriter.of(attribute));
+         }
+      }
+      try {
+         this.constructor = entityClass.getDeclaredConstructor();
+         constructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+         throw new IllegalArgumentException(entityClass + " has no constructor without arguments", e);
+      }
+   }
+
+   /**
+    * @return select items of the identifier and attributes
+    */
+   String selection(String alias) {
+      StringBuilder selection = new StringBuilder(alias).append('.').append(idName);
+      for (String name: attributeNames) {
+         selection.append(", ").append(alias).append('.').append(name);
+      }
+      return selection.toString();
+   }
+
+   Object instantiate(Object[] row, int offset) {
+      Object instance;
+      try {
+         instance = constructor.newInstance();
+      } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+         throw new GraphMapperException("Instantiation of " + entityClass + " failed", e);
+      }
+      idWriter.write(instance, row[offset]);
+      for (int i = 0; i < attributeWriters.size(); i++) {
+         attributeWriters.get(i).write(instance, row[offset + 1 + i]);
+      }
+      return instance;
+   }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Tree of associations of an entity fetched by one query.
+ *
+ * It's applied either as a JPA {@link EntityGraph} or as join fetch clauses of a JPQL query.
+ */
+@Getter
+@AllArgsConstructor
+public class FetchGraph {
+
+   private final Class<?> entityClass;
+
+   private final List<Attribute> attributes;
+
+   /**
+    * Creates a load graph of the entity class
+    */
+   public EntityGraph<?> toEntityGraph(EntityManager entityManager) {
+      EntityGraph<?> graph = entityManager.createEntityGraph(entityClass);
+      for (Attribute attribute: attributes) {
+         if (attribute.subgraph.attributes.isEmpty()) {
+            graph.addAttributeNodes(attribute.name);
+         } else {
+            attribute.subgraph.populate(graph.addSubgraph(attribute.name));
+         }
+      }
+      return graph;
+   }
+
+   private void populate(Subgraph<?> subgraph) {
+      for (Attribute attribute: attributes) {
+         if (attribute.subgraph.attributes.isEmpty()) {
+            subgraph.addAttributeNodes(attribute.name);
+         } else {
+            attribute.subgraph.populate(subgraph.addSubgraph(attribute.name));
+         }
+      }
+   }
+
+   /**
+    * Renders the graph as left join fetch clauses of a JPQL query, joined entities are aliased
+    * by the alias of the root followed by an underscore and a sequence number
+    * @param alias alias of the entity class in the query
+    */
+   public String toJoinFetchClause(String alias) {
+      StringBuilder clause = new StringBuilder();
+      appendJoinFetches(clause, alias, alias, new int[1]);
+      return clause.toString();
+   }
+
+   private void appendJoinFetches(StringBuilder clause, String rootAlias, String alias, int[] sequence) {
+      for (Attribute attribute: attributes) {
+         String joinAlias = rootAlias + "_" + (++sequence[0]);
+         if (clause.length() > 0) {
+            clause.append(' ');
+         }
+         clause.append("left join fetch ").append(alias).append('.').append(attribute.name).append(' ').append(joinAlias);
+         attribute.subgraph.appendJoinFetches(clause, rootAlias, joinAlias, sequence);
+      }
+   }
+
+   /**
+    * @return dot separated paths of all fetched attributes in pre-order
+    */
+   public List<String> getPaths() {
+      List<String> paths = new ArrayList<>();
+      appendPaths(paths, "");
+      return Collections.unmodifiableList(paths);
+   }
+
+   private void appendPaths(List<String> paths, String prefix) {
+      for (Attribute attribute: attributes) {
+         String path = prefix + attribute.name;
+         paths.add(path);
+         attribute.subgraph.appendPaths(paths, path + ".");
+      }
+   }
+
+   @Override
+   public String toString() {
+      return entityClass.getSimpleName() + getPaths();
+   }
+
+   /**
+    * Fetched association
+    */
+   @Getter
+   @AllArgsConstructor
+   public static class Attribute {
+
+      private final String name;
+
+      private final boolean collection;
+
+      private final FetchGraph subgraph;
+
+   }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.util.List;
+
+import javax.persistence.metamodel.Attribute;
+
+/**
+ * Entity of a mapping graph node together with its associations referenced by child nodes
+ */
+class FetchNode {
+
+   final Class<?> entityClass;
+
+   //entity classes which may be instantiated, subclasses of a class hierarchy in pre-order
+   final List<Class<?>> concreteClasses;
+
+   final List<Edge> edges;
+
+   FetchNode(Class<?> entityClass, List<Class<?>> concreteClasses, List<Edge> edges) {
+      this.entityClass = entityClass;
+      this.concreteClasses = concreteClasses;
+      this.edges = edges;
+   }
+
+   static class Edge {
+
+      final String name;
+
+      final boolean collection;
+
+      //the base entity of a class hierarchy if it declares the attribute, otherwise the subclass
+      final Class<?> declaringClass;
+
+      final Attribute<?, ?> attribute;
+
+      final FetchNode child;
+
+      Edge(String name, boolean collection, Class<?> declaringClass, Attribute<?, ?> attribute, FetchNode child) {
+         this.name = name;
+         this.collection = collection;
+         this.declaringClass = declaringClass;
+         this.attribute = attribute;
+         this.child = child;
+      }
+
+   }
+
+}
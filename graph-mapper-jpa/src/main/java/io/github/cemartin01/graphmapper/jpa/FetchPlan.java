@@ -0,0 +1,118 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import lombok.Getter;
+
+/**
+ * Plan of queries loading all references of a mapping graph, built by {@link FetchPlanner}.
+ *
+ * The main fetch graph is applied to a query of roots, secondary queries then initialize the remaining
+ * associations of the loaded entities. Every query fetches at most one collection, so no query returns
+ * a Cartesian product of collections.
+ */
+@Getter
+public class FetchPlan {
+
+   public static final String LOAD_GRAPH_HINT = "javax.persistence.loadgraph";
+
+   public static final int DEFAULT_BATCH_SIZE = 500;
+
+   private final FetchGraph mainGraph;
+
+   //in order of execution, owners of every query are loaded by the preceding ones
+   private final List<SecondaryQuery> secondaryQueries;
+
+   FetchPlan(FetchGraph mainGraph, List<SecondaryQuery> secondaryQueries) {
+      this.mainGraph = mainGraph;
+      this.secondaryQueries = Collections.unmodifiableList(secondaryQueries);
+   }
+
+   /**
+    * Creates a load graph of the main query
+    */
+   public EntityGraph<?> createEntityGraph(EntityManager entityManager) {
+      return mainGraph.toEntityGraph(entityManager);
+   }
+
+   /**
+    * Renders the main fetch graph as JPQL join fetch clauses, see {@link FetchGraph#toJoinFetchClause}
+    */
+   public String getJoinFetchClause(String alias) {
+      return mainGraph.toJoinFetchClause(alias);
+   }
+
+   /**
+    * Loads roots by the query with the main fetch graph and executes all secondary queries
+    * @param entityManager entity manager creating the query
+    * @param query query of roots, its load graph hint is replaced
+    * @return distinct roots in order of the query
+    */
+   public <T> List<T> getResultList(EntityManager entityManager, TypedQuery<T> query) {
+      List<T> result = query.setHint(LOAD_GRAPH_HINT, createEntityGraph(entityManager)).getResultList();
+      //fetched collections duplicate their owners
+      Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<T> roots = new ArrayList<>(result.size());
+      for (T root: result) {
+         if (distinct.add(root)) {
+            roots.add(root);
+         }
+      }
+      fetchSecondary(entityManager, roots);
+      return roots;
+   }
+
+   /**
+    * Executes all secondary queries for roots loaded by the main fetch graph
+    * @return number of executed queries
+    */
+   public int fetchSecondary(EntityManager entityManager, Collection<?> roots) {
+      return fetchSecondary(entityManager, roots, DEFAULT_BATCH_SIZE);
+   }
+
+   /**
+    * Executes all secondary queries for roots loaded by the main fetch graph
+    * @param batchSize maximal number of owners queried by one query
+    * @return number of executed queries
+    */
+   public int fetchSecondary(EntityManager entityManager, Collection<?> roots, int batchSize) {
+      if (batchSize < 1) {
+         throw new IllegalArgumentException("Batch size must be positive");
+      }
+      int queries = 0;
+      for (SecondaryQuery secondaryQuery: secondaryQueries) {
+         queries += secondaryQuery.execute(entityManager, roots, batchSize);
+      }
+      return queries;
+   }
+
+   @Override
+   public String toString() {
+      return "FetchPlan(" + mainGraph + ", " + secondaryQueries + ")";
+   }
+
+}
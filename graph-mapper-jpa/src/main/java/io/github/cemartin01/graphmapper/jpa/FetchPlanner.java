@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.metamodel.Metamodel;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+
+/**
+ * Derives a {@link FetchPlan} from a mapping graph and bindings of a graph mapper context.
+ *
+ * Fetching of two collections by one query would return a Cartesian product of them, so the first collection
+ * in pre-order is fetched by the main query and every other collection is split into a secondary query.
+ * Attributes declared only by subclasses of a class hierarchy are fetched by secondary queries of the subclasses.
+ */
+public class FetchPlanner {
+
+   private final FetchTreeBuilder fetchTreeBuilder;
+
+   public FetchPlanner(GraphMapperContext ctx, Metamodel metamodel) {
+      this.fetchTreeBuilder = new FetchTreeBuilder(ctx, metamodel);
+   }
+
+   /**
+    * Plans fetching of all references of the mapping graph
+    * @param mappingGraph mapping graph of a graph mapper
+    * @param rootTargetClass root target class of the graph mapper
+    * @return the fetch plan
+    * @throws IllegalArgumentException if no entity is bound to the root target class
+    */
+   public FetchPlan plan(MappingGraph<?> mappingGraph, Class<?> rootTargetClass) {
+      FetchNode root = fetchTreeBuilder.build(mappingGraph, rootTargetClass);
+      List<SecondaryQuery> secondaryQueries = new ArrayList<>();
+      FetchGraph mainGraph = split(root, Collections.emptyList(), new boolean[1], secondaryQueries);
+      return new FetchPlan(mainGraph, secondaryQueries);
+   }
+
+   /**
+    * Builds a fetch graph of one query, collections exceeding the single fetched collection and attributes
+    * of subclasses are deferred to secondary queries
+    */
+   private FetchGraph split(FetchNode node, List<String> path, boolean[] collectionFetched,
+                            List<SecondaryQuery> secondaryQueries) {
+      List<FetchGraph.Attribute> attributes = new ArrayList<>();
+      for (FetchNode.Edge edge: node.edges) {
+         if (edge.declaringClass != node.entityClass || (edge.collection && collectionFetched[0])) {
+            defer(edge, path, secondaryQueries);
+            continue;
+         }
+         if (edge.collection) {
+            collectionFetched[0] = true;
+         }
+         FetchGraph subgraph = split(edge.child, append(path, edge.name), collectionFetched, secondaryQueries);
+         attributes.add(new FetchGraph.Attribute(edge.name, edge.collection, subgraph));
+      }
+      return new FetchGraph(node.entityClass, attributes);
+   }
+
+   private void defer(FetchNode.Edge edge, List<String> ownerPath, List<SecondaryQuery> secondaryQueries) {
+      //the query is reserved first, so it precedes queries of its descendants
+      int index = secondaryQueries.size();
+      secondaryQueries.add(null);
+      FetchGraph subgraph = split(edge.child, append(ownerPath, edge.name), new boolean[] {edge.collection},
+               secondaryQueries);
+      FetchGraph fetchGraph = new FetchGraph(edge.declaringClass,
+               Collections.singletonList(new FetchGraph.Attribute(edge.name, edge.collection, subgraph)));
+      secondaryQueries.set(index, new SecondaryQuery(ownerPath, fetchGraph));
+   }
+
+   private static List<String> append(List<String> path, String name) {
+      List<String> appended = new ArrayList<>(path.size() + 1);
+      appended.addAll(path);
+      appended.add(name);
+      return appended;
+   }
+
+}
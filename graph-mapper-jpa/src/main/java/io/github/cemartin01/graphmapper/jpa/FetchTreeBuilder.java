@@ -0,0 +1,140 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.classtree.ClassNode;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.ReferenceDescriptor;
+
+/**
+ * Resolves nodes of a mapping graph to entity associations.
+ *
+ * References are resolved the same way as by {@link io.github.cemartin01.graphmapper.mapper.GraphMapperFactory},
+ * a name of a node label is the name of an entity attribute. References which are not associations
+ * of the entity, e.g. embeddables or values computed by getters, are loaded with their owners and skipped.
+ * Nodes of the same label, e.g. selected under different type conditions, are merged, so associations selected
+ * by any of them are fetched.
+ */
+class FetchTreeBuilder {
+
+   private final GraphMapperContext ctx;
+
+   private final Metamodel metamodel;
+
+   FetchTreeBuilder(GraphMapperContext ctx, Metamodel metamodel) {
+      this.ctx = ctx;
+      this.metamodel = metamodel;
+   }
+
+   /**
+    * @throws IllegalArgumentException if no entity is bound to the root target class
+    */
+   FetchNode build(MappingGraph<?> mappingGraph, Class<?> rootTargetClass) {
+      ClassNode classNode = ctx.getClassNode(rootTargetClass);
+      Class<?> entityClass = classNode == null ? ctx.getSourceClass(rootTargetClass) : classNode.getSourceClass();
+      if (entityClass == null) {
+         throw new IllegalArgumentException("No entity is bound to " + rootTargetClass);
+      }
+      return describe(mappingGraph.getRoot(), rootTargetClass, metamodel.managedType(entityClass));
+   }
+
+   private FetchNode describe(Node<?> node, Class<?> targetClass, ManagedType<?> entityType) {
+      Map<String, FetchNode.Edge> edges = new LinkedHashMap<>();
+      List<Class<?>> concreteClasses = new ArrayList<>();
+      addConcreteClass(concreteClasses, entityType.getJavaType());
+      addEdges(edges, node, targetClass, entityType, entityType);
+      ClassNode classNode = ctx.getClassNode(targetClass);
+      if (classNode != null) {
+         addSubclassEdges(edges, concreteClasses, node, classNode, entityType);
+      }
+      return new FetchNode(entityType.getJavaType(), concreteClasses, new ArrayList<>(edges.values()));
+   }
+
+   private void addSubclassEdges(Map<String, FetchNode.Edge> edges, List<Class<?>> concreteClasses, Node<?> node,
+                                 ClassNode parentClassNode, ManagedType<?> baseType) {
+      for (ClassNode classNode: parentClassNode.getChildren()) {
+         addConcreteClass(concreteClasses, classNode.getSourceClass());
+         addEdges(edges, node, classNode.getTargetClass(), baseType, metamodel.managedType(classNode.getSourceClass()));
+         addSubclassEdges(edges, concreteClasses, node, classNode, baseType);
+      }
+   }
+
+   private static void addConcreteClass(List<Class<?>> concreteClasses, Class<?> entityClass) {
+      if (!Modifier.isAbstract(entityClass.getModifiers()) && !concreteClasses.contains(entityClass)) {
+         concreteClasses.add(entityClass);
+      }
+   }
+
+   private void addEdges(Map<String, FetchNode.Edge> edges, Node<?> parentNode, Class<?> targetClass,
+                         ManagedType<?> baseType, ManagedType<?> entityType) {
+      List<ReferenceDescriptor> descriptors = ctx.getReferenceDescriptors(targetClass);
+      for (Node<?> node: Node.mergeChildren(parentNode)) {
+         String name = node.getLabel().getName();
+         if (edges.containsKey(name)) {
+            continue;
+         }
+         for (ReferenceDescriptor descriptor: descriptors) {
+            if (descriptor.getNodeLabel() == node.getLabel()) {
+               Attribute<?, ?> attribute = findAttribute(entityType, name);
+               if (attribute != null && (attribute.isAssociation() || attribute.isCollection())) {
+                  ManagedType<?> declaringType = findAttribute(baseType, name) == null ? entityType : baseType;
+                  FetchNode child = describeChild(node, descriptor.getTargetClass(), attribute);
+                  edges.put(name, new FetchNode.Edge(name, attribute.isCollection(), declaringType.getJavaType(),
+                           attribute, child));
+               }
+               break;
+            }
+         }
+      }
+   }
+
+   private FetchNode describeChild(Node<?> node, Class<?> targetClass, Attribute<?, ?> attribute) {
+      Class<?> childClass = attribute.isCollection()
+               ? ((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType()
+               : ((SingularAttribute<?, ?>) attribute).getType().getJavaType();
+      try {
+         return describe(node, targetClass, metamodel.managedType(childClass));
+      } catch (IllegalArgumentException e) {
+         //collection of basic values
+         return new FetchNode(childClass, Collections.singletonList(childClass), Collections.emptyList());
+      }
+   }
+
+   static Attribute<?, ?> findAttribute(ManagedType<?> type, String name) {
+      for (Attribute<?, ?> attribute: type.getAttributes()) {
+         if (attribute.getName().equals(name)) {
+            return attribute;
+         }
+      }
+      return null;
+   }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compiled projection of a mapping graph node
+ */
+class ProjectionNode {
+
+   final String entityName;
+
+   final String idName;
+
+   //concrete classes in pre-order
+   final List<EntityLoader> loaders;
+
+   //entities of a class hierarchy are loaded by a query per concrete class, so a projection of the base entity
+   //selects only identifiers
+   final boolean hierarchy;
+
+   final List<Edge> edges;
+
+   ProjectionNode(String entityName, String idName, List<EntityLoader> loaders, boolean hierarchy, List<Edge> edges) {
+      this.entityName = entityName;
+      this.idName = idName;
+      this.loaders = loaders;
+      this.hierarchy = hierarchy;
+      this.edges = edges;
+   }
+
+   static class Edge {
+
+      final String name;
+
+      final Class<?> declaringClass;
+
+      final String ownerEntityName;
+
+      final String ownerIdName;
+
+      final AttributeWriter writer;
+
+      //null for a single reference
+      final Supplier<Collection<Object>> collectionFactory;
+
+      //order of elements by an order column
+      final boolean indexed;
+
+      //order of elements by attributes of the referenced entity with an optional direction, null if unordered
+      final List<String> orderItems;
+
+      final ProjectionNode child;
+
+      Edge(String name, Class<?> declaringClass, String ownerEntityName, String ownerIdName, AttributeWriter writer,
+           Supplier<Collection<Object>> collectionFactory, boolean indexed, List<String> orderItems,
+           ProjectionNode child) {
+         this.name = name;
+         this.declaringClass = declaringClass;
+         this.ownerEntityName = ownerEntityName;
+         this.ownerIdName = ownerIdName;
+         this.writer = writer;
+         this.collectionFactory = collectionFactory;
+         this.indexed = indexed;
+         this.orderItems = orderItems;
+         this.child = child;
+      }
+
+   }
+
+}
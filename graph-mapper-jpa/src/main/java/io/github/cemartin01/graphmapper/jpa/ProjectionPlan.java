@@ -0,0 +1,48 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Plan of queries projecting attributes referenced by a mapping graph, built by {@link ProjectionPlanner}.
+ *
+ * Rows are not mapped to targets directly. They are assembled into unmanaged instances of entity classes,
+ * which are then mapped by a graph mapper of the same mapping graph. Entities are not hydrated by the persistence
+ * context, so there are no proxies, snapshots for dirty checking nor lazy collections. Only selected basic
+ * and embedded attributes and the references of the mapping graph are set, other attributes and associations
+ * of the instances stay null or empty, so mapping functions must not read them. The projection fits read-only
+ * queries.
+ */
+public class ProjectionPlan {
+
+   private final ProjectionNode root;
+
+   ProjectionPlan(ProjectionNode root) {
+      this.root = root;
+   }
+
+   /**
+    * Creates a query of roots
+    * @param entityManager entity manager creating the queries
+    * @param alias alias of the root entity used by the restriction and ordering of the query
+    * @return the query
+    */
+   public ProjectionQuery createQuery(EntityManager entityManager, String alias) {
+      return new ProjectionQuery(entityManager, root, alias);
+   }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import javax.persistence.OrderBy;
+import javax.persistence.OrderColumn;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+
+/**
+ * Derives a {@link ProjectionPlan} from a mapping graph and bindings of a graph mapper context.
+ *
+ * Every node of the mapping graph is loaded by one query selecting identifiers of owners and the identifier
+ * and attributes of the referenced entity. All basic and embedded attributes are selected, large objects included,
+ * unless attributes of the entity class are restricted by {@link #selectAttributes}. Entities of a class hierarchy
+ * are loaded by one query per concrete class. Collections are ordered by {@link OrderColumn} or {@link OrderBy}
+ * of the attribute.
+ */
+public class ProjectionPlanner {
+
+   private final FetchTreeBuilder fetchTreeBuilder;
+
+   private final Metamodel metamodel;
+
+   //entity class, names of selected basic and embedded attributes
+   private final Map<Class<?>, Set<String>> selectedAttributes = new HashMap<>();
+
+   public ProjectionPlanner(GraphMapperContext ctx, Metamodel metamodel) {
+      this.fetchTreeBuilder = new FetchTreeBuilder(ctx, metamodel);
+      this.metamodel = metamodel;
+   }
+
+   /**
+    * Restricts attributes selected for an entity class and its subclasses, e.g. to the attributes read
+    * by the mapping function of its target class. Other attributes of projected instances stay unset.
+    * The identifier is always selected. An entity selects the attributes restricted for its class
+    * and its superclasses.
+    * @param entityClass entity class
+    * @param attributeNames names of basic or embedded attributes of the entity class
+    * @return this planner
+    * @throws IllegalArgumentException if the class is not an entity or an attribute is not its basic
+    *                                  or embedded attribute
+    */
+   public ProjectionPlanner selectAttributes(Class<?> entityClass, String... attributeNames) {
+      EntityType<?> entityType = entity(entityClass);
+      Set<String> names = selectedAttributes.computeIfAbsent(entityClass, clazz -> new HashSet<>());
+      for (String name: attributeNames) {
+         Attribute.PersistentAttributeType type = entityType.getAttribute(name).getPersistentAttributeType();
+         if (type != Attribute.PersistentAttributeType.BASIC && type != Attribute.PersistentAttributeType.EMBEDDED) {
+            throw new IllegalArgumentException(name + " of " + entityClass + " is not a basic or embedded attribute");
+         }
+         names.add(name);
+      }
+      return this;
+   }
+
+   /**
+    * Plans the projection of all references of the mapping graph
+    * @param mappingGraph mapping graph of a graph mapper
+    * @param rootTargetClass root target class of the graph mapper
+    * @return the projection plan
+    * @throws IllegalArgumentException if no entity is bound to the root target class, a reference is not
+    *                                  an association of entities or an entity can't be instantiated
+    */
+   public ProjectionPlan plan(MappingGraph<?> mappingGraph, Class<?> rootTargetClass) {
+      return new ProjectionPlan(compile(fetchTreeBuilder.build(mappingGraph, rootTargetClass)));
+   }
+
+   private ProjectionNode compile(FetchNode node) {
+      EntityType<?> entityType = entity(node.entityClass);
+      List<EntityLoader> loaders = new ArrayList<>();
+      for (Class<?> concreteClass: node.concreteClasses) {
+         loaders.add(new EntityLoader(entity(concreteClass), getSelectedAttributes(concreteClass)));
+      }
+      boolean hierarchy = loaders.size() != 1 || loaders.get(0).entityClass != node.entityClass;
+      List<ProjectionNode.Edge> edges = new ArrayList<>();
+      for (FetchNode.Edge edge: node.edges) {
+         edges.add(compile(edge));
+      }
+      return new ProjectionNode(entityType.getName(), idName(entityType), loaders, hierarchy, edges);
+   }
+
+   private ProjectionNode.Edge compile(FetchNode.Edge edge) {
+      EntityType<?> owner = entity(edge.declaringClass);
+      Supplier<Collection<Object>> collectionFactory = null;
+      boolean indexed = false;
+      List<String> orderItems = null;
+      if (edge.collection) {
+         collectionFactory = collectionFactory((PluralAttribute<?, ?, ?>) edge.attribute);
+         AnnotatedElement member = (AnnotatedElement) edge.attribute.getJavaMember();
+         indexed = member.isAnnotationPresent(OrderColumn.class);
+         OrderBy orderBy = member.getAnnotation(OrderBy.class);
+         if (orderBy != null) {
+            orderItems = new ArrayList<>();
+            for (String item: orderBy.value().split(",")) {
+               if (!item.trim().isEmpty()) {
+                  orderItems.add(item.trim());
+               }
+            }
+         }
+      }
+      ProjectionNode child = compile(edge.child);
+      if (orderItems != null && orderItems.isEmpty()) {
+         //ordered by the primary key
+         orderItems = Collections.singletonList(child.idName);
+      }
+      return new ProjectionNode.Edge(edge.name, edge.declaringClass, owner.getName(), idName(owner),
+               AttributeWriter.of(edge.attribute), collectionFactory, indexed, orderItems, child);
+   }
+
+   private static Supplier<Collection<Object>> collectionFactory(PluralAttribute<?, ?, ?> attribute) {
+      switch (attribute.getCollectionType()) {
+         case SET:
+            return LinkedHashSet::new;
+         case LIST:
+         case COLLECTION:
+            return ArrayList::new;
+         default:
+            throw new IllegalArgumentException("Projection of map " + attribute.getName() + " is not supported");
+      }
+   }
+
+   /**
+    * @return attributes selected for the class and its superclasses, null if none of them is restricted
+    */
+   private Set<String> getSelectedAttributes(Class<?> entityClass) {
+      Set<String> names = null;
+      for (Class<?> clazz = entityClass; clazz != null; clazz = clazz.getSuperclass()) {
+         Set<String> classNames = selectedAttributes.get(clazz);
+         if (classNames != null) {
+            if (names == null) {
+               names = new HashSet<>();
+            }
+            names.addAll(classNames);
+         }
+      }
+      return names;
+   }
+
+   private static String idName(EntityType<?> entityType) {
+      return entityType.getId(entityType.getIdType().getJavaType()).getName();
+   }
+
+   private EntityType<?> entity(Class<?> entityClass) {
+      try {
+         return metamodel.entity(entityClass);
+      } catch (IllegalArgumentException e) {
+         throw new IllegalArgumentException("Projection of " + entityClass + " is not supported, it's not an entity", e);
+      }
+   }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import io.github.cemartin01.graphmapper.mapper.GraphMapper;
+
+/**
+ * Query of roots of a {@link ProjectionPlan}.
+ *
+ * References are loaded by one query per node of the mapping graph. Owners of the references are restricted
+ * by a subquery selecting identifiers of the owners, which nests the restriction of roots, so no identifiers
+ * are sent back to the database and the number of queries doesn't depend on the number of roots.
+ */
+public class ProjectionQuery {
+
+   private final EntityManager entityManager;
+
+   private final ProjectionNode root;
+
+   private final String alias;
+
+   private String where = "";
+
+   private String orderBy = "";
+
+   private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+   ProjectionQuery(EntityManager entityManager, ProjectionNode root, String alias) {
+      this.entityManager = entityManager;
+      this.root = root;
+      this.alias = alias;
+   }
+
+   /**
+    * @param condition JPQL conditional expression restricting roots
+    */
+   public ProjectionQuery where(String condition) {
+      this.where = " where " + condition;
+      return this;
+   }
+
+   /**
+    * @param orderItems JPQL order by items of roots
+    */
+   public ProjectionQuery orderBy(String orderItems) {
+      this.orderBy = " order by " + orderItems;
+      return this;
+   }
+
+   public ProjectionQuery setParameter(String name, Object value) {
+      parameters.put(name, value);
+      return this;
+   }
+
+   /**
+    * Loads roots and maps them by the graph mapper
+    * @param mapper graph mapper of the mapping graph of the plan
+    * @return mapped roots in order of the query
+    */
+   public <T> List<T> getResultList(GraphMapper<T> mapper) {
+      return mapper.mapAll(load());
+   }
+
+   /**
+    * Loads roots as unmanaged instances with all references of the mapping graph
+    * @return distinct roots in order of the query
+    */
+   public List<Object> load() {
+      String rootIds = "select " + alias + "." + root.idName + " from " + root.entityName + " " + alias + where;
+      Map<Object, Object> roots = new LinkedHashMap<>();
+      if (root.hierarchy) {
+         Map<Object, Object> instances = loadHierarchy(root, rootIds, 0);
+         for (Object id: new LinkedHashSet<>(query(rootIds + orderBy))) {
+            Object instance = instances.get(id);
+            if (instance != null) {
+               roots.put(id, instance);
+            }
+         }
+      } else {
+         EntityLoader loader = root.loaders.get(0);
+         for (Object result: query("select " + loader.selection(alias) + " from " + root.entityName + " " + alias
+                  + where + orderBy)) {
+            Object[] row = toRow(result);
+            roots.computeIfAbsent(row[0], id -> loader.instantiate(row, 0));
+         }
+      }
+      loadReferences(root, roots, rootIds, 1);
+      return new ArrayList<>(roots.values());
+   }
+
+   /**
+    * @param ownerIds subquery of identifiers of the owners
+    * @param depth depth of the references, it distinguishes aliases of nested subqueries
+    */
+   private void loadReferences(ProjectionNode node, Map<Object, Object> owners, String ownerIds, int depth) {
+      String owner = "o" + depth + "_";
+      String entity = "e" + depth + "_";
+      for (ProjectionNode.Edge edge: node.edges) {
+         Map<Object, Object> declaringOwners = new HashMap<>();
+         Map<Object, Collection<Object>> collections = new HashMap<>();
+         owners.forEach((id, instance) -> {
+            if (edge.declaringClass.isInstance(instance)) {
+               declaringOwners.put(id, instance);
+               if (edge.collectionFactory != null) {
+                  Collection<Object> collection = edge.collectionFactory.get();
+                  edge.writer.write(instance, collection);
+                  collections.put(id, collection);
+               }
+            }
+         });
+         if (declaringOwners.isEmpty()) {
+            continue;
+         }
+
+         ProjectionNode child = edge.child;
+         String from = " from " + edge.ownerEntityName + " " + owner + " join " + owner + "." + edge.name + " " + entity
+                  + " where " + owner + "." + edge.ownerIdName + " in (" + ownerIds + ")";
+         String selection = child.hierarchy ? entity + "." + child.idName : child.loaders.get(0).selection(entity);
+         Map<Object, Object> children = new LinkedHashMap<>();
+         List<Object[]> links = new ArrayList<>();
+         for (Object result: query("select " + owner + "." + edge.ownerIdName + ", " + selection + from
+                  + orderBy(edge, owner, entity))) {
+            Object[] row = toRow(result);
+            if (!child.hierarchy) {
+               children.computeIfAbsent(row[1], id -> child.loaders.get(0).instantiate(row, 1));
+            }
+            links.add(row);
+         }
+         String childIds = "select " + entity + "." + child.idName + from;
+         if (child.hierarchy) {
+            children = loadHierarchy(child, childIds, depth);
+         }
+
+         for (Object[] link: links) {
+            Object instance = children.get(link[1]);
+            if (instance == null) {
+               continue;
+            }
+            if (edge.collectionFactory != null) {
+               collections.get(link[0]).add(instance);
+            } else {
+               edge.writer.write(declaringOwners.get(link[0]), instance);
+            }
+         }
+         loadReferences(child, children, childIds, depth + 1);
+      }
+   }
+
+   private Map<Object, Object> loadHierarchy(ProjectionNode node, String ids, int depth) {
+      String entity = "l" + depth + "_";
+      Map<Object, Object> instances = new HashMap<>();
+      //subclasses are loaded before their superclasses, which select their rows too
+      for (int i = node.loaders.size() - 1; i >= 0; i--) {
+         EntityLoader loader = node.loaders.get(i);
+         for (Object result: query("select " + loader.selection(entity) + " from " + loader.entityName + " " + entity
+                  + " where " + entity + "." + loader.idName + " in (" + ids + ")")) {
+            Object[] row = toRow(result);
+            if (!instances.containsKey(row[0])) {
+               instances.put(row[0], loader.instantiate(row, 0));
+            }
+         }
+      }
+      return instances;
+   }
+
+   private static String orderBy(ProjectionNode.Edge edge, String owner, String entity) {
+      if (edge.indexed) {
+         return " order by " + owner + "." + edge.ownerIdName + ", index(" + entity + ")";
+      }
+      if (edge.orderItems == null) {
+         return "";
+      }
+      List<String> items = new ArrayList<>(edge.orderItems.size());
+      for (String item: edge.orderItems) {
+         items.add(entity + "." + item);
+      }
+      return " order by " + String.join(", ", items);
+   }
+
+   private List<?> query(String jpql) {
+      Query query = entityManager.createQuery(jpql);
+      parameters.forEach(query::setParameter);
+      return query.getResultList();
+   }
+
+   private static Object[] toRow(Object result) {
+      return result instanceof Object[] ? (Object[]) result : new Object[] {result};
+   }
+
+}
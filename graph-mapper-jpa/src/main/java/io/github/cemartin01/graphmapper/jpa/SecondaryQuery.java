@@ -0,0 +1,152 @@
+/*
+ * Copyright 2021 cemartin01 (https://github.com/cemartin01).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cemartin01.graphmapper.jpa;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.EntityType;
+
+import io.github.cemartin01.graphmapper.exception.GraphMapperException;
+
+import lombok.Getter;
+
+/**
+ * Query initializing associations of entities already loaded by the main query or by preceding secondary queries.
+ *
+ * Owners are reached from the roots by the owner path and loaded again by their identifiers, together with
+ * the associations of the fetch graph. The persistence context returns the already managed instances,
+ * so their associations get initialized. Owners are queried in batches, so the number of queries doesn't depend
+ * on the number of roots, only on their count divided by the batch size.
+ */
+@Getter
+public class SecondaryQuery {
+
+   /**
+    * Attributes leading from the roots to the owners
+    */
+   private final List<String> ownerPath;
+
+   private final FetchGraph fetchGraph;
+
+   SecondaryQuery(List<String> ownerPath, FetchGraph fetchGraph) {
+      this.ownerPath = Collections.unmodifiableList(ownerPath);
+      this.fetchGraph = fetchGraph;
+   }
+
+   /**
+    * Fetches associations of owners reachable from the roots
+    * @param entityManager entity manager which loaded the roots
+    * @param roots loaded roots
+    * @param batchSize maximal number of owners queried at once
+    * @return number of executed queries
+    * @throws GraphMapperException if an attribute of the owner path can't be read
+    */
+   public int execute(EntityManager entityManager, Collection<?> roots, int batchSize) {
+      List<Object> owners = getOwners(roots);
+      if (owners.isEmpty()) {
+         return 0;
+      }
+      EntityType<?> entityType = entityManager.getMetamodel().entity(fetchGraph.getEntityClass());
+      String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+      String jpql = "select distinct o from " + entityType.getName() + " o where o." + idName + " in :ids";
+      PersistenceUnitUtil unitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+
+      int queries = 0;
+      for (int from = 0; from < owners.size(); from += batchSize) {
+         List<Object> ids = new ArrayList<>();
+         for (Object owner: owners.subList(from, Math.min(owners.size(), from + batchSize))) {
+            ids.add(unitUtil.getIdentifier(owner));
+         }
+         entityManager.createQuery(jpql, fetchGraph.getEntityClass())
+                  .setParameter("ids", ids)
+                  .setHint(FetchPlan.LOAD_GRAPH_HINT, fetchGraph.toEntityGraph(entityManager))
+                  .getResultList();
+         queries++;
+      }
+      return queries;
+   }
+
+   /**
+    * Navigates the owner path by getters, owners are distinct by identity.
+    * Sources not declaring an attribute, e.g. other subclasses of a class hierarchy, are skipped.
+    */
+   List<Object> getOwners(Collection<?> roots) {
+      List<Object> level = new ArrayList<>(roots);
+      Map<Class<?>, Method> getters = new HashMap<>();
+      for (String attribute: ownerPath) {
+         List<Object> next = new ArrayList<>();
+         getters.clear();
+         for (Object source: level) {
+            Method getter = getters.computeIfAbsent(source.getClass(), c -> findGetter(c, attribute));
+            if (getter == null) {
+               continue;
+            }
+            Object value;
+            try {
+               value = getter.invoke(source);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+               throw new GraphMapperException("Attribute " + attribute + " of " + source.getClass() + " can't be read", e);
+            }
+            if (value instanceof Map) {
+               value = ((Map<?, ?>) value).values();
+            }
+            if (value instanceof Collection) {
+               for (Object element: (Collection<?>) value) {
+                  if (element != null) {
+                     next.add(element);
+                  }
+               }
+            } else if (value != null) {
+               next.add(value);
+            }
+         }
+         level = next;
+      }
+      Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+      List<Object> owners = new ArrayList<>(level.size());
+      for (Object owner: level) {
+         if (distinct.add(owner)) {
+            owners.add(owner);
+         }
+      }
+      return owners;
+   }
+
+   private static Method findGetter(Class<?> clazz, String attribute) {
+      try {
+         return clazz.getMethod("get" + Character.toUpperCase(attribute.charAt(0)) + attribute.substring(1));
+      } catch (NoSuchMethodException e) {
+         return null;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return String.join(".", ownerPath) + " -> " + fetchGraph;
+   }
+
+}
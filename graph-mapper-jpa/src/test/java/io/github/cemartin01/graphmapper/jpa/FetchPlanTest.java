@@ -0,0 +1,126 @@
+package io.github.cemartin01.graphmapper.jpa;
+
+import io.github.cemartin01.graphmapper.jpa.mock.JpaFixtures;
+import io.github.cemartin01.graphmapper.jpa.mock.dto.*;
+import io.github.cemartin01.graphmapper.jpa.mock.entity.WeekMenuEntity;
+import io.github.cemartin01.graphmapper.mapper.GraphMapper;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FetchPlanTest {
+
+    private EntityManagerFactory emf;
+
+    private Statistics statistics;
+
+    private final GraphMapperContext ctx = JpaFixtures.context();
+
+    @BeforeEach
+    public void setUp() {
+        emf = JpaFixtures.entityManagerFactory();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    public void graphIsMappedWithoutLazyLoading() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 3, 2, 3);
+        FetchPlan plan = new FetchPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(ctx).getGraphMapper(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        statistics.clear();
+
+        List<WeekMenuEntity> weekMenus = plan.getResultList(em,
+                em.createQuery("select w from WeekMenuEntity w order by w.menuWeek", WeekMenuEntity.class));
+        List<WeekMenuDTO> result = mapper.mapAll(weekMenus);
+
+        //main query, items, side dishes of lunches and holidays
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(3, result.size());
+        for (WeekMenuDTO weekMenu: result) {
+            assertEquals("Canteen", weekMenu.getProvider().getName());
+            assertEquals(2, weekMenu.getHolidays().size());
+            assertEquals(2, weekMenu.getDays().size());
+            for (DayMenuDTO dayMenu: weekMenu.getDays()) {
+                List<DayMenuItemDTO> items = dayMenu.getItems();
+                assertEquals(3, items.size());
+                LunchDTO lunch = (LunchDTO) items.get(0).getMeal();
+                assertEquals("Lunch 0", lunch.getName());
+                assertEquals("Vegetarian", lunch.getMealType().getName());
+                assertEquals("Side dish 0", lunch.getSideDish().getName());
+                SoupDTO soup = (SoupDTO) items.get(2).getMeal();
+                assertEquals("Soup", soup.getName());
+                assertEquals("Vegetarian", soup.getMealType().getName());
+            }
+        }
+        em.close();
+    }
+
+    @Test
+    public void numberOfQueriesDoesNotDependOnNumberOfRoots() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 20, 5, 4);
+        FetchPlan plan = new FetchPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(ctx).getGraphMapper(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        statistics.clear();
+
+        List<WeekMenuEntity> weekMenus = plan.getResultList(em,
+                em.createQuery("select w from WeekMenuEntity w", WeekMenuEntity.class));
+        List<WeekMenuDTO> result = mapper.mapAll(weekMenus);
+
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(20, result.size());
+        assertEquals(100, result.stream().mapToInt(w -> w.getDays().size()).sum());
+        em.close();
+    }
+
+    @Test
+    public void secondaryQueriesAreBatched() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 5, 1, 1);
+        FetchPlan plan = new FetchPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        List<WeekMenuEntity> weekMenus = em.createQuery("select distinct w from WeekMenuEntity w", WeekMenuEntity.class)
+                .setHint(FetchPlan.LOAD_GRAPH_HINT, plan.createEntityGraph(em))
+                .getResultList();
+
+        int queries = plan.fetchSecondary(em, weekMenus, 2);
+
+        //5 days and 5 week menus by 2, a single lunch
+        assertEquals(3 + 1 + 3, queries);
+        assertEquals(2, weekMenus.get(4).getHolidays().size());
+        em.close();
+    }
+
+    @Test
+    public void joinFetchClauseLoadsMainGraph() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 2, 3, 1);
+        FetchPlan plan = new FetchPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        statistics.clear();
+
+        List<WeekMenuEntity> weekMenus = em.createQuery("select distinct w from WeekMenuEntity w "
+                + plan.getJoinFetchClause("w"), WeekMenuEntity.class).getResultList();
+
+        assertEquals(2, weekMenus.size());
+        assertEquals(3, weekMenus.get(0).getDays().size());
+        assertEquals("Canteen", weekMenus.get(1).getProvider().getName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        em.close();
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.github.cemartin01.graphmapper.jpa;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.jpa.mock.JpaFixtures;
+import io.github.cemartin01.graphmapper.jpa.mock.dto.DayMenuDTO;
+import io.github.cemartin01.graphmapper.jpa.mock.dto.WeekMenuDTO;
+import io.github.cemartin01.graphmapper.jpa.mock.entity.DayMenuEntity;
+import io.github.cemartin01.graphmapper.jpa.mock.entity.LunchEntity;
+import io.github.cemartin01.graphmapper.jpa.mock.entity.WeekMenuEntity;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.cemartin01.graphmapper.jpa.mock.JpaTestNodeLabel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FetchPlannerTest {
+
+    private static EntityManagerFactory emf;
+
+    @BeforeAll
+    public static void setUp() {
+        emf = JpaFixtures.entityManagerFactory();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    public void collectionsAreSplitIntoSecondaryQueries() {
+        FetchPlanner planner = new FetchPlanner(JpaFixtures.context(), emf.getMetamodel());
+
+        FetchPlan plan = planner.plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        assertEquals(WeekMenuEntity.class, plan.getMainGraph().getEntityClass());
+        assertEquals(Arrays.asList("provider", "days"), plan.getMainGraph().getPaths());
+
+        List<SecondaryQuery> queries = plan.getSecondaryQueries();
+        assertEquals(3, queries.size());
+
+        assertEquals(Collections.singletonList("days"), queries.get(0).getOwnerPath());
+        assertEquals(DayMenuEntity.class, queries.get(0).getFetchGraph().getEntityClass());
+        assertEquals(Arrays.asList("items", "items.meal", "items.meal.mealType"),
+                queries.get(0).getFetchGraph().getPaths());
+
+        //side dish is declared only by lunches
+        assertEquals(Arrays.asList("days", "items", "meal"), queries.get(1).getOwnerPath());
+        assertEquals(LunchEntity.class, queries.get(1).getFetchGraph().getEntityClass());
+        assertEquals(Collections.singletonList("sideDish"), queries.get(1).getFetchGraph().getPaths());
+
+        assertEquals(Collections.emptyList(), queries.get(2).getOwnerPath());
+        assertEquals(WeekMenuEntity.class, queries.get(2).getFetchGraph().getEntityClass());
+        assertEquals(Collections.singletonList("holidays"), queries.get(2).getFetchGraph().getPaths());
+    }
+
+    @Test
+    public void toOneReferencesAreFetchedByMainQuery() {
+        FetchPlanner planner = new FetchPlanner(JpaFixtures.context(), emf.getMetamodel());
+        MappingGraph<Void> graph = MappingGraph.of(Node.<Void>builder()
+                .child(Node.<Void>builder().label(DAY_MENU_ITEMS)
+                        .child(Node.<Void>builder().label(MEAL)
+                                .child(Node.of(MEAL_TYPE))
+                                .build())
+                        .build())
+                .build());
+
+        FetchPlan plan = planner.plan(graph, DayMenuDTO.class);
+
+        assertEquals(DayMenuEntity.class, plan.getMainGraph().getEntityClass());
+        assertEquals(Arrays.asList("items", "items.meal", "items.meal.mealType"), plan.getMainGraph().getPaths());
+        assertTrue(plan.getSecondaryQueries().isEmpty());
+    }
+
+    @Test
+    public void typeConditionedDuplicatesAreMerged() {
+        FetchPlanner planner = new FetchPlanner(JpaFixtures.context(), emf.getMetamodel());
+        //items { meal } ... on DayMenu { items { meal { ... on Lunch { mealType } } } }
+        MappingGraph<Void> graph = MappingGraph.of(Node.<Void>builder()
+                .child(Node.<Void>builder().label(DAY_MENU_ITEMS)
+                        .child(Node.of(MEAL))
+                        .build())
+                .child(Node.<Void>builder().label(DAY_MENU_ITEMS).typeCondition("DayMenuDTO")
+                        .child(Node.<Void>builder().label(MEAL)
+                                .child(Node.<Void>builder().label(MEAL_TYPE).typeCondition("LunchDTO").build())
+                                .build())
+                        .build())
+                .build());
+
+        FetchPlan plan = planner.plan(graph, DayMenuDTO.class);
+
+        assertEquals(Arrays.asList("items", "items.meal", "items.meal.mealType"), plan.getMainGraph().getPaths());
+        assertTrue(plan.getSecondaryQueries().isEmpty());
+    }
+
+    @Test
+    public void unboundReferencesAreIgnored() {
+        FetchPlanner planner = new FetchPlanner(JpaFixtures.context(), emf.getMetamodel());
+        MappingGraph<Void> graph = MappingGraph.of(Node.<Void>builder()
+                .child(Node.of(PROVIDER))
+                .child(Node.of(MEAL))
+                .build());
+
+        FetchPlan plan = planner.plan(graph, WeekMenuDTO.class);
+
+        assertEquals(Collections.singletonList("provider"), plan.getMainGraph().getPaths());
+        assertTrue(plan.getSecondaryQueries().isEmpty());
+    }
+
+    @Test
+    public void joinFetchClauseIsRendered() {
+        FetchPlanner planner = new FetchPlanner(JpaFixtures.context(), emf.getMetamodel());
+
+        FetchPlan plan = planner.plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        assertEquals("left join fetch w.provider w_1 left join fetch w.days w_2", plan.getJoinFetchClause("w"));
+        assertEquals("left join fetch d.items d_1 left join fetch d_1.meal d_2 left join fetch d_2.mealType d_3",
+                plan.getSecondaryQueries().get(0).getFetchGraph().toJoinFetchClause("d"));
+    }
+
+    @Test
+    public void unboundRootIsRejected() {
+        FetchPlanner planner = new FetchPlanner(JpaFixtures.context(), emf.getMetamodel());
+
+        assertThrows(IllegalArgumentException.class, () -> planner.plan(JpaFixtures.weekMenuGraph(), String.class));
+    }
+
+}
@@ -0,0 +1,165 @@
+package io.github.cemartin01.graphmapper.jpa;
+
+import io.github.cemartin01.graphmapper.jpa.mock.JpaFixtures;
+import io.github.cemartin01.graphmapper.jpa.mock.dto.*;
+import io.github.cemartin01.graphmapper.jpa.mock.entity.*;
+import io.github.cemartin01.graphmapper.mapper.GraphMapper;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectionQueryTest {
+
+    private EntityManagerFactory emf;
+
+    private Statistics statistics;
+
+    private final GraphMapperContext ctx = JpaFixtures.context();
+
+    private final GraphMapper<WeekMenuDTO> mapper = new GraphMapperFactory(ctx)
+            .getGraphMapper(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+    @BeforeEach
+    public void setUp() {
+        emf = JpaFixtures.entityManagerFactory();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    public void projectionIsMappedLikeEntities() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 3, 2, 4);
+
+        FetchPlan fetchPlan = new FetchPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        List<WeekMenuDTO> expected = mapper.mapAll(fetchPlan.getResultList(em,
+                em.createQuery("select w from WeekMenuEntity w order by w.menuWeek", WeekMenuEntity.class)));
+        em.clear();
+
+        ProjectionPlan plan = new ProjectionPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        List<WeekMenuDTO> result = plan.createQuery(em, "w").orderBy("w.menuWeek").getResultList(mapper);
+
+        assertEquals(describe(expected), describe(result));
+        em.close();
+    }
+
+    @Test
+    public void entitiesAreNotHydrated() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 2, 2, 2);
+        ProjectionPlan plan = new ProjectionPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        statistics.clear();
+
+        List<Object> roots = plan.createQuery(em, "w").load();
+
+        assertEquals(2, roots.size());
+        assertFalse(em.contains(roots.get(0)));
+        assertEquals(0, statistics.getEntityLoadCount());
+        WeekMenuEntity weekMenu = (WeekMenuEntity) roots.get(0);
+        assertEquals("Canteen", weekMenu.getProvider().getName());
+        assertEquals(2, weekMenu.getDays().get(1).getItems().size());
+        em.close();
+    }
+
+    @Test
+    public void onlySelectedAttributesAreProjected() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 2, 2, 3);
+        ProjectionPlanner planner = new ProjectionPlanner(ctx, emf.getMetamodel())
+                .selectAttributes(ProviderEntity.class)
+                .selectAttributes(MealEntity.class)
+                .selectAttributes(LunchEntity.class, "name");
+
+        List<Object> roots = planner.plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class).createQuery(em, "w").load();
+
+        WeekMenuEntity weekMenu = (WeekMenuEntity) roots.get(0);
+        assertTrue(weekMenu.getMenuWeek() > 0);
+        assertNotNull(weekMenu.getProvider().getId());
+        assertNull(weekMenu.getProvider().getName());
+        List<MealEntity> meals = weekMenu.getDays().stream().flatMap(d -> d.getItems().stream())
+                .map(DayMenuItemEntity::getMeal).collect(Collectors.toList());
+        assertTrue(meals.stream().anyMatch(meal -> meal instanceof SoupEntity));
+        for (MealEntity meal: meals) {
+            assertNotNull(meal.getMealType());
+            assertEquals(meal instanceof LunchEntity, meal.getName() != null);
+        }
+        em.close();
+    }
+
+    @Test
+    public void onlyBasicAndEmbeddedAttributesAreSelectable() {
+        ProjectionPlanner planner = new ProjectionPlanner(ctx, emf.getMetamodel());
+
+        assertThrows(IllegalArgumentException.class, () -> planner.selectAttributes(WeekMenuEntity.class, "provider"));
+        assertThrows(IllegalArgumentException.class, () -> planner.selectAttributes(WeekMenuEntity.class, "unknown"));
+    }
+
+    @Test
+    public void restrictionAndOrderAreApplied() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 4, 1, 1);
+        ProjectionPlan plan = new ProjectionPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+
+        List<WeekMenuDTO> result = plan.createQuery(em, "w")
+                .where("w.menuWeek > :week")
+                .orderBy("w.menuWeek desc")
+                .setParameter("week", 2)
+                .getResultList(mapper);
+
+        assertEquals(2, result.size());
+        assertEquals(4, result.get(0).getMenuWeek());
+        assertEquals(3, result.get(1).getMenuWeek());
+        em.close();
+    }
+
+    @Test
+    public void numberOfQueriesDoesNotDependOnNumberOfRoots() {
+        EntityManager em = emf.createEntityManager();
+        JpaFixtures.persistWeekMenus(em, 20, 5, 4);
+        ProjectionPlan plan = new ProjectionPlanner(ctx, emf.getMetamodel()).plan(JpaFixtures.weekMenuGraph(), WeekMenuDTO.class);
+        statistics.clear();
+
+        List<WeekMenuDTO> result = plan.createQuery(em, "w").getResultList(mapper);
+
+        //roots, provider, days, items, meals, lunches, soups, meal types, side dishes and holidays
+        assertEquals(10, statistics.getPrepareStatementCount());
+        assertEquals(20, result.size());
+        assertEquals(400, result.stream().flatMap(w -> w.getDays().stream()).mapToInt(d -> d.getItems().size()).sum());
+        em.close();
+    }
+
+    private static String describe(List<WeekMenuDTO> weekMenus) {
+        return weekMenus.stream().map(w -> w.getId() + ":" + w.getMenuWeek() + ":" + w.getProvider().getName()
+                + w.getHolidays().stream().map(HolidayDTO::getName).collect(Collectors.toList())
+                + w.getDays().stream().map(d -> d.getDayOfWeek() + d.getItems().stream()
+                        .map(ProjectionQueryTest::describe).collect(Collectors.toList()).toString())
+                        .collect(Collectors.toList()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String describe(DayMenuItemDTO item) {
+        Meal meal = item.getMeal();
+        if (meal instanceof LunchDTO) {
+            LunchDTO lunch = (LunchDTO) meal;
+            return item.getPosition() + lunch.getName() + lunch.getMealType().getName() + lunch.getSideDish().getName();
+        }
+        SoupDTO soup = (SoupDTO) meal;
+        return item.getPosition() + soup.getName() + soup.getMealType().getName();
+    }
+
+}
@@ -0,0 +1,219 @@
+package io.github.cemartin01.graphmapper.jpa.mock;
+
+import io.github.cemartin01.graphmapper.MappingGraph;
+import io.github.cemartin01.graphmapper.Node;
+import io.github.cemartin01.graphmapper.classtree.ClassNode;
+import io.github.cemartin01.graphmapper.exception.GraphMapperInitializationException;
+import io.github.cemartin01.graphmapper.mapper.GraphMapperContext;
+import io.github.cemartin01.graphmapper.jpa.mock.dto.*;
+import io.github.cemartin01.graphmapper.jpa.mock.entity.*;
+import org.hibernate.Hibernate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static io.github.cemartin01.graphmapper.jpa.mock.JpaTestNodeLabel.*;
+
+/**
+ * Catering entities persisted in an embedded H2 database and a context mapping them.
+ */
+public final class JpaFixtures {
+
+    private JpaFixtures() {
+    }
+
+    /**
+     * Creates a factory of a new empty in-memory database
+     */
+    public static EntityManagerFactory entityManagerFactory() {
+        return Persistence.createEntityManagerFactory("catering", Collections.singletonMap(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1"));
+    }
+
+    public static GraphMapperContext context() {
+        try {
+            GraphMapperContext ctx = new GraphMapperContext(Hibernate::unproxy);
+
+            ctx.defineInterface(Meal.class, MealEntity.class,
+                    ClassNode.of(LunchDTO.class, LunchEntity.class),
+                    ClassNode.of(SoupDTO.class, SoupEntity.class)
+            );
+
+            ctx.addMapper(e -> {
+                WeekMenuEntity source = (WeekMenuEntity) e;
+                WeekMenuDTO target = new WeekMenuDTO();
+                target.setId(source.getId());
+                target.setMenuWeek(source.getMenuWeek());
+                return target;
+            }, WeekMenuDTO.class);
+            ctx.addMapper(e -> {
+                ProviderEntity source = (ProviderEntity) e;
+                ProviderDTO target = new ProviderDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, ProviderDTO.class);
+            ctx.addMapper(e -> {
+                HolidayEntity source = (HolidayEntity) e;
+                HolidayDTO target = new HolidayDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, HolidayDTO.class);
+            ctx.addMapper(e -> {
+                DayMenuEntity source = (DayMenuEntity) e;
+                DayMenuDTO target = new DayMenuDTO();
+                target.setId(source.getId());
+                target.setDayOfWeek(source.getDayOfWeek());
+                return target;
+            }, DayMenuDTO.class);
+            ctx.addMapper(e -> {
+                DayMenuItemEntity source = (DayMenuItemEntity) e;
+                DayMenuItemDTO target = new DayMenuItemDTO();
+                target.setId(source.getId());
+                target.setPosition(source.getPosition());
+                return target;
+            }, DayMenuItemDTO.class);
+            ctx.addMapper(e -> {
+                LunchEntity source = (LunchEntity) e;
+                LunchDTO target = new LunchDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, LunchDTO.class);
+            ctx.addMapper(e -> {
+                SoupEntity source = (SoupEntity) e;
+                SoupDTO target = new SoupDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, SoupDTO.class);
+            ctx.addMapper(e -> {
+                MealTypeEntity source = (MealTypeEntity) e;
+                MealTypeDTO target = new MealTypeDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, MealTypeDTO.class);
+            ctx.addMapper(e -> {
+                SideDishEntity source = (SideDishEntity) e;
+                SideDishDTO target = new SideDishDTO();
+                target.setId(source.getId());
+                target.setName(source.getName());
+                return target;
+            }, SideDishDTO.class);
+
+            ctx.addMapping(WeekMenuDTO.class, WeekMenuEntity.class)
+                    .bind(PROVIDER)
+                    .bindList(DAY_MENUS)
+                    .bindList(HOLIDAYS);
+
+            ctx.addMapping(DayMenuDTO.class, DayMenuEntity.class)
+                    .bindList(DAY_MENU_ITEMS);
+
+            ctx.addMapping(DayMenuItemDTO.class, DayMenuItemEntity.class)
+                    .bind(MEAL);
+
+            ctx.addMapping(LunchDTO.class, LunchEntity.class)
+                    .bind(MEAL_TYPE)
+                    .bind(SIDE_DISH);
+
+            ctx.addMapping(SoupDTO.class, SoupEntity.class)
+                    .bind(MEAL_TYPE);
+
+            return ctx;
+        } catch (GraphMapperInitializationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Mapping graph covering every reference of a week menu
+     */
+    public static MappingGraph<Void> weekMenuGraph() {
+        return MappingGraph.of(Node.<Void>builder()
+                .child(Node.of(PROVIDER))
+                .child(Node.<Void>builder().label(DAY_MENUS)
+                        .child(Node.<Void>builder().label(DAY_MENU_ITEMS)
+                                .child(Node.<Void>builder().label(MEAL)
+                                        .child(Node.of(MEAL_TYPE))
+                                        .child(Node.of(SIDE_DISH))
+                                        .build())
+                                .build())
+                        .build())
+                .child(Node.of(HOLIDAYS))
+                .build());
+    }
+
+    /**
+     * Persists week menus sharing a provider, two lunches and a soup
+     * @return persisted menus
+     */
+    public static List<WeekMenuEntity> persistWeekMenus(EntityManager em, int menus, int daysPerMenu, int itemsPerDay) {
+        em.getTransaction().begin();
+
+        ProviderEntity provider = new ProviderEntity();
+        provider.setName("Canteen");
+        em.persist(provider);
+
+        MealTypeEntity mealType = new MealTypeEntity();
+        mealType.setName("Vegetarian");
+        em.persist(mealType);
+
+        List<MealEntity> meals = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            SideDishEntity sideDish = new SideDishEntity();
+            sideDish.setName("Side dish " + i);
+            em.persist(sideDish);
+            LunchEntity lunch = new LunchEntity();
+            lunch.setName("Lunch " + i);
+            lunch.setMealType(mealType);
+            lunch.setSideDish(sideDish);
+            em.persist(lunch);
+            meals.add(lunch);
+        }
+        SoupEntity soup = new SoupEntity();
+        soup.setName("Soup");
+        soup.setMealType(mealType);
+        em.persist(soup);
+        meals.add(soup);
+
+        List<WeekMenuEntity> weekMenus = new ArrayList<>();
+        for (int m = 0; m < menus; m++) {
+            WeekMenuEntity weekMenu = new WeekMenuEntity();
+            weekMenu.setMenuWeek(m + 1);
+            weekMenu.setProvider(provider);
+            em.persist(weekMenu);
+            for (int h = 0; h < 2; h++) {
+                HolidayEntity holiday = new HolidayEntity();
+                holiday.setName("Holiday " + h);
+                holiday.setWeekMenu(weekMenu);
+                em.persist(holiday);
+            }
+            for (int d = 0; d < daysPerMenu; d++) {
+                DayMenuEntity dayMenu = new DayMenuEntity();
+                dayMenu.setDayOfWeek((byte) (d + 1));
+                dayMenu.setWeekMenu(weekMenu);
+                em.persist(dayMenu);
+                for (int i = 0; i < itemsPerDay; i++) {
+                    DayMenuItemEntity item = new DayMenuItemEntity();
+                    item.setPosition(i);
+                    item.setDayMenu(dayMenu);
+                    item.setMeal(meals.get(i % meals.size()));
+                    em.persist(item);
+                }
+            }
+            weekMenus.add(weekMenu);
+        }
+
+        em.getTransaction().commit();
+        em.clear();
+        return weekMenus;
+    }
+
+}
@@ -0,0 +1,25 @@
+package io.github.cemartin01.graphmapper.jpa.mock;
+
+import io.github.cemartin01.graphmapper.NodeLabel;
+
+public enum JpaTestNodeLabel implements NodeLabel {
+
+    PROVIDER("provider"),
+    DAY_MENUS("days"),
+    HOLIDAYS("holidays"),
+    DAY_MENU_ITEMS("items"),
+    MEAL("meal"),
+    MEAL_TYPE("mealType"),
+    SIDE_DISH("sideDish");
+
+    private final String name;
+
+    JpaTestNodeLabel(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.cemartin01.graphmapper.jpa.mock.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class DayMenuDTO {
+
+    private Long id;
+
+    private byte dayOfWeek;
+
+    private List<DayMenuItemDTO> items;
+
+}
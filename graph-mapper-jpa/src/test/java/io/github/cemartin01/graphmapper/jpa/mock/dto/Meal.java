@@ -0,0 +1,7 @@
+package io.github.cemartin01.graphmapper.jpa.mock.dto;
+
+public interface Meal {
+
+    String getName();
+
+}
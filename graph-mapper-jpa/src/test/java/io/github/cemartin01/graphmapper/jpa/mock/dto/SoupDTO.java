@@ -0,0 +1,18 @@
+package io.github.cemartin01.graphmapper.jpa.mock.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SoupDTO implements Meal {
+
+    private Long id;
+
+    private String name;
+
+    private MealTypeDTO mealType;
+
+}
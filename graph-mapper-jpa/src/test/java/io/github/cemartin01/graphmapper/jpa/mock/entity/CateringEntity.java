@@ -0,0 +1,19 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+@MappedSuperclass
+public abstract class CateringEntity {
+
+   @Id
+   @GeneratedValue
+   private Long id;
+
+}
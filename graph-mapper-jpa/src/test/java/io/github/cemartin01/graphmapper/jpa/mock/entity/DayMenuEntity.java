@@ -0,0 +1,31 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class DayMenuEntity extends CateringEntity {
+
+   private byte dayOfWeek;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private WeekMenuEntity weekMenu;
+
+   @OneToMany(mappedBy = "dayMenu")
+   @OrderBy("position")
+   private List<DayMenuItemEntity> items = new ArrayList<>();
+
+}
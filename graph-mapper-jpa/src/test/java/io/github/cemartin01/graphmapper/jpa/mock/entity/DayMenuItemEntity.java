@@ -0,0 +1,25 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class DayMenuItemEntity extends CateringEntity {
+
+   private int position;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private DayMenuEntity dayMenu;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private MealEntity meal;
+
+}
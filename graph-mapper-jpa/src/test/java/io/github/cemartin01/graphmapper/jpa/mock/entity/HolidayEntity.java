@@ -0,0 +1,22 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class HolidayEntity extends CateringEntity {
+
+   private String name;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private WeekMenuEntity weekMenu;
+
+}
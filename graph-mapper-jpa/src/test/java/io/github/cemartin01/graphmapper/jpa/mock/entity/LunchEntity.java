@@ -0,0 +1,20 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class LunchEntity extends MealEntity {
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private SideDishEntity sideDish;
+
+}
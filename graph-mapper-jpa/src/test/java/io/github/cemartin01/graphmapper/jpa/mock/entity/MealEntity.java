@@ -0,0 +1,25 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.ManyToOne;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+public abstract class MealEntity extends CateringEntity {
+
+   private String name;
+
+   @ManyToOne(fetch = FetchType.LAZY)
+   private MealTypeEntity mealType;
+
+}
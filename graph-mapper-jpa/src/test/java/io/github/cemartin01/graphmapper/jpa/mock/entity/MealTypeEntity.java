@@ -0,0 +1,17 @@
+package io.github.cemartin01.graphmapper.jpa.mock.entity;
+
+import javax.persistence.Entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+public class MealTypeEntity extends CateringEntity {
+
+   private String name;
+
+}
@@ -17,9 +17,13 @@ package io.github.cemartin01.graphmapper.mapper;
 
 import io.github.cemartin01.graphmapper.NodeLabel;
 import io.github.cemartin01.graphmapper.exception.GraphMapperInitializationException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
 import lombok.Getter;
 import org.modelmapper.Condition;
 import org.modelmapper.ModelMapper;
+import org.modelmapper.TypeMap;
 import org.modelmapper.spi.DestinationSetter;
 import org.modelmapper.spi.SourceGetter;
 
@@ -37,7 +41,29 @@ public class ModelMapperBasedGraphMapperContext extends GraphMapperContext {
    private final Condition<?, ?> skipMappingFunction = (context) -> false;
 
    public ModelMapperBasedGraphMapperContext(ModelMapper modelMapper, UnproxyFunction unproxyFunction) {
-      super(unproxyFunction);
+      this(modelMapper, unproxyFunction, null);
+   }
+
+   /**
+    * @param modelMapper model-mapper mapping unconditional fields
+    * @param unproxyFunction function unwrapping proxies of sources
+    * @param proxyClassPredicate tells whether instances of a runtime class may be proxies, null to unproxy every source
+    */
+   public ModelMapperBasedGraphMapperContext(ModelMapper modelMapper, UnproxyFunction unproxyFunction,
+                                             Predicate<Class<?>> proxyClassPredicate) {
+      super(unproxyFunction, proxyClassPredicate);
+      this.modelMapper = modelMapper;
+   }
+
+   /**
+    * @param modelMapper model-mapper mapping unconditional fields
+    * @param unproxyFunction function unwrapping proxies of sources
+    * @param learnPlainClasses whether the unproxy function is skipped for runtime classes learned to be plain,
+    *                          see {@link GraphMapperContext#GraphMapperContext(UnproxyFunction, boolean)}
+    */
+   public ModelMapperBasedGraphMapperContext(ModelMapper modelMapper, UnproxyFunction unproxyFunction,
+                                             boolean learnPlainClasses) {
+      super(unproxyFunction, learnPlainClasses);
       this.modelMapper = modelMapper;
    }
 
@@ -52,6 +78,26 @@ public class ModelMapperBasedGraphMapperContext extends GraphMapperContext {
       return modelMapper.map(source, targetClass);
    }
 
+   /**
+    * {@inheritDoc}
+    *
+    * If model-mapper has a type map for the class pair, sources of exactly the source class are mapped
+    * by the type map directly, other sources are mapped by {@link #map}.
+    */
+   @Override
+   @SuppressWarnings({"unchecked"})
+   protected Function<Object, Object> resolveMapper(Class<?> sourceClass, Class<?> targetClass) {
+      if (sourceClass != null) {
+         TypeMap<Object, Object> typeMap = (TypeMap<Object, Object>) modelMapper.getTypeMap(sourceClass, targetClass);
+         if (typeMap != null) {
+            return source -> source.getClass() == sourceClass
+                     ? typeMap.map(source)
+                     : modelMapper.map(source, targetClass);
+         }
+      }
+      return source -> modelMapper.map(source, targetClass);
+   }
+
    public class ModelMapperBinding<T, S> extends Binding<T, S> {
 
       public ModelMapperBinding(Class<T> parentTargetClass, Class<S> parentSourceClass) {
@@ -105,12 +151,14 @@ public class ModelMapperBasedGraphMapperContext extends GraphMapperContext {
       public void includeBaseBinding(Class<? super T> targetClass, Class<? super S> sourceClass) {
          modelMapper.typeMap(parentSourceClass, parentTargetClass)
                  .includeBase(sourceClass, targetClass);
+         registrationChanged();
       }
 
       private <V> void skipMapping(SourceGetter<S> getterFun, DestinationSetter<T, V> setterFun) {
          modelMapper.typeMap(parentSourceClass, parentTargetClass).addMappings(
                  m -> m.when(skipMappingFunction).map(getterFun, setterFun)
          );
+         registrationChanged();
       }
 
    }
@@ -9,6 +9,7 @@ import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeMap;
 
 import java.lang.reflect.Field;
+import java.util.function.Function;
 
 import static io.github.cemartin01.graphmapper.mapper.mock.ModelMapperTestNodeLabel.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -93,4 +94,28 @@ public class ModelMapperBasedGraphMapperContextTest {
         assertNull(dto.getMealType());
     }
 
+    @Test
+    public void mapperIsResolvedFromTypeMap() throws GraphMapperInitializationException {
+
+        ModelMapper modelMapper = new ModelMapper();
+        ModelMapperBasedGraphMapperContext ctx = new ModelMapperBasedGraphMapperContext(modelMapper, object -> object);
+
+        long version = ctx.getVersion();
+        ctx.addMapping(DayMenuItemDTO.class, DayMenuItemEntity.class)
+                .bind(MEAL_TYPE, DayMenuItemEntity::getMealType, DayMenuItemDTO::setMealType);
+        assertTrue(ctx.getVersion() > version);
+
+        Function<Object, Object> mapper = ctx.resolveMapper(DayMenuItemEntity.class, DayMenuItemDTO.class);
+
+        DayMenuItemEntity entity = new DayMenuItemEntity();
+        entity.setMealType(new MealTypeEntity());
+
+        DayMenuItemDTO dto = (DayMenuItemDTO) mapper.apply(entity);
+        assertNotNull(dto);
+        assertNull(dto.getMealType());
+
+        Function<Object, Object> unknownPairMapper = ctx.resolveMapper(MealTypeEntity.class, MealTypeDTO.class);
+        assertNotNull(unknownPairMapper.apply(new MealTypeEntity()));
+    }
+
 }